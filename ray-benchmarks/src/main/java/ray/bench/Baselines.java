@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.bench;
+
+import ray.util.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class stores benchmark baselines and compares new results with them.
+ * <p>
+ * Run the benchmarks with the GC profiler, so allocation per operation is recorded too:
+ * <pre>
+ *     mvn -f ray-benchmarks/pom.xml package
+ *     java -jar ray-benchmarks/target/benchmarks.jar -prof gc -rf json -rff results.json
+ *     java -cp ray-benchmarks/target/benchmarks.jar ray.bench.Baselines save results.json
+ *     ... change the code, run again ...
+ *     java -cp ray-benchmarks/target/benchmarks.jar ray.bench.Baselines compare results.json
+ * </pre>
+ * Compare exits 1 if any benchmark got slower, or allocates more, by more than the threshold.
+ * @author Ron.Coleman
+ */
+public class Baselines {
+    // Where save puts baselines and compare finds them by default
+    static final Path DIR = Path.of("ray-benchmarks", "baselines");
+
+    // Allocation changes smaller than this many bytes per operation are noise
+    static final double ALLOC_SLACK = 16;
+
+    /**
+     * One benchmark result.
+     * @param score Time per operation
+     * @param unit Time unit
+     * @param alloc Bytes allocated per operation or NaN if not profiled
+     */
+    record Score(double score, String unit, double alloc) { }
+
+    /**
+     * Reads JMH JSON results.
+     * @param path Results path
+     * @return Scores by benchmark and parameters
+     * @throws IOException If the file cannot be read
+     */
+    static Map<String,Score> read(Path path) throws IOException {
+        Map<String,Score> scores = new LinkedHashMap<>();
+
+        for(Object result: (List<?>) Json.parse(Files.readString(path))) {
+            StringBuilder key = new StringBuilder((String) Json.get(result, "benchmark"));
+            if(Json.get(result, "params") instanceof Map<?,?> params)
+                params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+
+            double alloc = Double.NaN;
+            if(Json.get(result, "secondaryMetrics") instanceof Map<?,?> secondary) {
+                for(Map.Entry<?,?> entry: secondary.entrySet()) {
+                    // Named ·gc.alloc.rate.norm before JMH 1.36
+                    if(entry.getKey().toString().endsWith("gc.alloc.rate.norm"))
+                        alloc = ((Number) Json.get(entry.getValue(), "score")).doubleValue();
+                }
+            }
+
+            scores.put(key.toString(), new Score(
+                    ((Number) Json.get(result, "primaryMetric", "score")).doubleValue(),
+                    (String) Json.get(result, "primaryMetric", "scoreUnit"),
+                    alloc));
+        }
+
+        return scores;
+    }
+
+    /**
+     * Compares results with a baseline.
+     * @param baseline Baseline scores
+     * @param current Current scores
+     * @param threshold Allowed slowdown or allocation growth, e.g., 0.1 for 10%
+     * @return Number of regressions
+     */
+    static int compare(Map<String,Score> baseline, Map<String,Score> current, double threshold) {
+        int regressions = 0;
+
+        System.out.printf("%-70s %12s %12s %8s %12s %12s%n", "benchmark", "baseline", "current", "change", "B/op before", "B/op now");
+
+        for(Map.Entry<String,Score> entry: current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+
+            if(before == null) {
+                System.out.printf("%-70s %12s %12.1f %8s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+
+            double change = now.score() / before.score() - 1;
+
+            boolean slower = change > threshold;
+            boolean heavier = now.alloc() > before.alloc() * (1 + threshold) + ALLOC_SLACK;
+
+            System.out.printf("%-70s %12.1f %12.1f %+7.1f%% %12.0f %12.0f%s%n",
+                    entry.getKey(), before.score(), now.score(), change * 100, before.alloc(), now.alloc(),
+                    slower || heavier ? "  REGRESSION" : "");
+
+            if(slower || heavier)
+                regressions++;
+        }
+
+        return regressions;
+    }
+
+    /**
+     * Saves or compares baselines.
+     * @param args save results [name] | compare results [baseline] [threshold]
+     */
+    public static void main(String[] args) {
+        if(args.length < 2) {
+            System.out.println("usage: ray.bench.Baselines save results.json [name]");
+            System.out.println("       ray.bench.Baselines compare results.json [baseline.json] [threshold]");
+            System.exit(0);
+        }
+
+        try {
+            Path results = Path.of(args[1]);
+
+            switch(args[0]) {
+                case "save" -> {
+                    Path baseline = DIR.resolve((args.length > 2 ? args[2] : "baseline")+".json");
+                    Files.createDirectories(DIR);
+                    Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+                    System.out.println("saved "+baseline);
+                }
+                case "compare" -> {
+                    Path baseline = args.length > 2 ? Path.of(args[2]) : DIR.resolve("baseline.json");
+                    double threshold = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+
+                    int regressions = compare(read(baseline), read(results), threshold);
+                    System.out.println(regressions+" regression(s) beyond "+Math.round(threshold * 100)+"%");
+                    System.exit(regressions == 0 ? 0 : 1);
+                }
+                default -> {
+                    System.out.println("unknown command: "+args[0]);
+                    System.exit(1);
+                }
+            }
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
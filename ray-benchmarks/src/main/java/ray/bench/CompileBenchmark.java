@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ray.compiler.RayCompiler;
+import ray.generator.ShoeOptions;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures end-to-end compiles as Ray does them: read, parse, validate, generate, write.
+ * <p>
+ * The memory case leaves out the disk; the file case reads and writes real files.
+ * @author Ron.Coleman
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompileBenchmark {
+    // Kinds the validator accepts, since a shoe is generated only for valid input
+    @Param({"single", "table"})
+    String kind;
+
+    @Param({"10000"})
+    int size;
+
+    RayCompiler compiler;
+    String text;
+    Path input;
+    Path output;
+
+    @Setup
+    public void setup() throws IOException {
+        compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeBench", null));
+        text = new Corpus(0).text(kind, size);
+
+        input = Files.createTempFile("ray-bench", ".ray");
+        output = Files.createTempFile("ray-bench", ".java");
+        Files.writeString(input, text);
+
+        if(!compiler.compile(new StringReader(text), "setup", Writer.nullWriter()).ok())
+            throw new IllegalStateException("benchmark corpus is invalid: "+kind);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public RayCompiler.Result memory() throws IOException {
+        return compiler.compile(new StringReader(text), "bench", Writer.nullWriter());
+    }
+
+    @Benchmark
+    public RayCompiler.Result file() throws IOException {
+        return compiler.compile(input, output);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.bench;
+
+import java.util.Random;
+
+/**
+ * This class generates benchmark games of a given kind, the same ones for the same seed.
+ * <p>
+ * Kinds are single, a You-Dealer game; split and double, a You directive; table, all four seats with hits;
+ * and mixed, which cycles through the others.
+ * @author Ron.Coleman
+ */
+public class Corpus {
+    static final String[] RANKS = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
+
+    static final String[] KINDS = {"single", "split", "double", "table"};
+
+    final Random ran;
+
+    /**
+     * Constructor
+     * @param seed Seed
+     */
+    public Corpus(long seed) {
+        this.ran = new Random(seed);
+    }
+
+    /**
+     * Generates games.
+     * @param kind Kind of game
+     * @param n Number of games
+     * @return Game lines
+     */
+    public String[] lines(String kind, int n) {
+        String[] lines = new String[n];
+        for(int k=0; k < n; k++)
+            lines[k] = line(kind, k);
+        return lines;
+    }
+
+    /**
+     * Generates a .ray text.
+     * @param kind Kind of game
+     * @param n Number of games
+     * @return Text, one game per line
+     */
+    public String text(String kind, int n) {
+        StringBuilder sb = new StringBuilder(n * 64);
+        for(int k=0; k < n; k++)
+            sb.append(line(kind, k)).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Generates one game.
+     * @param kind Kind of game
+     * @param k Game number, which makes the label unique
+     * @return Game line
+     */
+    public String line(String kind, int k) {
+        return switch(kind) {
+            case "single" -> "S"+k+" {5}: You "+card()+"+"+card()+" | Dealer "+card()+"+"+card()+" >> Lose{5}";
+            case "split" -> "P"+k+" {5}: You 8+8+P!{8+"+card()+",8+"+card()+"} | Dealer 10+7 >> Win{5}, Lose{5}";
+            case "double" -> "D"+k+" {5}: You 5+6+D!"+card()+" | Dealer 10+7 >> Win{10}";
+            case "table" -> "T"+k+" {5,10,15}: Huey "+hit()+" | You "+hit()+" | Dewey "+hit()+" | Dealer "
+                    +card()+"+"+card()+" >> Win{5}, Lose{10}, Push{15}";
+            case "mixed" -> line(KINDS[k % KINDS.length], k);
+            default -> throw new IllegalArgumentException("unknown kind: '"+kind+"'");
+        };
+    }
+
+    String hit() {
+        return card()+"+"+card()+"+"+card();
+    }
+
+    String card() {
+        return RANKS[ran.nextInt(RANKS.length)];
+    }
+}
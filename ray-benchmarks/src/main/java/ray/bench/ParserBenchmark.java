@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ray.compiler.Parser;
+import ray.model.Game;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures parsing one game line of each kind.
+ * @author Ron.Coleman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    // Lines cycled through, enough to defeat branch history without leaving the cache
+    static final int LINES = 4096;
+
+    @Param({"single", "split", "double", "table"})
+    String kind;
+
+    final Parser parser = new Parser();
+
+    String[] lines;
+    int next;
+
+    @Setup
+    public void setup() {
+        lines = new Corpus(0).lines(kind, LINES);
+    }
+
+    @Benchmark
+    public Game parse() {
+        return parser.parse(lines[next++ & (LINES - 1)]);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ray.compiler.Parser;
+import ray.generator.ShoeBuilderTarget;
+import ray.generator.ShoeOptions;
+import ray.model.Game;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures generating a shoe from parsed games, writing to nowhere so only generation counts.
+ * @author Ron.Coleman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoeBuilderBenchmark {
+    @Param({"single", "split", "double", "table"})
+    String kind;
+
+    @Param({"1000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean commenting;
+
+    List<Game> games;
+    ShoeOptions options;
+
+    @Setup
+    public void setup() {
+        Parser parser = new Parser();
+        games = new ArrayList<>();
+        for(String line: new Corpus(0).lines(kind, size))
+            games.add(parser.parse(line));
+
+        options = new ShoeOptions(0, commenting, "Shoe01", "ShoeBench", null);
+    }
+
+    @Benchmark
+    public void generate() {
+        new ShoeBuilderTarget(new PrintWriter(Writer.nullWriter()), options).generate(games);
+    }
+}
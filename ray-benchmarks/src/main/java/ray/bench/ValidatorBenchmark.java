@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.bench;
+
+import org.openjdk.jmh.annotations.*;
+import ray.compiler.Parser;
+import ray.compiler.Validator;
+import ray.model.Game;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures validating one parsed game of each kind.
+ * @author Ron.Coleman
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+    static final int GAMES = 4096;
+
+    @Param({"single", "split", "double", "table"})
+    String kind;
+
+    Game[] games;
+    int next;
+
+    @Setup
+    public void setup() {
+        Parser parser = new Parser();
+        games = new Game[GAMES];
+
+        String[] lines = new Corpus(0).lines(kind, GAMES);
+        for(int k=0; k < GAMES; k++)
+            games[k] = parser.parse(lines[k]);
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return Validator.validate(games[next++ & (GAMES - 1)]);
+    }
+}
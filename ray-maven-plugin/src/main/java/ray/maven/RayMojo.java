@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.maven;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import ray.compiler.RayCompiler;
+import ray.generator.ShoeOptions;
+import ray.util.Helper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * This class compiles .ray sources into shoes during generate-sources.
+ * <p>
+ * An input is compiled only if its shoe is missing or older than the input or the settings,
+ * so a build with nothing changed costs a directory walk and a few file stats. Stale inputs
+ * are compiled in parallel in the Maven JVM with one shared compiler. Each input name.ray gives
+ * the shoe Name.java, so two inputs of one name in different directories are refused rather than
+ * compiled over each other. A shoe is moved into place only once whole, so a failed compile never
+ * leaves a partial shoe which looks up to date. A shoe whose input is gone is deleted, so it does not
+ * go on being compiled into the project; the plugin lists the shoes it writes in a manifest and
+ * deletes only those, as the output directory may hold other sources.
+ * @author Ron.Coleman
+ */
+@Mojo(name = "compile", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class RayMojo extends AbstractMojo {
+    // Records the settings the shoes were generated with; its time is when they last changed
+    static final String STAMP = ".ray-settings";
+
+    // Lists the shoes the plugin wrote, the only files it deletes
+    static final String MANIFEST = ".ray-shoes";
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    MavenProject project;
+
+    /** Directory of .ray files, searched recursively */
+    @Parameter(defaultValue = "${project.basedir}/src/main/ray")
+    File sourceDirectory;
+
+    /** Directory for the generated shoes */
+    @Parameter(defaultValue = "${project.build.directory}/generated-sources/ray")
+    File outputDirectory;
+
+    /** Package of the generated shoes or none */
+    @Parameter(property = "ray.package")
+    String packageName;
+
+    /** Base class of the generated shoes */
+    @Parameter(property = "ray.base", defaultValue = "Shoe01")
+    String base;
+
+    /** Seed, fixed by default so builds are reproducible */
+    @Parameter(property = "ray.seed", defaultValue = "0")
+    long seed;
+
+    /** Decks the blank cards of a game are drawn from */
+    @Parameter(property = "ray.decks", defaultValue = "1")
+    int decks;
+
+    /** Whether to comment the generated shoes */
+    @Parameter(property = "ray.comment", defaultValue = "true")
+    boolean commenting;
+
+    /** Number of compile threads or zero for one per processor */
+    @Parameter(property = "ray.threads", defaultValue = "0")
+    int threads;
+
+    /** Whether to skip compiling */
+    @Parameter(property = "ray.skip", defaultValue = "false")
+    boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if(skip) {
+            getLog().info("Skipping ray compile");
+            return;
+        }
+
+        Path sources = sourceDirectory.toPath();
+        Path outputs = outputDirectory.toPath();
+
+        // Added even with nothing to do, since earlier shoes still need compiling
+        project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+
+        if(!Files.isDirectory(sources)) {
+            getLog().debug("No ray sources in "+sources);
+            return;
+        }
+
+        ShoeOptions options = new ShoeOptions(seed, commenting, base, null, packageName, decks);
+
+        try {
+            Path packageDir = packageName == null ? outputs : outputs.resolve(packageName.replace('.', '/'));
+            Files.createDirectories(packageDir);
+
+            FileTime settingsTime = stamp(outputs, options);
+
+            List<Path> stale = new ArrayList<>();
+            Map<Path,Path> current = new HashMap<>();
+            List<String> clashes = new ArrayList<>();
+            try(Stream<Path> paths = Files.walk(sources)) {
+                for(Path input: paths.filter(RayMojo::isRay).sorted().toList()) {
+                    Path output = outputOf(packageDir, input);
+                    Path other = current.putIfAbsent(output, input);
+                    if(other != null)
+                        clashes.add(input+": same shoe, "+output.getFileName()+", as "+other+".");
+                    else if(isStale(input, output, settingsTime))
+                        stale.add(input);
+                }
+            }
+
+            if(!clashes.isEmpty()) {
+                for(String clash: clashes)
+                    getLog().error(clash);
+                throw new MojoFailureException(clashes.size()+" ray shoe clash(es)");
+            }
+
+            prune(outputs, current.keySet());
+
+            if(stale.isEmpty()) {
+                getLog().info("Ray shoes are up to date");
+                return;
+            }
+
+            compile(stale, packageDir, new RayCompiler(options));
+        }
+        catch(IOException e) {
+            throw new MojoExecutionException("ray compile failed: "+e.getMessage(), e);
+        }
+    }
+
+    void compile(List<Path> inputs, Path packageDir, RayCompiler compiler)
+            throws MojoExecutionException, MojoFailureException {
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        getLog().info("Compiling "+inputs.size()+" ray file(s) with "+Math.min(n, inputs.size())+" thread(s)");
+
+        List<Future<RayCompiler.Result>> results = new ArrayList<>();
+        try(ExecutorService pool = Executors.newFixedThreadPool(Math.min(n, inputs.size()))) {
+            for(Path input: inputs) {
+                Path output = outputOf(packageDir, input);
+                String clazzName = Helper.toClassName(input.getFileName().toString());
+                RayCompiler fileCompiler = compiler.withOptions(compiler.options().withShoe(clazzName));
+
+                results.add(pool.submit(() -> fileCompiler.compile(input, output)));
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        for(Future<RayCompiler.Result> future: results) {
+            try {
+                RayCompiler.Result result = future.get();
+                for(String error: result.errors())
+                    errors.add(result.name()+": "+error);
+            }
+            catch(ExecutionException e) {
+                throw new MojoExecutionException("ray compile failed: "+e.getCause().getMessage(), e.getCause());
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("ray compile interrupted", e);
+            }
+        }
+
+        if(!errors.isEmpty()) {
+            for(String error: errors)
+                getLog().error(error);
+            throw new MojoFailureException(errors.size()+" ray error(s)");
+        }
+    }
+
+    /**
+     * Writes the settings stamp if the settings changed.
+     * @param outputs Output directory
+     * @param options Settings
+     * @return Time the settings last changed
+     */
+    static FileTime stamp(Path outputs, ShoeOptions options) throws IOException {
+        Path stamp = outputs.resolve(STAMP);
+        String settings = options.toString();
+
+        if(!Files.exists(stamp) || !Files.readString(stamp, StandardCharsets.UTF_8).equals(settings))
+            Files.writeString(stamp, settings, StandardCharsets.UTF_8);
+
+        return Files.getLastModifiedTime(stamp);
+    }
+
+    /**
+     * Deletes shoes no input gives any more, e.g., after a .ray file was removed or renamed, and
+     * lists the current ones in the manifest. Only shoes in the manifest are deleted.
+     * @param outputs Output directory
+     * @param current Shoes of the current inputs
+     */
+    void prune(Path outputs, Set<Path> current) throws IOException {
+        Path manifest = outputs.resolve(MANIFEST);
+
+        if(Files.exists(manifest)) {
+            for(String line: Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                Path shoe = outputs.resolve(line);
+                if(!line.isBlank() && !current.contains(shoe) && Files.deleteIfExists(shoe))
+                    getLog().info("Deleting "+shoe+", its ray source is gone");
+            }
+        }
+
+        List<String> shoes = current.stream().map(shoe -> outputs.relativize(shoe).toString()).sorted().toList();
+        Files.write(manifest, shoes, StandardCharsets.UTF_8);
+    }
+
+    static boolean isStale(Path input, Path output, FileTime settingsTime) throws IOException {
+        if(!Files.exists(output))
+            return true;
+
+        FileTime outputTime = Files.getLastModifiedTime(output);
+        return outputTime.compareTo(Files.getLastModifiedTime(input)) < 0
+                || outputTime.compareTo(settingsTime) < 0;
+    }
+
+    static Path outputOf(Path packageDir, Path input) {
+        return packageDir.resolve(Helper.toClassName(input.getFileName().toString()) + ".java");
+    }
+
+    static boolean isRay(Path path) {
+        String name = path.getFileName().toString();
+        return Files.isRegularFile(path) && (name.endsWith(".ray") || name.endsWith(".ray.gz"));
+    }
+}
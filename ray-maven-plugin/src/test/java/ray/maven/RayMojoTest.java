@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.maven;
+
+import junit.framework.TestCase;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * This class runs the plugin goal on a project in a temporary directory.
+ * @author Ron.Coleman
+ */
+public class RayMojoTest extends TestCase {
+    static final String LAB02 = "lab02 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}\n";
+    static final String SUITE = "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n";
+
+    public void testCompile() throws Exception {
+        Path dir = Files.createTempDirectory("ray-mojo");
+        Path sources = Files.createDirectories(dir.resolve("src/main/ray/labs"));
+        Path outputs = dir.resolve("target/generated-sources/ray");
+        Files.writeString(sources.resolve("lab02.ray"), LAB02);
+        Files.writeString(sources.resolve("new-suite.ray"), SUITE);
+
+        RayMojo mojo = mojo(dir);
+        mojo.execute();
+
+        Path lab02 = outputs.resolve("Lab02.java");
+        Path suite = outputs.resolve("NewSuite.java");
+        assert Files.readString(lab02).contains("class Lab02 extends Shoe01");
+        assert Files.readString(suite).contains("class NewSuite");
+        assert mojo.project.getCompileSourceRoots().contains(outputs.toFile().getAbsolutePath());
+
+        // Nothing changed, nothing compiled
+        FileTime old = FileTime.fromMillis(Files.getLastModifiedTime(lab02).toMillis() - 60_000);
+        Files.setLastModifiedTime(lab02, old);
+        Files.setLastModifiedTime(sources.resolve("lab02.ray"), FileTime.fromMillis(old.toMillis() - 60_000));
+        Files.setLastModifiedTime(outputs.resolve(RayMojo.STAMP), FileTime.fromMillis(old.toMillis() - 60_000));
+        mojo(dir).execute();
+        assert Files.getLastModifiedTime(lab02).equals(old);
+
+        // An edited input is compiled again
+        Files.writeString(sources.resolve("lab02.ray"), LAB02.replace("lab02", "lab03"));
+        mojo(dir).execute();
+        assert Files.getLastModifiedTime(lab02).compareTo(old) > 0;
+
+        // The shoe of a removed input goes with it, but not a source the plugin did not write
+        Path own = Files.writeString(outputs.resolve("Own.java"), "class Own { }\n");
+        Files.delete(sources.resolve("new-suite.ray"));
+        mojo(dir).execute();
+        assert !Files.exists(suite);
+        assert Files.exists(lab02);
+        assert Files.exists(own);
+    }
+
+    public void testClash() throws Exception {
+        Path dir = Files.createTempDirectory("ray-mojo");
+        Path sources = Files.createDirectories(dir.resolve("src/main/ray"));
+        Files.writeString(Files.createDirectories(sources.resolve("a")).resolve("x.ray"), SUITE);
+        Files.writeString(Files.createDirectories(sources.resolve("b")).resolve("x.ray"), LAB02);
+
+        // Both would be X.java, so neither is compiled
+        try {
+            mojo(dir).execute();
+            assert false : "expected a failure";
+        }
+        catch(MojoFailureException e) {
+            assert e.getMessage().equals("1 ray shoe clash(es)") : e.getMessage();
+        }
+        assert !Files.exists(dir.resolve("target/generated-sources/ray/X.java"));
+    }
+
+    public void testFailure() throws Exception {
+        Path dir = Files.createTempDirectory("ray-mojo");
+        Path sources = Files.createDirectories(dir.resolve("src/main/ray"));
+        Files.writeString(sources.resolve("bad.ray"), "T0 {5}: You 3+10 >> Lose{5}\n");
+
+        try {
+            mojo(dir).execute();
+            assert false : "expected a failure";
+        }
+        catch(MojoFailureException e) {
+            assert e.getMessage().equals("1 ray error(s)") : e.getMessage();
+        }
+
+        RayMojo mojo = mojo(dir);
+        mojo.skip = true;
+        mojo.execute();
+    }
+
+    static RayMojo mojo(Path dir) {
+        RayMojo mojo = new RayMojo();
+        mojo.project = new MavenProject();
+        mojo.sourceDirectory = dir.resolve("src/main/ray").toFile();
+        mojo.outputDirectory = dir.resolve("target/generated-sources/ray").toFile();
+        mojo.base = "Shoe01";
+        mojo.seed = 0;
+        mojo.decks = 1;
+        mojo.commenting = false;
+        mojo.threads = 2;
+        return mojo;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.util.Helper;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * This class compiles a suite of .ray files in one JVM.
+ * <p>
+ * Inputs may be files, directories searched recursively, globs such as tests/**&#47;*.ray,
+ * or @listfiles naming one input per line, as in javac. Files are compiled on a work-stealing pool,
+ * so a suite takes about as long as its files divided by the cores. Each input
+ * dir/name.ray gives output-dir/Name.java.
+ * @author Ron.Coleman
+ */
+public class Batch {
+    final RayCompiler compiler;
+    final Path outputDir;
+    final CorpusValidator corpus;
+
+    /**
+     * Batch outcome.
+     * @param files Files compiled
+     * @param failed Files with errors
+     * @param games Games compiled
+     * @param errors Errors, each prefixed with its file and line
+     * @param nanos Elapsed time
+     * @param stats Counts and phase times summed over the files
+     */
+    public record Summary(int files, int failed, long games, List<String> errors, long nanos, Stats stats) {
+        @Override
+        public String toString() {
+            return String.format("%d file(s), %d game(s), %d failed, %d error(s) in %.2fs",
+                    files, games, failed, errors.size(), nanos / 1e9);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param compiler Compiler; the shoe name is replaced per file
+     * @param outputDir Output directory or null to write next to each input
+     * @param corpus Corpus validator shared by all files or null to check labels per file
+     */
+    public Batch(RayCompiler compiler, Path outputDir, CorpusValidator corpus) {
+        this.compiler = compiler;
+        this.outputDir = outputDir;
+        this.corpus = corpus;
+    }
+
+    /**
+     * Tests if arguments call for a batch rather than the input-path [output-path] form. A second
+     * path which is a .ray file is another input, so a source is never compiled over.
+     * @param args Path arguments
+     * @return True if batch
+     */
+    public static boolean isBatch(List<String> args) {
+        if(args.size() > 2)
+            return true;
+
+        for(String arg: args) {
+            if(arg.startsWith("@") || isGlob(arg) || Files.isDirectory(Path.of(arg)))
+                return true;
+        }
+
+        return args.size() == 2 && Watcher.isRay(Path.of(args.get(1)));
+    }
+
+    /**
+     * Expands arguments into input files, each once, in argument order.
+     * @param args Files, directories, globs, or @listfiles
+     * @return Input paths
+     * @throws IOException If a directory or listfile cannot be read
+     */
+    public static List<Path> expand(List<String> args) throws IOException {
+        Set<Path> inputs = new LinkedHashSet<>();
+        for(String arg: args)
+            expand(arg, inputs);
+        return new ArrayList<>(inputs);
+    }
+
+    static void expand(String arg, Set<Path> inputs) throws IOException {
+        if(arg.startsWith("@")) {
+            Path list = Path.of(arg.substring(1));
+            for(String line: Files.readAllLines(list)) {
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                expand(line, inputs);
+            }
+            return;
+        }
+
+        if(isGlob(arg)) {
+            // Walk from the deepest directory before the first wildcard
+            Path pattern = Path.of(arg);
+            Path root = pattern.isAbsolute() ? pattern.getRoot() : Path.of("");
+            for(Path part: pattern) {
+                if(isGlob(part.toString()))
+                    break;
+                root = root.resolve(part);
+            }
+
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:"+arg);
+            try(Stream<Path> paths = Files.walk(root.toString().isEmpty() ? Path.of(".") : root)) {
+                paths.filter(Files::isRegularFile)
+                        .map(path -> path.startsWith(".") && !arg.startsWith(".") ? Path.of(".").relativize(path) : path)
+                        .filter(matcher::matches)
+                        .sorted()
+                        .forEach(inputs::add);
+            }
+            return;
+        }
+
+        Path path = Path.of(arg);
+        if(Files.isDirectory(path)) {
+            try(Stream<Path> paths = Files.walk(path)) {
+                paths.filter(p -> Files.isRegularFile(p) && Watcher.isRay(p))
+                        .sorted()
+                        .forEach(inputs::add);
+            }
+            return;
+        }
+
+        inputs.add(path);
+    }
+
+    static boolean isGlob(String arg) {
+        return arg.indexOf('*') >= 0 || arg.indexOf('?') >= 0 || arg.indexOf('[') >= 0 || arg.indexOf('{') >= 0;
+    }
+
+    /**
+     * Gets the output of an input.
+     * @param input Input path
+     * @return Output path
+     */
+    Path outputOf(Path input) {
+        String name = Helper.toClassName(input.getFileName().toString()) + ".java";
+        Path dir = outputDir != null ? outputDir : input.toAbsolutePath().getParent();
+        return dir.resolve(name);
+    }
+
+    /**
+     * Finds inputs whose shoes would overwrite another input's.
+     * @param inputs Input paths
+     * @return Errors naming both inputs, one per later input
+     */
+    List<String> clashes(List<Path> inputs) {
+        Map<Path,Path> writers = new HashMap<>();
+        List<String> clashes = new ArrayList<>();
+
+        for(Path input: inputs) {
+            Path output = outputOf(input).toAbsolutePath().normalize();
+            Path other = writers.putIfAbsent(output, input);
+            if(other != null)
+                clashes.add(input+": same shoe, "+output.getFileName()+", as "+other+".");
+        }
+
+        return clashes;
+    }
+
+    RayCompiler.Result compile(RayCompiler fileCompiler, Path input, Path output, int shard) {
+        Events.Shard event = new Events.Shard();
+        event.begin();
+
+        RayCompiler.Result result = compile(fileCompiler, input, output);
+
+        if(event.shouldCommit()) {
+            event.kind = "file";
+            event.input = input.toString();
+            event.shard = shard;
+            event.lines = result.stats().lines;
+            event.games = result.games();
+            event.bytes = result.stats().bytes;
+            event.cards = result.stats().cards;
+            event.errors = result.errors().size();
+            event.attempts = 1;
+            event.commit();
+        }
+
+        return result;
+    }
+
+    RayCompiler.Result compile(RayCompiler fileCompiler, Path input, Path output) {
+        try {
+            return corpus == null ?
+                    fileCompiler.compile(input, output) : fileCompiler.compile(input, output, corpus);
+        }
+        catch(NoSuchFileException _) {
+            return new RayCompiler.Result(input.toString(), 0, List.of("no such file."));
+        }
+        catch(IOException e) {
+            return new RayCompiler.Result(input.toString(), 0, List.of(String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Compiles inputs in parallel. Nothing is compiled if two inputs would write the same shoe,
+     * e.g., a/basic.ray and b/basic.ray into one output directory, or x.ray next to x.ray.gz.
+     * @param inputs Input paths
+     * @return Summary
+     * @throws IOException If the output directory cannot be made
+     */
+    public Summary compile(List<Path> inputs) throws IOException {
+        long started = System.nanoTime();
+
+        List<String> clashes = clashes(inputs);
+        if(!clashes.isEmpty())
+            return new Summary(inputs.size(), clashes.size(), 0, clashes, System.nanoTime() - started, new Stats());
+
+        if(outputDir != null)
+            Files.createDirectories(outputDir);
+
+        List<Future<RayCompiler.Result>> futures = new ArrayList<>(inputs.size());
+        try(ExecutorService pool = Executors.newWorkStealingPool()) {
+            for(int k=0; k < inputs.size(); k++) {
+                Path input = inputs.get(k);
+                int shard = k;
+                Path output = outputOf(input);
+                String clazzName = output.getFileName().toString().replace(".java", "");
+                RayCompiler fileCompiler = compiler.withOptions(compiler.options().withShoe(clazzName));
+
+                futures.add(pool.submit(() -> compile(fileCompiler, input, output, shard)));
+            }
+        }
+
+        int failed = 0;
+        long games = 0;
+        List<String> errors = new ArrayList<>();
+        Stats stats = new Stats();
+
+        for(int k=0; k < futures.size(); k++) {
+            try {
+                RayCompiler.Result result = futures.get(k).get();
+                games += result.games();
+                stats.add(result.stats());
+                if(!result.ok()) {
+                    failed++;
+                    for(String error: result.errors())
+                        errors.add(result.name()+": "+error);
+                }
+            }
+            catch(ExecutionException e) {
+                failed++;
+                errors.add(inputs.get(k)+": "+e.getCause().getMessage());
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("batch interrupted");
+            }
+        }
+
+        return new Summary(inputs.size(), failed, games, errors, System.nanoTime() - started, stats);
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class reads .ray input as raw bytes in large blocks, scans each block for
+ * structural characters, and steps from line to line using the newline bitmap.
+ * The structural bitmap stays available so the lines can be indexed without
+ * looking at each byte again.
+ * @author Ron.Coleman
+ */
+public class BlockReader implements Closeable {
+    final InputStream in;
+    final StructuralScanner scanner = StructuralScanner.get();
+
+    byte[] buf;
+    long[] structurals;
+    long[] newlines;
+
+    // Bytes in buf which have been read and scanned
+    int limit = 0;
+
+    // Start of the unread part of buf
+    int pos = 0;
+
+    // Byte offset in the input of buf[0]
+    long base = 0;
+
+    boolean eof = false;
+
+    // Current line
+    int start;
+    int end;
+    int lineno = 0;
+
+    /**
+     * Constructor
+     * @param in Input
+     */
+    public BlockReader(InputStream in) {
+        this(in, 1 << 20);
+    }
+
+    /**
+     * Constructor
+     * @param in Input
+     * @param blockSize Block size in bytes
+     */
+    public BlockReader(InputStream in, int blockSize) {
+        this.in = in;
+        this.buf = new byte[blockSize];
+        this.structurals = new long[StructuralScanner.words(blockSize)];
+        this.newlines = new long[StructuralScanner.words(blockSize)];
+    }
+
+    /**
+     * Advances to the next line.
+     * @return True if there is a line, false at end of input
+     * @throws IOException If the input cannot be read
+     */
+    public boolean next() throws IOException {
+        while(true) {
+            int nl = nextNewline(pos);
+            if(nl >= 0) {
+                start = pos;
+                end = nl;
+                pos = nl + 1;
+                lineno++;
+                return true;
+            }
+
+            if(eof) {
+                if(pos >= limit)
+                    return false;
+
+                start = pos;
+                end = limit;
+                pos = limit;
+                lineno++;
+                return true;
+            }
+
+            fill();
+        }
+    }
+
+    /**
+     * Finds the next newline in the scanned bytes.
+     * @param from Starting byte
+     * @return Offset of the newline or -1 if there is none before limit
+     */
+    int nextNewline(int from) {
+        if(from >= limit)
+            return -1;
+
+        int word = from >>> 6;
+        long bits = newlines[word] & (-1L << (from & 63));
+        int words = StructuralScanner.words(limit);
+
+        while(bits == 0) {
+            if(++word >= words)
+                return -1;
+            bits = newlines[word];
+        }
+
+        int nl = (word << 6) + Long.numberOfTrailingZeros(bits);
+        return nl < limit ? nl : -1;
+    }
+
+    /**
+     * Moves the partial line to the front, reads another block, and rescans.
+     */
+    void fill() throws IOException {
+        int rest = limit - pos;
+        System.arraycopy(buf, pos, buf, 0, rest);
+        base += pos;
+        pos = 0;
+        limit = rest;
+
+        // A line longer than the block
+        if(limit == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+            structurals = new long[StructuralScanner.words(buf.length)];
+            newlines = new long[StructuralScanner.words(buf.length)];
+        }
+
+        while(limit < buf.length) {
+            int n = in.read(buf, limit, buf.length - limit);
+            if(n < 0) {
+                eof = true;
+                break;
+            }
+            limit += n;
+        }
+
+        scanner.scan(buf, limit, structurals, newlines);
+    }
+
+    /**
+     * Gets the current line number, starting from 1.
+     * @return Line number
+     */
+    public int lineno() {
+        return lineno;
+    }
+
+    /**
+     * Gets the byte offset of the current line in the input.
+     * @return Offset
+     */
+    public long offset() {
+        return base + start;
+    }
+
+    /**
+     * Tests if the current line is blank or a comment without decoding it.
+     * @return True if the line holds no game
+     */
+    public boolean skippable() {
+        int k = start;
+        while(k < end && (buf[k] & 0xFF) <= ' ')
+            k++;
+        return k == end || buf[k] == '#';
+    }
+
+    /**
+     * Tests if the current line declares a template parameter or is a template, see Expander,
+     * without decoding it.
+     * @return True if the line starts with % or has a $
+     */
+    public boolean expandable() {
+        int k = start;
+        while(k < end && (buf[k] & 0xFF) <= ' ')
+            k++;
+        if(k < end && buf[k] == '%')
+            return true;
+
+        for(; k < end; k++)
+            if(buf[k] == '$')
+                return true;
+        return false;
+    }
+
+    /**
+     * Decodes the current line.
+     * @return Line text, untrimmed
+     */
+    public String line() {
+        return new String(buf, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indexes the current line using the structural bitmap.
+     * @param parser Parser
+     * @return Index of the line
+     */
+    public LineIndex index(Parser parser) {
+        int s = start;
+        int e = end;
+        while(s < e && (buf[s] & 0xFF) <= ' ')
+            s++;
+        while(e > s && (buf[e-1] & 0xFF) <= ' ')
+            e--;
+
+        for(int k=s; k < e; k++)
+            if(buf[k] < 0)
+                return parser.index(line());
+
+        return new LineIndex(parser, new String(buf, s, e - s, StandardCharsets.ISO_8859_1), structurals, s);
+    }
+
+    /**
+     * Parses the current line straight from its bytes if it is in the usual form, see Parser.tryParse.
+     * @param parser Parser
+     * @return Game or null if the line needs parsing as text
+     */
+    public Game parse(Parser parser) {
+        return parser.tryParse(buf, start, end, structurals);
+    }
+
+    /**
+     * Gets the bytes of input read through the current line, including its newline.
+     * @return Bytes
+     */
+    public long position() {
+        return base + pos;
+    }
+
+    /**
+     * Gets the scanner in use.
+     * @return Scanner
+     */
+    public StructuralScanner scanner() {
+        return scanner;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
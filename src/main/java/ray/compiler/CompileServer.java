@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ray.generator.ShoeOptions;
+import ray.util.Histogram;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a local compile server, so test runners can compile many scenarios without
+ * starting a JVM for each one.
+ * <p>
+ * POST /compile with .ray text as the body returns the shoe source. Generator settings come from
+ * query parameters instead of system properties: seed, comment, base, shoe, and package. Invalid
+ * input returns 422 with one error per line. GET /metrics returns request counts, throughput,
+ * and latency percentiles.
+ * <p>
+ * Each request runs on its own virtual thread with its own generator, so requests share no state
+ * except the metrics, which are lock-free.
+ * @author Ron.Coleman
+ */
+public class CompileServer {
+    final HttpServer server;
+    final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    final Histogram latency = new Histogram();
+    final LongAdder requests = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder games = new LongAdder();
+    final long started = System.nanoTime();
+
+    /**
+     * Constructor
+     * @param port Port on the loopback address, or 0 for any free port
+     * @throws IOException If the port cannot be bound
+     */
+    public CompileServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/compile", this::compile);
+        server.createContext("/metrics", this::metrics);
+    }
+
+    /**
+     * Starts serving.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops serving.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Gets the port.
+     * @return Port
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    void compile(HttpExchange exchange) throws IOException {
+        long begin = System.nanoTime();
+        requests.increment();
+
+        try(exchange) {
+            if(!exchange.getRequestMethod().equals("POST")) {
+                failures.increment();
+                reply(exchange, 405, "text/plain", "POST .ray text to /compile\n");
+                return;
+            }
+
+            ShoeOptions options;
+            try {
+                options = options(exchange.getRequestURI().getRawQuery());
+            }
+            catch(IllegalArgumentException e) {
+                failures.increment();
+                reply(exchange, 400, "text/plain", e.getMessage()+"\n");
+                return;
+            }
+
+            String source = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            StringWriter shoe = new StringWriter();
+            RayCompiler.Result result;
+            try {
+                result = new RayCompiler(options).compile(new StringReader(source), "request", shoe);
+            }
+            catch(RuntimeException e) {
+                // Reply rather than let the exchange drop without a response
+                failures.increment();
+                reply(exchange, 500, "text/plain", "compile failed: "+e+"\n");
+                return;
+            }
+
+            if(!result.ok()) {
+                failures.increment();
+                reply(exchange, 422, "text/plain", String.join("\n", result.errors())+"\n");
+                return;
+            }
+
+            games.add(result.games());
+            reply(exchange, 200, "text/x-java-source", shoe.toString());
+        }
+        finally {
+            latency.record(System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * Gets generator settings from query parameters; unset ones default as on the command line.
+     * @param query Raw query or null
+     * @return Settings
+     */
+    static ShoeOptions options(String query) {
+        ShoeOptions options = new ShoeOptions(System.currentTimeMillis(), true, "Shoe01", "ShoeXyz", null);
+        if(query == null)
+            return options;
+
+        for(String param: query.split("&")) {
+            int eq = param.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? param : param.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(param.substring(eq + 1), StandardCharsets.UTF_8);
+
+            options = switch(key) {
+                case "seed" -> {
+                    try {
+                        yield options.withSeed(Long.parseLong(value));
+                    }
+                    catch(NumberFormatException _) {
+                        throw new IllegalArgumentException("invalid seed: '"+value+"'");
+                    }
+                }
+                case "comment" -> options.withCommenting(Boolean.parseBoolean(value));
+                case "base" -> options.withBase(value);
+                case "shoe" -> options.withShoe(value);
+                case "package" -> options.withPackage(value.isEmpty() ? null : value);
+                default -> throw new IllegalArgumentException("unknown parameter: '"+key+"'");
+            };
+        }
+
+        return options;
+    }
+
+    void metrics(HttpExchange exchange) throws IOException {
+        try(exchange) {
+            reply(exchange, 200, "text/plain", metrics());
+        }
+    }
+
+    /**
+     * Gets the metrics.
+     * @return Metrics, one per line
+     */
+    public String metrics() {
+        double secs = (System.nanoTime() - started) / 1e9;
+        long n = requests.sum();
+
+        return String.format(
+                "requests %d%nfailures %d%ngames %d%nuptime %.1fs%nthroughput %.1f requests/s%nlatency %s%n",
+                n, failures.sum(), games.sum(), secs, secs > 0 ? n / secs : 0, latency);
+    }
+
+    static void reply(HttpExchange exchange, int status, String type, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type+"; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Serves compiles until the JVM exits.
+     * @param args Port
+     */
+    public static void main(String[] args) {
+        int port = args.length < 1 ? 7070 : Integer.parseInt(args[0]);
+
+        try {
+            CompileServer server = new CompileServer(port);
+            server.start();
+            System.err.println("ray compile server on http://localhost:"+server.port()+"/compile");
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.generator.ShoeBuilderTarget;
+import ray.generator.ShoeOptions;
+import ray.util.Streams;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * This class compiles one large input across worker JVMs, so no single heap holds the corpus.
+ * <p>
+ * The input is cut into line-aligned byte ranges, one per worker. Each Worker process compiles
+ * its range into a fragment of shoe code. A worker that crashes or exits abnormally is restarted
+ * on the same range, up to a retry limit. Once all succeed, the coordinator checks labels across
+ * partitions in input order, then writes the prolog, the fragments in order, and the epilogue.
+ * <p>
+ * Each partition draws random suits from its own seed, the shoe seed plus the partition number,
+ * so the output depends on the number of workers but not on timing or retries.
+ * @author Ron.Coleman
+ */
+public class Coordinator {
+    final ShoeOptions options;
+    final int workers;
+    final int retries;
+
+    /**
+     * One line-aligned byte range of the input with its worker's results.
+     */
+    static class Partition {
+        final int number;
+        final long start;
+        final long end;
+
+        Path fragment;
+        Path labels;
+        int lines;
+        int games;
+        long cards;
+        int attempts;
+        final List<Problem> errors = new ArrayList<>();
+        String failure;
+
+        Partition(int number, long start, long end) {
+            this.number = number;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Error at a line numbered from the start of its partition.
+     * @param lineno Line number
+     * @param message Message
+     */
+    record Problem(int lineno, String message) { }
+
+    /**
+     * Constructor
+     * @param options Generator settings
+     * @param workers Number of worker processes
+     * @param retries Times to restart a failed partition
+     */
+    public Coordinator(ShoeOptions options, int workers, int retries) {
+        this.options = options;
+        this.workers = Math.max(1, workers);
+        this.retries = retries;
+    }
+
+    /**
+     * Compiles an input into a shoe file. The shoe is written only if there are no errors.
+     * @param input Input path
+     * @param output Output path
+     * @return Errors, each prefixed with a line number
+     * @throws IOException If a file cannot be read or written or a partition keeps failing
+     */
+    public List<String> compile(Path input, Path output) throws IOException {
+        // A gzip stream cannot be entered in the middle, so it cannot be cut into ranges
+        if(Streams.isCompressed(input))
+            throw new IOException("cannot partition compressed input "+input+".");
+
+        List<Partition> partitions = partition(input, workers);
+
+        Path work = Files.createTempDirectory("ray-coordinator");
+        try {
+            try(ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for(Partition partition: partitions) {
+                    partition.fragment = work.resolve("part"+partition.number+".frag");
+                    partition.labels = work.resolve("part"+partition.number+".labels");
+                    pool.submit(() -> run(input, partition));
+                }
+            }
+
+            for(Partition partition: partitions) {
+                if(partition.failure != null)
+                    throw new IOException("partition "+partition.number+" failed after "
+                            +partition.attempts+" attempt(s): "+partition.failure);
+            }
+
+            List<String> errors = check(input, partitions);
+            if(errors.isEmpty())
+                assemble(partitions, output);
+
+            return errors;
+        }
+        finally {
+            try(Stream<Path> paths = Files.walk(work)) {
+                for(Path path: paths.sorted(Comparator.reverseOrder()).toList())
+                    Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Cuts an input into line-aligned byte ranges.
+     * @param input Input path
+     * @param n Number of ranges wanted
+     * @return Nonempty ranges in order
+     */
+    static List<Partition> partition(Path input, int n) throws IOException {
+        List<Partition> partitions = new ArrayList<>();
+
+        try(FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+
+            for(int k=1; k <= n && start < size; k++) {
+                long end = k == n ? size : nextLine(channel, Math.max(start, size * k / n));
+                if(end > start)
+                    partitions.add(new Partition(partitions.size(), start, end));
+                start = end;
+            }
+        }
+
+        return partitions;
+    }
+
+    /**
+     * Finds the start of the line after an offset.
+     * @param channel Input
+     * @param offset Offset
+     * @return Offset after the next newline or the end of the input
+     */
+    static long nextLine(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = offset;
+
+        while(true) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if(n <= 0)
+                return channel.size();
+
+            for(int k=0; k < n; k++) {
+                if(buffer.get(k) == '\n')
+                    return position + k + 1;
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * Runs a partition's worker, restarting it if it fails.
+     * @param input Input path
+     * @param partition Partition
+     */
+    void run(Path input, Partition partition) {
+        Events.Shard event = new Events.Shard();
+        event.begin();
+
+        try {
+            attempt(input, partition);
+        }
+        finally {
+            if(event.shouldCommit()) {
+                event.kind = "partition";
+                event.input = input.toString();
+                event.shard = partition.number;
+                event.lines = partition.lines;
+                event.games = partition.games;
+                event.bytes = partition.end - partition.start;
+                event.cards = partition.cards;
+                event.errors = partition.errors.size();
+                event.attempts = partition.attempts;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Launches a partition's worker until it succeeds or runs out of retries.
+     * @param input Input path
+     * @param partition Partition
+     */
+    void attempt(Path input, Partition partition) {
+        while(partition.attempts <= retries) {
+            partition.attempts++;
+            partition.errors.clear();
+
+            try {
+                partition.failure = launch(input, partition);
+            }
+            catch(IOException e) {
+                partition.failure = e.getMessage();
+            }
+            catch(InterruptedException _) {
+                partition.failure = "interrupted";
+                return;
+            }
+
+            if(partition.failure == null)
+                return;
+        }
+    }
+
+    /**
+     * Launches one worker on a partition and waits for it.
+     * @return Null on success, otherwise why it failed
+     */
+    String launch(Path input, Partition partition) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+
+        // Same flags as this JVM, e.g., --enable-preview and heap settings, but not a debugger
+        for(String arg: ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if(!arg.startsWith("-agentlib") && !arg.startsWith("-javaagent"))
+                command.add(arg);
+        }
+
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), Worker.class.getName(),
+                input.toString(), ""+partition.start, ""+partition.end,
+                partition.fragment.toString(), partition.labels.toString(),
+                ""+(options.seed() + partition.number), ""+options.commenting(), ""+options.decks()));
+
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        boolean done = false;
+        try(BufferedReader br = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = br.readLine()) != null) {
+                if(line.startsWith("E ")) {
+                    int space = line.indexOf(' ', 2);
+                    partition.errors.add(new Problem(Integer.parseInt(line.substring(2, space)), line.substring(space + 1)));
+                }
+                else if(line.startsWith("D ")) {
+                    String[] fields = line.split(" ");
+                    partition.lines = Integer.parseInt(fields[1]);
+                    partition.games = Integer.parseInt(fields[2]);
+                    partition.cards = Long.parseLong(fields[3]);
+                    done = true;
+                }
+            }
+        }
+
+        int rc = process.waitFor();
+        if(rc != 0)
+            return "worker exit code "+rc;
+
+        return done ? null : "worker ended without finishing";
+    }
+
+    /**
+     * Renumbers partition errors and checks labels across partitions, in input order.
+     * @return Errors, each prefixed with a line number
+     */
+    static List<String> check(Path input, List<Partition> partitions) throws IOException {
+        List<String> errors = new ArrayList<>();
+
+        CorpusValidator corpus = new CorpusValidator(partitions.stream().mapToLong(p -> p.lines).sum());
+        int fileno = corpus.file(input.toString());
+
+        int base = 0;
+        for(Partition partition: partitions) {
+            List<Problem> partitionErrors = new ArrayList<>(partition.errors);
+
+            try(BufferedReader br = Files.newBufferedReader(partition.labels)) {
+                String line;
+                while((line = br.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    int lineno = Integer.parseInt(line.substring(0, tab));
+
+                    String duplicate = corpus.check(line.substring(tab + 1), fileno, base + lineno);
+                    if(duplicate != null)
+                        partitionErrors.add(new Problem(lineno, duplicate));
+                }
+            }
+
+            // Keep errors in line order within the partition
+            partitionErrors.sort(Comparator.comparingInt(Problem::lineno));
+            for(Problem error: partitionErrors)
+                errors.add("line "+(base + error.lineno())+": "+error.message());
+
+            base += partition.lines;
+        }
+
+        return errors;
+    }
+
+    /**
+     * Writes the shoe: prolog, fragments in order, epilogue, moved into place once whole.
+     */
+    void assemble(List<Partition> partitions, Path output) throws IOException {
+        Streams.replace(output, temp -> {
+            try(OutputStream out = Streams.create(temp)) {
+                PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                ShoeBuilderTarget builder = new ShoeBuilderTarget(writer, options);
+
+                builder.begin();
+                writer.flush();
+
+                for(Partition partition: partitions)
+                    Files.copy(partition.fragment, out);
+
+                builder.end();
+            }
+            return true;
+        });
+    }
+}
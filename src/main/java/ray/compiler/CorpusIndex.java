@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Outcome;
+import ray.type.Player;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * This class is a persistent index of a .ray corpus.
+ * <p>
+ * For each game it keeps the label, the byte offset and line number of the game line, and a summary:
+ * seats present, directive types, outcome kinds, and the bet total. The summaries are bit masks in
+ * primitive arrays, so selecting games is a scan of a few bytes per game, after which only the matching
+ * lines are read from the corpus.
+ * <p>
+ * The index is saved next to the corpus, e.g., suite.ray.rayx, and rebuilt when the corpus changes.
+ * A corpus with templates, see Expander, cannot be indexed.
+ * @author Ron.Coleman
+ */
+public class CorpusIndex {
+    static final int MAGIC = 0x52415958; // RAYX
+    static final int VERSION = 1;
+
+    // Index file suffix
+    public static final String SUFFIX = ".rayx";
+
+    // Outcome kinds in mask bit order
+    static final List<String> OUTCOMES = List.of("WIN", "LOSE", "PUSH", "BUST", "BREAK", "BLACKJACK", "CHARLIE");
+
+    // Directive types in mask bit order
+    static final String DIRECTIVES = "PDH";
+
+    final Path corpus;
+
+    int size = 0;
+    String[] labels = new String[1024];
+    long[] offsets = new long[1024];
+    int[] linenos = new int[1024];
+    byte[] seats = new byte[1024];
+    byte[] directives = new byte[1024];
+    byte[] outcomes = new byte[1024];
+    int[] betTotals = new int[1024];
+
+    // First entry per label and, per entry, the next one with its label or -1
+    Map<String,Integer> byLabel;
+    int[] sameLabel;
+
+    CorpusIndex(Path corpus) {
+        this.corpus = corpus;
+    }
+
+    /**
+     * Opens the index of a corpus, building and saving it if it is missing or stale.
+     * @param corpus Corpus path
+     * @return Index
+     * @throws IOException If the corpus or index cannot be read or written
+     */
+    public static CorpusIndex open(Path corpus) throws IOException {
+        Path path = indexPath(corpus);
+
+        Events.Index event = new Events.Index();
+        event.begin();
+
+        CorpusIndex index = Files.exists(path) ? load(corpus, path) : null;
+        event.hit = index != null;
+
+        if(index == null) {
+            index = build(corpus);
+            index.save(path);
+        }
+
+        if(event.shouldCommit()) {
+            event.corpus = corpus.toString();
+            event.entries = index.size;
+            event.commit();
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the index path of a corpus.
+     * @param corpus Corpus path
+     * @return Index path
+     */
+    public static Path indexPath(Path corpus) {
+        return corpus.resolveSibling(corpus.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Builds the index with one pass over the corpus, stepping through the structural bitmaps.
+     * @param corpus Corpus path
+     * @return Index
+     * @throws IOException If the corpus cannot be read
+     */
+    public static CorpusIndex build(Path corpus) throws IOException {
+        CorpusIndex index = new CorpusIndex(corpus);
+        Parser parser = new Parser();
+
+        try(BlockReader reader = new BlockReader(Files.newInputStream(corpus))) {
+            while(reader.next()) {
+                if(!reader.skippable())
+                    index.add(parser, reader);
+            }
+        }
+
+        return index;
+    }
+
+    void add(Parser parser, BlockReader reader) {
+        int lineno = reader.lineno();
+
+        // A template's games are not lines of the corpus, so there is no offset to read them back from
+        if(reader.expandable())
+            throw new IllegalArgumentException("line "+lineno+": "+Expander.UNSUPPORTED);
+
+        LineIndex game;
+        try {
+            game = reader.index(parser);
+            game.label();
+        }
+        catch(IllegalArgumentException e) {
+            throw new IllegalArgumentException("line "+lineno+": "+e.getMessage());
+        }
+
+        if(size == labels.length)
+            grow();
+
+        labels[size] = game.label();
+        offsets[size] = reader.offset();
+        linenos[size] = lineno;
+
+        byte seatMask = 0;
+        for(int seat=0; seat < game.seats(); seat++)
+            seatMask |= (byte) (1 << game.who(seat).ordinal());
+        seats[size] = seatMask;
+
+        byte directiveMask = 0;
+        for(int k=0; k < game.directives(); k++) {
+            int bit = DIRECTIVES.indexOf(game.directiveType(k));
+            if(bit >= 0)
+                directiveMask |= (byte) (1 << bit);
+        }
+        directives[size] = directiveMask;
+
+        byte outcomeMask = 0;
+        try {
+            for(Outcome outcome: game.outcomes()) {
+                int bit = OUTCOMES.indexOf(outcome.result);
+                if(bit >= 0)
+                    outcomeMask |= (byte) (1 << bit);
+            }
+            betTotals[size] = game.betTotal();
+        }
+        catch(IllegalArgumentException _) {
+            // Left for the compile to report
+        }
+        outcomes[size] = outcomeMask;
+
+        size++;
+    }
+
+    void grow() {
+        int capacity = labels.length * 2;
+        labels = Arrays.copyOf(labels, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        linenos = Arrays.copyOf(linenos, capacity);
+        seats = Arrays.copyOf(seats, capacity);
+        directives = Arrays.copyOf(directives, capacity);
+        outcomes = Arrays.copyOf(outcomes, capacity);
+        betTotals = Arrays.copyOf(betTotals, capacity);
+    }
+
+    /**
+     * Saves the index.
+     * @param path Index path
+     * @throws IOException If the index cannot be written
+     */
+    public void save(Path path) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(corpus));
+            out.writeLong(Files.getLastModifiedTime(corpus).toMillis());
+            out.writeInt(size);
+
+            for(int k=0; k < size; k++) {
+                out.writeUTF(labels[k]);
+                out.writeLong(offsets[k]);
+                out.writeInt(linenos[k]);
+                out.writeByte(seats[k]);
+                out.writeByte(directives[k]);
+                out.writeByte(outcomes[k]);
+                out.writeInt(betTotals[k]);
+            }
+        }
+    }
+
+    /**
+     * Loads an index unless it is stale.
+     * @return Index or null if it doesn't match the corpus
+     */
+    static CorpusIndex load(Path corpus, Path path) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+
+            if(in.readLong() != Files.size(corpus) || in.readLong() != Files.getLastModifiedTime(corpus).toMillis())
+                return null;
+
+            CorpusIndex index = new CorpusIndex(corpus);
+            int size = in.readInt();
+
+            while(index.labels.length < size)
+                index.grow();
+
+            for(int k=0; k < size; k++) {
+                index.labels[k] = in.readUTF();
+                index.offsets[k] = in.readLong();
+                index.linenos[k] = in.readInt();
+                index.seats[k] = in.readByte();
+                index.directives[k] = in.readByte();
+                index.outcomes[k] = in.readByte();
+                index.betTotals[k] = in.readInt();
+            }
+
+            index.size = size;
+            return index;
+        }
+    }
+
+    /**
+     * Gets the number of indexed games.
+     * @return Count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up a game by label.
+     * @param label Label
+     * @return First entry number with the label or -1 if there is no such label
+     */
+    public int find(String label) {
+        if(byLabel == null) {
+            byLabel = new HashMap<>(size * 2);
+            sameLabel = new int[size];
+            for(int k=size-1; k >= 0; k--) {
+                Integer next = byLabel.put(labels[k], k);
+                sameLabel[k] = next == null ? -1 : next;
+            }
+        }
+
+        return byLabel.getOrDefault(label, -1);
+    }
+
+    /**
+     * Gets the label of an entry.
+     * @param entry Entry number
+     * @return Label
+     */
+    public String label(int entry) {
+        return labels[entry];
+    }
+
+    /**
+     * Gets the line number of an entry.
+     * @param entry Entry number
+     * @return Line number in the corpus
+     */
+    public int lineno(int entry) {
+        return linenos[entry];
+    }
+
+    /**
+     * Gets the bet total of an entry.
+     * @param entry Entry number
+     * @return Sum of the bets
+     */
+    public int betTotal(int entry) {
+        return betTotals[entry];
+    }
+
+    /**
+     * Selects entries matching a query. A query is one or more terms joined by '&amp;' which must all hold;
+     * each term is key=value with alternative values joined by '|', for example:
+     * <pre>
+     *     label=T1|T7
+     *     seat=Huey&amp;directive=P|D
+     *     outcome=Blackjack&amp;bets=10
+     * </pre>
+     * Keys are label, seat, directive, outcome, and bets, the bet total. A key may be in more than one
+     * term, and then each term must hold, so seat=Huey&amp;seat=You is games with both.
+     * @param query Query
+     * @return Matching entry numbers in corpus order
+     */
+    public int[] select(String query) {
+        // One set or mask per term, so a key repeated in another term must hold too
+        String[] terms = query.split("&");
+        List<Set<String>> labelTerms = new ArrayList<>();
+        List<Set<Integer>> betTerms = new ArrayList<>();
+        int[] seatMasks = new int[terms.length];
+        int[] directiveMasks = new int[terms.length];
+        int[] outcomeMasks = new int[terms.length];
+        int seatTerms = 0;
+        int directiveTerms = 0;
+        int outcomeTerms = 0;
+
+        for(String term: terms) {
+            int eq = term.indexOf('=');
+            if(eq < 0)
+                throw new IllegalArgumentException("invalid query term: '"+term+"'");
+
+            String key = term.substring(0, eq).trim().toLowerCase();
+            String[] values = term.substring(eq + 1).trim().split("\\|");
+
+            Set<String> wanted = new HashSet<>();
+            Set<Integer> bets = new HashSet<>();
+            int mask = 0;
+
+            for(String value: values) {
+                value = value.trim();
+                switch(key) {
+                    case "label" -> wanted.add(value);
+                    case "seat" -> mask |= 1 << player(value).ordinal();
+                    case "directive" -> {
+                        int bit = DIRECTIVES.indexOf(Character.toUpperCase(value.charAt(0)));
+                        if(bit < 0)
+                            throw new IllegalArgumentException("invalid directive: '"+value+"'");
+                        mask |= 1 << bit;
+                    }
+                    case "outcome" -> {
+                        int bit = OUTCOMES.indexOf(value.toUpperCase());
+                        if(bit < 0)
+                            throw new IllegalArgumentException("invalid outcome: '"+value+"'");
+                        mask |= 1 << bit;
+                    }
+                    case "bets" -> bets.add(Integer.parseInt(value));
+                    default -> throw new IllegalArgumentException("invalid query key: '"+key+"'");
+                }
+            }
+
+            switch(key) {
+                case "label" -> labelTerms.add(wanted);
+                case "bets" -> betTerms.add(bets);
+                case "seat" -> seatMasks[seatTerms++] = mask;
+                case "directive" -> directiveMasks[directiveTerms++] = mask;
+                case "outcome" -> outcomeMasks[outcomeTerms++] = mask;
+            }
+        }
+
+        int[] matches = new int[16];
+        int count = 0;
+
+        if(labelTerms.size() == 1 && seatTerms == 0 && directiveTerms == 0 && outcomeTerms == 0 && betTerms.isEmpty()) {
+            // Labels only: hash lookups rather than a scan, following each label to its other entries
+            for(String label: labelTerms.getFirst()) {
+                for(int entry = find(label); entry >= 0; entry = sameLabel[entry]) {
+                    if(count == matches.length)
+                        matches = Arrays.copyOf(matches, count * 2);
+                    matches[count++] = entry;
+                }
+            }
+            matches = Arrays.copyOf(matches, count);
+            Arrays.sort(matches);
+            return matches;
+        }
+
+        for(int k=0; k < size; k++) {
+            if(!all(seats[k], seatMasks, seatTerms) || !all(directives[k], directiveMasks, directiveTerms)
+                    || !all(outcomes[k], outcomeMasks, outcomeTerms))
+                continue;
+            if(!betTerms.isEmpty() && !all(betTotals[k], betTerms) || !all(labels[k], labelTerms))
+                continue;
+
+            if(count == matches.length)
+                matches = Arrays.copyOf(matches, count * 2);
+            matches[count++] = k;
+        }
+
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Tests if bits hit every mask.
+     */
+    static boolean all(int bits, int[] masks, int n) {
+        for(int k=0; k < n; k++)
+            if((bits & masks[k]) == 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Tests if a value is in every set.
+     */
+    static <T> boolean all(T value, List<Set<T>> sets) {
+        for(Set<T> set: sets)
+            if(!set.contains(value))
+                return false;
+        return true;
+    }
+
+    static Player player(String name) {
+        for(Player player: Player.values())
+            if(player != Player.None && player.name().equalsIgnoreCase(name))
+                return player;
+        throw new IllegalArgumentException("invalid seat: '"+name+"'");
+    }
+
+    /**
+     * Reads the game lines of entries from the corpus.
+     * @param entries Entry numbers
+     * @return Lines in the same order
+     * @throws IOException If the corpus cannot be read
+     */
+    public List<String> read(int[] entries) throws IOException {
+        List<String> lines = new ArrayList<>(entries.length);
+
+        try(FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+            for(int entry: entries) {
+                long offset = offsets[entry];
+                ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+                boolean eol = false;
+                while(!eol) {
+                    buffer.clear();
+                    int n = channel.read(buffer, offset);
+                    if(n <= 0)
+                        break;
+
+                    byte[] bytes = buffer.array();
+                    int end = 0;
+                    while(end < n && bytes[end] != '\n')
+                        end++;
+
+                    line.write(bytes, 0, end);
+                    eol = end < n;
+                    offset += n;
+                }
+
+                lines.add(line.toString(StandardCharsets.UTF_8).trim());
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Builds or refreshes the index of one or more corpora.
+     * @param args Corpus paths
+     */
+    public static void main(String[] args) {
+        if(args.length < 1) {
+            System.out.println("usage: ray.compiler.CorpusIndex corpus-path...");
+            System.exit(0);
+        }
+
+        for(String arg: args) {
+            try {
+                long started = System.nanoTime();
+                CorpusIndex index = open(Path.of(arg));
+                System.out.printf("%s: %d games indexed in %.3fs%n",
+                        indexPath(Path.of(arg)), index.size(), (System.nanoTime() - started) / 1e9);
+            }
+            catch(Exception e) {
+                System.err.println(arg+": "+e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Game;
+import ray.util.Streams;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class validates invariants across games, i.e., a whole corpus, rather than one game at a time.
+ * <p>
+ * Labels are not kept as strings. Each label is reduced to a 64-bit fingerprint and kept, together with
+ * where it was first seen, in an open-addressing table of primitive arrays, about 16-32 bytes per label.
+ * The table is split into stripes, each with its own lock, so parallel compiles can share one validator.
+ * A false duplicate needs a full 64-bit collision, roughly n&sup2;/2<sup>65</sup> for n labels.
+ * @author Ron.Coleman
+ */
+public class CorpusValidator {
+    // Number of stripes, a power of two
+    static final int STRIPES = 64;
+
+    // Resize a stripe when it is this full
+    static final double LOAD = 0.5;
+
+    final Stripe[] stripes = new Stripe[STRIPES];
+
+    // Input paths, indexed by file number
+    final List<String> paths = new ArrayList<>();
+
+    /**
+     * Constructor
+     */
+    public CorpusValidator() {
+        this(1 << 16);
+    }
+
+    /**
+     * Constructor
+     * @param expected Expected number of labels, to presize the table
+     */
+    public CorpusValidator(long expected) {
+        long perStripe = Math.max(16, (long) (expected / STRIPES / LOAD));
+        int capacity = Integer.highestOneBit((int) Math.min(1 << 30, perStripe - 1)) << 1;
+
+        for(int k=0; k < STRIPES; k++)
+            stripes[k] = new Stripe(capacity);
+    }
+
+    /**
+     * Registers an input file.
+     * @param path Input path
+     * @return File number to pass to check
+     */
+    public synchronized int file(String path) {
+        paths.add(path);
+        return paths.size() - 1;
+    }
+
+    /**
+     * Checks a game's label against all labels seen so far.
+     * @param game Game
+     * @param fileno File number
+     * @param lineno Line number
+     * @return Error message if the label is a duplicate, otherwise null
+     */
+    public String check(Game game, int fileno, int lineno) {
+        return check(game.label, fileno, lineno);
+    }
+
+    /**
+     * Checks a label against all labels seen so far.
+     * @param label Label
+     * @param fileno File number
+     * @param lineno Line number
+     * @return Error message if the label is a duplicate, otherwise null
+     */
+    public String check(String label, int fileno, int lineno) {
+        long fingerprint = fingerprint(label);
+
+        Stripe stripe = stripes[(int) (fingerprint >>> 58) & (STRIPES - 1)];
+
+        long origin = stripe.putIfAbsent(fingerprint, ((long) fileno << 32) | (lineno & 0xFFFFFFFFL));
+        if(origin < 0)
+            return null;
+
+        int firstFile = (int) (origin >>> 32);
+        int firstLine = (int) origin;
+
+        if(firstFile == fileno)
+            return String.format("duplicate label %s, first seen at line %d.", label, firstLine);
+
+        return String.format("duplicate label %s, first seen in %s at line %d.", label, path(firstFile), firstLine);
+    }
+
+    /**
+     * Gets the number of distinct labels seen.
+     * @return Count
+     */
+    public long size() {
+        long size = 0;
+        for(Stripe stripe: stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    synchronized String path(int fileno) {
+        return fileno < paths.size() ? paths.get(fileno) : "file #"+fileno;
+    }
+
+    /**
+     * Computes a 64-bit label fingerprint, FNV-1a finished with a murmur mix.
+     * @param label Label
+     * @return Fingerprint, never zero
+     */
+    static long fingerprint(String label) {
+        long h = 0xcbf29ce484222325L;
+        for(int k=0; k < label.length(); k++) {
+            h ^= label.charAt(k);
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        // Zero marks an empty slot
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * One lock-protected slice of the fingerprint table.
+     */
+    static class Stripe {
+        long[] keys;
+        long[] origins;
+        int size;
+
+        Stripe(int capacity) {
+            keys = new long[capacity];
+            origins = new long[capacity];
+        }
+
+        /**
+         * Inserts a fingerprint unless present.
+         * @param key Fingerprint
+         * @param origin Packed file and line numbers
+         * @return Origin of the existing entry or -1 if the key was inserted
+         */
+        synchronized long putIfAbsent(long key, long origin) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+
+            while(keys[slot] != 0) {
+                if(keys[slot] == key)
+                    return origins[slot];
+                slot = (slot + 1) & mask;
+            }
+
+            keys[slot] = key;
+            origins[slot] = origin;
+
+            if(++size > keys.length * LOAD)
+                grow();
+
+            return -1;
+        }
+
+        void grow() {
+            long[] oldKeys = keys;
+            long[] oldOrigins = origins;
+
+            keys = new long[oldKeys.length << 1];
+            origins = new long[oldKeys.length << 1];
+
+            int mask = keys.length - 1;
+            for(int k=0; k < oldKeys.length; k++) {
+                if(oldKeys[k] == 0)
+                    continue;
+
+                int slot = (int) oldKeys[k] & mask;
+                while(keys[slot] != 0)
+                    slot = (slot + 1) & mask;
+
+                keys[slot] = oldKeys[k];
+                origins[slot] = oldOrigins[k];
+            }
+        }
+    }
+
+    /**
+     * Validates labels across one or more input files.
+     * @param args Input paths
+     */
+    public static void main(String[] args) {
+        if(args.length < 1) {
+            System.out.println("usage: ray.compiler.CorpusValidator input-path...");
+            System.exit(0);
+        }
+
+        CorpusValidator corpus = new CorpusValidator();
+        Parser parser = new Parser();
+
+        int errors = 0;
+        for(String path: args) {
+            int fileno = corpus.file(path);
+            int lineno = 0;
+
+            try(BlockReader reader = new BlockReader(Streams.open(Path.of(path)))) {
+                while(reader.next()) {
+                    lineno = reader.lineno();
+
+                    if(reader.skippable())
+                        continue;
+
+                    // Only the label is needed, so the hands are never parsed
+                    String error = corpus.check(reader.index(parser).label(), fileno, lineno);
+                    if(error != null) {
+                        System.err.println(path+": line "+lineno+": "+error);
+                        errors++;
+                    }
+                }
+            }
+            catch(Exception e) {
+                System.err.println(path+": line "+lineno+": "+e.getMessage());
+                errors++;
+            }
+        }
+
+        System.out.println(corpus.size()+" labels, "+errors+" error(s)");
+        System.exit(errors == 0 ? 0 : 1);
+    }
+}
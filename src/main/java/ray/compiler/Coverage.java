@@ -0,0 +1,538 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.engine.Engine;
+import ray.generator.Synthesizer;
+import ray.model.Directive;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.type.Player;
+import ray.util.Streams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class measures how much of the strategy grid a corpus plays.
+ * <p>
+ * A cell is a seat, a hard or soft total, a dealer upcard, and an action: stand, hit, double, or split.
+ * The decisions come from a DecisionScanner over the raw lines, so no game is built. Each cell has a
+ * bit, set once the corpus plays it, and a counter of how often it does. To run on threads, the corpus
+ * is cut into line-aligned ranges, each scanned into its own coverage, and the coverages are merged by
+ * OR-ing the bits and adding the counters once the threads are done, so nothing is shared while scanning.
+ * <p>
+ * The cells which can be played are hard 4 to 20 and soft 12 to 20 standing, hitting, or doubling,
+ * a soft 21 standing, and, for You, who alone may split, the pairs, hard 4 to 20 and soft 12, splitting.
+ * Those not played are the gaps, which can be written out as stub games to fill them.
+ * @author Ron.Coleman
+ */
+public class Coverage {
+    static final int SEATS = 3;
+    static final int TOTALS = 22;
+    static final int UPCARDS = 10;
+    static final int ACTIONS = DecisionScanner.ACTIONS.length();
+
+    /** Number of cells */
+    public static final int CELLS = SEATS * 2 * TOTALS * UPCARDS * ACTIONS;
+
+    // Cells that can be played, per seat
+    static final long[][] UNIVERSE = new long[SEATS][];
+
+    static {
+        for(int seat=0; seat < SEATS; seat++) {
+            long[] bits = new long[words()];
+            for(int upcard=1; upcard <= UPCARDS; upcard++) {
+                for(int total=4; total <= 20; total++) {
+                    for(int action=0; action < 3; action++) {
+                        set(bits, cell(seat, false, total, upcard, action));
+                        if(total >= 12)
+                            set(bits, cell(seat, true, total, upcard, action));
+                    }
+                    if(total % 2 == 0 && seat == seat(Player.You))
+                        set(bits, cell(seat, false, total, upcard, 3));
+                }
+                if(seat == seat(Player.You))
+                    set(bits, cell(seat, true, 12, upcard, 3));
+                set(bits, cell(seat, true, 21, upcard, 0));
+            }
+            UNIVERSE[seat] = bits;
+        }
+    }
+
+    final long[] bits = new long[words()];
+    final long[] counts = new long[CELLS];
+
+    long games = 0;
+    long decisions = 0;
+    long skipped = 0;
+    long nanos = 0;
+
+    // True if the corpus declares template parameters, which a range may not have
+    boolean declares = false;
+
+    /**
+     * Analysis outcome.
+     * @param games Games read
+     * @param decisions Decisions in them
+     * @param skipped Lines which were not games or templates that could be read
+     * @param covered Cells played
+     * @param cells Cells that can be played
+     * @param nanos Elapsed time
+     */
+    public record Summary(long games, long decisions, long skipped, int covered, int cells, long nanos) {
+        @Override
+        public String toString() {
+            return String.format("%d game(s), %d decision(s), %d line(s) skipped: covered %d of %d cell(s) (%.1f%%) in %.3fs",
+                    games, decisions, skipped, covered, cells, cells > 0 ? 100.0 * covered / cells : 0, nanos / 1e9);
+        }
+    }
+
+    static int words() {
+        return (CELLS + 63) >>> 6;
+    }
+
+    static void set(long[] bits, int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Gets a cell number.
+     * @param seat Seat, 0 for Dewey, 1 for You, and 2 for Huey
+     * @param soft True if the total is soft
+     * @param total Total
+     * @param upcard Upcard value, 1 for an ace
+     * @param action Action index in DecisionScanner.ACTIONS
+     * @return Cell
+     */
+    static int cell(int seat, boolean soft, int total, int upcard, int action) {
+        return (((seat * 2 + (soft ? 1 : 0)) * TOTALS + total) * UPCARDS + upcard - 1) * ACTIONS + action;
+    }
+
+    static int seat(Player who) {
+        return who.ordinal() - Player.Dewey.ordinal();
+    }
+
+    /**
+     * Records a decision.
+     * @param d Decision
+     */
+    public void record(DecisionScanner.Decision d) {
+        int cell = cell(seat(d.who), d.soft, d.total, d.upcard, DecisionScanner.ACTIONS.indexOf(d.action));
+        bits[cell >>> 6] |= 1L << cell;
+        counts[cell]++;
+        decisions++;
+    }
+
+    /**
+     * Scans a corpus into this coverage. The games of templates and of lines with blanks are
+     * bound by a FrontEnd and scanned too.
+     * @param in Corpus
+     * @throws IOException If the corpus cannot be read
+     */
+    public void scan(InputStream in) throws IOException {
+        DecisionScanner scanner = new DecisionScanner();
+        DecisionScanner.Sink sink = this::record;
+        FrontEnd front = new FrontEnd();
+
+        try(BlockReader reader = new BlockReader(in)) {
+            while(reader.next()) {
+                if(reader.skippable())
+                    continue;
+
+                if(scanner.scan(reader.buf, reader.start, reader.end, reader.structurals, sink)) {
+                    games++;
+                    continue;
+                }
+
+                long n = front.games(reader.line(), game -> scanner.scan(game, sink));
+                if(n >= 0)
+                    games += n;
+                else
+                    skipped++;
+            }
+        }
+
+        declares |= front.declares;
+    }
+
+    /**
+     * Adds another coverage to this one.
+     * @param other Coverage
+     */
+    public void merge(Coverage other) {
+        for(int k=0; k < bits.length; k++)
+            bits[k] |= other.bits[k];
+        for(int k=0; k < counts.length; k++)
+            counts[k] += other.counts[k];
+
+        games += other.games;
+        decisions += other.decisions;
+        skipped += other.skipped;
+        declares |= other.declares;
+    }
+
+    /**
+     * Analyzes a corpus file. A corpus which declares template parameters is scanned again on one
+     * thread, as a range does not have the declarations above it.
+     * @param input Corpus path, possibly gzip
+     * @param threads Number of threads
+     * @return Coverage
+     * @throws IOException If the corpus cannot be read
+     */
+    public static Coverage analyze(Path input, int threads) throws IOException {
+        long started = System.nanoTime();
+        Coverage coverage = new Coverage();
+
+        // Compressed input cannot be cut into ranges
+        if(threads <= 1 || Streams.isCompressed(input))
+            coverage.scan(Streams.open(input));
+        else {
+            List<Future<Coverage>> shards = new ArrayList<>();
+
+            try(FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+                ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+                for(Coordinator.Partition partition: Coordinator.partition(input, threads)) {
+                    shards.add(pool.submit(() -> {
+                        Coverage shard = new Coverage();
+                        shard.scan(new Worker.Range(channel, partition.start, partition.end));
+                        return shard;
+                    }));
+                }
+
+                for(Future<Coverage> shard: shards)
+                    coverage.merge(shard.get());
+            }
+            catch(ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("coverage interrupted");
+            }
+
+            if(coverage.declares) {
+                coverage = new Coverage();
+                coverage.scan(Streams.open(input));
+            }
+        }
+
+        coverage.nanos = System.nanoTime() - started;
+        return coverage;
+    }
+
+    /**
+     * Gets how often a cell was played.
+     * @param who Seat
+     * @param soft True if the total is soft
+     * @param total Total
+     * @param upcard Upcard value, 1 for an ace
+     * @param action One of S, H, D, and P
+     * @return Count
+     */
+    public long count(Player who, boolean soft, int total, int upcard, char action) {
+        return counts[cell(seat(who), soft, total, upcard, DecisionScanner.ACTIONS.indexOf(action))];
+    }
+
+    /**
+     * Tests if a cell was played.
+     * @param who Seat
+     * @param soft True if the total is soft
+     * @param total Total
+     * @param upcard Upcard value, 1 for an ace
+     * @param action One of S, H, D, and P
+     * @return True if played
+     */
+    public boolean covered(Player who, boolean soft, int total, int upcard, char action) {
+        int cell = cell(seat(who), soft, total, upcard, DecisionScanner.ACTIONS.indexOf(action));
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Gets the cells that can be played and were not.
+     * @param seats Seats
+     * @return Gap cells in order
+     */
+    public List<Integer> gaps(Set<Player> seats) {
+        List<Integer> gaps = new ArrayList<>();
+        for(Player who: seats) {
+            long[] universe = UNIVERSE[seat(who)];
+            for(int word=0; word < bits.length; word++) {
+                long gap = universe[word] & ~bits[word];
+                while(gap != 0) {
+                    gaps.add((word << 6) + Long.numberOfTrailingZeros(gap));
+                    gap &= gap - 1;
+                }
+            }
+        }
+        return gaps;
+    }
+
+    /**
+     * Summarizes the coverage.
+     * @param seats Seats
+     * @return Summary
+     */
+    public Summary summary(Set<Player> seats) {
+        int covered = 0;
+        int cells = 0;
+        for(Player who: seats) {
+            long[] universe = UNIVERSE[seat(who)];
+            for(int word=0; word < bits.length; word++) {
+                covered += Long.bitCount(universe[word] & bits[word]);
+                cells += Long.bitCount(universe[word]);
+            }
+        }
+        return new Summary(games, decisions, skipped, covered, cells, nanos);
+    }
+
+    /**
+     * Writes the gaps, one line per seat, hand, and upcard with the actions missing, e.g.,
+     * You H16 10 D.
+     * @param out Report
+     * @param seats Seats
+     */
+    public void report(PrintWriter out, Set<Player> seats) {
+        out.println("# seat\thand\tupcard\tmissing");
+
+        int last = -1;
+        StringBuilder missing = new StringBuilder(ACTIONS);
+        for(int cell: gaps(seats)) {
+            int hand = cell / ACTIONS;
+            if(hand != last && last >= 0) {
+                out.println(describe(last)+"\t"+missing);
+                missing.setLength(0);
+            }
+            missing.append(DecisionScanner.ACTIONS.charAt(cell % ACTIONS));
+            last = hand;
+        }
+        if(last >= 0)
+            out.println(describe(last)+"\t"+missing);
+    }
+
+    /**
+     * Describes a cell less its action.
+     * @param hand Cell divided by the number of actions
+     * @return Seat, hand, and upcard separated by tabs
+     */
+    static String describe(int hand) {
+        int upcard = hand % UPCARDS + 1;
+        int total = hand / UPCARDS % TOTALS;
+        boolean soft = hand / UPCARDS / TOTALS % 2 == 1;
+        Player who = Player.values()[hand / UPCARDS / TOTALS / 2 + Player.Dewey.ordinal()];
+
+        return who+"\t"+(soft ? "S" : "H")+total+"\t"+(upcard == 1 ? "A" : upcard);
+    }
+
+    /**
+     * Writes one stub game per gap, with outcomes filled in, for an author to edit.
+     * @param out Stubs
+     * @param seats Seats
+     * @return Number of stubs
+     */
+    public int stubs(PrintWriter out, Set<Player> seats) {
+        Engine engine = new Engine();
+        int n = 0;
+
+        for(int cell: gaps(seats)) {
+            char action = DecisionScanner.ACTIONS.charAt(cell % ACTIONS);
+            int hand = cell / ACTIONS;
+            int upcard = hand % UPCARDS + 1;
+            int total = hand / UPCARDS % TOTALS;
+            boolean soft = hand / UPCARDS / TOTALS % 2 == 1;
+            Player who = Player.values()[hand / UPCARDS / TOTALS / 2 + Player.Dewey.ordinal()];
+
+            out.println(Synthesizer.format(stub(who, soft, total, upcard, action, engine)));
+            n++;
+        }
+
+        return n;
+    }
+
+    /**
+     * Makes a game which plays a cell.
+     * @param who Seat
+     * @param soft True if the total is soft
+     * @param total Total
+     * @param upcard Upcard value, 1 for an ace
+     * @param action One of S, H, D, and P
+     * @param engine Engine to settle the game
+     * @return Game
+     */
+    static Game stub(Player who, boolean soft, int total, int upcard, char action, Engine engine) {
+        Game game = new Game();
+        game.label = "Gap"+who+(soft ? "S" : "H")+total+"v"+(upcard == 1 ? "A" : upcard == 10 ? "T" : upcard)+action;
+
+        Hand hand = new Hand();
+        hand.who = who;
+        if(action == 'P')
+            add(hand.cards, soft ? 1 : total / 2, soft ? 1 : total / 2);
+        else if(soft && total == 21)
+            add(hand.cards, 1, 5, 5);
+        else if(soft)
+            add(hand.cards, 1, total - 11);
+        else if(total <= 11)
+            add(hand.cards, 2, total - 2);
+        else
+            add(hand.cards, 10, total - 10);
+
+        if(action != 'S') {
+            hand.directive = new Directive();
+            hand.directive.type = action;
+            if(action == 'P') {
+                hand.directive.splitHands.add(add(new ArrayList<>(), 2, 2));
+                hand.directive.splitHands.add(add(new ArrayList<>(), 2, 2));
+            }
+            else
+                add(hand.directive.extraCards, soft || total <= 19 ? 2 : 1);
+        }
+
+        // Everyone else stands on 17, which keeps a hand live for the dealer to draw to
+        for(Player seat: List.of(Player.Huey, Player.You, Player.Dewey)) {
+            if(seat == who)
+                game.hands.add(hand);
+            else if(seat == Player.You) {
+                Hand you = new Hand();
+                you.who = Player.You;
+                add(you.cards, 10, 7);
+                game.hands.add(you);
+            }
+        }
+
+        Hand dealer = new Hand();
+        dealer.who = Player.Dealer;
+        if(upcard == 1)
+            add(dealer.cards, 1, 6);
+        else if(upcard >= 7)
+            add(dealer.cards, upcard, 17 - upcard);
+        else
+            add(dealer.cards, upcard, 10, 7 - upcard);
+        game.hands.add(dealer);
+
+        for(int k=1; k < game.hands.size(); k++)
+            game.bets.add(5);
+
+        engine.fill(game);
+        return game;
+    }
+
+    static List<String> add(List<String> cards, int... values) {
+        for(int value: values)
+            cards.add(value == 1 ? "A" : Integer.toString(value));
+        return cards;
+    }
+
+    /**
+     * Parses seats, e.g., You,Huey, or all.
+     * @param spec Comma-separated seat names or all
+     * @return Seats
+     * @throws IllegalArgumentException If a name is not a player seat
+     */
+    public static Set<Player> seats(String spec) {
+        if(spec.trim().equalsIgnoreCase("all"))
+            return EnumSet.of(Player.Dewey, Player.You, Player.Huey);
+
+        Set<Player> seats = EnumSet.noneOf(Player.class);
+        for(String name: spec.split(",")) {
+            Player who = null;
+            for(Player player: List.of(Player.Dewey, Player.You, Player.Huey))
+                if(player.name().equalsIgnoreCase(name.trim()))
+                    who = player;
+            if(who == null)
+                throw new IllegalArgumentException("unknown seat: '"+name.trim()+"'");
+            seats.add(who);
+        }
+        return seats;
+    }
+
+    /**
+     * Reports the strategy coverage of a corpus file.
+     * @param args [--threads n] [--seats names|all] [--stubs path] input [report]
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Set<Player> seats = EnumSet.of(Player.You);
+        Path stubs = null;
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--threads" -> threads = Integer.parseInt(args[++argno]);
+                    case "--seats" -> seats = seats(args[++argno]);
+                    case "--stubs" -> stubs = Path.of(args[++argno]);
+                    default -> {
+                        System.err.println("unknown option: "+args[argno]);
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "missing option value" : e.getMessage());
+            System.exit(1);
+        }
+
+        if(args.length - argno < 1) {
+            System.out.println("usage: ray.compiler.Coverage [--threads n] [--seats names|all] [--stubs path] input-path [report-path]");
+            System.exit(0);
+        }
+
+        Path input = Path.of(args[argno]);
+        Path output = args.length - argno > 1 ? Path.of(args[argno + 1]) : null;
+
+        try {
+            Coverage coverage = analyze(input, threads);
+
+            if(output == null) {
+                PrintWriter out = new PrintWriter(System.out);
+                coverage.report(out, seats);
+                out.flush();
+            }
+            else {
+                try(PrintWriter out = Streams.writer(output)) {
+                    coverage.report(out, seats);
+                    if(out.checkError())
+                        throw new IOException("failed writing "+output+".");
+                }
+            }
+
+            if(stubs != null) {
+                try(PrintWriter out = Streams.writer(stubs)) {
+                    int n = coverage.stubs(out, seats);
+                    if(out.checkError())
+                        throw new IOException("failed writing "+stubs+".");
+                    System.err.println(n+" stub(s) written to "+stubs);
+                }
+            }
+
+            System.err.println(coverage.summary(seats));
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
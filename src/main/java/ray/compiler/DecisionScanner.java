@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.generator.Synthesizer;
+import ray.model.Game;
+import ray.type.Player;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads the playing decisions out of game lines without parsing them into games.
+ * <p>
+ * It walks the bytes of a line once, reads each seat's card values and directive into small
+ * reused arrays, and then plays each seat's hand over to emit one event per decision: the hand
+ * as it stood, the dealer upcard, and what the seat did.
+ * <ul>
+ *     <li>A hand stands on its cards; any cards past the first two were hits.</li>
+ *     <li>H! hits at every hand it grows and stands at the end unless the hand broke or has five cards.</li>
+ *     <li>D! doubles the hand as dealt.</li>
+ *     <li>P! splits the pair; each split hand, the pair card and its cards, is then played as above.</li>
+ * </ul>
+ * No one decides against a dealer blackjack, and a blackjack stands without deciding. Lines which
+ * are not games, or which hold blanks or anything else the walk does not expect, emit nothing; the
+ * games a FrontEnd reads from templates and blanks can be scanned once bound, and the rest are left
+ * for the compiler to report.
+ * @author Ron.Coleman
+ */
+public class DecisionScanner {
+    /** Actions in event order */
+    public static final String ACTIONS = "SHDP";
+
+    // Card values by character, 1 for an ace and the 1 of a 10, and suits
+    static final int SUIT = -1;
+    static final int[] VALUES = new int[128];
+
+    static {
+        for(char c='2'; c <= '9'; c++)
+            VALUES[c] = c - '0';
+        VALUES['A'] = VALUES['1'] = 1;
+        VALUES['J'] = VALUES['Q'] = VALUES['K'] = 10;
+        for(char c: "HSDC".toCharArray())
+            VALUES[c] = SUIT;
+    }
+
+    // Most cards in one hand or directive and most seats in one game
+    static final int MAX_CARDS = 16;
+    static final int MAX_SEATS = 8;
+    static final int MAX_SPLITS = 4;
+
+    /**
+     * One decision, reused from event to event.
+     */
+    public static class Decision {
+        /** Seat deciding */
+        public Player who;
+
+        /** Best total of the hand */
+        public int total;
+
+        /** True if an ace counts 11 in the total */
+        public boolean soft;
+
+        /** Value of the pair, 1 for aces, if the hand is two cards of a value, otherwise 0 */
+        public int pair;
+
+        /** Cards in the hand */
+        public int cards;
+
+        /** True if the hand is from a split */
+        public boolean split;
+
+        /** Dealer upcard value, 1 for an ace */
+        public int upcard;
+
+        /** One of S, H, D, and P */
+        public char action;
+
+        @Override
+        public String toString() {
+            return who+" "+(soft ? "S" : "H")+total+(pair > 0 ? " pair" : "")+(split ? " split" : "")
+                    +" v "+(upcard == 1 ? "A" : upcard)+": "+action;
+        }
+    }
+
+    /**
+     * Receiver of decisions.
+     */
+    public interface Sink {
+        /**
+         * Receives a decision, which is only good until the call returns.
+         * @param decision Decision
+         */
+        void decision(Decision decision);
+    }
+
+    final Decision decision = new Decision();
+
+    // Colon after the header, then the end of each seat
+    final int[] bounds = new int[MAX_SEATS + 2];
+    int seats;
+
+    // Per seat: who, card values, directive type, directive card values, and split hand ends
+    final Player[] whos = new Player[MAX_SEATS];
+    final int[][] cards = new int[MAX_SEATS][MAX_CARDS];
+    final int[] ncards = new int[MAX_SEATS];
+    final char[] types = new char[MAX_SEATS];
+    final int[][] extras = new int[MAX_SEATS][MAX_CARDS];
+    final int[] nextras = new int[MAX_SEATS];
+    final int[][] splits = new int[MAX_SEATS][MAX_SPLITS];
+    final int[] nsplits = new int[MAX_SEATS];
+
+    // A hand as it is played
+    final int[] hand = new int[2 * MAX_CARDS];
+
+    // Line and cursor over the current seat
+    byte[] b;
+    int p;
+    int q;
+
+    /**
+     * Emits the decisions in a game line.
+     * @param line Line
+     * @param sink Receiver
+     * @return True if the line is a game that was read, false otherwise
+     */
+    public boolean scan(String line, Sink sink) {
+        byte[] bytes = line.getBytes(StandardCharsets.ISO_8859_1);
+        return scan(bytes, 0, bytes.length, sink);
+    }
+
+    /**
+     * Emits the decisions in a game by way of its line.
+     * @param game Game
+     * @param sink Receiver
+     * @return True if the game was read, false otherwise
+     */
+    public boolean scan(Game game, Sink sink) {
+        return scan(Synthesizer.format(game), sink);
+    }
+
+    /**
+     * Emits the decisions in a game line.
+     * @param buf Bytes
+     * @param from Start of the line
+     * @param to End of the line, exclusive
+     * @param sink Receiver
+     * @return True if the line is a game that was read, false otherwise
+     */
+    public boolean scan(byte[] buf, int from, int to, Sink sink) {
+        int n = 0;
+        for(int k=from; k < to && n <= MAX_SEATS; k++) {
+            byte c = buf[k];
+            if(c == ':' || c == '|' || c == '>')
+                if((n = bound(buf, k, to, n)) < 0)
+                    break;
+        }
+
+        return n < 0 && play(buf, sink);
+    }
+
+    /**
+     * Emits the decisions in a game line, visiting only the structural characters marked in a bitmap.
+     * @param buf Bytes
+     * @param from Start of the line
+     * @param to End of the line, exclusive
+     * @param structurals Structural bitmap of buf from a StructuralScanner
+     * @param sink Receiver
+     * @return True if the line is a game that was read, false otherwise
+     */
+    public boolean scan(byte[] buf, int from, int to, long[] structurals, Sink sink) {
+        int n = 0;
+        int word = from >>> 6;
+        long bits = structurals[word] & (-1L << (from & 63));
+
+        while(n >= 0 && n <= MAX_SEATS) {
+            while(bits == 0) {
+                if(++word << 6 >= to)
+                    return false;
+                bits = structurals[word];
+            }
+
+            int k = (word << 6) + Long.numberOfTrailingZeros(bits);
+            if(k >= to)
+                return false;
+            bits &= bits - 1;
+
+            n = bound(buf, k, to, n);
+        }
+
+        return n < 0 && play(buf, sink);
+    }
+
+    /**
+     * Records the colon after the header and the ends of the seats.
+     * @param buf Bytes
+     * @param k Offset of a structural character
+     * @param to End of the line
+     * @param n Bounds so far
+     * @return Bounds so far, or -1 once the outcome separator ends the seats
+     */
+    int bound(byte[] buf, int k, int to, int n) {
+        switch(buf[k]) {
+            case ':' -> {
+                if(n == 0)
+                    bounds[n++] = k;
+            }
+            case '|' -> {
+                if(n > 0)
+                    bounds[n++] = k;
+            }
+            case '>' -> {
+                if(k+1 < to && buf[k+1] == '>') {
+                    if(n == 0)
+                        return MAX_SEATS + 1;
+                    bounds[n++] = k;
+                    seats = n - 1;
+                    return -1;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Reads the seats between the bounds and plays their hands.
+     * @param buf Bytes
+     * @param sink Receiver
+     * @return True if every seat was read
+     */
+    boolean play(byte[] buf, Sink sink) {
+        b = buf;
+
+        // Read every seat before emitting so a bad line emits nothing
+        int dealer = -1;
+        for(int seat=0; seat < seats; seat++) {
+            p = bounds[seat] + 1;
+            q = bounds[seat + 1];
+
+            Player who = who();
+            if(who == null || !read(seat) || ncards[seat] < (who == Player.Dealer ? 1 : 2))
+                return false;
+
+            if(who == Player.Dealer)
+                dealer = seat;
+            whos[seat] = who;
+        }
+        if(dealer < 0)
+            return false;
+
+        int[] dealt = cards[dealer];
+        if(ncards[dealer] >= 2 && dealt[0] + dealt[1] == 11 && (dealt[0] == 1 || dealt[1] == 1))
+            return true;
+
+        Decision d = decision;
+        d.upcard = dealt[0];
+
+        for(int seat=0; seat < seats; seat++) {
+            if(seat == dealer)
+                continue;
+
+            d.who = whos[seat];
+            play(seat, sink);
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads a seat name.
+     * @return Player or null if the name is not a seat
+     */
+    Player who() {
+        int from = Parser.skip(b, p, q);
+        p = Parser.letters(b, from, q);
+        return Parser.player(b, from, p);
+    }
+
+    /**
+     * Reads a seat's cards and directive.
+     * @param seat Seat
+     * @return True if the seat was read to its end
+     */
+    boolean read(int seat) {
+        types[seat] = 0;
+        nextras[seat] = 0;
+        nsplits[seat] = 0;
+
+        int n = cards(cards[seat]);
+        if(n < 0)
+            return false;
+        ncards[seat] = n;
+
+        if(p == q)
+            return true;
+
+        byte type = b[p];
+        if(p+1 >= q || b[p+1] != '!')
+            return false;
+        p += 2;
+
+        int[] extra = extras[seat];
+        switch(type) {
+            case 'H', 'D' -> {
+                n = cards(extra);
+                if(n <= 0)
+                    return false;
+                nextras[seat] = n;
+            }
+            case 'P' -> {
+                skip();
+                if(p == q || b[p++] != '{')
+                    return false;
+
+                n = 0;
+                while(true) {
+                    int m = cards(extra, n);
+                    if(m < 0 || nsplits[seat] == MAX_SPLITS)
+                        return false;
+                    n += m;
+                    splits[seat][nsplits[seat]++] = n;
+
+                    skip();
+                    if(p == q)
+                        return false;
+                    byte c = b[p++];
+                    if(c == '}')
+                        break;
+                    if(c != ',')
+                        return false;
+                }
+                nextras[seat] = n;
+            }
+            default -> {
+                return false;
+            }
+        }
+
+        types[seat] = (char) type;
+        skip();
+        return p == q;
+    }
+
+    int cards(int[] values) {
+        return cards(values, 0);
+    }
+
+    /**
+     * Reads card values up to the first thing which is not a card.
+     * @param values Values read
+     * @param from Where to put the first value
+     * @return Number of values or -1 if there are too many
+     */
+    int cards(int[] values, int from) {
+        int n = from;
+        int value;
+        while((value = card()) > 0) {
+            if(n == values.length)
+                return -1;
+            values[n++] = value;
+        }
+        return n - from;
+    }
+
+    /**
+     * Reads a card, skipping the hit signs and spaces before it.
+     * @return Value, 1 for an ace, or 0 at the end or -1 at something else
+     */
+    int card() {
+        byte[] b = this.b;
+        int p = this.p;
+        int q = this.q;
+
+        while(p < q && (b[p] == '+' || (b[p] & 0xFF) <= ' '))
+            p++;
+        this.p = p;
+        if(p == q)
+            return 0;
+
+        int value = VALUES[b[p] & 0x7F];
+        if(value <= 0 || b[p] < 0)
+            return -1;
+
+        // A 1 is only the start of a 10
+        if(value == 1 && b[p] == '1') {
+            if(p+1 == q || b[p+1] != '0')
+                return -1;
+            value = 10;
+            p++;
+        }
+        p++;
+
+        // A suit, unless it is the type of a directive which follows without a hit sign
+        if(p < q && VALUES[b[p] & 0x7F] == SUIT && b[p] > 0 && !(p+1 < q && b[p+1] == '!'))
+            p++;
+
+        this.p = p;
+        return value;
+    }
+
+    void skip() {
+        p = Parser.skip(b, p, q);
+    }
+
+    /**
+     * Plays a seat's hand.
+     * @param seat Seat
+     * @param sink Receiver
+     */
+    void play(int seat, Sink sink) {
+        int[] dealt = cards[seat];
+        int n = ncards[seat];
+        int[] extra = extras[seat];
+
+        switch(types[seat]) {
+            case 'D' -> emit(dealt, n, false, 'D', sink);
+            case 'P' -> {
+                emit(dealt, n, false, 'P', sink);
+
+                int from = 0;
+                for(int k=0; k < nsplits[seat]; k++) {
+                    int to = splits[seat][k];
+                    hand[0] = dealt[0];
+                    System.arraycopy(extra, from, hand, 1, to - from);
+                    hit(hand, 1 + to - from, true, sink);
+                    from = to;
+                }
+            }
+            case 'H' -> {
+                System.arraycopy(dealt, 0, hand, 0, n);
+                System.arraycopy(extra, 0, hand, n, nextras[seat]);
+                hit(hand, n + nextras[seat], false, sink);
+            }
+            default -> {
+                // A blackjack stands without deciding
+                if(n == 2 && dealt[0] + dealt[1] == 11 && (dealt[0] == 1 || dealt[1] == 1))
+                    return;
+                hit(dealt, n, false, sink);
+            }
+        }
+    }
+
+    /**
+     * Emits the hits which grew a hand and the stand it ended on.
+     * @param values Card values
+     * @param n Number of cards
+     * @param split True if the hand is from a split
+     * @param sink Receiver
+     */
+    void hit(int[] values, int n, boolean split, Sink sink) {
+        for(int k=2; k < n; k++) {
+            if(k >= 5 || !emit(values, k, split, 'H', sink))
+                return;
+        }
+
+        if(n < 5)
+            emit(values, n, split, 'S', sink);
+    }
+
+    /**
+     * Emits a decision if the hand has not broken.
+     * @param values Card values
+     * @param n Number of cards in the hand
+     * @param split True if the hand is from a split
+     * @param action Action
+     * @param sink Receiver
+     * @return True if emitted
+     */
+    boolean emit(int[] values, int n, boolean split, char action, Sink sink) {
+        int total = 0;
+        boolean ace = false;
+        for(int k=0; k < n; k++) {
+            total += values[k];
+            ace |= values[k] == 1;
+        }
+
+        Decision d = decision;
+        d.soft = ace && total + 10 <= 21;
+        d.total = d.soft ? total + 10 : total;
+        if(d.total > 21 || n < 2)
+            return false;
+
+        d.pair = n == 2 && values[0] == values[1] ? values[0] : 0;
+        d.cards = n;
+        d.split = split;
+        d.action = action;
+
+        sink.decision(d);
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import jdk.jfr.*;
+
+/**
+ * This class holds the compiler's JDK Flight Recorder events, all in the Ray category.
+ * <p>
+ * Events cost next to nothing unless a recording is on, for example:
+ * <pre>
+ *     java -XX:StartFlightRecording:filename=ray.jfr ray.compiler.Ray lab02.ray Lab02.java
+ *     jfr print --events ray.Phase,ray.Shard ray.jfr
+ * </pre>
+ * @author Ron.Coleman
+ */
+public class Events {
+    /**
+     * Time spent in one phase of compiling an input. Phases interleave line by line,
+     * so the time is the sum over the input rather than the event's duration.
+     */
+    @Name("ray.Phase")
+    @Label("Compile Phase")
+    @Category("Ray")
+    @StackTrace(false)
+    public static class Phase extends Event {
+        @Label("Input")
+        public String input;
+
+        @Label("Phase")
+        public String phase;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long time;
+
+        @Label("Games")
+        public long games;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Cards Emitted")
+        public long cards;
+
+        @Label("Errors")
+        public int errors;
+    }
+
+    /**
+     * One unit of parallel work: a file of a batch, a pipeline batch, or a worker partition.
+     */
+    @Name("ray.Shard")
+    @Label("Compile Shard")
+    @Category("Ray")
+    @StackTrace(false)
+    public static class Shard extends Event {
+        @Label("Kind")
+        public String kind;
+
+        @Label("Input")
+        public String input;
+
+        @Label("Shard")
+        public int shard;
+
+        @Label("Lines")
+        public long lines;
+
+        @Label("Games")
+        public long games;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Cards Emitted")
+        public long cards;
+
+        @Label("Errors")
+        public int errors;
+
+        @Label("Attempts")
+        public int attempts;
+    }
+
+    /**
+     * Opening a corpus index, which is a cache hit if the saved index was current.
+     */
+    @Name("ray.Index")
+    @Label("Corpus Index")
+    @Category("Ray")
+    @StackTrace(false)
+    public static class Index extends Event {
+        @Label("Corpus")
+        public String corpus;
+
+        @Label("Entries")
+        public int entries;
+
+        @Label("Cache Hit")
+        public boolean hit;
+    }
+
+    /**
+     * Tests if phase events are being recorded, which is worth timing each line for.
+     * @return True if enabled
+     */
+    static boolean timing() {
+        return EventType.getEventType(Phase.class).isEnabled();
+    }
+}
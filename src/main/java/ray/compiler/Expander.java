@@ -0,0 +1,678 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Directive;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+import ray.type.Result;
+import ray.util.Helper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class expands parameterized game templates.
+ * <p>
+ * A parameter is declared on its own line and holds until the end of the input or until it is
+ * declared again. Its values are letters or digits, or ranges of numbers or of ranks:
+ * <pre>
+ *     %param r = 2..9, A
+ *     %param s = H, S, D, C
+ *     %param b = 5, 10
+ *     T$# {$b}: You 10+$r$s | Dealer 10+7 &gt;&gt;
+ *     B$# {$b}: You A+K${s} | Dealer 10+7 &gt;&gt; Blackjack{${b*3/2}}
+ * </pre>
+ * In a template, $name or ${name} is a parameter's value, ${expr} is integer arithmetic on
+ * parameters with + - * / and parentheses, and $# is the game's number in the template from 0.
+ * A template stands for every combination of the parameters it uses, the first one used varying
+ * slowest, so the lines above are 72 and 8 games.
+ * <p>
+ * A template is cut into its fields once. Game k is then bound straight from the fields and k,
+ * without writing or parsing its text, so a template is a few hundred bytes however many games
+ * it expands to, and they can be made again, in any order, as often as needed.
+ * @author Ron.Coleman
+ */
+public class Expander {
+    static final Pattern DECLARATION = Pattern.compile("%param\\s+(\\w+)\\s*=\\s*(.+)");
+    static final Pattern VALUE = Pattern.compile("[A-Za-z0-9]+");
+    static final Pattern HIT_SPACES = Pattern.compile("\\s*\\+\\s*");
+
+    static final List<String> RANKS = List.of("A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K");
+
+    // Most values a range may have
+    static final int MAX_RANGE = 1_000_000;
+
+    // Placeholders are swapped for private-use characters while a template is cut into fields
+    static final char SLOT = '\uE000';
+    static final int MAX_SLOTS = 0x1000;
+
+    // Lines are split among threads or processes, or indexed by offset, elsewhere, so declarations would not reach templates
+    static final String UNSUPPORTED = "templates need the sequential or batch compile.";
+
+    final Map<String,String[]> params = new HashMap<>();
+
+    /**
+     * Tests if a line declares a parameter.
+     * @param line Trimmed line
+     * @return True if it starts with %
+     */
+    public static boolean isDeclaration(String line) {
+        return line.startsWith("%");
+    }
+
+    /**
+     * Tests if a line is a template.
+     * @param line Trimmed line
+     * @return True if it has a placeholder
+     */
+    public static boolean isTemplate(String line) {
+        return line.indexOf('$') >= 0;
+    }
+
+    /**
+     * Declares a parameter.
+     * @param line Declaration, e.g., %param r = 2..10, J, Q, K
+     * @throws IllegalArgumentException If the declaration is invalid
+     */
+    public void declare(String line) {
+        Matcher m = DECLARATION.matcher(line.trim());
+        if(!m.matches())
+            throw new IllegalArgumentException("invalid parameter declaration: '"+line+"'");
+
+        List<String> values = new ArrayList<>();
+        for(String item: m.group(2).split(",")) {
+            item = item.trim();
+
+            int dots = item.indexOf("..");
+            if(dots >= 0)
+                range(item.substring(0, dots).trim(), item.substring(dots + 2).trim(), values);
+            else if(VALUE.matcher(item).matches())
+                values.add(item);
+            else
+                throw new IllegalArgumentException("parameter values must be letters or digits: '"+item+"'");
+        }
+
+        params.put(m.group(1), values.toArray(new String[0]));
+    }
+
+    static void range(String lo, String hi, List<String> values) {
+        if(lo.matches("\\d{1,9}") && hi.matches("\\d{1,9}")) {
+            int from = Integer.parseInt(lo);
+            int to = Integer.parseInt(hi);
+            if(from > to || to - from >= MAX_RANGE)
+                throw new IllegalArgumentException("invalid range: '"+lo+".."+hi+"'");
+
+            for(int value=from; value <= to; value++)
+                values.add(Integer.toString(value));
+            return;
+        }
+
+        int from = RANKS.indexOf(lo);
+        int to = RANKS.indexOf(hi);
+        if(from < 0 || to < from)
+            throw new IllegalArgumentException("invalid range: '"+lo+".."+hi+"'");
+
+        values.addAll(RANKS.subList(from, to + 1));
+    }
+
+    /**
+     * Compiles a template with the parameters declared so far.
+     * @param line Trimmed template line
+     * @return Template
+     * @throws IllegalArgumentException If the template is invalid or uses an undeclared parameter
+     */
+    public Template template(String line) {
+        return new Template(this, line);
+    }
+
+    /**
+     * This class is a compiled template.
+     */
+    public static class Template {
+        /** Trimmed source line */
+        public final String source;
+
+        // Parameters in the order first used, with their values and values as numbers or null
+        final List<String> names = new ArrayList<>();
+        final List<String[]> values = new ArrayList<>();
+        final List<Long[]> numbers = new ArrayList<>();
+
+        final List<Slot> slots = new ArrayList<>();
+
+        Field label;
+        Field[] bets;
+        Seat[] seats;
+        Field[] results;
+        Field[] amounts;
+
+        long size = 1;
+
+        Template(Expander expander, String line) {
+            this.source = line;
+
+            String text = encode(expander, line);
+
+            String[] parts = text.split(">>", -1);
+            if(parts.length != 2)
+                throw new IllegalArgumentException("Missing '>>' outcome separator");
+
+            String left = parts[0].trim();
+            int colon = left.indexOf(':');
+            if(colon < 0)
+                throw new IllegalArgumentException("missing ':' after bet section");
+
+            header(left.substring(0, colon).trim());
+
+            String[] hands = left.substring(colon + 1).trim().split("\\|");
+            seats = new Seat[hands.length];
+            for(int k=0; k < hands.length; k++)
+                seats[k] = seat(hands[k].trim());
+
+            outcomes(parts[1].trim());
+
+            for(String[] choices: values) {
+                try {
+                    size = Math.multiplyExact(size, choices.length);
+                }
+                catch(ArithmeticException _) {
+                    throw new IllegalArgumentException("template expands to too many games.");
+                }
+            }
+        }
+
+        /**
+         * Swaps each placeholder for a slot character and compiles it.
+         */
+        String encode(Expander expander, String line) {
+            StringBuilder text = new StringBuilder(line.length());
+
+            int n = line.length();
+            for(int at=0; at < n; ) {
+                char c = line.charAt(at);
+                if(c != '$') {
+                    text.append(c);
+                    at++;
+                    continue;
+                }
+
+                if(at + 1 == n)
+                    throw new IllegalArgumentException("missing parameter name after '$'.");
+
+                Slot slot;
+                char next = line.charAt(at + 1);
+                if(next == '#') {
+                    slot = new Slot(-1, null);
+                    at += 2;
+                }
+                else if(next == '{') {
+                    int close = line.indexOf('}', at);
+                    if(close < 0)
+                        throw new IllegalArgumentException("missing '}' after '${'.");
+
+                    String expr = line.substring(at + 2, close).trim();
+                    slot = VALUE.matcher(expr).matches() && !Character.isDigit(expr.charAt(0)) ?
+                            new Slot(use(expander, expr), null) :
+                            new Slot(-1, new Arithmetic(this, expander, expr).parse());
+                    at = close + 1;
+                }
+                else {
+                    int end = at + 1;
+                    while(end < n && (Character.isLetterOrDigit(line.charAt(end)) || line.charAt(end) == '_'))
+                        end++;
+
+                    if(end == at + 1)
+                        throw new IllegalArgumentException("missing parameter name after '$'.");
+
+                    slot = new Slot(use(expander, line.substring(at + 1, end)), null);
+                    at = end;
+                }
+
+                if(slots.size() == MAX_SLOTS)
+                    throw new IllegalArgumentException("too many placeholders in template.");
+
+                text.append((char) (SLOT + slots.size()));
+                slots.add(slot);
+            }
+
+            return text.toString();
+        }
+
+        /**
+         * Gets a parameter's number in this template, adding it on first use.
+         */
+        int use(Expander expander, String name) {
+            int k = names.indexOf(name);
+            if(k >= 0)
+                return k;
+
+            String[] choices = expander.params.get(name);
+            if(choices == null)
+                throw new IllegalArgumentException("undeclared parameter: '"+name+"'");
+
+            Long[] nums = new Long[choices.length];
+            for(int v=0; v < choices.length; v++) {
+                try {
+                    nums[v] = Long.parseLong(choices[v]);
+                }
+                catch(NumberFormatException _) {
+                    nums[v] = null;
+                }
+            }
+
+            names.add(name);
+            values.add(choices);
+            numbers.add(nums);
+
+            return names.size() - 1;
+        }
+
+        void header(String text) {
+            int open = text.indexOf('{');
+            int close = text.lastIndexOf('}');
+            if(open <= 0 || close < open)
+                throw new IllegalArgumentException("Invalid label/bet format: " + text);
+
+            label = field(text.substring(0, open).trim());
+
+            List<Field> fields = new ArrayList<>();
+            for(String bet: text.substring(open + 1, close).split(",")) {
+                if(!bet.isBlank())
+                    fields.add(field(bet.trim()));
+            }
+
+            if(fields.isEmpty() || fields.size() > 3)
+                throw new IllegalArgumentException(
+                        "invalid number of bets (" + fields.size() + "), expected 1 to 3.");
+
+            bets = fields.toArray(new Field[0]);
+        }
+
+        Seat seat(String text) {
+            text = HIT_SPACES.matcher(text).replaceAll("+");
+
+            int space = text.indexOf(' ');
+            if(space < 0)
+                throw new IllegalArgumentException("Invalid hand format: '" + text+"'");
+
+            Field who = field(text.substring(0, space));
+            String cards = text.substring(space + 1).trim();
+
+            int excl = cards.indexOf('!');
+            if(excl <= 0)
+                return new Seat(who, fields(cards), (char) 0, null, null);
+
+            char type = cards.charAt(excl - 1);
+            Field[] base = fields(cards.substring(0, excl - 1));
+            String rest = cards.substring(excl + 1);
+
+            if(type == 'P') {
+                if(!rest.startsWith("{") || !rest.endsWith("}"))
+                    throw new IllegalArgumentException("invalid split directive: '" + cards.substring(excl - 1)+"'");
+
+                String[] hands = rest.substring(1, rest.length() - 1).split(",");
+                Field[][] split = new Field[hands.length][];
+                for(int h=0; h < hands.length; h++)
+                    split[h] = fields(hands[h].trim());
+
+                return new Seat(who, base, type, null, split);
+            }
+
+            if(type != 'D' && type != 'H')
+                throw new IllegalArgumentException("Unknown directive type: " + type);
+
+            return new Seat(who, base, type, fields(rest), null);
+        }
+
+        void outcomes(String text) {
+            List<Field> names = new ArrayList<>();
+            List<Field> amounts = new ArrayList<>();
+
+            if(!text.isEmpty()) {
+                for(String part: text.split(",")) {
+                    part = part.replaceAll("\\s", "");
+
+                    int open = part.indexOf('{');
+                    if(open <= 0 || !part.endsWith("}"))
+                        throw new IllegalArgumentException("invalid outcome format: '" + part+"'");
+
+                    names.add(field(part.substring(0, open)));
+                    amounts.add(field(part.substring(open + 1, part.length() - 1)));
+                }
+            }
+
+            this.results = names.toArray(new Field[0]);
+            this.amounts = amounts.toArray(new Field[0]);
+        }
+
+        Field[] fields(String cards) {
+            List<Field> fields = new ArrayList<>();
+            for(String card: cards.split("\\+")) {
+                if(!card.isEmpty())
+                    fields.add(field(card));
+            }
+            return fields.toArray(new Field[0]);
+        }
+
+        /**
+         * Compiles an encoded field into literals and slots.
+         */
+        Field field(String text) {
+            List<Object> parts = new ArrayList<>();
+            int start = 0;
+            for(int k=0; k < text.length(); k++) {
+                char c = text.charAt(k);
+                if(c < SLOT || c >= SLOT + MAX_SLOTS)
+                    continue;
+
+                if(k > start)
+                    parts.add(text.substring(start, k));
+                parts.add(slots.get(c - SLOT));
+                start = k + 1;
+            }
+
+            if(parts.isEmpty())
+                return new Field(text, null);
+
+            if(start < text.length())
+                parts.add(text.substring(start));
+
+            return new Field(null, parts.toArray());
+        }
+
+        /**
+         * Gets the number of games.
+         * @return Games
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Gets the parameters the template ranges over, in order.
+         * @return Names
+         */
+        public List<String> params() {
+            return names;
+        }
+
+        /**
+         * Binds a game.
+         * @param k Game number, from 0 to size() - 1
+         * @return Game, without outcomes if the template has none
+         * @throws IllegalArgumentException If the values make an invalid label, bet, seat, card, or outcome
+         */
+        public Game game(long k) {
+            int[] at = new int[names.size()];
+            long rest = k;
+            for(int p=at.length-1; p >= 0; p--) {
+                int choices = values.get(p).length;
+                at[p] = (int) (rest % choices);
+                rest /= choices;
+            }
+
+            Game game = new Game();
+            game.label = label.eval(this, k, at);
+
+            for(Field bet: bets)
+                game.bets.add(number(bet.eval(this, k, at), "bet"));
+
+            for(Seat seat: seats) {
+                Hand hand = new Hand();
+                hand.who = player(seat.who().eval(this, k, at));
+                cards(seat.cards(), k, at, hand.cards);
+
+                if(seat.type() != 0) {
+                    Directive directive = new Directive();
+                    directive.type = seat.type();
+
+                    if(seat.split() != null) {
+                        for(Field[] sub: seat.split()) {
+                            List<String> cards = new ArrayList<>(sub.length);
+                            cards(sub, k, at, cards);
+                            directive.splitHands.add(cards);
+                        }
+                    }
+                    else
+                        cards(seat.extra(), k, at, directive.extraCards);
+
+                    hand.directive = directive;
+                }
+
+                game.hands.add(hand);
+            }
+
+            for(int o=0; o < results.length; o++) {
+                String name = results[o].eval(this, k, at);
+                Result result = Result.of(name.toUpperCase());
+                if(result == null)
+                    throw new IllegalArgumentException("invalid outcome format: '" + name+"'");
+
+                Outcome outcome = new Outcome();
+                outcome.result = name.toUpperCase();
+                outcome.amount = number(amounts[o].eval(this, k, at), "outcome amount");
+                game.outcomes.add(outcome);
+            }
+
+            return game;
+        }
+
+        void cards(Field[] fields, long k, int[] at, List<String> cards) {
+            for(Field field: fields) {
+                String card = field.eval(this, k, at);
+                if(card.isEmpty() || card.length() > 3)
+                    throw new IllegalArgumentException("invalid card: '"+card+"'");
+
+                Helper.getValue(card);
+
+                char suit = card.charAt(card.length() - 1);
+                if(card.length() > (card.startsWith("10") ? 2 : 1) && "HSDC".indexOf(suit) < 0)
+                    throw new IllegalArgumentException("invalid card suit: '" + card+"'");
+
+                cards.add(card);
+            }
+        }
+
+        static int number(String text, String what) {
+            try {
+                return Integer.parseInt(text);
+            }
+            catch(NumberFormatException _) {
+                throw new IllegalArgumentException("invalid "+what+": '"+text+"'");
+            }
+        }
+
+        static Player player(String text) {
+            return switch(text) {
+                case "You" -> Player.You;
+                case "Huey" -> Player.Huey;
+                case "Dewey" -> Player.Dewey;
+                case "Dealer" -> Player.Dealer;
+                default -> throw new IllegalArgumentException("Invalid hand format: '" + text+"'");
+            };
+        }
+
+        /**
+         * Gets a parameter's value as a number.
+         */
+        long number(int param, int[] at) {
+            Long value = numbers.get(param)[at[param]];
+            if(value == null)
+                throw new IllegalArgumentException("parameter "+names.get(param)+" is not a number: '"+
+                        values.get(param)[at[param]]+"'");
+            return value;
+        }
+    }
+
+    /**
+     * A seat's fields; extra is for D! or H!, split for P!.
+     */
+    record Seat(Field who, Field[] cards, char type, Field[] extra, Field[][] split) { }
+
+    /**
+     * A placeholder: a parameter, the game number if param is -1 and there is no arithmetic, or arithmetic.
+     */
+    record Slot(int param, Expr expr) {
+        String eval(Template template, long k, int[] at) {
+            if(expr != null)
+                return Long.toString(expr.eval(template, k, at));
+
+            return param < 0 ? Long.toString(k) : template.values.get(param)[at[param]];
+        }
+    }
+
+    /**
+     * A field, either a literal or literals and slots.
+     */
+    record Field(String literal, Object[] parts) {
+        String eval(Template template, long k, int[] at) {
+            if(literal != null)
+                return literal;
+
+            if(parts.length == 1)
+                return ((Slot) parts[0]).eval(template, k, at);
+
+            StringBuilder sb = new StringBuilder(16);
+            for(Object part: parts)
+                sb.append(part instanceof Slot slot ? slot.eval(template, k, at) : (String) part);
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Integer arithmetic in a placeholder.
+     */
+    interface Expr {
+        long eval(Template template, long k, int[] at);
+    }
+
+    /**
+     * This class parses arithmetic by recursive descent: sum := product (+|- product)*, product :=
+     * atom (*|/ atom)*, and atom := number | name | # | (sum) | -atom.
+     */
+    static class Arithmetic {
+        final Template template;
+        final Expander expander;
+        final String text;
+        int at = 0;
+
+        Arithmetic(Template template, Expander expander, String text) {
+            this.template = template;
+            this.expander = expander;
+            this.text = text;
+        }
+
+        Expr parse() {
+            Expr expr = sum();
+            skip();
+            if(at != text.length())
+                throw new IllegalArgumentException("invalid arithmetic: '"+text+"'");
+            return expr;
+        }
+
+        Expr sum() {
+            Expr left = product();
+            for(skip(); at < text.length(); skip()) {
+                char op = text.charAt(at);
+                if(op != '+' && op != '-')
+                    break;
+                at++;
+
+                Expr a = left, b = product();
+                left = op == '+' ? (t, k, v) -> a.eval(t, k, v) + b.eval(t, k, v) :
+                        (t, k, v) -> a.eval(t, k, v) - b.eval(t, k, v);
+            }
+            return left;
+        }
+
+        Expr product() {
+            Expr left = atom();
+            for(skip(); at < text.length(); skip()) {
+                char op = text.charAt(at);
+                if(op != '*' && op != '/')
+                    break;
+                at++;
+
+                Expr a = left, b = atom();
+                left = op == '*' ? (t, k, v) -> a.eval(t, k, v) * b.eval(t, k, v) :
+                        (t, k, v) -> {
+                            long divisor = b.eval(t, k, v);
+                            if(divisor == 0)
+                                throw new IllegalArgumentException("division by zero in '"+text+"'");
+                            return a.eval(t, k, v) / divisor;
+                        };
+            }
+            return left;
+        }
+
+        Expr atom() {
+            skip();
+            if(at == text.length())
+                throw new IllegalArgumentException("invalid arithmetic: '"+text+"'");
+
+            char c = text.charAt(at);
+            if(c == '(') {
+                at++;
+                Expr expr = sum();
+                skip();
+                if(at == text.length() || text.charAt(at) != ')')
+                    throw new IllegalArgumentException("missing ')' in '"+text+"'");
+                at++;
+                return expr;
+            }
+
+            if(c == '-') {
+                at++;
+                Expr expr = atom();
+                return (t, k, v) -> -expr.eval(t, k, v);
+            }
+
+            if(c == '#') {
+                at++;
+                return (t, k, v) -> k;
+            }
+
+            int start = at;
+            while(at < text.length() && (Character.isLetterOrDigit(text.charAt(at)) || text.charAt(at) == '_'))
+                at++;
+
+            if(start == at)
+                throw new IllegalArgumentException("invalid arithmetic: '"+text+"'");
+
+            String token = text.substring(start, at);
+            if(Character.isDigit(token.charAt(0))) {
+                try {
+                    long value = Long.parseLong(token);
+                    return (t, k, v) -> value;
+                }
+                catch(NumberFormatException _) {
+                    throw new IllegalArgumentException("invalid arithmetic: '"+text+"'");
+                }
+            }
+
+            int param = template.use(expander, token);
+            return (t, k, v) -> t.number(param, v);
+        }
+
+        void skip() {
+            while(at < text.length() && text.charAt(at) == ' ')
+                at++;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.engine.Solver;
+import ray.generator.ShoeOptions;
+import ray.model.Game;
+
+import java.util.function.Predicate;
+
+/**
+ * This class reads the games in the lines the byte scanners leave to the compiler: the games of a
+ * template, once its parameters are declared, see Expander, and a game with blanks, once the Solver
+ * fills them in. The scanners hand it a line only after failing to read it, so it costs nothing on
+ * a corpus without such lines.
+ * <p>
+ * A template depends on the declarations above it, so the lines must come in corpus order. A range
+ * of a corpus cut for threads does not have the declarations of the ranges before it; the scanners
+ * note when a range declares parameters and read the corpus again on one thread. Without any, a
+ * template can only use $#, which needs no declaration, so the ranges stand.
+ * @author Ron.Coleman
+ */
+class FrontEnd {
+    final Expander expander = new Expander();
+    final Parser parser = new Parser();
+    final Solver solver;
+
+    /** True once a parameter was declared */
+    boolean declares = false;
+
+    /**
+     * Constructor for the checkers, which fill blanks the same way on every run, so only the
+     * decks come from the settings
+     */
+    FrontEnd() {
+        this(new Solver(0, ShoeOptions.fromSystem().decks()));
+    }
+
+    /**
+     * Constructor
+     * @param solver Solver for games with blanks
+     */
+    FrontEnd(Solver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Reads the games in a line.
+     * @param line Line
+     * @param receiver Receiver of each game, which returns true if it read the game
+     * @return Games read, 0 for a declaration, or -1 if the line has no game that was read
+     */
+    long games(String line, Predicate<Game> receiver) {
+        String text = line.trim();
+
+        try {
+            if(Expander.isDeclaration(text)) {
+                declares = true;
+                expander.declare(text);
+                return 0;
+            }
+
+            if(Expander.isTemplate(text)) {
+                Expander.Template template = expander.template(text);
+
+                long n = 0;
+                for(long k=0; k < template.size(); k++) {
+                    try {
+                        if(receiver.test(template.game(k)))
+                            n++;
+                    }
+                    catch(IllegalArgumentException _) {
+                        // The compiler reports the game
+                    }
+                }
+                return n > 0 ? n : -1;
+            }
+
+            if(Solver.isBlank(text)) {
+                Game game = parser.parse(text);
+                solver.solve(game);
+                return receiver.test(game) ? 1 : -1;
+            }
+        }
+        catch(IllegalArgumentException _) {
+            // The compiler reports the line
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.engine.Engine;
+import ray.model.Game;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is the list of compiled games, in which a template that compiled cleanly is kept as
+ * the template rather than its games. Walking the list binds them again one at a time, filling in
+ * outcomes the template leaves out, so the shoe builder sees every game while only one of a
+ * template's games is alive at once. Getting a game by index walks the parts; use the iterator.
+ * @author Ron.Coleman
+ */
+class GameList extends AbstractList<Game> {
+    // Each part is a Game or a Template
+    final List<Object> parts = new ArrayList<>();
+    int size = 0;
+
+    @Override
+    public boolean add(Game game) {
+        parts.add(game);
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds all the games of a template.
+     * @param template Template
+     * @throws IllegalArgumentException If the list would hold more than Integer.MAX_VALUE games
+     */
+    void add(Expander.Template template) {
+        if(template.size() > Integer.MAX_VALUE - size)
+            throw new IllegalArgumentException("templates expand to more than "+Integer.MAX_VALUE+" games.");
+
+        parts.add(template);
+        size += (int) template.size();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Game get(int index) {
+        if(index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+
+        for(Object part: parts) {
+            if(part instanceof Game game) {
+                if(index == 0)
+                    return game;
+                index--;
+            }
+            else {
+                Expander.Template template = (Expander.Template) part;
+                if(index < template.size())
+                    return bind(template, index, new Engine());
+                index -= (int) template.size();
+            }
+        }
+
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    @Override
+    public Iterator<Game> iterator() {
+        return new Iterator<>() {
+            final Engine engine = new Engine();
+            int part = 0;
+            long k = 0;
+
+            @Override
+            public boolean hasNext() {
+                while(part < parts.size() && parts.get(part) instanceof Expander.Template template && k == template.size()) {
+                    part++;
+                    k = 0;
+                }
+                return part < parts.size();
+            }
+
+            @Override
+            public Game next() {
+                if(!hasNext())
+                    throw new NoSuchElementException();
+
+                if(parts.get(part) instanceof Expander.Template template)
+                    return bind(template, k++, engine);
+
+                return (Game) parts.get(part++);
+            }
+        };
+    }
+
+    static Game bind(Expander.Template template, long k, Engine engine) {
+        Game game = template.game(k);
+        engine.fill(game);
+        return game;
+    }
+}
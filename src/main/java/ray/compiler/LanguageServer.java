@@ -0,0 +1,503 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Game;
+import ray.util.Json;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * This class is a language server for .ray files over stdio, so editors show errors as authors type.
+ * <p>
+ * Each open document keeps its lines with their parse and validation results. An edit re-parses
+ * only the lines it touches, and duplicate labels are tracked by counting each label's lines, so
+ * the work per keystroke does not grow with the file. Publishing diagnostics then only walks
+ * the cached results, except for templates, see Expander: they depend on the declarations above
+ * them, so their first games are checked once per template and declarations, and again only
+ * when either changes.
+ * <p>
+ * A request the server cannot read, such as a change with a bad range, gets an invalid params
+ * error; a notification the server cannot read is logged and skipped, so the session goes on.
+ * @author Ron.Coleman
+ */
+public class LanguageServer {
+    // LSP severity for errors
+    static final int ERROR = 1;
+
+    // LSP incremental text sync
+    static final int INCREMENTAL = 2;
+
+    // Games of a template checked per publish, so a large one does not stall typing
+    static final int TEMPLATE_GAMES = 1000;
+
+    final InputStream in;
+    final OutputStream out;
+
+    final Map<String,Document> documents = new HashMap<>();
+
+    boolean shutdown = false;
+
+    /**
+     * Constructor
+     * @param in Client messages
+     * @param out Server messages
+     */
+    public LanguageServer(InputStream in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Serves until the client sends exit or closes the input.
+     * @return Exit code, zero only if the client shut down first
+     * @throws IOException If a message cannot be read or written
+     */
+    public int run() throws IOException {
+        String message;
+        while((message = read()) != null) {
+            Object request;
+            try {
+                request = Json.parse(message);
+            }
+            catch(IllegalArgumentException e) {
+                send(response(null, null, error(-32700, e.getMessage())));
+                continue;
+            }
+
+            if("exit".equals(Json.get(request, "method")))
+                return shutdown ? 0 : 1;
+
+            try {
+                handle(request);
+            }
+            catch(RuntimeException e) {
+                Object id = Json.get(request, "id");
+                if(id != null)
+                    send(response(id, null, error(-32602, e.getMessage())));
+                else
+                    System.err.println("ray: skipped "+Json.get(request, "method")+": "+e);
+            }
+        }
+
+        return shutdown ? 0 : 1;
+    }
+
+    void handle(Object request) throws IOException {
+        Object id = Json.get(request, "id");
+        Object method = Json.get(request, "method");
+        Object params = Json.get(request, "params");
+
+        if(!(method instanceof String))
+            return;
+
+        switch((String) method) {
+            case "initialize" -> send(response(id, Map.of(
+                    "capabilities", Map.of(
+                            "textDocumentSync", Map.of("openClose", true, "change", INCREMENTAL)),
+                    "serverInfo", Map.of("name", "ray")), null));
+
+            case "shutdown" -> {
+                shutdown = true;
+                send(response(id, null, null));
+            }
+
+            case "textDocument/didOpen" -> {
+                String uri = (String) Json.get(params, "textDocument", "uri");
+                Document document = new Document((String) Json.get(params, "textDocument", "text"));
+                documents.put(uri, document);
+                publish(uri, document.diagnostics());
+            }
+
+            case "textDocument/didChange" -> {
+                String uri = (String) Json.get(params, "textDocument", "uri");
+                Document document = documents.get(uri);
+                if(document == null)
+                    return;
+
+                Object changes = Json.get(params, "contentChanges");
+                if(!(changes instanceof List<?>))
+                    throw new IllegalArgumentException("missing contentChanges.");
+
+                for(Object change: (List<?>) changes) {
+                    String text = (String) Json.get(change, "text");
+                    Object range = Json.get(change, "range");
+                    if(range == null)
+                        document.replace(text);
+                    else
+                        document.change(
+                                intOf(Json.get(range, "start", "line")),
+                                intOf(Json.get(range, "start", "character")),
+                                intOf(Json.get(range, "end", "line")),
+                                intOf(Json.get(range, "end", "character")),
+                                text);
+                }
+
+                publish(uri, document.diagnostics());
+            }
+
+            case "textDocument/didClose" -> {
+                String uri = (String) Json.get(params, "textDocument", "uri");
+                documents.remove(uri);
+                publish(uri, List.of());
+            }
+
+            default -> {
+                // Requests need an answer; notifications we don't know are ignored
+                if(id != null)
+                    send(response(id, null, error(-32601, "unsupported method: "+method)));
+            }
+        }
+    }
+
+    void publish(String uri, List<Diagnostic> diagnostics) throws IOException {
+        List<Object> items = new ArrayList<>(diagnostics.size());
+        for(Diagnostic diagnostic: diagnostics) {
+            items.add(Map.of(
+                    "range", Map.of(
+                            "start", Map.of("line", diagnostic.line(), "character", 0),
+                            "end", Map.of("line", diagnostic.line(), "character", diagnostic.length())),
+                    "severity", ERROR,
+                    "source", "ray",
+                    "message", diagnostic.message()));
+        }
+
+        Map<String,Object> notification = new LinkedHashMap<>();
+        notification.put("jsonrpc", "2.0");
+        notification.put("method", "textDocument/publishDiagnostics");
+        notification.put("params", Map.of("uri", uri, "diagnostics", items));
+        send(notification);
+    }
+
+    static Map<String,Object> response(Object id, Object result, Object error) {
+        Map<String,Object> response = new LinkedHashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", id);
+        if(error == null)
+            response.put("result", result);
+        else
+            response.put("error", error);
+        return response;
+    }
+
+    static Map<String,Object> error(int code, String message) {
+        return Map.of("code", code, "message", message == null ? "" : message);
+    }
+
+    static int intOf(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    /**
+     * Reads one message framed by a Content-Length header.
+     * @return Message or null at the end of input
+     */
+    String read() throws IOException {
+        int length = -1;
+
+        String header;
+        while((header = header()) != null && !header.isEmpty()) {
+            int colon = header.indexOf(':');
+            if(colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length"))
+                length = Integer.parseInt(header.substring(colon + 1).trim());
+        }
+
+        if(header == null || length < 0)
+            return null;
+
+        byte[] body = in.readNBytes(length);
+        if(body.length < length)
+            return null;
+
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    String header() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while((c = in.read()) != -1) {
+            if(c == '\n')
+                return sb.toString();
+            if(c != '\r')
+                sb.append((char) c);
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    void send(Object message) throws IOException {
+        byte[] body = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        out.write(("Content-Length: "+body.length+"\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+    }
+
+    /**
+     * One problem on one line.
+     * @param line Zero-based line number
+     * @param length Line length, so the whole line is marked
+     * @param message Message
+     */
+    public record Diagnostic(int line, int length, String message) { }
+
+    /**
+     * This class is an open .ray document with its per-line results.
+     */
+    public static class Document {
+        final Parser parser = new Parser();
+
+        final ArrayList<Line> lines = new ArrayList<>();
+
+        // Lines per label, shared by all lines with the same label
+        final Map<String,Label> labels = new HashMap<>();
+
+        // Template errors by the declarations above the template and its text
+        Map<String,List<String>> templates = new HashMap<>();
+
+        /**
+         * Constructor
+         * @param text Full text
+         */
+        public Document(String text) {
+            replace(text);
+        }
+
+        /**
+         * Replaces the full text.
+         * @param text Text
+         */
+        public void replace(String text) {
+            for(Line line: lines)
+                forget(line);
+            lines.clear();
+
+            for(String s: text.split("\n", -1))
+                lines.add(analyze(s));
+        }
+
+        /**
+         * Replaces a range of text, re-analyzing only the lines it touches.
+         * @param startLine Zero-based start line
+         * @param startChar Start character in the line
+         * @param endLine Zero-based end line
+         * @param endChar End character in the line
+         * @param text Replacement text
+         */
+        public void change(int startLine, int startChar, int endLine, int endChar, String text) {
+            if(startLine < 0 || startChar < 0 || endLine < startLine || endChar < 0
+                    || (endLine == startLine && endChar < startChar) || text == null)
+                throw new IllegalArgumentException("invalid range.");
+
+            startLine = Math.min(startLine, lines.size() - 1);
+            endLine = Math.min(endLine, lines.size() - 1);
+
+            String first = lines.get(startLine).text;
+            String last = lines.get(endLine).text;
+
+            String edited = first.substring(0, Math.min(startChar, first.length()))
+                    + text
+                    + last.substring(Math.min(endChar, last.length()));
+
+            List<Line> range = lines.subList(startLine, endLine + 1);
+            for(Line line: range)
+                forget(line);
+            range.clear();
+
+            List<Line> replacement = new ArrayList<>();
+            for(String s: edited.split("\n", -1))
+                replacement.add(analyze(s));
+
+            lines.addAll(startLine, replacement);
+        }
+
+        /**
+         * Gets the number of lines.
+         * @return Count
+         */
+        public int lines() {
+            return lines.size();
+        }
+
+        /**
+         * Gets the current diagnostics from the cached line results.
+         * @return Diagnostics in line order
+         */
+        public List<Diagnostic> diagnostics() {
+            List<Diagnostic> diagnostics = new ArrayList<>();
+
+            // Only labels with duplicates land here, so this stays small
+            Map<Label,Integer> firsts = new HashMap<>();
+
+            Expander expander = new Expander();
+
+            // Declarations so far; a template only needs binding again when they or it change
+            String scope = "";
+            Map<String,List<String>> checked = new HashMap<>();
+
+            for(int k=0; k < lines.size(); k++) {
+                Line line = lines.get(k);
+
+                for(String error: line.errors)
+                    diagnostics.add(new Diagnostic(k, line.text.length(), error));
+
+                if(line.expands) {
+                    String text = line.text.trim();
+
+                    List<String> errors;
+                    if(Expander.isDeclaration(text)) {
+                        scope += text + "\n";
+                        errors = expand(expander, text);
+                    }
+                    else {
+                        String key = scope + text;
+                        errors = templates.get(key);
+                        if(errors == null)
+                            errors = expand(expander, text);
+                        checked.put(key, errors);
+                    }
+
+                    for(String error: errors)
+                        diagnostics.add(new Diagnostic(k, line.text.length(), error));
+                }
+
+                if(line.label == null || line.label.count < 2)
+                    continue;
+
+                Integer first = firsts.putIfAbsent(line.label, k);
+                if(first != null)
+                    diagnostics.add(new Diagnostic(k, line.text.length(),
+                            String.format("duplicate label %s, first seen at line %d.", line.label.name, first + 1)));
+            }
+
+            // Keep only the templates still in the document
+            templates = checked;
+
+            return diagnostics;
+        }
+
+        /**
+         * Declares a parameter or binds and checks a template's games.
+         * @param expander Expander with the declarations so far
+         * @param text Trimmed declaration or template
+         * @return Errors of the template or its first bad game; declaration errors are the line's own
+         */
+        static List<String> expand(Expander expander, String text) {
+            try {
+                if(Expander.isDeclaration(text)) {
+                    expander.declare(text);
+                    return List.of();
+                }
+
+                Expander.Template template = expander.template(text);
+                long games = Math.min(template.size(), TEMPLATE_GAMES);
+                for(long k=0; k < games; k++) {
+                    Game game = template.game(k);
+                    List<String> errors = Validator.validate(game);
+                    if(!errors.isEmpty())
+                        return errors.stream().map(error -> game.label+": "+error).toList();
+                }
+                return List.of();
+            }
+            catch(RuntimeException e) {
+                return Expander.isDeclaration(text) ? List.of() :
+                        List.of(e.getMessage() == null ? "invalid template." : e.getMessage());
+            }
+        }
+
+        Line analyze(String text) {
+            String trimmed = text.trim();
+            if(trimmed.isEmpty() || trimmed.startsWith("#"))
+                return new Line(text, null, List.of(), false);
+
+            // A declaration is checked on its own; a template only with the declarations above it
+            if(Expander.isDeclaration(trimmed)) {
+                try {
+                    new Expander().declare(trimmed);
+                    return new Line(text, null, List.of(), true);
+                }
+                catch(IllegalArgumentException e) {
+                    return new Line(text, null, List.of(e.getMessage()), true);
+                }
+            }
+
+            if(Expander.isTemplate(trimmed))
+                return new Line(text, null, List.of(), true);
+
+            List<String> errors;
+            String label = null;
+            try {
+                Game game = parser.parse(trimmed);
+                label = game.label;
+                errors = Validator.validate(game);
+            }
+            catch(RuntimeException e) {
+                errors = List.of(e.getMessage() == null ? "invalid game." : e.getMessage());
+                try {
+                    label = parser.index(trimmed).label();
+                }
+                catch(RuntimeException _) {
+                    // No label either, so no duplicate check
+                }
+            }
+
+            Label shared = null;
+            if(label != null) {
+                shared = labels.computeIfAbsent(label, Label::new);
+                shared.count++;
+            }
+
+            return new Line(text, shared, errors, false);
+        }
+
+        void forget(Line line) {
+            if(line.label != null && --line.label.count == 0)
+                labels.remove(line.label.name);
+        }
+    }
+
+    /**
+     * One line of a document with its results.
+     * @param text Text as edited
+     * @param label Label or null if the line has none
+     * @param errors Parse and validation errors
+     * @param expands True if the line is a declaration or a template
+     */
+    record Line(String text, Label label, List<String> errors, boolean expands) { }
+
+    /**
+     * Label with the number of lines carrying it.
+     */
+    static class Label {
+        final String name;
+        int count;
+
+        Label(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Serves one editor over stdio.
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        try {
+            System.exit(new LanguageServer(System.in, new BufferedOutputStream(System.out)).run());
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,638 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+import ray.type.Result;
+import ray.util.Streams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class totals what a corpus wagers, wins, and loses by seat and by result.
+ * <p>
+ * Each game line is read for its bets and outcomes alone, without parsing it into a Game. The
+ * bets go to the player seats in order; a seat which doubles stakes twice its bet and a seat
+ * which splits stakes its bet on the outcome of each split hand. An outcome's amount is won for WIN,
+ * BLACKJACK, and CHARLIE, lost for LOSE and BUST, and returned for PUSH. The totals are flat
+ * long arrays by seat and result, so partial ledgers of line-aligned ranges add up to the same
+ * ledger however the corpus is cut. The ranges are those the Coordinator compiles, so a ledger
+ * per shard can be checked against a server which replays each shoe fragment on its own.
+ * <p>
+ * A template, see Expander, is bound by a FrontEnd and each of its games posted, as its bets and
+ * outcomes may be parameters. A corpus which declares template parameters is posted on one thread
+ * as one shard, since a range does not have the declarations above it.
+ * <p>
+ * A game without outcomes is unsettled, and one whose outcomes do not match its bets is
+ * unbalanced; neither is in the totals.
+ * @author Ron.Coleman
+ */
+public class Ledger {
+    static final Player[] SEATS = {Player.Dewey, Player.You, Player.Huey};
+    static final Result[] RESULTS = Result.values();
+
+    // Most seats and outcomes in one game
+    static final int MAX_SEATS = 8;
+    static final int MAX_OUTCOMES = 4 * MAX_SEATS;
+
+    // Totals by seat and result
+    final long[] hands = new long[SEATS.length * RESULTS.length];
+    final long[] wagered = new long[SEATS.length * RESULTS.length];
+    final long[] won = new long[SEATS.length * RESULTS.length];
+    final long[] lost = new long[SEATS.length * RESULTS.length];
+
+    long games = 0;
+    long unsettled = 0;
+    long unbalanced = 0;
+    long skipped = 0;
+    long nanos = 0;
+
+    // True if the corpus declares template parameters, which a range may not have
+    boolean declares = false;
+
+    // Per game: bets, player seats, their directive types and outcomes expected, and outcomes
+    final int[] bets = new int[MAX_SEATS];
+    final int[] seats = new int[MAX_SEATS];
+    final byte[] types = new byte[MAX_SEATS];
+    final int[] settles = new int[MAX_SEATS];
+    final int[] results = new int[MAX_OUTCOMES];
+    final int[] amounts = new int[MAX_OUTCOMES];
+
+    // Line and cursor
+    byte[] b;
+    int p;
+    int q;
+
+    /**
+     * Ledger totals.
+     * @param games Games settled
+     * @param hands Outcomes in them
+     * @param unsettled Games without outcomes
+     * @param unbalanced Games whose outcomes do not match the bets
+     * @param skipped Lines which were not games or templates that could be read
+     * @param wagered Total staked
+     * @param won Total won by the players
+     * @param lost Total lost by the players
+     * @param nanos Elapsed time
+     */
+    public record Summary(long games, long hands, long unsettled, long unbalanced, long skipped,
+                          long wagered, long won, long lost, long nanos) {
+        public long net() {
+            return won - lost;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d game(s), %d hand(s), %d unsettled, %d unbalanced, %d line(s) skipped: wagered %d, won %d, lost %d, net %d in %.3fs (%.0f games/s)",
+                    games, hands, unsettled, unbalanced, skipped, wagered, won, lost, net(), nanos / 1e9,
+                    nanos > 0 ? games * 1e9 / nanos : 0);
+        }
+    }
+
+    static int seat(Player who) {
+        return who.ordinal() - Player.Dewey.ordinal();
+    }
+
+    /**
+     * Posts a corpus to this ledger.
+     * @param in Corpus
+     * @throws IOException If the corpus cannot be read
+     */
+    public void scan(InputStream in) throws IOException {
+        FrontEnd front = new FrontEnd();
+
+        try(BlockReader reader = new BlockReader(in)) {
+            while(reader.next()) {
+                if(reader.skippable())
+                    continue;
+
+                // A template reads as a game but for its placeholders
+                if(!reader.expandable())
+                    post(reader.buf, reader.start, reader.end);
+                else if(front.games(reader.line(), this::post) < 0)
+                    skipped++;
+            }
+        }
+
+        declares |= front.declares;
+    }
+
+    /**
+     * Posts a game line to this ledger.
+     * @param line Line
+     * @return True if the line is a game that was read, false otherwise
+     */
+    public boolean post(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.ISO_8859_1);
+        return post(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Posts a game line to this ledger.
+     * @param buf Bytes
+     * @param from Start of the line
+     * @param to End of the line, exclusive
+     * @return True if the line is a game that was read, false otherwise
+     */
+    public boolean post(byte[] buf, int from, int to) {
+        b = buf;
+        p = from;
+        q = to;
+
+        int nbets = bets();
+        int nseats = nbets < 0 ? -1 : seats();
+        int noutcomes = nseats < 0 ? -1 : outcomes();
+        if(noutcomes < 0) {
+            skipped++;
+            return false;
+        }
+
+        settle(nbets, nseats, noutcomes);
+        return true;
+    }
+
+    /**
+     * Posts a game to this ledger, e.g., one bound from a template.
+     * @param game Game
+     * @return True if the game was read, false if it has more seats or outcomes than a line may
+     */
+    public boolean post(Game game) {
+        int nbets = game.bets.size();
+        int noutcomes = game.outcomes.size();
+        if(nbets > MAX_SEATS || noutcomes > MAX_OUTCOMES)
+            return false;
+
+        for(int k=0; k < nbets; k++)
+            bets[k] = game.bets.get(k);
+
+        int nseats = 0;
+        for(Hand hand: game.hands) {
+            if(hand.who == Player.Dealer)
+                continue;
+            if(nseats == MAX_SEATS)
+                return false;
+
+            byte type = hand.directive == null ? 0 : (byte) hand.directive.type;
+            seats[nseats] = seat(hand.who);
+            types[nseats] = type;
+            settles[nseats++] = type == 'P' ? hand.directive.splitHands.size() : 1;
+        }
+
+        for(int k=0; k < noutcomes; k++) {
+            Outcome outcome = game.outcomes.get(k);
+            Result result = Result.of(outcome.result);
+            if(result == null)
+                return false;
+            results[k] = result.ordinal();
+            amounts[k] = outcome.amount;
+        }
+
+        settle(nbets, nseats, noutcomes);
+        return true;
+    }
+
+    /**
+     * Totals a game read into the per game arrays.
+     * @param nbets Number of bets
+     * @param nseats Number of player seats
+     * @param noutcomes Number of outcomes
+     */
+    void settle(int nbets, int nseats, int noutcomes) {
+        games++;
+        if(noutcomes == 0) {
+            unsettled++;
+            return;
+        }
+
+        // A split settles an outcome per hand on one bet
+        int expected = 0;
+        for(int k=0; k < nseats; k++)
+            expected += settles[k];
+
+        if(nbets != nseats || noutcomes != expected) {
+            unbalanced++;
+            return;
+        }
+
+        int outcome = 0;
+        for(int k=0; k < nseats; k++) {
+            int stake = types[k] == 'D' ? 2 * bets[k] : bets[k];
+            for(int h=0; h < settles[k]; h++, outcome++) {
+                int cell = seats[k] * RESULTS.length + results[outcome];
+                hands[cell]++;
+                wagered[cell] += stake;
+                switch(RESULTS[results[outcome]]) {
+                    case WIN, BLACKJACK, CHARLIE -> won[cell] += amounts[outcome];
+                    case LOSE, BUST -> lost[cell] += amounts[outcome];
+                    case PUSH -> { }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the bets up to the colon after the header.
+     * @return Number of bets or -1 if the header cannot be read
+     */
+    int bets() {
+        while(p < q && b[p] != '{' && b[p] != ':')
+            p++;
+        if(p == q)
+            return -1;
+        if(b[p] == ':') {
+            p++;
+            return 0;
+        }
+
+        p++;
+        int n = 0;
+        while(true) {
+            int bet = number();
+            if(bet < 0 || n == MAX_SEATS)
+                return -1;
+            bets[n++] = bet;
+
+            skip();
+            if(p == q)
+                return -1;
+            byte c = b[p++];
+            if(c == '}')
+                break;
+            if(c != ',')
+                return -1;
+        }
+
+        skip();
+        return p < q && b[p++] == ':' ? n : -1;
+    }
+
+    /**
+     * Reads the player seats and their directive types up to the outcome separator.
+     * @return Number of player seats or -1 if a seat cannot be read
+     */
+    int seats() {
+        int n = 0;
+        boolean dealer = false;
+        while(true) {
+            int from = Parser.skip(b, p, q);
+            p = Parser.letters(b, from, q);
+
+            Player who = Parser.player(b, from, p);
+            if(who == null)
+                return -1;
+
+            // The directive type is the character before its bang, and a split has a hand per comma and one more
+            byte type = 0;
+            int commas = 0;
+            while(p < q && b[p] != '|' && b[p] != '>') {
+                if(b[p] == '!' && p > from)
+                    type = b[p-1];
+                else if(b[p] == ',')
+                    commas++;
+                p++;
+            }
+
+            if(who == Player.Dealer)
+                dealer = true;
+            else {
+                if(n == MAX_SEATS)
+                    return -1;
+                seats[n] = seat(who);
+                types[n] = type;
+                settles[n++] = type == 'P' ? commas + 1 : 1;
+            }
+
+            if(p == q)
+                return -1;
+            if(b[p++] == '>')
+                return dealer && p < q && b[p++] == '>' ? n : -1;
+        }
+    }
+
+    /**
+     * Reads the outcomes to the end of the line.
+     * @return Number of outcomes or -1 if an outcome cannot be read
+     */
+    int outcomes() {
+        int n = 0;
+        while(true) {
+            skip();
+            if(p == q)
+                return n;
+            if(n > 0 && b[p++] != ',')
+                return -1;
+            skip();
+
+            int from = p;
+            p = Parser.letters(b, from, q);
+
+            String name = Parser.result(b, from, p);
+            Result result = name == null ? null : Result.of(name);
+            if(result == null || n == results.length)
+                return -1;
+
+            skip();
+            if(p == q || b[p++] != '{')
+                return -1;
+            int amount = number();
+            skip();
+            if(amount < 0 || p == q || b[p++] != '}')
+                return -1;
+
+            results[n] = result.ordinal();
+            amounts[n++] = amount;
+        }
+    }
+
+    /**
+     * Reads a whole number after any spaces.
+     * @return Number or -1 if there is none
+     */
+    int number() {
+        skip();
+        int from = p;
+        int value = 0;
+        while(p < q && b[p] >= '0' && b[p] <= '9' && p - from < 9)
+            value = value * 10 + b[p++] - '0';
+        return p > from && (p == q || b[p] < '0' || b[p] > '9') ? value : -1;
+    }
+
+    void skip() {
+        p = Parser.skip(b, p, q);
+    }
+
+    /**
+     * Adds another ledger to this one.
+     * @param other Ledger
+     */
+    public void merge(Ledger other) {
+        for(int k=0; k < hands.length; k++) {
+            hands[k] += other.hands[k];
+            wagered[k] += other.wagered[k];
+            won[k] += other.won[k];
+            lost[k] += other.lost[k];
+        }
+
+        games += other.games;
+        unsettled += other.unsettled;
+        unbalanced += other.unbalanced;
+        skipped += other.skipped;
+        declares |= other.declares;
+    }
+
+    /**
+     * Posts a corpus file to one ledger per shard.
+     * @param input Corpus path, possibly gzip
+     * @param shards Number of line-aligned ranges to cut the corpus into
+     * @param threads Number of threads
+     * @return Ledgers in corpus order, one if the input is compressed or declares template parameters
+     * @throws IOException If the corpus cannot be read
+     */
+    public static List<Ledger> analyze(Path input, int shards, int threads) throws IOException {
+        long started = System.nanoTime();
+
+        // Compressed input cannot be cut into ranges
+        if(shards <= 1 || Streams.isCompressed(input)) {
+            Ledger ledger = new Ledger();
+            ledger.scan(Streams.open(input));
+            ledger.nanos = System.nanoTime() - started;
+            return List.of(ledger);
+        }
+
+        List<Future<Ledger>> futures = new ArrayList<>();
+        try(FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+            ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(shards, threads)))) {
+            for(Coordinator.Partition partition: Coordinator.partition(input, shards)) {
+                futures.add(pool.submit(() -> {
+                    long began = System.nanoTime();
+                    Ledger shard = new Ledger();
+                    shard.scan(new Worker.Range(channel, partition.start, partition.end));
+                    shard.nanos = System.nanoTime() - began;
+                    return shard;
+                }));
+            }
+
+            List<Ledger> ledgers = new ArrayList<>();
+            for(Future<Ledger> future: futures)
+                ledgers.add(future.get());
+
+            if(ledgers.stream().anyMatch(ledger -> ledger.declares))
+                return analyze(input, 1, 1);
+            return ledgers;
+        }
+        catch(ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("ledger interrupted");
+        }
+    }
+
+    /**
+     * Posts a corpus file to one ledger.
+     * @param input Corpus path, possibly gzip
+     * @param threads Number of threads
+     * @return Ledger
+     * @throws IOException If the corpus cannot be read
+     */
+    public static Ledger analyze(Path input, int threads) throws IOException {
+        long started = System.nanoTime();
+        Ledger ledger = total(analyze(input, threads, threads));
+        ledger.nanos = System.nanoTime() - started;
+        return ledger;
+    }
+
+    /**
+     * Adds up ledgers.
+     * @param ledgers Ledgers
+     * @return New ledger of their totals
+     */
+    public static Ledger total(List<Ledger> ledgers) {
+        Ledger total = new Ledger();
+        for(Ledger ledger: ledgers) {
+            total.merge(ledger);
+            total.nanos = Math.max(total.nanos, ledger.nanos);
+        }
+        return total;
+    }
+
+    long sum(long[] totals, Player who, Result result) {
+        long sum = 0;
+        for(int seat=0; seat < SEATS.length; seat++) {
+            if(who != null && SEATS[seat] != who)
+                continue;
+            for(int r=0; r < RESULTS.length; r++)
+                if(result == null || RESULTS[r] == result)
+                    sum += totals[seat * RESULTS.length + r];
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the number of outcomes.
+     * @param who Seat or null for every seat
+     * @param result Result or null for every result
+     * @return Hands
+     */
+    public long hands(Player who, Result result) {
+        return sum(hands, who, result);
+    }
+
+    /**
+     * Gets the total staked.
+     * @param who Seat or null for every seat
+     * @param result Result or null for every result
+     * @return Amount
+     */
+    public long wagered(Player who, Result result) {
+        return sum(wagered, who, result);
+    }
+
+    /**
+     * Gets the total won by the players.
+     * @param who Seat or null for every seat
+     * @param result Result or null for every result
+     * @return Amount
+     */
+    public long won(Player who, Result result) {
+        return sum(won, who, result);
+    }
+
+    /**
+     * Gets the total lost by the players.
+     * @param who Seat or null for every seat
+     * @param result Result or null for every result
+     * @return Amount
+     */
+    public long lost(Player who, Result result) {
+        return sum(lost, who, result);
+    }
+
+    /**
+     * Gets the ledger totals.
+     * @return Summary
+     */
+    public Summary summary() {
+        return new Summary(games, hands(null, null), unsettled, unbalanced, skipped,
+                wagered(null, null), won(null, null), lost(null, null), nanos);
+    }
+
+    /**
+     * Writes the ledger as TSV, a row for each seat and result and their totals, all rows
+     * always, so two ledgers can be compared line by line.
+     * @param out Output
+     * @param shard Shard name for the first column
+     */
+    public void report(PrintWriter out, String shard) {
+        for(int seat=0; seat <= SEATS.length; seat++) {
+            Player who = seat < SEATS.length ? SEATS[seat] : null;
+            for(int r=0; r <= RESULTS.length; r++) {
+                Result result = r < RESULTS.length ? RESULTS[r] : null;
+                long won = won(who, result);
+                long lost = lost(who, result);
+                out.println(shard+"\t"+(who == null ? "all" : who)+"\t"+(result == null ? "all" : result)
+                        +"\t"+hands(who, result)+"\t"+wagered(who, result)+"\t"+won+"\t"+lost+"\t"+(won - lost));
+            }
+        }
+    }
+
+    /**
+     * Writes a report of ledgers, the header, each shard if wanted, and their total.
+     * @param out Output
+     * @param ledgers Ledgers in corpus order
+     * @param shards True to write each shard numbered from 0
+     */
+    public static void write(PrintWriter out, List<Ledger> ledgers, boolean shards) {
+        out.println("# shard\tseat\tresult\thands\twagered\twon\tlost\tnet");
+        if(shards) {
+            for(int k=0; k < ledgers.size(); k++)
+                ledgers.get(k).report(out, String.valueOf(k));
+        }
+        total(ledgers).report(out, "all");
+    }
+
+    /**
+     * Writes the ledger of a corpus file.
+     * @param args [--threads n] [--shards n] input [report]
+     */
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int shards = 0;
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--threads" -> threads = Integer.parseInt(args[++argno]);
+                    case "--shards" -> shards = Integer.parseInt(args[++argno]);
+                    default -> {
+                        System.err.println("unknown option: "+args[argno]);
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "missing option value" : e.getMessage());
+            System.exit(1);
+        }
+
+        if(args.length - argno < 1) {
+            System.out.println("usage: ray.compiler.Ledger [--threads n] [--shards n] input-path [report-path]");
+            System.exit(0);
+        }
+
+        Path input = Path.of(args[argno]);
+        Path output = args.length - argno > 1 ? Path.of(args[argno + 1]) : null;
+
+        try {
+            // Without shards, the ranges are only for the threads and only the total is written
+            List<Ledger> ledgers = analyze(input, shards > 0 ? shards : threads, threads);
+
+            if(output == null) {
+                PrintWriter out = new PrintWriter(System.out);
+                write(out, ledgers, shards > 0);
+                out.flush();
+            }
+            else {
+                try(PrintWriter out = Streams.writer(output)) {
+                    write(out, ledgers, shards > 0);
+                    if(out.checkError())
+                        throw new IOException("failed writing "+output+".");
+                }
+            }
+
+            System.err.println(total(ledgers).summary());
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a structural index of one game line.
+ * <p>
+ * Building the index is a single pass over the characters that only records where
+ * the label, bets, seats, directives, and outcomes are. Hands and outcomes are parsed
+ * the first time they are asked for and then cached, so a job that only needs, say,
+ * labels never pays to parse cards.
+ * @author Ron.Coleman
+ */
+public class LineIndex {
+    final Parser parser;
+
+    /** Trimmed source line */
+    public final String source;
+
+    // Offsets of '{' and '}' around the bets
+    int betsOpen = -1;
+    int betsClose = -1;
+
+    // Offset of ':' ending the header
+    int colon = -1;
+
+    // Offset of ">>" starting the outcomes
+    int outcomeSep = -1;
+
+    // Seat k is source[seats[k], seats[k+1]-1), i.e., separators are at seats[k+1]-1
+    int[] seats = new int[5];
+    int seatCount = 0;
+
+    // Offsets of '!' for each directive
+    int[] directives = new int[4];
+    int directiveCount = 0;
+
+    // Lazily materialized parts
+    String label;
+    Hand[] hands;
+    List<Outcome> outcomes;
+    Game game;
+
+    /**
+     * Constructor
+     * @param parser Parser used to materialize parts
+     * @param line Trimmed game line
+     */
+    LineIndex(Parser parser, String line) {
+        this.parser = parser;
+        this.source = line;
+
+        int n = line.length();
+        for(int k=0; k < n; k++)
+            k = visit(k);
+
+        finish();
+    }
+
+    /**
+     * Constructor which visits only the structural characters marked in a bitmap.
+     * @param parser Parser used to materialize parts
+     * @param line Trimmed game line, which must be ASCII so chars and bytes line up
+     * @param structurals Structural bitmap from a StructuralScanner
+     * @param base Bit of the line's first character in the bitmap
+     */
+    LineIndex(Parser parser, String line, long[] structurals, int base) {
+        this.parser = parser;
+        this.source = line;
+
+        int end = base + line.length();
+        int word = base >>> 6;
+        long bits = structurals[word] & (-1L << (base & 63));
+
+        while(true) {
+            while(bits == 0) {
+                if(++word << 6 >= end)
+                    break;
+                bits = structurals[word];
+            }
+            if(bits == 0)
+                break;
+
+            int bit = (word << 6) + Long.numberOfTrailingZeros(bits);
+            if(bit >= end)
+                break;
+
+            int k = visit(bit - base);
+
+            // Skip a character the visit consumed, i.e., the second '>' of ">>"
+            bits &= bits - 1;
+            if(k != bit - base)
+                bits &= bits - 1;
+        }
+
+        finish();
+    }
+
+    /**
+     * Records one character if it is structural.
+     * @param k Offset of the character
+     * @return Offset of the last character consumed
+     */
+    int visit(int k) {
+        char c = source.charAt(k);
+        int n = source.length();
+
+        if(outcomeSep >= 0) {
+            if(c == '>' && k+1 < n && source.charAt(k+1) == '>')
+                throw new IllegalArgumentException("Missing '>>' outcome separator");
+            return k;
+        }
+
+        switch(c) {
+            case '{' -> {
+                if(colon < 0 && betsOpen < 0)
+                    betsOpen = k;
+            }
+            case '}' -> {
+                if(colon < 0 && betsClose < 0)
+                    betsClose = k;
+            }
+            case ':' -> {
+                if(colon < 0) {
+                    colon = k;
+                    seat(k + 1);
+                }
+            }
+            case '|' -> {
+                if(colon >= 0)
+                    seat(k + 1);
+            }
+            case '!' -> {
+                if(colon >= 0) {
+                    if(directiveCount == directives.length)
+                        directives = Arrays.copyOf(directives, directiveCount * 2);
+                    directives[directiveCount++] = k;
+                }
+            }
+            case '>' -> {
+                if(k+1 < n && source.charAt(k+1) == '>') {
+                    outcomeSep = k;
+                    if(colon >= 0)
+                        seat(k + 1);
+                    return k + 1;
+                }
+            }
+        }
+
+        return k;
+    }
+
+    void finish() {
+        if(outcomeSep < 0)
+            throw new IllegalArgumentException("Missing '>>' outcome separator");
+
+        if(colon < 0)
+            throw new IllegalArgumentException("missing ':' after bet section");
+
+        // The last boundary marks the end of the last seat, not a new one
+        seatCount--;
+    }
+
+    void seat(int start) {
+        if(seatCount == seats.length)
+            seats = Arrays.copyOf(seats, seatCount * 2);
+        seats[seatCount++] = start;
+    }
+
+    /**
+     * Gets the header, e.g., T1 {5,10}
+     * @return Header text
+     */
+    String header() {
+        return source.substring(0, colon).trim();
+    }
+
+    /**
+     * Gets the label without parsing bets or hands.
+     * @return Label
+     */
+    public String label() {
+        if(label != null)
+            return label;
+
+        if(betsOpen < 0 || betsClose < betsOpen)
+            throw new IllegalArgumentException("Invalid label/bet format: " + header());
+
+        int end = betsOpen;
+        while(end > 0 && Character.isWhitespace(source.charAt(end-1)))
+            end--;
+
+        int start = end;
+        while(start > 0 && isWordChar(source.charAt(start-1)))
+            start--;
+
+        if(start == end)
+            throw new IllegalArgumentException("Invalid label/bet format: " + header());
+
+        label = source.substring(start, end);
+
+        return label;
+    }
+
+    /**
+     * Gets the bets.
+     * @return Bets
+     */
+    public List<Integer> bets() {
+        if(game != null)
+            return game.bets;
+
+        Game header = new Game();
+        Parser.parseLabelAndBet(header(), header);
+        return header.bets;
+    }
+
+    /**
+     * Gets the sum of the bets without allocating.
+     * @return Total of the bets
+     */
+    public int betTotal() {
+        if(betsOpen < 0 || betsClose < betsOpen)
+            throw new IllegalArgumentException("Invalid label/bet format: " + header());
+
+        int total = 0;
+        int bet = 0;
+        for(int k=betsOpen+1; k < betsClose; k++) {
+            char c = source.charAt(k);
+            if(c >= '0' && c <= '9')
+                bet = bet * 10 + (c - '0');
+            else if(c == ',') {
+                total += bet;
+                bet = 0;
+            }
+        }
+
+        return total + bet;
+    }
+
+    /**
+     * Gets the number of seats, i.e., hands, including the dealer.
+     * @return Seat count
+     */
+    public int seats() {
+        return seatCount;
+    }
+
+    /**
+     * Gets who sits in a seat by reading only the player name.
+     * @param seat Seat number in line order
+     * @return Player or None if the name isn't a player
+     */
+    public Player who(int seat) {
+        int k = seats[seat];
+        int end = seats[seat+1] - 1;
+
+        while(k < end && Character.isWhitespace(source.charAt(k)))
+            k++;
+
+        int start = k;
+        while(k < end && Character.isLetter(source.charAt(k)))
+            k++;
+
+        return switch(source.substring(start, k)) {
+            case "You" -> Player.You;
+            case "Huey" -> Player.Huey;
+            case "Dewey" -> Player.Dewey;
+            case "Dealer" -> Player.Dealer;
+            default -> Player.None;
+        };
+    }
+
+    /**
+     * Gets the seat of a player.
+     * @param player Player
+     * @return Seat number or -1 if the player isn't in this game
+     */
+    public int seatOf(Player player) {
+        for(int seat=0; seat < seatCount; seat++)
+            if(who(seat) == player)
+                return seat;
+        return -1;
+    }
+
+    /**
+     * Gets a hand, parsing it on first access.
+     * @param seat Seat number in line order
+     * @return Hand
+     */
+    public Hand hand(int seat) {
+        if(hands == null)
+            hands = new Hand[seatCount];
+
+        if(hands[seat] == null)
+            hands[seat] = parser.parseHand(source.substring(seats[seat], seats[seat+1] - 1).trim());
+
+        return hands[seat];
+    }
+
+    /**
+     * Gets the number of directives.
+     * @return Directive count
+     */
+    public int directives() {
+        return directiveCount;
+    }
+
+    /**
+     * Gets a directive type, P, D, or H, without parsing the directive.
+     * @param k Directive number
+     * @return Type letter
+     */
+    public char directiveType(int k) {
+        int bang = directives[k];
+        return bang > 0 ? source.charAt(bang-1) : ' ';
+    }
+
+    /**
+     * Gets the seat in which a directive appears.
+     * @param k Directive number
+     * @return Seat number
+     */
+    public int directiveSeat(int k) {
+        int seat = 0;
+        while(seat+1 < seatCount && seats[seat+1] <= directives[k])
+            seat++;
+        return seat;
+    }
+
+    /**
+     * Gets the outcomes, parsing them on first access.
+     * @return Outcomes
+     */
+    public List<Outcome> outcomes() {
+        if(outcomes == null)
+            outcomes = parser.parseOutcomes(source.substring(outcomeSep+2).trim());
+
+        return outcomes;
+    }
+
+    /**
+     * Materializes the whole game, reusing whatever was already parsed.
+     * @return Game, the same as Parser.parse would give
+     */
+    public Game game() {
+        if(game != null)
+            return game;
+
+        Game g = new Game();
+        g.source = source;
+
+        Parser.parseLabelAndBet(header(), g);
+
+        for(int seat=0; seat < seatCount; seat++)
+            g.hands.add(hand(seat));
+
+        g.outcomes = new ArrayList<>(outcomes());
+
+        game = g;
+
+        return game;
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
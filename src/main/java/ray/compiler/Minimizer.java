@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.model.Directive;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Result;
+import ray.util.Streams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class shrinks a corpus to a few games per equivalence class.
+ * <p>
+ * Two games are equivalent if their canonical keys are equal. A key is the game less its label:
+ * the seats in order, their cards and directives, and the outcomes, with BREAK read as BUST.
+ * Which other differences count is up to the rules:
+ * <ul>
+ *     <li>SUITS: the suit of a card and whether it has one,</li>
+ *     <li>TENS: which of 10, J, Q, and K a ten-valued card is, and</li>
+ *     <li>BETS: the bets and the outcome amounts.</li>
+ * </ul>
+ * By default only bets count. The corpus is streamed: the first games of each class, up to the
+ * number to keep, are written as they were, and the rest are dropped, so memory is one key per
+ * class. Comments, blank lines, template lines, and lines that do not parse are written as they
+ * are for the compiler to deal with. The report, if any, maps each game to its class and the
+ * label of the class's first game.
+ * @author Ron.Coleman
+ */
+public class Minimizer {
+    /** Differences between games that can count */
+    public enum Rule {SUITS, TENS, BETS}
+
+    static final String SUITS = "HSDC";
+
+    final Set<Rule> rules;
+    final int keep;
+
+    /**
+     * Minimizing outcome.
+     * @param games Games read
+     * @param classes Equivalence classes
+     * @param kept Games written
+     * @param passed Other lines written as they were
+     * @param nanos Elapsed time
+     */
+    public record Summary(long games, long classes, long kept, long passed, long nanos) {
+        @Override
+        public String toString() {
+            return String.format("%d game(s) in %d class(es): kept %d, dropped %d (%.1f%%), passed %d line(s) in %.3fs",
+                    games, classes, kept, games - kept, games > 0 ? 100.0 * (games - kept) / games : 0, passed,
+                    nanos / 1e9);
+        }
+    }
+
+    // One class: its number, games kept so far, and first label
+    static class Kind {
+        final int id;
+        final String first;
+        int kept = 0;
+
+        Kind(int id, String first) {
+            this.id = id;
+            this.first = first;
+        }
+    }
+
+    /**
+     * Constructor with only bets counting and one game kept per class.
+     */
+    public Minimizer() {
+        this(EnumSet.of(Rule.BETS), 1);
+    }
+
+    /**
+     * Constructor
+     * @param rules Differences that count
+     * @param keep Games kept per class
+     */
+    public Minimizer(Set<Rule> rules, int keep) {
+        if(keep < 1)
+            throw new IllegalArgumentException("games kept per class must be at least 1.");
+
+        this.rules = rules.isEmpty() ? EnumSet.noneOf(Rule.class) : EnumSet.copyOf(rules);
+        this.keep = keep;
+    }
+
+    /**
+     * Parses rules, e.g., suits,tens, or none.
+     * @param spec Comma-separated rule names or none
+     * @return Rules
+     * @throws IllegalArgumentException If a name is not a rule
+     */
+    public static Set<Rule> rules(String spec) {
+        Set<Rule> rules = EnumSet.noneOf(Rule.class);
+        if(spec.trim().equalsIgnoreCase("none"))
+            return rules;
+
+        for(String name: spec.split(",")) {
+            try {
+                rules.add(Rule.valueOf(name.trim().toUpperCase()));
+            }
+            catch(IllegalArgumentException _) {
+                throw new IllegalArgumentException("unknown rule: '"+name.trim()+"'");
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Gets the equivalence key of a game.
+     * @param game Game
+     * @return Key
+     */
+    public String key(Game game) {
+        StringBuilder sb = new StringBuilder(64);
+        key(game, sb);
+        return sb.toString();
+    }
+
+    void key(Game game, StringBuilder sb) {
+        boolean betting = rules.contains(Rule.BETS);
+
+        if(betting)
+            sb.append(game.bets);
+
+        for(Hand hand: game.hands) {
+            sb.append('|').append(hand.who.ordinal());
+            cards(hand.cards, sb);
+
+            Directive directive = hand.directive;
+            if(directive == null)
+                continue;
+
+            sb.append(directive.type);
+            if(directive.type == 'P') {
+                for(List<String> sub: directive.splitHands) {
+                    sb.append('{');
+                    cards(sub, sb);
+                }
+            }
+            else
+                cards(directive.extraCards, sb);
+        }
+
+        sb.append('>');
+        for(Outcome outcome: game.outcomes) {
+            Result result = Result.of(outcome.result);
+            sb.append(result == null ? outcome.result : result.ordinal());
+            if(betting)
+                sb.append(outcome.amount);
+            sb.append(',');
+        }
+    }
+
+    void cards(List<String> cards, StringBuilder sb) {
+        boolean suits = rules.contains(Rule.SUITS);
+        boolean tens = rules.contains(Rule.TENS);
+
+        for(String card: cards) {
+            sb.append('+');
+
+            int rank = card.startsWith("10") ? 2 : 1;
+            char c = card.charAt(0);
+            if(!tens && (c == '1' || c == 'J' || c == 'Q' || c == 'K'))
+                sb.append('T');
+            else
+                sb.append(card, 0, Math.min(rank, card.length()));
+
+            if(suits && card.length() > rank && SUITS.indexOf(card.charAt(card.length() - 1)) >= 0)
+                sb.append(card.charAt(card.length() - 1));
+        }
+    }
+
+    /**
+     * Minimizes a corpus.
+     * @param in Corpus
+     * @param out Minimized corpus
+     * @param report Where to map games to classes, or null
+     * @return Counts
+     * @throws IOException If the corpus cannot be read
+     */
+    public Summary minimize(BufferedReader in, PrintWriter out, PrintWriter report) throws IOException {
+        long started = System.nanoTime();
+
+        Parser parser = new Parser();
+        Map<String,Kind> kinds = new HashMap<>();
+        StringBuilder sb = new StringBuilder(128);
+
+        if(report != null)
+            report.println("# line\tlabel\tclass\tfirst");
+
+        long games = 0;
+        long kept = 0;
+        long passed = 0;
+
+        int lineno = 0;
+        String line;
+        while((line = in.readLine()) != null) {
+            lineno++;
+
+            String text = line.trim();
+            if(text.isEmpty() || text.startsWith("#") || Expander.isDeclaration(text) || Expander.isTemplate(text)) {
+                out.println(line);
+                passed++;
+                continue;
+            }
+
+            Game game;
+            try {
+                game = parser.parse(text);
+            }
+            catch(IllegalArgumentException _) {
+                out.println(line);
+                passed++;
+                continue;
+            }
+
+            games++;
+
+            sb.setLength(0);
+            key(game, sb);
+            String key = sb.toString();
+
+            Kind kind = kinds.get(key);
+            if(kind == null) {
+                kind = new Kind(kinds.size(), game.label);
+                kinds.put(key, kind);
+            }
+
+            if(kind.kept < keep) {
+                kind.kept++;
+                kept++;
+                out.println(line);
+            }
+
+            if(report != null)
+                report.println(lineno+"\t"+game.label+"\t"+kind.id+"\t"+kind.first);
+        }
+
+        return new Summary(games, kinds.size(), kept, passed, System.nanoTime() - started);
+    }
+
+    /**
+     * Minimizes a corpus file.
+     * @param args [--rules suits,tens,bets|none] [--keep n] [--report path] input output
+     */
+    public static void main(String[] args) {
+        Set<Rule> rules = EnumSet.of(Rule.BETS);
+        int keep = 1;
+        Path report = null;
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--rules" -> rules = rules(args[++argno]);
+                    case "--keep" -> keep = Integer.parseInt(args[++argno]);
+                    case "--report" -> report = Path.of(args[++argno]);
+                    default -> {
+                        System.err.println("unknown option: "+args[argno]);
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "missing option value" : e.getMessage());
+            System.exit(1);
+        }
+
+        if(args.length - argno < 2) {
+            System.out.println("usage: ray.compiler.Minimizer [--rules suits,tens,bets|none] [--keep n] [--report path] input-path output-path");
+            System.exit(0);
+        }
+
+        Path input = Path.of(args[argno]);
+        Path output = Path.of(args[argno + 1]);
+
+        try(BufferedReader in = Streams.reader(input);
+            PrintWriter out = Streams.writer(output);
+            PrintWriter mapping = report == null ? null : Streams.writer(report)) {
+            Summary summary = new Minimizer(rules, keep).minimize(in, out, mapping);
+
+            if(out.checkError() || (mapping != null && mapping.checkError()))
+                throw new IOException("failed writing "+output+".");
+
+            System.err.println(summary);
+        }
+        catch(IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
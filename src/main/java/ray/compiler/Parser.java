@@ -11,15 +11,28 @@
  */
 package ray.compiler;
 
+import ray.engine.Solver;
 import ray.model.*;
 import ray.type.Player;
 import ray.type.Suit;
 import ray.util.Helper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.regex.*;
 
 public class Parser {
+    // Patterns are compiled once; they are immutable and safe to share across threads
+    static final Pattern LABEL_BET = Pattern.compile("(\\w+)\\s*\\{\\s*([^}]*)\\}");
+    static final Pattern HAND = Pattern.compile("(You|Dealer|Huey|Dewey)\\s+([A-Z0-9+!{}\\,?]+)");
+    static final Pattern HIT_SPACES = Pattern.compile("\s*\\+\s*");
+    static final Pattern SPLIT = Pattern.compile("P!\\{([^}]+)\\}");
+    static final Pattern DOUBLE = Pattern.compile("D!([A-Z0-9+?]+)");
+    static final Pattern HIT = Pattern.compile("H!([A-Z0-9+?]+)");
+    static final Pattern SPACES = Pattern.compile("\\s");
+    static final Pattern OUTCOME = Pattern.compile("(Win|Lose|Push|Bust|Break|Blackjack|Charlie)\\s*\\{(\\d+)\\}",
+            Pattern.CASE_INSENSITIVE);
+
     // === Parsing Methods ===
 
     public Game parse(String line) {
@@ -28,7 +41,8 @@ public class Parser {
         Game game = new Game();
         game.source = line;
 
-        String[] parts = line.split(">>");
+        // Limit -1 keeps an empty outcome part, "... >>", for the engine to fill in
+        String[] parts = line.split(">>", -1);
         if (parts.length != 2)
             throw new IllegalArgumentException("Missing '>>' outcome separator");
 
@@ -65,15 +79,398 @@ public class Parser {
 
         return game;
     }
+
+    // Cards by rank and suit, none then HSDC, shared so reading a card allocates nothing
+    static final String[] RANKS = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+    static final String SUITS = "HSDC";
+    static final String[][] CARDS = new String[RANKS.length][SUITS.length() + 1];
+
+    static {
+        for(int r=0; r < RANKS.length; r++) {
+            CARDS[r][0] = RANKS[r];
+            for(int u=0; u < SUITS.length(); u++)
+                CARDS[r][u + 1] = RANKS[r] + SUITS.charAt(u);
+        }
+    }
+
+    static final String[] RESULTS = {"WIN", "LOSE", "PUSH", "BUST", "BREAK", "BLACKJACK", "CHARLIE"};
+
+    // Where tryParse is in a line
+    static final int LABEL = 0;
+    static final int BET = 1;
+    static final int COLON = 2;
+    static final int SEAT = 3;
+    static final int CARD = 4;
+    static final int EXTRA = 5;
+    static final int SPLIT_OPEN = 6;
+    static final int SPLIT_CARD = 7;
+    static final int SPLIT_CLOSE = 8;
+    static final int SEPARATOR = 9;
+    static final int RESULT = 10;
+    static final int AMOUNT = 11;
+    static final int NEXT_OUTCOME = 12;
+
+    /**
+     * Parses a game line in the usual form straight from its bytes, visiting only the structural
+     * characters marked in a bitmap; the text between two of them is a token. A line in any other
+     * form, e.g., with blanks, placeholders, spaces inside a directive, or an error, is left to
+     * parse(String), so the two give the same games and the same errors.
+     * @param buf Bytes
+     * @param from Start of the line
+     * @param to End of the line, exclusive
+     * @param structurals Structural bitmap of buf from a StructuralScanner
+     * @return Game, the same as parse(String) would give, or null if the line needs parse(String)
+     */
+    public Game tryParse(byte[] buf, int from, int to, long[] structurals) {
+        while(from < to && (buf[from] & 0xFF) <= ' ')
+            from++;
+        while(to > from && (buf[to-1] & 0xFF) <= ' ')
+            to--;
+
+        Game game = new Game();
+        Hand hand = null;
+        List<String> cards = null;
+        Outcome outcome = null;
+
+        int state = LABEL;
+        byte prev = 0;
+        int pos = from;
+
+        int word = from >>> 6;
+        long bits = from < to ? structurals[word] & (-1L << (from & 63)) : 0;
+
+        while(true) {
+            // The next structural character, or the end of the line
+            int k = to;
+            while(bits == 0 && ++word << 6 < to)
+                bits = structurals[word];
+            if(bits != 0) {
+                k = Math.min(to, (word << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+            byte c = k < to ? buf[k] : 0;
+
+            int a = pos;
+            int b = k;
+            while(a < b && (buf[a] == ' ' || buf[a] == '\t'))
+                a++;
+            while(b > a && (buf[b-1] == ' ' || buf[b-1] == '\t'))
+                b--;
+
+            // In a seat, spaces are only around hits and at the ends, as the hand pattern takes them
+            if(state >= SEAT && state <= SPLIT_CLOSE) {
+                if(a > pos && prev != ':' && prev != '|' && prev != '+' && prev != '}')
+                    return null;
+                if(b < k && c != '+' && c != '|' && c != '>')
+                    return null;
+            }
+
+            switch(state) {
+                case LABEL -> {
+                    if(c != '{' || a == b)
+                        return null;
+                    for(int p=a; p < b; p++)
+                        if(!isWord(buf[p]))
+                            return null;
+                    game.label = new String(buf, a, b - a, StandardCharsets.ISO_8859_1);
+                    state = BET;
+                }
+                case BET -> {
+                    int bet = number(buf, a, b);
+                    if(bet < 0 || (c != ',' && c != '}') || game.bets.size() == 3)
+                        return null;
+                    game.bets.add(bet);
+                    if(c == '}')
+                        state = COLON;
+                }
+                case COLON -> {
+                    if(c != ':' || a != b)
+                        return null;
+                    state = SEAT;
+                }
+                case SEAT -> {
+                    // Who and the first card, e.g., You 10
+                    int space = a;
+                    while(space < b && buf[space] != ' ' && buf[space] != '\t')
+                        space++;
+                    int first = space;
+                    while(first < b && (buf[first] == ' ' || buf[first] == '\t'))
+                        first++;
+
+                    Player who = player(buf, a, space);
+                    String card = first > space ? card(buf, first, b) : null;
+                    if(who == null || card == null)
+                        return null;
+
+                    hand = new Hand();
+                    hand.who = who;
+                    game.hands.add(hand);
+                    cards = hand.cards;
+                    cards.add(card);
+
+                    state = next(c, CARD);
+                }
+                case CARD, EXTRA -> {
+                    if(c == '!') {
+                        // The directive type, e.g., the D of 10+6+D!5
+                        if(state == EXTRA || prev != '+' || b - a != 1 || b < k)
+                            return null;
+
+                        Directive directive = new Directive();
+                        directive.type = (char) buf[a];
+                        hand.directive = directive;
+
+                        switch(buf[a]) {
+                            case 'P' -> state = SPLIT_OPEN;
+                            case 'D', 'H' -> {
+                                cards = directive.extraCards;
+                                state = EXTRA;
+                            }
+                            default -> {
+                                return null;
+                            }
+                        }
+                        break;
+                    }
+
+                    String card = card(buf, a, b);
+                    if(card == null)
+                        return null;
+                    cards.add(card);
+
+                    state = next(c, state);
+                }
+                case SPLIT_OPEN -> {
+                    if(c != '{' || k != pos)
+                        return null;
+                    cards = new ArrayList<>();
+                    hand.directive.splitHands.add(cards);
+                    state = SPLIT_CARD;
+                }
+                case SPLIT_CARD -> {
+                    String card = card(buf, a, b);
+                    if(card == null)
+                        return null;
+                    cards.add(card);
+
+                    switch(c) {
+                        case '+' -> { }
+                        case ',' -> {
+                            cards = new ArrayList<>();
+                            hand.directive.splitHands.add(cards);
+                        }
+                        case '}' -> state = SPLIT_CLOSE;
+                        default -> {
+                            return null;
+                        }
+                    }
+                }
+                case SPLIT_CLOSE -> {
+                    if(a != b)
+                        return null;
+                    state = next(c, SPLIT_CLOSE);
+                }
+                case SEPARATOR -> {
+                    if(c != '>' || k != pos)
+                        return null;
+                    state = RESULT;
+                }
+                case RESULT -> {
+                    if(k == to && a == b && game.outcomes.isEmpty())
+                        break;
+
+                    String result = result(buf, a, b);
+                    if(c != '{' || result == null)
+                        return null;
+
+                    outcome = new Outcome();
+                    outcome.result = result;
+                    state = AMOUNT;
+                }
+                case AMOUNT -> {
+                    int amount = number(buf, a, b);
+                    if(c != '}' || amount < 0)
+                        return null;
+                    outcome.amount = amount;
+                    game.outcomes.add(outcome);
+                    state = NEXT_OUTCOME;
+                }
+                case NEXT_OUTCOME -> {
+                    if(a != b || (c != ',' && k != to))
+                        return null;
+                    if(k < to)
+                        state = RESULT;
+                }
+            }
+
+            // A seat left anywhere but the end of a hand is not a game
+            if(state < 0)
+                return null;
+
+            if(k == to)
+                break;
+
+            prev = c;
+            pos = k + 1;
+        }
+
+        if(state != RESULT && state != NEXT_OUTCOME)
+            return null;
+        if(state == RESULT && !game.outcomes.isEmpty())
+            return null;
+
+        game.source = new String(buf, from, to - from, StandardCharsets.ISO_8859_1);
+        return game;
+    }
+
+    /**
+     * Gets the state after the last token of a hand part.
+     * @param c Structural character after the token
+     * @param state State to stay in on a hit
+     * @return State, or -1 if the character cannot follow a card
+     */
+    static int next(byte c, int state) {
+        return switch(c) {
+            case '+' -> state == SPLIT_CLOSE ? -1 : state;
+            case '|' -> SEAT;
+            case '>' -> SEPARATOR;
+            default -> -1;
+        };
+    }
+
+    static boolean isWord(byte b) {
+        return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9' || b == '_';
+    }
+
+    /**
+     * Reads a whole number of up to nine digits.
+     * @return Number or -1 if the token is not one
+     */
+    static int number(byte[] buf, int from, int to) {
+        if(from == to || to - from > 9)
+            return -1;
+
+        int value = 0;
+        for(int k=from; k < to; k++) {
+            if(buf[k] < '0' || buf[k] > '9')
+                return -1;
+            value = value * 10 + buf[k] - '0';
+        }
+        return value;
+    }
+
+    /**
+     * Reads a card, a rank and maybe a suit, e.g., 10, QS.
+     * @return Shared card string or null if the token is not a card
+     */
+    static String card(byte[] buf, int from, int to) {
+        int n = to - from;
+        if(n < 1 || n > 3)
+            return null;
+
+        int rank;
+        int at = from + 1;
+        switch(buf[from]) {
+            case 'A' -> rank = 0;
+            case 'J' -> rank = 10;
+            case 'Q' -> rank = 11;
+            case 'K' -> rank = 12;
+            case '1' -> {
+                if(n == 1 || buf[at] != '0')
+                    return null;
+                rank = 9;
+                at++;
+            }
+            default -> {
+                if(buf[from] < '2' || buf[from] > '9')
+                    return null;
+                rank = buf[from] - '1';
+            }
+        }
+
+        if(at == to)
+            return CARDS[rank][0];
+
+        int suit = at + 1 == to ? SUITS.indexOf(buf[at]) : -1;
+        return suit < 0 ? null : CARDS[rank][suit + 1];
+    }
+
+    /**
+     * Skips spaces and control characters.
+     * @return Offset of the first byte past them
+     */
+    static int skip(byte[] buf, int from, int to) {
+        while(from < to && (buf[from] & 0xFF) <= ' ')
+            from++;
+        return from;
+    }
+
+    /**
+     * Skips a run of letters, e.g., a seat name or result.
+     * @return Offset of the first byte which is not a letter
+     */
+    static int letters(byte[] buf, int from, int to) {
+        while(from < to && (buf[from] >= 'A' && buf[from] <= 'Z' || buf[from] >= 'a' && buf[from] <= 'z'))
+            from++;
+        return from;
+    }
+
+    /**
+     * Reads a seat name.
+     * @return Player or null if the token is not a seat
+     */
+    static Player player(byte[] buf, int from, int to) {
+        return switch(to - from) {
+            case 3 -> is(buf, from, "You") ? Player.You : null;
+            case 4 -> is(buf, from, "Huey") ? Player.Huey : null;
+            case 5 -> is(buf, from, "Dewey") ? Player.Dewey : null;
+            case 6 -> is(buf, from, "Dealer") ? Player.Dealer : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Reads an outcome result in any case.
+     * @return Upper case result or null if the token is not one
+     */
+    static String result(byte[] buf, int from, int to) {
+        for(String result: RESULTS) {
+            if(result.length() != to - from)
+                continue;
+
+            int k = 0;
+            while(k < result.length() && (buf[from + k] & ~0x20) == result.charAt(k))
+                k++;
+            if(k == result.length())
+                return result;
+        }
+        return null;
+    }
+
+    static boolean is(byte[] buf, int from, String name) {
+        for(int k=0; k < name.length(); k++)
+            if(buf[from + k] != name.charAt(k))
+                return false;
+        return true;
+    }
+
+    /**
+     * Indexes a line without parsing it; parts are parsed when first accessed.
+     * @param line Game line
+     * @return Structural index of the line
+     */
+    public LineIndex index(String line) {
+        return new LineIndex(this, line.trim());
+    }
+
     /**
      * Parses label and 1–N bets, e.g.:
      *   T1 {5}
      *   T2 {5,10}
      *   T3 {5,10,15}
      */
-    private static void parseLabelAndBet(String text, Game game) {
-        Pattern p = Pattern.compile("(\\w+)\\s*\\{\\s*([^}]*)\\}");
-        Matcher m = p.matcher(text);
+    static void parseLabelAndBet(String text, Game game) {
+        Matcher m = LABEL_BET.matcher(text);
         if (!m.find())
             throw new IllegalArgumentException("Invalid label/bet format: " + text);
 
@@ -122,14 +519,14 @@ public class Parser {
      *   DEALER 10+2+D!10
      *   HUEY 9+2+H!5
      *   DEWEY 8+8+D!5
+     *   YOU ?+?+D!?      (blanks for the solver)
      */
     Hand parseHand(String text) {
         // Expanded to include HUEY and DEWEY as valid players
-        Pattern p = Pattern.compile("(You|Dealer|Huey|Dewey)\\s+([A-Z0-9+!{}\\,]+)");
 
         // Remove spaces around hit for pattern matching: 3 + 2 => 3+2
-        text = text.replaceAll("\s*\\+\s*","+");
-        Matcher m = p.matcher(text);
+        text = HIT_SPACES.matcher(text).replaceAll("+");
+        Matcher m = HAND.matcher(text);
         if (!m.find())
             throw new IllegalArgumentException("Invalid hand format: '" + text+"'");
 
@@ -142,7 +539,7 @@ public class Parser {
         if (exclIdx > 0) {
             String basePart = cardsPart.substring(0, exclIdx - 1); // everything before the directive letter
             for (String card : basePart.split("\\+")) {
-                if (!card.isEmpty() && Character.isLetterOrDigit(card.charAt(0)))
+                if (!card.isEmpty() && (Character.isLetterOrDigit(card.charAt(0)) || card.equals(Solver.BLANK)))
                     hand.cards.add(card);
             }
 
@@ -150,6 +547,11 @@ public class Parser {
             hand.directive = parseDirective(cardsPart.substring(exclIdx - 1));
         } else {
             for (String card : cardsPart.split("\\+")) {
+                // A blank is left for the solver to fill in
+                if(card.equals(Solver.BLANK)) {
+                    hand.cards.add(card);
+                    continue;
+                }
                 if(Helper.getRank(card).isEmpty())
                     throw new IllegalArgumentException("invalid card rank: '" + text+"'");
                 try {
@@ -169,6 +571,7 @@ public class Parser {
      * Parses directive parts such as:
      *   P!{2+4,5+9}
      *   D!10
+     *   H!5+2
      */
     Directive parseDirective(String directivePart) {
         Directive dir = new Directive();
@@ -183,8 +586,7 @@ public class Parser {
 
         if (type == 'P') {
             // Parse P!{2+4,5+9}
-            Pattern p = Pattern.compile("P!\\{([^}]+)\\}");
-            Matcher m = p.matcher(directivePart);
+            Matcher m = SPLIT.matcher(directivePart);
             if (m.find()) {
                 String inside = m.group(1);
                 String[] hands = inside.split(",");
@@ -199,14 +601,22 @@ public class Parser {
             }
         } else if (type == 'D') {
             // Parse D!10
-            Pattern p = Pattern.compile("D!([A-Z0-9+]+)");
-            Matcher m = p.matcher(directivePart);
+            Matcher m = DOUBLE.matcher(directivePart);
             if (m.find()) {
                 for (String c : m.group(1).split("\\+"))
                     if (!c.isEmpty()) dir.extraCards.add(c);
             } else {
                 throw new IllegalArgumentException("Invalid double-down directive: '" + directivePart+"'");
             }
+        } else if (type == 'H') {
+            // Parse H!5+2
+            Matcher m = HIT.matcher(directivePart);
+            if (m.find()) {
+                for (String c : m.group(1).split("\\+"))
+                    if (!c.isEmpty()) dir.extraCards.add(c);
+            } else {
+                throw new IllegalArgumentException("invalid hit directive: '" + directivePart+"'");
+            }
         } else {
             throw new IllegalArgumentException("Unknown directive type: " + type);
         }
@@ -216,10 +626,12 @@ public class Parser {
 
     /**
      * Parses one or two outcomes separated by commas.
-     * Example: "WIN{5}" or "WIN{5}, PUSH{10}"
+     * Example: "WIN{5}" or "WIN{5}, PUSH{10}", or "" for none
      */
      List<Outcome> parseOutcomes(String text) {
         List<Outcome> outcomes = new ArrayList<>();
+        if (text.isEmpty())
+            return outcomes;
         String[] parts = text.split(",");
         for (String part : parts) {
             part = part.trim();
@@ -230,10 +642,8 @@ public class Parser {
     }
 
     Outcome parseOutcome(String text) {
-         text = text.replaceAll("\\s","");
-        Pattern p = Pattern.compile("(Win|Lose|Push|Bust|Break|Blackjack|Charlie)\\s*\\{(\\d+)\\}",
-                Pattern.CASE_INSENSITIVE);
-        Matcher m = p.matcher(text);
+         text = SPACES.matcher(text).replaceAll("");
+        Matcher m = OUTCOME.matcher(text);
         if (!m.find())
             throw new IllegalArgumentException("invalid outcome format: '" + text+"'");
         Outcome o = new Outcome();
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.engine.Solver;
+import ray.generator.ShoeBuilder;
+import ray.generator.ShoeOptions;
+import ray.model.Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * This class compiles games in three overlapping stages:
+ * <ol>
+ *     <li>a reader, the calling thread, which cuts the input into batches of lines,</li>
+ *     <li>a pool of virtual-thread workers which parse and validate batches, and</li>
+ *     <li>a single writer which puts batches back in input order and feeds the shoe builder.</li>
+ * </ol>
+ * Stages are connected by bounded queues, so a slow stage blocks the ones ahead of it
+ * rather than letting batches pile up in memory. The reader also holds back once a window of
+ * batches is in flight, so batches waiting on one slow batch to be put back in order are
+ * bounded, too.
+ * <p>
+ * Unlike the sequential compile, games are written as they arrive. If there is an error,
+ * including one the shoe builder throws, the reader stops, the writer drains what is in
+ * flight, and the shoe output is incomplete.
+ * @author Ron.Coleman
+ */
+public class Pipeline {
+    // Lines per batch
+    static final int BATCH_SIZE = 256;
+
+    // Marks the end of input on the queues
+    static final Batch EOF = new Batch(-1);
+
+    final int workers;
+
+    // Settings of the Solver each worker fills blank cards with
+    final ShoeOptions options;
+
+    final BlockingQueue<Batch> parseQueue;
+    final BlockingQueue<Batch> writeQueue;
+
+    // Batches read but not yet written
+    final Semaphore window;
+
+    final Depth parseDepth = new Depth();
+    final Depth writeDepth = new Depth();
+
+    final List<String> errors = new ArrayList<>();
+
+    volatile boolean failed = false;
+
+    long games = 0;
+    long lines = 0;
+    long nanos = 0;
+
+    /**
+     * Constructor
+     */
+    public Pipeline() {
+        this(ShoeOptions.fromSystem());
+    }
+
+    /**
+     * Constructor
+     * @param options Generator settings
+     */
+    public Pipeline(ShoeOptions options) {
+        this(Runtime.getRuntime().availableProcessors(), 64, options);
+    }
+
+    /**
+     * Constructor
+     * @param workers Number of parse-validate workers
+     * @param depth Capacity of each queue in batches
+     */
+    public Pipeline(int workers, int depth) {
+        this(workers, depth, ShoeOptions.fromSystem());
+    }
+
+    /**
+     * Constructor
+     * @param workers Number of parse-validate workers
+     * @param depth Capacity of each queue in batches
+     * @param options Generator settings
+     */
+    public Pipeline(int workers, int depth, ShoeOptions options) {
+        this.workers = Math.max(1, workers);
+        this.options = options;
+        this.parseQueue = new ArrayBlockingQueue<>(depth);
+        this.writeQueue = new ArrayBlockingQueue<>(depth);
+        this.window = new Semaphore(2 * depth + this.workers);
+    }
+
+    /**
+     * Compiles an input into a shoe.
+     * @param br Input
+     * @param builder Shoe builder
+     * @param corpus Corpus validator for cross-game checks
+     * @param fileno File number in the corpus validator
+     * @return Errors, each prefixed with a line number; empty if all games compiled
+     * @throws IOException If the input cannot be read
+     * @throws InterruptedException If interrupted waiting on a queue
+     */
+    public List<String> compile(BufferedReader br, ShoeBuilder builder, CorpusValidator corpus, int fileno)
+            throws IOException, InterruptedException {
+        long started = System.nanoTime();
+
+        List<Thread> threads = new ArrayList<>();
+        for(int k=0; k < workers; k++)
+            threads.add(Thread.ofVirtual().name("ray-worker-"+k).start(this::work));
+
+        Thread writer = Thread.ofVirtual().name("ray-writer").start(() -> write(builder, corpus, fileno));
+
+        try {
+            read(br);
+        }
+        finally {
+            for(int k=0; k < workers; k++)
+                put(parseQueue, parseDepth, EOF);
+
+            for(Thread thread: threads)
+                thread.join();
+
+            writer.join();
+
+            nanos = System.nanoTime() - started;
+        }
+
+        return errors;
+    }
+
+    /**
+     * Reader stage: cuts the input into numbered batches.
+     * @param br Input
+     */
+    void read(BufferedReader br) throws IOException, InterruptedException {
+        int lineno = 0;
+        int seq = 0;
+
+        Batch batch = new Batch(seq++);
+
+        String line;
+        while(!failed && (line = br.readLine()) != null) {
+            lineno++;
+
+            line = line.trim();
+
+            if(line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            batch.add(lineno, line);
+
+            if(batch.size() == BATCH_SIZE) {
+                window.acquire();
+                put(parseQueue, parseDepth, batch);
+                batch = new Batch(seq++);
+            }
+        }
+
+        if(batch.size() > 0) {
+            window.acquire();
+            put(parseQueue, parseDepth, batch);
+        }
+
+        lines = lineno;
+    }
+
+    /**
+     * Worker stage: parses and validates batches until end of input.
+     */
+    void work() {
+        Parser parser = new Parser();
+        Solver solver = options.solver();
+
+        try {
+            Batch batch;
+            while((batch = parseQueue.take()) != EOF) {
+                Events.Shard event = new Events.Shard();
+                event.begin();
+
+                for(int k=0; k < batch.size(); k++) {
+                    int lineno = batch.linenos[k];
+                    String line = batch.lines.get(k);
+                    try {
+                        if(Expander.isDeclaration(line) || Expander.isTemplate(line))
+                            throw new IllegalArgumentException(Expander.UNSUPPORTED);
+
+                        Game game = parser.parse(line);
+                        if(Solver.isBlank(line))
+                            solver.solve(game);
+
+                        for(String error: Validator.validate(game))
+                            batch.errors.add("line "+lineno+": "+error);
+
+                        batch.gameLinenos[batch.games.size()] = lineno;
+                        batch.games.add(game);
+                    }
+                    catch(Exception e) {
+                        batch.errors.add("line "+lineno+": "+e.getMessage());
+                    }
+                }
+
+                if(event.shouldCommit()) {
+                    event.kind = "batch";
+                    event.shard = batch.seq;
+                    event.lines = batch.size();
+                    event.games = batch.games.size();
+                    event.errors = batch.errors.size();
+                    event.attempts = 1;
+                    event.commit();
+                }
+
+                put(writeQueue, writeDepth, batch);
+            }
+
+            put(writeQueue, writeDepth, EOF);
+        }
+        catch(InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writer stage: restores input order and generates the shoe.
+     * @param builder Shoe builder
+     * @param corpus Corpus validator
+     * @param fileno File number
+     */
+    void write(ShoeBuilder builder, CorpusValidator corpus, int fileno) {
+        Map<Integer,Batch> pending = new HashMap<>();
+        int next = 0;
+        int done = 0;
+
+        try {
+            builder.begin();
+        }
+        catch(RuntimeException e) {
+            fail("shoe builder failed: "+e);
+        }
+
+        // Drains every batch even after a failure, so the reader and workers never block on a full queue
+        try {
+            while(done < workers) {
+                Batch batch = writeQueue.take();
+                if(batch == EOF) {
+                    done++;
+                    continue;
+                }
+
+                pending.put(batch.seq, batch);
+
+                while((batch = pending.remove(next)) != null) {
+                    next++;
+                    emit(batch, builder, corpus, fileno);
+                    window.release();
+                }
+            }
+        }
+        catch(InterruptedException _) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            builder.end();
+        }
+        catch(RuntimeException e) {
+            fail("shoe builder failed: "+e);
+        }
+    }
+
+    /**
+     * Records an error and stops the reader.
+     * @param error Error
+     */
+    void fail(String error) {
+        failed = true;
+        synchronized (errors) {
+            errors.add(error);
+        }
+    }
+
+    /**
+     * Emits a batch in order.
+     */
+    void emit(Batch batch, ShoeBuilder builder, CorpusValidator corpus, int fileno) {
+        // Checked here rather than in the workers, so first-seen lines are in input order
+        for(int k=0; k < batch.games.size(); k++) {
+            int lineno = batch.gameLinenos[k];
+            String duplicate = corpus.check(batch.games.get(k), fileno, lineno);
+            if(duplicate != null)
+                batch.errors.add("line "+lineno+": "+duplicate);
+        }
+
+        if(!batch.errors.isEmpty()) {
+            failed = true;
+            synchronized (errors) {
+                errors.addAll(batch.errors);
+            }
+        }
+
+        if(failed)
+            return;
+
+        for(int k=0; k < batch.games.size(); k++) {
+            try {
+                builder.add(batch.games.get(k));
+            }
+            catch(RuntimeException e) {
+                fail("line "+batch.gameLinenos[k]+": shoe builder failed: "+e);
+                return;
+            }
+            games++;
+        }
+    }
+
+    static void put(BlockingQueue<Batch> queue, Depth depth, Batch batch) throws InterruptedException {
+        queue.put(batch);
+        depth.sample(queue.size());
+    }
+
+    /**
+     * Gets the run metrics.
+     * @return Metrics summary
+     */
+    public String metrics() {
+        double secs = nanos / 1e9;
+        return String.format(
+                "pipeline: %d games, %d lines in %.3fs (%.0f games/s), workers=%d, parse queue %s, write queue %s",
+                games, lines, secs, secs > 0 ? games / secs : 0, workers, parseDepth, writeDepth);
+    }
+
+    /**
+     * Numbered batch of input lines and their results.
+     */
+    static class Batch {
+        final int seq;
+        final List<String> lines = new ArrayList<>(BATCH_SIZE);
+        final int[] linenos = new int[BATCH_SIZE];
+        final List<Game> games = new ArrayList<>(BATCH_SIZE);
+        final int[] gameLinenos = new int[BATCH_SIZE];
+        final List<String> errors = new ArrayList<>();
+
+        Batch(int seq) {
+            this.seq = seq;
+        }
+
+        void add(int lineno, String line) {
+            linenos[lines.size()] = lineno;
+            lines.add(line);
+        }
+
+        int size() {
+            return lines.size();
+        }
+    }
+
+    /**
+     * Queue depth samples taken on every put.
+     */
+    static class Depth {
+        long samples;
+        long total;
+        int max;
+
+        synchronized void sample(int depth) {
+            samples++;
+            total += depth;
+            max = Math.max(max, depth);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("depth avg=%.1f max=%d", samples == 0 ? 0.0 : (double) total / samples, max);
+        }
+    }
+}
@@ -12,74 +12,390 @@
 
 package ray.compiler;
 
+import ray.generator.CompactShoe;
 import ray.generator.ShoeBuilderTarget;
+import ray.generator.ShoeOptions;
 import ray.model.Game;
+import ray.util.Streams;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * This class compiles games into a single shoe and saves it.
  * @author Ron.Coleman
  */
 public class Ray {
-    public static int rc = 0;
+    // Returned by run when a server was started and goes on running on its own threads
+    static final int SERVING = -1;
 
     public static void main(String[] args) {
-        if(args.length < 1) {
-            System.out.println("usage: ray.compiler.Ray input-path [output-path]");
-            System.exit(0);
+        int rc = run(args);
+        if(rc != SERVING)
+            System.exit(rc);
+    }
+
+    /**
+     * Runs the compiler in-process, reporting to the console.
+     * @param args Command line arguments
+     * @return Exit code, zero if everything compiled
+     */
+    public static int run(String[] args) {
+        boolean pipelined = false;
+        boolean watching = false;
+        boolean serving = false;
+        boolean lsp = false;
+        boolean unique = false;
+        boolean stats = false;
+        boolean verify = false;
+        boolean fill = false;
+        Pattern select = null;
+        String query = null;
+        String outputDir = null;
+        int workers = 0;
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--pipeline" -> pipelined = true;
+                    case "--watch" -> watching = true;
+                    case "--server" -> serving = true;
+                    case "--lsp" -> lsp = true;
+                    case "--select" -> select = Pattern.compile(value(args, argno++));
+                    case "--query" -> query = value(args, argno++);
+                    case "--out-dir" -> outputDir = value(args, argno++);
+                    case "--unique-labels" -> unique = true;
+                    case "--stats" -> stats = true;
+                    case "--verify" -> verify = true;
+                    case "--fill" -> fill = true;
+                    case "--workers" -> workers = Integer.parseInt(value(args, argno++));
+                    default -> {
+                        System.out.println("unknown option: "+args[argno]);
+                        return 1;
+                    }
+                }
+            }
+        }
+        catch(NumberFormatException e) {
+            System.out.println("--workers needs a number: "+args[argno]);
+            return 1;
+        }
+        catch(IllegalArgumentException e) {
+            // Also a bad --select regex
+            System.out.println(e.getMessage());
+            return 1;
         }
 
-        String inputPath = args[0];
-        String outputPath = args.length < 2 ? null : args[1];
+        if(lsp) {
+            LanguageServer.main(Arrays.copyOfRange(args, argno, args.length));
+            return 0;
+        }
 
-        int lineno = 0;
+        if(serving) {
+            CompileServer.main(Arrays.copyOfRange(args, argno, args.length));
+            return SERVING;
+        }
+
+        if(args.length - argno < 1) {
+            System.out.println("usage: ray.compiler.Ray [--stats] [--verify] [--fill] [--select label-regex] input-path [output-path|shoe.rays]");
+            System.out.println("       ray.compiler.Ray [--pipeline|--query query] input-path [output-path]");
+            System.out.println("       ray.compiler.Ray --workers n input-path [output-path]");
+            System.out.println("       ray.compiler.Ray [--stats] [--verify] [--fill] [--out-dir dir] [--unique-labels] input-path|dir|glob|@listfile...");
+            System.out.println("       ray.compiler.Ray --watch input-dir [output-dir]");
+            System.out.println("       ray.compiler.Ray --server [port]");
+            System.out.println("       ray.compiler.Ray --lsp");
+            return 0;
+        }
+
+        if(watching) {
+            Watcher.main(Arrays.copyOfRange(args, argno, args.length));
+            return 0;
+        }
+
+        List<String> paths = Arrays.asList(args).subList(argno, args.length);
+        if(outputDir != null || unique || Batch.isBatch(paths)) {
+            return batch(paths, outputDir, unique, new RayCompiler(ShoeOptions.fromSystem())
+                    .withSelect(select).withTiming(stats).withVerify(verify).withFill(fill), stats);
+        }
+
+        String inputPath = args[argno];
+        String outputPath = args.length - argno < 2 ? null : args[argno+1];
+
+        // Workers run in other JVMs and the pipeline reports its own metrics
+        if(stats && (workers > 0 || pipelined || query != null)) {
+            System.out.println("--stats is not supported with --workers, --pipeline, or --query");
+            return 1;
+        }
+
+        if((verify || fill) && (workers > 0 || pipelined || query != null)) {
+            System.out.println("--verify and --fill are not supported with --workers, --pipeline, or --query");
+            return 1;
+        }
+
+        if(outputPath != null && CompactShoe.isCompact(Path.of(outputPath)) && (workers > 0 || pipelined || query != null)) {
+            System.out.println("compact shoes are not supported with --workers, --pipeline, or --query");
+            return 1;
+        }
 
-        List<Game> games = new ArrayList<>();
+        if(query != null)
+            return query(inputPath, outputPath, query);
 
-        Parser parser = new Parser();
+        if(workers > 0)
+            return coordinate(inputPath, outputPath, workers);
+
+        if(pipelined) {
+            if(select != null) {
+                System.out.println("--select is not supported with --pipeline");
+                return 1;
+            }
+            return pipeline(inputPath, outputPath);
+        }
+
+        RayCompiler compiler = new RayCompiler(ShoeOptions.fromSystem())
+                .withSelect(select).withTiming(stats).withVerify(verify).withFill(fill);
+
+        long started = System.nanoTime();
+        long allocated = Stats.allocated();
 
         try {
-            BufferedReader br = new BufferedReader(new FileReader(inputPath));
+            RayCompiler.Result result = (outputPath == null) ?
+                    compiler.compile(Path.of(inputPath), new PrintWriter(System.out)) :
+                    compiler.compile(Path.of(inputPath), Path.of(outputPath));
 
-            String line = "";
-            while((line = br.readLine()) != null) {
-                lineno++;
+            for(String error: result.errors())
+                System.err.println(error);
 
-                line = line.trim();
+            if(stats)
+                System.err.println(result.stats().report(System.nanoTime() - started, allocated(allocated)));
 
-                if(line.isEmpty())
-                    continue;
+            return result.ok() ? 0 : 1;
+        } catch(Exception e) {
+            reportError(0, e.getMessage());
+            return 1;
+        }
+    }
 
-                if(line.startsWith("#"))
-                    continue;
+    /**
+     * Gets the bytes allocated since a count.
+     * @param before Count from Stats.allocated
+     * @return Bytes or -1 if unknown
+     */
+    static long allocated(long before) {
+        return before < 0 ? -1 : Stats.allocated() - before;
+    }
 
-                Game game = parser.parse(line);
+    /**
+     * Gets the value of an option.
+     * @param args Command line arguments
+     * @param argno Index of the option
+     * @return Argument after the option
+     * @throws IllegalArgumentException If the option is the last argument
+     */
+    static String value(String[] args, int argno) {
+        if(argno + 1 >= args.length)
+            throw new IllegalArgumentException("missing value for "+args[argno]+".");
+        return args[argno + 1];
+    }
+
+    /**
+     * Compiles many files in one JVM.
+     * @param paths Files, directories, globs, or @listfiles
+     * @param outputDir Output directory or null to write next to each input
+     * @param unique True to check labels across all files
+     * @param compiler Compiler
+     * @param stats True to report run statistics
+     * @return Exit code
+     */
+    static int batch(List<String> paths, String outputDir, boolean unique, RayCompiler compiler, boolean stats) {
+        long allocated = Stats.allocated();
+
+        try {
+            List<Path> inputs = Batch.expand(paths);
 
-                List<String> errors = Validator.validate(game);
-                if(!errors.isEmpty()) {
-                    for(String error: errors)
-                        reportError(lineno, error);
-                    System.exit(1);
+            Batch batch = new Batch(compiler, outputDir == null ? null : Path.of(outputDir),
+                    unique ? new CorpusValidator() : null);
+
+            Batch.Summary summary = batch.compile(inputs);
+
+            for(String error: summary.errors())
+                System.err.println(error);
+
+            System.err.println(summary);
+
+            if(stats)
+                System.err.println(summary.stats().report(summary.nanos(), allocated(allocated)));
+
+            return summary.failed() == 0 ? 0 : 1;
+        } catch(IOException e) {
+            reportError(0, e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Compiles across worker processes.
+     * @param inputPath Input path
+     * @param outputPath Output path or null for stdout
+     * @param workers Number of worker processes
+     * @return Exit code
+     */
+    static int coordinate(String inputPath, String outputPath, int workers) {
+        Coordinator coordinator = new Coordinator(ShoeOptions.fromSystem(), workers, 2);
+
+        try {
+            Path output = outputPath != null ? Path.of(outputPath) : Files.createTempFile("ray", ".java");
+
+            List<String> errors = coordinator.compile(Path.of(inputPath), output);
+
+            if(outputPath == null) {
+                if(errors.isEmpty())
+                    Files.copy(output, System.out);
+                Files.delete(output);
+            }
+
+            if(!errors.isEmpty()) {
+                for(String error: errors)
+                    System.err.println(error);
+                return 1;
+            }
+            return 0;
+        } catch(IOException e) {
+            reportError(0, e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Compiles with reading, parsing-validating, and writing overlapped.
+     * @param inputPath Input path
+     * @param outputPath Output path or null for stdout
+     * @return Exit code
+     */
+    static int pipeline(String inputPath, String outputPath) {
+        CorpusValidator corpus = new CorpusValidator();
+        int fileno = corpus.file(inputPath);
+
+        ShoeOptions options = ShoeOptions.fromSystem();
+        Pipeline pipeline = new Pipeline(options);
+
+        try(BufferedReader br = Streams.reader(Path.of(inputPath))) {
+            List<String> errors = new ArrayList<>();
+            write(outputPath, path -> {
+                ShoeBuilderTarget builder =
+                        new ShoeBuilderTarget(target(path), options);
+
+                try {
+                    errors.addAll(pipeline.compile(br, builder, corpus, fileno));
                 }
-                games.add(game);
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("pipeline interrupted");
+                }
+
+                builder.close();
+                return errors.isEmpty();
+            });
+
+            System.err.println(pipeline.metrics());
+
+            if(!errors.isEmpty()) {
+                for(String error: errors)
+                    System.err.println(error);
+                return 1;
+            }
+            return 0;
+        } catch(Exception e) {
+            reportError(0, e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Compiles only the games selected through the corpus index.
+     * @param inputPath Input path
+     * @param outputPath Output path or null for stdout
+     * @param query Query, see CorpusIndex.select
+     * @return Exit code
+     */
+    static int query(String inputPath, String outputPath, String query) {
+        int lineno = 0;
+
+        try {
+            if(Streams.isCompressed(Path.of(inputPath)))
+                throw new IOException("--query needs an uncompressed corpus.");
+
+            CorpusIndex index = CorpusIndex.open(Path.of(inputPath));
+
+            int[] entries = index.select(query);
+            List<String> lines = index.read(entries);
+
+            Parser parser = new Parser();
+            CorpusValidator corpus = new CorpusValidator(entries.length);
+            int fileno = corpus.file(inputPath);
+
+            List<Game> games = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            for(int k=0; k < entries.length; k++) {
+                lineno = index.lineno(entries[k]);
+
+                Game game = parser.parse(lines.get(k));
+
+                if(RayCompiler.check(game, lineno, corpus, fileno, errors))
+                    games.add(game);
+            }
+
+            if(!errors.isEmpty()) {
+                for(String error: errors)
+                    System.err.println(error);
+                return 1;
             }
 
-            PrintWriter target = (outputPath == null) ?
-                    new PrintWriter(System.out) : new PrintWriter(new FileWriter(outputPath));
-            ShoeBuilderTarget builder =
-                    new ShoeBuilderTarget(target);
+            write(outputPath, path -> {
+                ShoeBuilderTarget builder =
+                        new ShoeBuilderTarget(target(path));
 
-            builder.generate(games);
+                builder.generate(games);
 
-            builder.close();
+                builder.close();
+                return true;
+            });
+
+            System.err.println(games.size()+" of "+index.size()+" games selected");
+            return 0;
         } catch(Exception e) {
             reportError(lineno, e.getMessage());
-            rc = 1;
+            return 1;
         }
     }
 
+    /**
+     * Writes a shoe to stdout or to a file moved into place once whole, see Streams.replace.
+     * @param outputPath Output path or null for stdout
+     * @param content Writer of the shoe, given null for stdout
+     * @throws IOException If the shoe cannot be written
+     */
+    static void write(String outputPath, Streams.Content content) throws IOException {
+        if(outputPath == null)
+            content.write(null);
+        else
+            Streams.replace(Path.of(outputPath), content);
+    }
+
+    /**
+     * Opens a shoe for writing.
+     * @param path Path or null for stdout
+     * @return Writer
+     * @throws IOException If the file cannot be created
+     */
+    static PrintWriter target(Path path) throws IOException {
+        return path == null ? new PrintWriter(System.out) : Streams.writer(path);
+    }
+
     /**
      * Convenience method for reporting errors.
      * @param lineno Line number
@@ -0,0 +1,606 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.engine.Engine;
+import ray.engine.Solver;
+import ray.generator.CompactShoe;
+import ray.generator.ShoeBuilder;
+import ray.generator.ShoeBuilderTarget;
+import ray.generator.ShoeOptions;
+import ray.model.Game;
+import ray.util.Streams;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class is the compiler as a library.
+ * <p>
+ * A compiler is immutable: its settings are fixed when it is made, it reads no system
+ * properties, and every compile builds its own parser state and generator. One instance
+ * can be shared by any number of threads compiling at the same time without locking.
+ * Errors are returned, never printed, and nothing calls System.exit.
+ * <pre>
+ *     RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "Lab02", null));
+ *     RayCompiler.Result result = compiler.compile(Path.of("lab02.ray"), Path.of("Lab02.java"));
+ *     if(!result.ok())
+ *         result.errors().forEach(System.err::println);
+ * </pre>
+ * @author Ron.Coleman
+ */
+public class RayCompiler {
+    // Bad games reported per template before it is given up
+    static final int MAX_TEMPLATE_ERRORS = 10;
+
+    final ShoeOptions options;
+    final Pattern select;
+    final boolean timing;
+    final boolean verifying;
+    final boolean filling;
+
+    /**
+     * Compile outcome.
+     * @param name Input name
+     * @param games Games compiled
+     * @param errors Errors, each prefixed with a line number; empty if the shoe was generated
+     * @param stats Counts and phase times
+     */
+    public record Result(String name, int games, List<String> errors, Stats stats) {
+        /**
+         * Constructor
+         * @param name Input name
+         * @param games Games compiled
+         * @param errors Errors
+         */
+        public Result(String name, int games, List<String> errors) {
+            this(name, games, errors, new Stats());
+        }
+
+        /**
+         * Tests if the compile succeeded.
+         * @return True if there were no errors
+         */
+        public boolean ok() {
+            return errors.isEmpty();
+        }
+    }
+
+    /**
+     * Constructor
+     * @param options Generator settings
+     */
+    public RayCompiler(ShoeOptions options) {
+        this(options, null, false, false, false);
+    }
+
+    RayCompiler(ShoeOptions options, Pattern select, boolean timing, boolean verifying, boolean filling) {
+        this.options = options;
+        this.select = select;
+        this.timing = timing;
+        this.verifying = verifying;
+        this.filling = filling;
+    }
+
+    /**
+     * Gets the generator settings.
+     * @return Settings
+     */
+    public ShoeOptions options() {
+        return options;
+    }
+
+    /**
+     * Makes a compiler with different generator settings.
+     * @param options Generator settings
+     * @return Compiler
+     */
+    public RayCompiler withOptions(ShoeOptions options) {
+        return new RayCompiler(options, select, timing, verifying, filling);
+    }
+
+    /**
+     * Makes a compiler which times read, parse, and validate per line even without a flight recording.
+     * @param timing True to time every phase
+     * @return Compiler
+     */
+    public RayCompiler withTiming(boolean timing) {
+        return new RayCompiler(options, select, timing, verifying, filling);
+    }
+
+    /**
+     * Makes a compiler which plays each game and reports outcomes its cards do not give.
+     * @param verifying True to verify outcomes
+     * @return Compiler
+     */
+    public RayCompiler withVerify(boolean verifying) {
+        return new RayCompiler(options, select, timing, verifying, filling);
+    }
+
+    /**
+     * Makes a compiler which plays games written without outcomes, "... &gt;&gt;", to fill them in.
+     * @param filling True to fill in outcomes
+     * @return Compiler
+     */
+    public RayCompiler withFill(boolean filling) {
+        return new RayCompiler(options, select, timing, verifying, filling);
+    }
+
+    /**
+     * Makes a compiler which compiles only games whose labels match; other lines are only indexed, not parsed.
+     * @param select Label pattern or null for all games
+     * @return Compiler
+     */
+    public RayCompiler withSelect(Pattern select) {
+        return new RayCompiler(options, select, timing, verifying, filling);
+    }
+
+    /**
+     * Compiles a file into a shoe file.
+     * @param input Input path
+     * @param output Output path
+     * @return Result
+     * @throws IOException If a file cannot be read or written
+     */
+    public Result compile(Path input, Path output) throws IOException {
+        return compile(input, output, new CorpusValidator(1024));
+    }
+
+    /**
+     * Compiles a file into a shoe file, checking labels against a corpus. The shoe is written only if there are no errors,
+     * as Java unless the output is a compact shoe, .rays or .rays.gz, and is moved into place once whole, see
+     * Streams.replace, so a failed compile leaves the output as it was.
+     * @param input Input path
+     * @param output Output path
+     * @param corpus Corpus validator, which may be shared to check labels across inputs
+     * @return Result
+     * @throws IOException If a file cannot be read or written
+     */
+    public Result compile(Path input, Path output, CorpusValidator corpus) throws IOException {
+        String name = input.toString();
+        Stats stats = new Stats();
+        List<String> errors = new ArrayList<>();
+        List<Game> games;
+
+        try(InputStream in = Streams.open(input)) {
+            games = parse(in, name, errors, corpus, stats);
+        }
+
+        if(errors.isEmpty() && CompactShoe.isCompact(output)) {
+            long mark = System.nanoTime();
+            CompactShoe shoe = new CompactShoe(options);
+            shoe.generate(games);
+            stats.cards = shoe.cards();
+            mark = stats.lap(Stats.Phase.GENERATE, mark);
+
+            shoe.save(output);
+            stats.lap(Stats.Phase.WRITE, mark);
+        }
+        else if(errors.isEmpty()) {
+            long[] mark = {System.nanoTime()};
+            Streams.replace(output, temp -> {
+                try(PrintWriter writer = Streams.writer(temp)) {
+                    ShoeBuilderTarget builder = new ShoeBuilderTarget(writer, options);
+                    builder.generate(games);
+                    stats.cards = builder.cards();
+                    mark[0] = stats.lap(Stats.Phase.GENERATE, mark[0]);
+                }
+                return true;
+            });
+            stats.lap(Stats.Phase.WRITE, mark[0]);
+        }
+
+        stats.commit(name);
+        return new Result(name, games.size(), errors, stats);
+    }
+
+    /**
+     * Compiles a file.
+     * @param input Input path
+     * @param out Output for the shoe
+     * @return Result
+     * @throws IOException If the file cannot be read
+     */
+    public Result compile(Path input, Writer out) throws IOException {
+        String name = input.toString();
+        PrintWriter writer = out instanceof PrintWriter pw ? pw : new PrintWriter(out);
+        Stats stats = new Stats();
+        List<String> errors = new ArrayList<>();
+        List<Game> games;
+
+        try(InputStream in = Streams.open(input)) {
+            games = parse(in, name, errors, new CorpusValidator(1024), stats);
+        }
+        Result result = generate(name, games, errors, new ShoeBuilderTarget(writer, options), stats);
+
+        long mark = System.nanoTime();
+        writer.flush();
+        stats.lap(Stats.Phase.WRITE, mark);
+
+        stats.commit(name);
+        return result;
+    }
+
+    /**
+     * Compiles .ray input.
+     * @param in Input
+     * @param name Input name for errors
+     * @param out Output for the shoe
+     * @return Result
+     * @throws IOException If the input cannot be read
+     */
+    public Result compile(Reader in, String name, Writer out) throws IOException {
+        PrintWriter writer = out instanceof PrintWriter pw ? pw : new PrintWriter(out);
+        Stats stats = new Stats();
+        Result result = compile(in, name, new ShoeBuilderTarget(writer, options), new CorpusValidator(1024), stats);
+
+        long mark = System.nanoTime();
+        writer.flush();
+        stats.lap(Stats.Phase.WRITE, mark);
+
+        stats.commit(name);
+        return result;
+    }
+
+    /**
+     * Compiles .ray input into any shoe builder. The shoe is generated only if there are no errors.
+     * @param in Input
+     * @param name Input name for errors
+     * @param sink Shoe builder
+     * @param corpus Corpus validator, which may be shared to check labels across inputs
+     * @return Result
+     * @throws IOException If the input cannot be read
+     */
+    public Result compile(Reader in, String name, ShoeBuilder sink, CorpusValidator corpus) throws IOException {
+        Stats stats = new Stats();
+        Result result = compile(in, name, sink, corpus, stats);
+        stats.commit(name);
+        return result;
+    }
+
+    Result compile(Reader in, String name, ShoeBuilder sink, CorpusValidator corpus, Stats stats) throws IOException {
+        // Counted under the buffer, which hides line ends
+        Streams.Counting counting = new Streams.Counting(in);
+
+        List<String> errors = new ArrayList<>();
+        List<Game> games = parse(new BufferedReader(counting, 1 << 16), name, errors, corpus, stats);
+        stats.bytes += counting.bytes();
+
+        return generate(name, games, errors, sink, stats);
+    }
+
+    /**
+     * Generates the shoe of parsed games into a shoe builder if there are no errors.
+     */
+    Result generate(String name, List<Game> games, List<String> errors, ShoeBuilder sink, Stats stats) {
+        if(errors.isEmpty()) {
+            long mark = System.nanoTime();
+            long before = sink.cards();
+            sink.generate(games);
+            stats.cards = sink.cards() - before;
+            stats.lap(Stats.Phase.GENERATE, mark);
+        }
+
+        return new Result(name, games.size(), errors, stats);
+    }
+
+    /**
+     * Parses and validates .ray input without generating a shoe.
+     * @param br Input
+     * @param name Input name for the corpus validator
+     * @param errors Errors, each prefixed with a line number
+     * @param corpus Corpus validator
+     * @return Valid games
+     * @throws IOException If the input cannot be read
+     */
+    public List<Game> parse(BufferedReader br, String name, List<String> errors, CorpusValidator corpus)
+            throws IOException {
+        return parse(br, name, errors, corpus, new Stats());
+    }
+
+    /**
+     * Parses and validates .ray input, counting into stats. Lines starting with % declare template
+     * parameters and lines with $ are templates, see Expander; a template's games are bound again
+     * as the returned list is walked rather than kept. Blank cards, ?, are filled in by the Solver.
+     * Bytes are not counted, as the reader hides line ends; compile counts them under the buffer.
+     * @param br Input
+     * @param name Input name for the corpus validator
+     * @param errors Errors, each prefixed with a line number
+     * @param corpus Corpus validator
+     * @param stats Stats
+     * @return Valid games
+     * @throws IOException If the input cannot be read
+     */
+    public List<Game> parse(BufferedReader br, String name, List<String> errors, CorpusValidator corpus, Stats stats)
+            throws IOException {
+        Pass pass = new Pass(name, errors, corpus, stats);
+
+        int lineno = 0;
+        String line;
+        while((line = br.readLine()) != null) {
+            lineno++;
+
+            pass.read();
+            pass.line(lineno, line);
+        }
+
+        return pass.finish(lineno);
+    }
+
+    /**
+     * Parses and validates .ray input read as bytes, counting into stats. Lines in the usual form
+     * are parsed straight from the block with the structural bitmap, see Parser.tryParse; any other
+     * line, a template, a declaration, blanks, or an error, goes the way of parse(BufferedReader...).
+     * @param in Input, not closed
+     * @param name Input name for the corpus validator
+     * @param errors Errors, each prefixed with a line number
+     * @param corpus Corpus validator
+     * @param stats Stats
+     * @return Valid games
+     * @throws IOException If the input cannot be read
+     */
+    public List<Game> parse(InputStream in, String name, List<String> errors, CorpusValidator corpus, Stats stats)
+            throws IOException {
+        Pass pass = new Pass(name, errors, corpus, stats);
+        BlockReader reader = new BlockReader(in);
+
+        while(reader.next()) {
+            pass.read();
+
+            if(reader.skippable())
+                continue;
+
+            Game game = reader.parse(pass.parser);
+            if(game != null)
+                pass.game(reader.lineno(), game);
+            else
+                pass.line(reader.lineno(), reader.line());
+        }
+
+        stats.bytes += reader.position();
+        return pass.finish(reader.lineno());
+    }
+
+    /**
+     * State of parsing one input, whichever way its lines are read.
+     */
+    class Pass {
+        final Parser parser = new Parser();
+        final Expander expander = new Expander();
+        final Solver solver = options.solver();
+        final Engine engine = verifying || filling ? new Engine() : null;
+        final List<String> mismatches = new ArrayList<>();
+        final GameList games = new GameList();
+
+        final List<String> errors;
+        final CorpusValidator corpus;
+        final Stats stats;
+        final int fileno;
+        final int before;
+
+        // Two clock reads a line is cheap but not free, so only when someone looks
+        final boolean timed = timing || Events.timing();
+        long mark;
+
+        Pass(String name, List<String> errors, CorpusValidator corpus, Stats stats) {
+            this.errors = errors;
+            this.corpus = corpus;
+            this.stats = stats;
+            this.fileno = corpus.file(name);
+            this.before = errors.size();
+            this.mark = timed ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Charges the time since the last line to reading.
+         */
+        void read() {
+            if(timed)
+                mark = stats.lap(Stats.Phase.READ, mark);
+        }
+
+        /**
+         * Parses and validates one line of text.
+         * @param lineno Line number
+         * @param line Line, untrimmed
+         */
+        void line(int lineno, String line) {
+            line = line.trim();
+            if(line.isEmpty() || line.startsWith("#"))
+                return;
+
+            try {
+                if(Expander.isDeclaration(line)) {
+                    expander.declare(line);
+                    return;
+                }
+
+                if(Expander.isTemplate(line)) {
+                    Expander.Template template = expander.template(line);
+
+                    if(timed)
+                        mark = stats.lap(Stats.Phase.PARSE, mark);
+
+                    expand(template, lineno, games, errors, corpus, fileno, engine, mismatches, stats);
+
+                    if(timed)
+                        mark = stats.lap(Stats.Phase.VALIDATE, mark);
+                    return;
+                }
+
+                Game game;
+                if(select == null)
+                    game = parser.parse(line);
+                else {
+                    LineIndex index = parser.index(line);
+                    if(!select.matcher(index.label()).matches()) {
+                        stats.skipped++;
+                        return;
+                    }
+                    game = index.game();
+                }
+
+                if(Solver.isBlank(line))
+                    solver.solve(game);
+
+                if(timed)
+                    mark = stats.lap(Stats.Phase.PARSE, mark);
+
+                if(accept(game, lineno, errors, corpus, fileno, engine, mismatches))
+                    games.add(game);
+
+                if(timed)
+                    mark = stats.lap(Stats.Phase.VALIDATE, mark);
+            }
+            catch(IllegalArgumentException e) {
+                errors.add("line "+lineno+": "+e.getMessage());
+
+                if(timed)
+                    mark = stats.lap(Stats.Phase.PARSE, mark);
+            }
+        }
+
+        /**
+         * Validates one game already parsed.
+         * @param lineno Line number
+         * @param game Game
+         */
+        void game(int lineno, Game game) {
+            if(select != null && !select.matcher(game.label).matches()) {
+                stats.skipped++;
+                return;
+            }
+
+            if(timed)
+                mark = stats.lap(Stats.Phase.PARSE, mark);
+
+            if(accept(game, lineno, errors, corpus, fileno, engine, mismatches))
+                games.add(game);
+
+            if(timed)
+                mark = stats.lap(Stats.Phase.VALIDATE, mark);
+        }
+
+        /**
+         * Counts the input into stats.
+         * @param lines Lines read
+         * @return Valid games
+         */
+        List<Game> finish(int lines) {
+            stats.lines += lines;
+            stats.games += games.size();
+            stats.errors += errors.size() - before;
+            return games;
+        }
+    }
+
+    /**
+     * Fills in, validates, and verifies one game.
+     * @return True if the game is good
+     */
+    boolean accept(Game game, int lineno, List<String> errors, CorpusValidator corpus, int fileno,
+                   Engine engine, List<String> mismatches) {
+        if(filling)
+            engine.fill(game);
+
+        if(!check(game, lineno, corpus, fileno, errors))
+            return false;
+
+        mismatches.clear();
+        if(verifying && engine.verify(game, mismatches) > 0) {
+            for(String mismatch: mismatches)
+                errors.add("line "+lineno+": "+mismatch);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Binds and checks every game of a template. If all are good and every game is selected, the
+     * template goes in the list in place of its games; errors name the game's label and stop
+     * after MAX_TEMPLATE_ERRORS bad games.
+     */
+    void expand(Expander.Template template, int lineno, GameList games, List<String> errors, CorpusValidator corpus,
+                int fileno, Engine engine, List<String> mismatches, Stats stats) {
+        List<Game> selected = select == null ? null : new ArrayList<>();
+        int bad = 0;
+
+        for(long k=0; k < template.size(); k++) {
+            int before = errors.size();
+            Game game = null;
+            try {
+                game = template.game(k);
+
+                if(selected != null && !select.matcher(game.label).matches()) {
+                    stats.skipped++;
+                    continue;
+                }
+
+                if(accept(game, lineno, errors, corpus, fileno, engine, mismatches)) {
+                    if(selected != null)
+                        selected.add(game);
+                    continue;
+                }
+            }
+            catch(IllegalArgumentException e) {
+                errors.add("line "+lineno+": "+e.getMessage());
+            }
+
+            // Name the game in its errors, as the line alone does not
+            String prefix = "line "+lineno+": ";
+            String label = game != null ? game.label : "game #"+k;
+            for(int e=before; e < errors.size(); e++)
+                errors.set(e, prefix+label+": "+errors.get(e).substring(prefix.length()));
+
+            if(++bad == MAX_TEMPLATE_ERRORS) {
+                errors.add(prefix+"template stopped after "+bad+" bad games.");
+                return;
+            }
+        }
+
+        if(bad > 0)
+            return;
+
+        if(selected == null)
+            games.add(template);
+        else
+            games.addAll(selected);
+    }
+
+    /**
+     * Validates one game, including against the corpus.
+     * @param game Game
+     * @param lineno Line number
+     * @param corpus Corpus validator
+     * @param fileno File number in the corpus validator
+     * @param errors Errors, each prefixed with a line number
+     * @return True if the game is valid
+     */
+    public static boolean check(Game game, int lineno, CorpusValidator corpus, int fileno, List<String> errors) {
+        int before = errors.size();
+
+        for(String error: Validator.validate(game))
+            errors.add("line "+lineno+": "+error);
+
+        String duplicate = corpus.check(game, fileno, lineno);
+        if(duplicate != null)
+            errors.add("line "+lineno+": "+duplicate);
+
+        return errors.size() == before;
+    }
+}
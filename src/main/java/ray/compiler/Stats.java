@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * This class counts what a compile did and how long each phase took.
+ * <p>
+ * Read, parse, and validate alternate line by line, so they are timed per line, and only
+ * if asked or if a flight recording wants phase events. Generate and write are always timed.
+ * @author Ron.Coleman
+ */
+public class Stats {
+    /**
+     * Compile phases
+     */
+    public enum Phase { READ, PARSE, VALIDATE, GENERATE, WRITE }
+
+    public long lines = 0;
+    public long bytes = 0;
+    public long games = 0;
+    public long cards = 0;
+    public long errors = 0;
+    public long skipped = 0;
+    public final long[] nanos = new long[Phase.values().length];
+
+    /**
+     * Adds another compile's counts to these.
+     * @param other Other stats
+     */
+    public void add(Stats other) {
+        lines += other.lines;
+        bytes += other.bytes;
+        games += other.games;
+        cards += other.cards;
+        errors += other.errors;
+        skipped += other.skipped;
+        for(int k=0; k < nanos.length; k++)
+            nanos[k] += other.nanos[k];
+    }
+
+    /**
+     * Charges the time since a mark to a phase.
+     * @param phase Phase
+     * @param mark Time of the mark
+     * @return Now, the next mark
+     */
+    public long lap(Phase phase, long mark) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - mark;
+        return now;
+    }
+
+    /**
+     * Commits one phase event per phase for an input.
+     * @param input Input name
+     */
+    void commit(String input) {
+        for(Phase phase: Phase.values()) {
+            Events.Phase event = new Events.Phase();
+            if(!event.shouldCommit())
+                return;
+
+            event.input = input;
+            event.phase = phase.name().toLowerCase();
+            event.time = nanos[phase.ordinal()];
+            event.games = games;
+            event.bytes = bytes;
+            event.cards = cards;
+            event.errors = (int) errors;
+            event.commit();
+        }
+    }
+
+    /**
+     * Gets the bytes allocated so far by all threads, live or ended.
+     * @return Bytes or -1 if the JVM does not measure it
+     */
+    public static long allocated() {
+        if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+            return threads.getTotalThreadAllocatedBytes();
+        return -1;
+    }
+
+    /**
+     * Makes the run summary.
+     * @param elapsed Wall time of the run
+     * @param allocated Bytes allocated during the run or negative if unknown
+     * @return Summary
+     */
+    public String report(long elapsed, long allocated) {
+        double secs = elapsed / 1e9;
+        double mb = bytes / 1e6;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("stats: %d games, %d lines, %.2f MB in %.3fs: %.0f games/s, %.2f MB/s",
+                games, lines, mb, secs, secs > 0 ? games / secs : 0, secs > 0 ? mb / secs : 0));
+
+        if(allocated >= 0 && games > 0)
+            sb.append(String.format(", %d bytes/game allocated", allocated / games));
+
+        sb.append(String.format("%n       %d cards emitted, %d errors, %d lines skipped%n       ", cards, errors, skipped));
+
+        for(Phase phase: Phase.values())
+            sb.append(String.format("%s %.3fs  ", phase.name().toLowerCase(), nanos[phase.ordinal()] / 1e9));
+
+        return sb.toString().stripTrailing();
+    }
+}
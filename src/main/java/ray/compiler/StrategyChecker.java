@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.util.Streams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class checks the decisions in a corpus against a strategy.
+ * <p>
+ * The decisions come from a DecisionScanner over the raw lines, and each is looked up in a
+ * StrategyTable, so checking a game costs about as much as reading it. A decision the table
+ * does not expect is a deviation. Scripts play against the strategy on purpose, too, so a game
+ * whose deviations are intended is annotated with a comment line before it:
+ * <pre>
+ *   #! deviation: stands on 16 to test the dealer draw
+ *   D1 {5}: You 10+6 | Dealer 10+7 &gt;&gt; Lose{5}
+ * </pre>
+ * Deviations in an annotated game are counted but not flagged; an annotated game without any is
+ * counted too, as the annotation is stale. The games of a template, and a game with blanks, are
+ * bound by a FrontEnd and checked as one game under the line's annotation. A line which is none of
+ * these is skipped and counted, as its decisions went unchecked.
+ * <p>
+ * On threads, the corpus is cut into line-aligned ranges each checked on its own, and an annotation
+ * at the end of one range carries to the first game of the next when the ranges are joined. A corpus
+ * which declares template parameters is checked again on one thread, as a range does not have the
+ * declarations above it.
+ * @author Ron.Coleman
+ */
+public class StrategyChecker {
+    /** Comment which marks the next game's deviations as intended */
+    public static final String ANNOTATION = "#! deviation";
+
+    final StrategyTable table;
+
+    /**
+     * A decision the strategy does not expect.
+     * @param line Line number
+     * @param label Game label
+     * @param decision Decision
+     * @param expected Action the strategy expects
+     */
+    public record Deviation(int line, String label, String decision, char expected) {
+        @Override
+        public String toString() {
+            return "line "+line+": "+label+": "+decision+", expected "+expected+".";
+        }
+    }
+
+    /**
+     * Checking outcome.
+     * @param games Games checked
+     * @param decisions Decisions in them
+     * @param skipped Lines which were not games or templates that could be read
+     * @param deviations Deviations flagged
+     * @param intended Deviations in annotated games
+     * @param stale Annotated games without deviations
+     * @param nanos Elapsed time
+     */
+    public record Summary(long games, long decisions, long skipped, List<Deviation> deviations, long intended,
+                          long stale, long nanos) {
+        public boolean ok() {
+            return deviations.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d game(s), %d decision(s), %d line(s) skipped: %d deviation(s) flagged, %d intended, %d stale annotation(s) in %.3fs (%.0f games/s)",
+                    games, decisions, skipped, deviations.size(), intended, stale, nanos / 1e9, nanos > 0 ? games * 1e9 / nanos : 0);
+        }
+    }
+
+    /**
+     * Checks of one range of the corpus.
+     */
+    class Shard {
+        final DecisionScanner scanner = new DecisionScanner();
+        final FrontEnd front = new FrontEnd();
+        final List<Deviation> deviations = new ArrayList<>();
+
+        long games = 0;
+        long decisions = 0;
+        long skipped = 0;
+        long intended = 0;
+        long stale = 0;
+        int lines = 0;
+
+        // Whether the first game was annotated in this range, and its deviations
+        boolean started = false;
+        boolean headAnnotated = false;
+        int headDeviations = 0;
+
+        // Whether an annotation is waiting for a game at the end of the range
+        boolean pending = false;
+
+        // Game being checked, its label if bound by the front end, and its deviations
+        BlockReader reader;
+        String bound;
+        boolean annotated;
+        int deviated;
+
+        void check(InputStream in) throws IOException {
+            DecisionScanner.Sink sink = this::decision;
+
+            try(BlockReader reader = new BlockReader(in)) {
+                this.reader = reader;
+                while(reader.next()) {
+                    lines++;
+
+                    if(reader.skippable()) {
+                        pending |= annotation(reader);
+                        continue;
+                    }
+
+                    annotated = pending;
+                    deviated = 0;
+                    if(scanner.scan(reader.buf, reader.start, reader.end, reader.structurals, sink))
+                        games++;
+                    else {
+                        long n = front.games(reader.line(), game -> {
+                            bound = game.label;
+                            return scanner.scan(game, sink);
+                        });
+                        bound = null;
+
+                        if(n < 0)
+                            skipped++;
+                        if(n <= 0)
+                            continue;
+                        games += n;
+                    }
+
+                    pending = false;
+
+                    if(!started) {
+                        started = true;
+                        headAnnotated = annotated;
+                        headDeviations = deviated;
+                    }
+
+                    if(annotated) {
+                        intended += deviated;
+                        if(deviated == 0)
+                            stale++;
+                    }
+                }
+            }
+        }
+
+        void decision(DecisionScanner.Decision d) {
+            decisions++;
+
+            char expected = table.expected(d);
+            if(expected == 0 || expected == d.action)
+                return;
+
+            deviated++;
+            if(!annotated)
+                deviations.add(new Deviation(reader.lineno(), bound != null ? bound : label(reader), d.toString(), expected));
+        }
+    }
+
+    /**
+     * Constructor
+     * @param table Strategy
+     */
+    public StrategyChecker(StrategyTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Tests if a comment line is the annotation.
+     * @param reader Reader at the line
+     * @return True if annotated
+     */
+    static boolean annotation(BlockReader reader) {
+        int k = reader.start;
+        while(k < reader.end && (reader.buf[k] & 0xFF) <= ' ')
+            k++;
+        return k + 1 < reader.end && reader.buf[k] == '#' && reader.buf[k+1] == '!'
+                && reader.line().trim().startsWith(ANNOTATION);
+    }
+
+    /**
+     * Gets the label of a game line.
+     * @param reader Reader at the line
+     * @return Label
+     */
+    static String label(BlockReader reader) {
+        int k = reader.start;
+        while(k < reader.end && reader.buf[k] != '{' && reader.buf[k] != ':')
+            k++;
+        return new String(reader.buf, reader.start, k - reader.start, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Checks a corpus.
+     * @param in Corpus
+     * @return Summary
+     * @throws IOException If the corpus cannot be read
+     */
+    public Summary check(InputStream in) throws IOException {
+        long started = System.nanoTime();
+        Shard shard = new Shard();
+        shard.check(in);
+        return join(List.of(shard), System.nanoTime() - started);
+    }
+
+    /**
+     * Checks a corpus file.
+     * @param input Corpus path, possibly gzip
+     * @param threads Number of threads
+     * @return Summary
+     * @throws IOException If the corpus cannot be read
+     */
+    public Summary check(Path input, int threads) throws IOException {
+        // Compressed input cannot be cut into ranges
+        if(threads <= 1 || Streams.isCompressed(input))
+            return check(Streams.open(input));
+
+        long started = System.nanoTime();
+        List<Future<Shard>> futures = new ArrayList<>();
+
+        try(FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+            ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            for(Coordinator.Partition partition: Coordinator.partition(input, threads)) {
+                futures.add(pool.submit(() -> {
+                    Shard shard = new Shard();
+                    shard.check(new Worker.Range(channel, partition.start, partition.end));
+                    return shard;
+                }));
+            }
+
+            List<Shard> shards = new ArrayList<>();
+            for(Future<Shard> future: futures)
+                shards.add(future.get());
+
+            if(shards.stream().anyMatch(shard -> shard.front.declares))
+                return check(Streams.open(input));
+
+            return join(shards, System.nanoTime() - started);
+        }
+        catch(ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("check interrupted");
+        }
+    }
+
+    /**
+     * Joins the shards in corpus order, numbering lines from the start of the corpus and
+     * carrying annotations from one range to the next.
+     * @param shards Shards
+     * @param nanos Elapsed time
+     * @return Summary
+     */
+    Summary join(List<Shard> shards, long nanos) {
+        List<Deviation> deviations = new ArrayList<>();
+        long games = 0;
+        long decisions = 0;
+        long skipped = 0;
+        long intended = 0;
+        long stale = 0;
+
+        int lines = 0;
+        boolean carried = false;
+        for(Shard shard: shards) {
+            games += shard.games;
+            decisions += shard.decisions;
+            skipped += shard.skipped;
+            intended += shard.intended;
+            stale += shard.stale;
+
+            int skip = 0;
+            if(carried && shard.started && !shard.headAnnotated) {
+                skip = shard.headDeviations;
+                intended += skip;
+                if(skip == 0)
+                    stale++;
+            }
+
+            for(int k=skip; k < shard.deviations.size(); k++) {
+                Deviation d = shard.deviations.get(k);
+                deviations.add(new Deviation(lines + d.line(), d.label(), d.decision(), d.expected()));
+            }
+
+            lines += shard.lines;
+            carried = shard.started ? shard.pending : carried || shard.pending;
+        }
+
+        return new Summary(games, decisions, skipped, deviations, intended, stale, nanos);
+    }
+
+    /**
+     * Checks a corpus file against a strategy, failing if a deviation is flagged or a line could
+     * not be read.
+     * @param args [--rules h17,das|none] [--table path] [--threads n] input [report]
+     */
+    public static void main(String[] args) {
+        Set<StrategyTable.Rule> rules = EnumSet.of(StrategyTable.Rule.DAS);
+        Path strategy = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--rules" -> rules = StrategyTable.rules(args[++argno]);
+                    case "--table" -> strategy = Path.of(args[++argno]);
+                    case "--threads" -> threads = Integer.parseInt(args[++argno]);
+                    default -> {
+                        System.err.println("unknown option: "+args[argno]);
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e instanceof ArrayIndexOutOfBoundsException ? "missing option value" : e.getMessage());
+            System.exit(1);
+        }
+
+        if(args.length - argno < 1) {
+            System.out.println("usage: ray.compiler.StrategyChecker [--rules h17,das|none] [--table path] [--threads n] input-path [report-path]");
+            System.exit(0);
+        }
+
+        Path input = Path.of(args[argno]);
+        Path output = args.length - argno > 1 ? Path.of(args[argno + 1]) : null;
+
+        Summary summary = null;
+        try {
+            StrategyTable table = strategy == null ? new StrategyTable(rules) : StrategyTable.load(strategy, rules);
+            summary = new StrategyChecker(table).check(input, threads);
+
+            if(output == null) {
+                for(Deviation deviation: summary.deviations())
+                    System.out.println(deviation);
+            }
+            else {
+                try(PrintWriter out = Streams.writer(output)) {
+                    for(Deviation deviation: summary.deviations())
+                        out.println(deviation);
+                    if(out.checkError())
+                        throw new IOException("failed writing "+output+".");
+                }
+            }
+
+            System.err.println(summary);
+            if(summary.skipped() > 0)
+                System.err.println(summary.skipped()+" line(s) could not be read, so their decisions were not checked.");
+        }
+        catch(IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        System.exit(summary.ok() && summary.skipped() == 0 ? 0 : 1);
+    }
+}
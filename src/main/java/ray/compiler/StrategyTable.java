@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * This class is a playing strategy compiled for a set of rules to flat lookup arrays.
+ * <p>
+ * A strategy is text, one row per hand with one action per dealer upcard, 2 to 10 and then A:
+ * <pre>
+ *   #     2  3  4  5  6  7  8  9  T  A
+ *   H11   D  D  D  D  D  D  D  D  D  H
+ *   S18   S  Ds Ds Ds Ds S  S  H  H  H
+ *   P9    P  P  P  P  P  -  P  P  -  -
+ *   h17: H11  D  D  D  D  D  D  D  D  D  D
+ * </pre>
+ * Rows are hard totals H4 to H21, soft totals S12 to S21, and pairs PA, P2 to P9, and PT. A total's
+ * actions are H to hit, S to stand, D to double or else hit, and Ds to double or else stand. A pair's
+ * actions are P to split and - to play the pair as a total. A row prefixed by a rule replaces the row
+ * when the rule is in force, which is how the dealer hitting soft 17 or doubling after a split changes
+ * the strategy. Hands without a row have no expected action.
+ * <p>
+ * Compiling resolves the rows for the rules and for whether the hand may double: only the two cards
+ * dealt may. A script has no way to double a split hand, so doubling after a split only changes which
+ * pairs split. Looking up a decision is then one or two array reads.
+ * @author Ron.Coleman
+ */
+public class StrategyTable {
+    /** Rules which change the strategy; the dealer stands on soft 17 unless H17 */
+    public enum Rule {H17, DAS}
+
+    /** Multi-deck basic strategy without surrender */
+    public static final String BASIC = """
+            # Multi-deck basic strategy, no surrender; dealer stands on soft 17, no double after split
+            #     2  3  4  5  6  7  8  9  T  A
+            H4    H  H  H  H  H  H  H  H  H  H
+            H5    H  H  H  H  H  H  H  H  H  H
+            H6    H  H  H  H  H  H  H  H  H  H
+            H7    H  H  H  H  H  H  H  H  H  H
+            H8    H  H  H  H  H  H  H  H  H  H
+            H9    H  D  D  D  D  H  H  H  H  H
+            H10   D  D  D  D  D  D  D  D  H  H
+            H11   D  D  D  D  D  D  D  D  D  H
+            H12   H  H  S  S  S  H  H  H  H  H
+            H13   S  S  S  S  S  H  H  H  H  H
+            H14   S  S  S  S  S  H  H  H  H  H
+            H15   S  S  S  S  S  H  H  H  H  H
+            H16   S  S  S  S  S  H  H  H  H  H
+            H17   S  S  S  S  S  S  S  S  S  S
+            H18   S  S  S  S  S  S  S  S  S  S
+            H19   S  S  S  S  S  S  S  S  S  S
+            H20   S  S  S  S  S  S  S  S  S  S
+            H21   S  S  S  S  S  S  S  S  S  S
+            S12   H  H  H  H  H  H  H  H  H  H
+            S13   H  H  H  D  D  H  H  H  H  H
+            S14   H  H  H  D  D  H  H  H  H  H
+            S15   H  H  D  D  D  H  H  H  H  H
+            S16   H  H  D  D  D  H  H  H  H  H
+            S17   H  D  D  D  D  H  H  H  H  H
+            S18   S  Ds Ds Ds Ds S  S  H  H  H
+            S19   S  S  S  S  S  S  S  S  S  S
+            S20   S  S  S  S  S  S  S  S  S  S
+            S21   S  S  S  S  S  S  S  S  S  S
+            PA    P  P  P  P  P  P  P  P  P  P
+            P2    -  -  P  P  P  P  -  -  -  -
+            P3    -  -  P  P  P  P  -  -  -  -
+            P4    -  -  -  -  -  -  -  -  -  -
+            P5    -  -  -  -  -  -  -  -  -  -
+            P6    -  P  P  P  P  -  -  -  -  -
+            P7    P  P  P  P  P  P  -  -  -  -
+            P8    P  P  P  P  P  P  P  P  P  P
+            P9    P  P  P  P  P  -  P  P  -  -
+            PT    -  -  -  -  -  -  -  -  -  -
+            # Dealer hits soft 17
+            h17: H11  D  D  D  D  D  D  D  D  D  D
+            h17: S18  Ds Ds Ds Ds Ds S  S  H  H  H
+            h17: S19  S  S  S  S  Ds S  S  S  S  S
+            # Double after split
+            das: P2   P  P  P  P  P  P  -  -  -  -
+            das: P3   P  P  P  P  P  P  -  -  -  -
+            das: P4   -  -  -  P  P  -  -  -  -  -
+            das: P6   P  P  P  P  P  -  -  -  -  -
+            """;
+
+    static final int TOTALS = 22;
+    static final int UPCARDS = 10;
+
+    // Whether a hand may double: the two cards dealt or otherwise
+    static final int FIRST = 0;
+    static final int MORE = 1;
+
+    final Set<Rule> rules;
+
+    // Actions by context, softness, total, and upcard, 0 if there is no row
+    final byte[] totals = new byte[2 * 2 * TOTALS * UPCARDS];
+
+    // Whether to split by pair value and upcard
+    final boolean[] splits = new boolean[11 * UPCARDS];
+
+    /**
+     * Constructor
+     * @param text Strategy
+     * @param rules Rules in force
+     * @throws IllegalArgumentException If the strategy is not well-formed
+     */
+    public StrategyTable(String text, Set<Rule> rules) {
+        this.rules = rules.isEmpty() ? EnumSet.noneOf(Rule.class) : EnumSet.copyOf(rules);
+
+        // Rows for rules replace the others, so they go second
+        for(int pass=0; pass < 2; pass++) {
+            int lineno = 0;
+            for(String line: text.split("\n")) {
+                lineno++;
+                String row = line.trim();
+                if(row.isEmpty() || row.startsWith("#"))
+                    continue;
+
+                Rule rule = null;
+                int colon = row.indexOf(':');
+                if(colon >= 0) {
+                    try {
+                        rule = Rule.valueOf(row.substring(0, colon).trim().toUpperCase());
+                    }
+                    catch(IllegalArgumentException _) {
+                        throw new IllegalArgumentException("line "+lineno+": unknown rule: '"+row.substring(0, colon).trim()+"'");
+                    }
+                    row = row.substring(colon + 1).trim();
+                }
+
+                if((rule == null) != (pass == 0) || (rule != null && !this.rules.contains(rule)))
+                    continue;
+
+                try {
+                    compile(row.split("\\s+"));
+                }
+                catch(IllegalArgumentException e) {
+                    throw new IllegalArgumentException("line "+lineno+": "+e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Constructor for basic strategy.
+     * @param rules Rules in force
+     */
+    public StrategyTable(Set<Rule> rules) {
+        this(BASIC, rules);
+    }
+
+    /**
+     * Loads a strategy.
+     * @param path Strategy path
+     * @param rules Rules in force
+     * @return Table
+     * @throws IOException If the strategy cannot be read
+     */
+    public static StrategyTable load(Path path, Set<Rule> rules) throws IOException {
+        return new StrategyTable(Files.readString(path), rules);
+    }
+
+    /**
+     * Parses rules, e.g., h17,das, or none.
+     * @param spec Comma-separated rule names or none
+     * @return Rules
+     * @throws IllegalArgumentException If a name is not a rule
+     */
+    public static Set<Rule> rules(String spec) {
+        Set<Rule> rules = EnumSet.noneOf(Rule.class);
+        if(spec.trim().equalsIgnoreCase("none"))
+            return rules;
+
+        for(String name: spec.split(",")) {
+            try {
+                rules.add(Rule.valueOf(name.trim().toUpperCase()));
+            }
+            catch(IllegalArgumentException _) {
+                throw new IllegalArgumentException("unknown rule: '"+name.trim()+"'");
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Compiles one row.
+     * @param cells Row name and actions
+     */
+    void compile(String[] cells) {
+        String name = cells[0];
+        if(cells.length != UPCARDS + 1)
+            throw new IllegalArgumentException("expected "+UPCARDS+" actions for "+name+" but found "+(cells.length - 1)+".");
+
+        char kind = name.charAt(0);
+        int value = -1;
+        try {
+            String rest = name.substring(1);
+            value = kind == 'P' && rest.equals("A") ? 1 : kind == 'P' && rest.equals("T") ? 10 : Integer.parseInt(rest);
+        }
+        catch(NumberFormatException _) { }
+
+        boolean pair = kind == 'P' && value >= 1 && value <= 10;
+        boolean total = (kind == 'H' && value >= 4 && value <= 21) || (kind == 'S' && value >= 12 && value <= 21);
+        if(!pair && !total)
+            throw new IllegalArgumentException("unknown row '"+name+"'.");
+
+        for(int k=1; k <= UPCARDS; k++) {
+            String action = cells[k];
+            int upcard = k == UPCARDS ? 1 : k + 1;
+
+            if(pair) {
+                if(!action.equals("P") && !action.equals("-"))
+                    throw new IllegalArgumentException("unknown pair action '"+action+"' for "+name+".");
+                splits[value * UPCARDS + upcard - 1] = action.equals("P");
+                continue;
+            }
+
+            char doubled;
+            switch(action) {
+                case "H", "S" -> doubled = action.charAt(0);
+                case "D", "Ds" -> doubled = 'D';
+                default -> throw new IllegalArgumentException("unknown action '"+action+"' for "+name+".");
+            }
+            char otherwise = action.equals("D") ? 'H' : action.equals("Ds") ? 'S' : doubled;
+
+            boolean soft = kind == 'S';
+            totals[index(FIRST, soft, value, upcard)] = (byte) doubled;
+            totals[index(MORE, soft, value, upcard)] = (byte) otherwise;
+        }
+    }
+
+    static int index(int context, boolean soft, int total, int upcard) {
+        return ((context * 2 + (soft ? 1 : 0)) * TOTALS + total) * UPCARDS + upcard - 1;
+    }
+
+    /**
+     * Gets the action the strategy expects.
+     * @param d Decision
+     * @return One of S, H, D, and P, or 0 if the strategy has no row for the hand
+     */
+    public char expected(DecisionScanner.Decision d) {
+        if(d.pair > 0 && !d.split && splits[d.pair * UPCARDS + d.upcard - 1])
+            return 'P';
+
+        int context = d.cards > 2 || d.split ? MORE : FIRST;
+        return (char) totals[index(context, d.soft, d.total, d.upcard)];
+    }
+
+    /**
+     * Gets the rules in force.
+     * @return Rules
+     */
+    public Set<Rule> rules() {
+        return rules;
+    }
+}
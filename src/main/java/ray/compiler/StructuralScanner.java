@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+/**
+ * This class finds the structural characters of .ray input a block at a time, in the style of simdjson.
+ * <p>
+ * A scan turns a block of bytes into two bitmaps with one bit per byte: bit k of word w stands for
+ * byte 64w+k. One bitmap marks the structural characters : { } | + ! &gt; , and newline; the other
+ * marks only newlines. Consumers then jump from set bit to set bit instead of looking at every byte.
+ * <p>
+ * The Vector API scanner is used when the jdk.incubator.vector module is present, i.e., the JVM was
+ * started with --add-modules jdk.incubator.vector; otherwise the SWAR scanner, which works on eight
+ * bytes per long, is the fallback. Setting ray.scanner=swar forces the fallback.
+ * @author Ron.Coleman
+ */
+public abstract class StructuralScanner {
+    // Structural characters
+    static final byte[] STRUCTURALS = { ':', '{', '}', '|', '+', '!', '>', ',', '\n' };
+
+    static final StructuralScanner INSTANCE = create();
+
+    /**
+     * Gets the fastest scanner this JVM supports.
+     * @return Scanner
+     */
+    public static StructuralScanner get() {
+        return INSTANCE;
+    }
+
+    static StructuralScanner create() {
+        boolean vectors = !"swar".equals(System.getProperty("ray.scanner"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+        if(vectors) {
+            try {
+                // Loaded by name so the class, and with it the incubator module, is never linked without the module
+                return (StructuralScanner) Class.forName("ray.compiler.VectorScanner")
+                        .getDeclaredConstructor().newInstance();
+            }
+            catch(ReflectiveOperationException | LinkageError _) { }
+        }
+
+        return new SwarScanner();
+    }
+
+    /**
+     * Gets the number of bitmap words needed for a block.
+     * @param length Block length in bytes
+     * @return Number of longs
+     */
+    public static int words(int length) {
+        return (length + 63) >>> 6;
+    }
+
+    /**
+     * Scans a block.
+     * @param buf Bytes
+     * @param length Number of bytes from the start of buf to scan
+     * @param structurals Structural bitmap, at least words(length) long
+     * @param newlines Newline bitmap, at least words(length) long
+     */
+    public abstract void scan(byte[] buf, int length, long[] structurals, long[] newlines);
+
+    /**
+     * Gets the scanner name for diagnostics.
+     * @return Name
+     */
+    public abstract String name();
+
+    /**
+     * Scans a tail one byte at a time.
+     * @param buf Bytes
+     * @param from First byte
+     * @param to End of bytes
+     * @param structurals Structural bitmap
+     * @param newlines Newline bitmap
+     */
+    static void scanTail(byte[] buf, int from, int to, long[] structurals, long[] newlines) {
+        for(int k=from; k < to; k++) {
+            byte b = buf[k];
+            for(byte s: STRUCTURALS) {
+                if(b == s) {
+                    structurals[k >>> 6] |= 1L << k;
+                    if(b == '\n')
+                        newlines[k >>> 6] |= 1L << k;
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * This class is the scalar structural scanner. It treats a long as eight byte lanes,
+ * i.e., SIMD within a register, so it needs no incubator module.
+ * @author Ron.Coleman
+ */
+class SwarScanner extends StructuralScanner {
+    static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+
+    // Each structural character repeated in all eight lanes
+    static final long[] PATTERNS = new long[STRUCTURALS.length];
+    static {
+        for(int k=0; k < STRUCTURALS.length; k++)
+            PATTERNS[k] = (STRUCTURALS[k] & 0xFFL) * 0x0101010101010101L;
+    }
+
+    static final long NEWLINES = PATTERNS[PATTERNS.length - 1];
+
+    @Override
+    public void scan(byte[] buf, int length, long[] structurals, long[] newlines) {
+        int words = words(length);
+        for(int w=0; w < words; w++) {
+            structurals[w] = 0;
+            newlines[w] = 0;
+        }
+
+        int k = 0;
+        for(; k + 8 <= length; k += 8) {
+            long v = (long) LONGS.get(buf, k);
+
+            long any = 0;
+            for(long pattern: PATTERNS)
+                any |= zeros(v ^ pattern);
+
+            if(any == 0)
+                continue;
+
+            int shift = k & 63;
+            structurals[k >>> 6] |= gather(any) << shift;
+            newlines[k >>> 6] |= gather(zeros(v ^ NEWLINES)) << shift;
+        }
+
+        scanTail(buf, k, length, structurals, newlines);
+    }
+
+    /**
+     * Marks zero lanes.
+     * @param v Eight lanes
+     * @return High bit of each lane set if and only if that lane is zero
+     */
+    static long zeros(long v) {
+        return ~(((v & LOWS) + LOWS) | v | LOWS);
+    }
+
+    /**
+     * Gathers the lane high bits into the low eight bits, lane 0 in bit 0.
+     * @param highs Lane high bits
+     * @return Eight-bit mask
+     */
+    static long gather(long highs) {
+        return ((highs >>> 7) * 0x0102040810204080L) >>> 56;
+    }
+
+    @Override
+    public String name() {
+        return "swar";
+    }
+}
@@ -33,6 +33,7 @@ public class Validator {
      * 3. only YOU, HUEY, and DEWEY can hit (H!) or double-down (D!)
      * 4. each game must have at least two players: YOU and DEALER
      * 5. each player, including DEALER, may appear only once
+     * 6. each hand, including DEALER's, must hold at least two cards
      * Additionally:
      *   - a split (P!) must contain exactly two subhands
      *   - each split subhand must contain at least two cards
@@ -79,12 +80,19 @@ public class Validator {
         // --- Rule 5: Each player only once ---
         validateUniquePlayers(game, errors);
 
+        // --- Rule 6: Two cards to a hand ---
+        for(Hand hand: game.hands) {
+            if(hand.cards.size() < 2)
+                errors.add(String.format(
+                        "%s has only %d card(s), expected at least 2.", hand.who, hand.cards.size()));
+        }
+
         return errors;
     }
 
     /** Checks if YOU hand has a split. */
     private static boolean hasYouSplit(Hand hand) {
-        return hand != null && "YOU".equals(hand.who)
+        return hand != null && hand.who == You
                 && hand.directive != null && hand.directive.type == 'P';
     }
 
@@ -103,13 +111,13 @@ public class Validator {
 
         // Only YOU, HUEY, and DEWEY can hit or double
         if ((type == 'H' || type == 'D')
-                && !(who.equals("You") || who.equals("Huey") || who.equals("Dewey"))) {
+                && !(who == You || who == Huey || who == Dewey)) {
             errors.add(String.format(
                     "%s cannot use directive %c!.", who, type));
         }
 
         // Only YOU can split
-        if (type == 'P' && !who.equals("You")) {
+        if (type == 'P' && who != You) {
             errors.add(String.format(
                     "%s cannot split (P!).", who));
         }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class is the structural scanner using the Vector API. Only StructuralScanner
+ * creates it and only when the jdk.incubator.vector module is present.
+ * @author Ron.Coleman
+ */
+class VectorScanner extends StructuralScanner {
+    // At most 64 lanes, so a mask fits in one long
+    static final VectorSpecies<Byte> SPECIES =
+            ByteVector.SPECIES_PREFERRED.length() > 64 ? ByteVector.SPECIES_512 : ByteVector.SPECIES_PREFERRED;
+
+    static final int LANES = SPECIES.length();
+
+    @Override
+    public void scan(byte[] buf, int length, long[] structurals, long[] newlines) {
+        int words = words(length);
+        for(int w=0; w < words; w++) {
+            structurals[w] = 0;
+            newlines[w] = 0;
+        }
+
+        int bound = SPECIES.loopBound(length);
+
+        int k = 0;
+        for(; k < bound; k += LANES) {
+            ByteVector v = ByteVector.fromArray(SPECIES, buf, k);
+
+            VectorMask<Byte> newline = v.compare(VectorOperators.EQ, (byte) '\n');
+
+            VectorMask<Byte> any = newline
+                    .or(v.compare(VectorOperators.EQ, (byte) ':'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '{'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '}'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '|'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '+'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '!'))
+                    .or(v.compare(VectorOperators.EQ, (byte) '>'))
+                    .or(v.compare(VectorOperators.EQ, (byte) ','));
+
+            int shift = k & 63;
+            structurals[k >>> 6] |= any.toLong() << shift;
+            newlines[k >>> 6] |= newline.toLong() << shift;
+        }
+
+        scanTail(buf, k, length, structurals, newlines);
+    }
+
+    @Override
+    public String name() {
+        return "vector-"+LANES;
+    }
+}
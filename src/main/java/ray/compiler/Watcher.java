@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.generator.ShoeOptions;
+import ray.util.Helper;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * This class watches directories of .ray files and regenerates the shoe of each file that changes.
+ * <p>
+ * The JVM, the parser, and the generator stay warm between edits, so regenerating a shoe costs
+ * only the compile itself. Each input dir/name.ray gives output-dir/Name.java, the class
+ * name being derived from the file name.
+ * @author Ron.Coleman
+ */
+public class Watcher {
+    // Wait this long after an event for more before compiling, since editors save in bursts
+    static final long SETTLE_MILLIS = 15;
+
+    final List<Path> dirs;
+    final Path outputDir;
+    final ShoeOptions options;
+
+    final RayCompiler compiler;
+
+    final Map<WatchKey,Path> keys = new HashMap<>();
+
+    volatile boolean running = true;
+
+    /**
+     * Constructor
+     * @param dirs Directories to watch, including subdirectories
+     * @param outputDir Output directory or null to write next to each input
+     * @param options Generator settings; the shoe name is replaced per file
+     */
+    public Watcher(List<Path> dirs, Path outputDir, ShoeOptions options) {
+        this.dirs = dirs;
+        this.outputDir = outputDir;
+        this.options = options;
+        this.compiler = new RayCompiler(options);
+    }
+
+    /**
+     * Brings all outputs up to date, then regenerates shoes as inputs change until stopped.
+     * @throws IOException If the directories cannot be watched
+     */
+    public void run() throws IOException {
+        warm();
+
+        try(WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            for(Path dir: dirs)
+                register(watcher, dir);
+
+            for(Path dir: dirs)
+                sync(dir);
+
+            System.err.println("watching "+dirs);
+
+            while(running) {
+                WatchKey key;
+                try {
+                    key = watcher.poll(250, TimeUnit.MILLISECONDS);
+                }
+                catch(InterruptedException _) {
+                    return;
+                }
+
+                if(key == null)
+                    continue;
+
+                // Gather the burst of events, keeping each path once in arrival order
+                Set<Path> changed = new LinkedHashSet<>();
+                Set<Path> deleted = new LinkedHashSet<>();
+                try {
+                    while(key != null) {
+                        collect(watcher, key, changed, deleted);
+                        key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                }
+                catch(InterruptedException _) {
+                    return;
+                }
+
+                for(Path path: deleted) {
+                    if(!Files.exists(path))
+                        Files.deleteIfExists(outputOf(path));
+                }
+
+                for(Path path: changed) {
+                    if(Files.isRegularFile(path))
+                        compile(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the watcher.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    void collect(WatchService watcher, WatchKey key, Set<Path> changed, Set<Path> deleted) throws IOException {
+        Path dir = keys.get(key);
+
+        for(WatchEvent<?> event: key.pollEvents()) {
+            if(event.kind() == OVERFLOW) {
+                // Events were lost, so fall back to checking everything
+                for(Path root: dirs)
+                    sync(root);
+                continue;
+            }
+
+            Path path = dir.resolve((Path) event.context());
+
+            if(event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                register(watcher, path);
+                sync(path);
+                continue;
+            }
+
+            if(!isRay(path))
+                continue;
+
+            if(event.kind() == ENTRY_DELETE)
+                deleted.add(path);
+            else
+                changed.add(path);
+        }
+
+        if(!key.reset())
+            keys.remove(key);
+    }
+
+    void register(WatchService watcher, Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Compiles every input under a directory whose output is missing or older.
+     * @param root Directory
+     */
+    void sync(Path root) throws IOException {
+        try(Stream<Path> paths = Files.walk(root)) {
+            for(Path path: paths.filter(Watcher::isRay).toList()) {
+                Path output = outputOf(path);
+                if(!Files.exists(output)
+                        || Files.getLastModifiedTime(output).compareTo(Files.getLastModifiedTime(path)) < 0)
+                    compile(path);
+            }
+        }
+    }
+
+    static boolean isRay(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".ray") || name.endsWith(".ray.gz");
+    }
+
+    /**
+     * Gets the output of an input.
+     * @param input Input path
+     * @return Output path
+     */
+    Path outputOf(Path input) {
+        String name = Helper.toClassName(input.getFileName().toString()) + ".java";
+        Path dir = outputDir != null ? outputDir : input.toAbsolutePath().getParent();
+        return dir.resolve(name);
+    }
+
+    /**
+     * Compiles one input into its shoe.
+     * @param input Input path
+     * @return True if the shoe was written
+     */
+    public boolean compile(Path input) {
+        long started = System.nanoTime();
+
+        Path output = outputOf(input);
+        String clazzName = output.getFileName().toString().replace(".java", "");
+
+        // The compiler moves the shoe into place once whole, so readers never see a half-written one
+        RayCompiler.Result result;
+        try {
+            result = compiler.withOptions(options.withShoe(clazzName)).compile(input, output);
+        }
+        catch(IOException e) {
+            System.err.println(input+": "+e.getMessage());
+            return false;
+        }
+        catch(RuntimeException e) {
+            // A bug in one shoe must not stop the watch
+            System.err.println(input+": compile failed: "+e);
+            return false;
+        }
+
+        if(!result.ok()) {
+            for(String error: result.errors())
+                System.err.println(input+": "+error);
+            return false;
+        }
+
+        System.err.printf("%s -> %s: %d games in %.1fms%n",
+                input, output, result.games(), (System.nanoTime() - started) / 1e6);
+
+        return true;
+    }
+
+    /**
+     * Runs the compile path on a sample so the first real edit doesn't pay for class loading.
+     */
+    void warm() {
+        String[] samples = {
+                "W0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+                "W1 {5,10}: You 7+7+P!{2+4,5+9} | Huey 10+2+D!7 | Dealer 10+6 >> Win{5}, Push{5}, Win{20}"
+        };
+
+        try {
+            compiler.compile(new StringReader(String.join("\n", samples)), "warm", Writer.nullWriter());
+        }
+        catch(IOException _) {
+            // Strings cannot fail to read
+        }
+    }
+
+    /**
+     * Watches directories until interrupted.
+     * @param args Input directory and optional output directory
+     */
+    public static void main(String[] args) {
+        if(args.length < 1) {
+            System.out.println("usage: ray.compiler.Watcher input-dir [output-dir]");
+            System.exit(0);
+        }
+
+        Path outputDir = args.length < 2 ? null : Path.of(args[1]);
+
+        try {
+            new Watcher(List.of(Path.of(args[0])), outputDir, ShoeOptions.fromSystem()).run();
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.compiler;
+
+import ray.engine.Solver;
+import ray.generator.ShoeBuilderTarget;
+import ray.generator.ShoeOptions;
+import ray.model.Game;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class compiles one partition of an input in its own JVM for the Coordinator.
+ * <p>
+ * A partition is a line-aligned byte range. The worker streams it, writing the games' shoe code,
+ * without prolog or epilogue, to a fragment file and each label with its line to a labels file,
+ * so the coordinator can check labels across partitions. On stdout it reports one
+ * "E lineno message" per error, with lines numbered from the start of the partition, and
+ * finally "D lines games cards". It exits nonzero only if it failed, not if the games are invalid.
+ * @author Ron.Coleman
+ */
+public class Worker {
+    /**
+     * Compiles one partition.
+     * @param input Input path
+     * @param start First byte of the partition
+     * @param end Byte after the partition
+     * @param fragment Fragment output path
+     * @param labels Labels output path
+     * @param options Generator settings
+     * @param report Where to report errors and the summary
+     * @throws IOException If a file cannot be read or written
+     */
+    public static void compile(Path input, long start, long end, Path fragment, Path labels,
+                               ShoeOptions options, PrintStream report) throws IOException {
+        Parser parser = new Parser();
+        Solver solver = options.solver();
+
+        int lineno = 0;
+        int games = 0;
+        long cards = 0;
+
+        try(FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+            BufferedReader br = new BufferedReader(new InputStreamReader(
+                    new Range(channel, start, end), StandardCharsets.UTF_8), 1 << 16);
+            PrintWriter code = new PrintWriter(Files.newBufferedWriter(fragment));
+            PrintWriter names = new PrintWriter(Files.newBufferedWriter(labels))) {
+
+            ShoeBuilderTarget builder = new ShoeBuilderTarget(code, options);
+
+            String line;
+            while((line = br.readLine()) != null) {
+                lineno++;
+
+                line = line.trim();
+                if(line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                try {
+                    if(Expander.isDeclaration(line) || Expander.isTemplate(line))
+                        throw new IllegalArgumentException(Expander.UNSUPPORTED);
+
+                    Game game = parser.parse(line);
+                    if(Solver.isBlank(line))
+                        solver.solve(game);
+
+                    names.print(lineno);
+                    names.print('\t');
+                    names.println(game.label);
+
+                    boolean valid = true;
+                    for(String error: Validator.validate(game)) {
+                        report.println("E "+lineno+" "+error);
+                        valid = false;
+                    }
+
+                    if(valid) {
+                        builder.add(game);
+                        games++;
+                    }
+                }
+                catch(IllegalArgumentException e) {
+                    report.println("E "+lineno+" "+e.getMessage());
+                }
+            }
+
+            cards = builder.cards();
+        }
+
+        report.println("D "+lineno+" "+games+" "+cards);
+        report.flush();
+    }
+
+    /**
+     * Input stream over a byte range of a file.
+     */
+    static class Range extends InputStream {
+        final FileChannel channel;
+        final long end;
+        long position;
+
+        Range(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(position >= end)
+                return -1;
+
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if(n > 0)
+                position += n;
+            return n;
+        }
+    }
+
+    /**
+     * Compiles one partition; see Coordinator for the arguments.
+     * @param args Input, start, end, fragment, labels, seed, commenting, decks
+     */
+    public static void main(String[] args) {
+        if(args.length < 8) {
+            System.out.println("usage: ray.compiler.Worker input start end fragment labels seed commenting decks");
+            System.exit(2);
+        }
+
+        // Class names only matter in the prolog, which the coordinator writes
+        ShoeOptions options = new ShoeOptions(Long.parseLong(args[5]), Boolean.parseBoolean(args[6]),
+                "Shoe01", "ShoeXyz", null, Integer.parseInt(args[7]));
+
+        try {
+            compile(Path.of(args[0]), Long.parseLong(args[1]), Long.parseLong(args[2]),
+                    Path.of(args[3]), Path.of(args[4]), options, System.out);
+        }
+        catch(Exception e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
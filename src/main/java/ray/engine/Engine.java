@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.engine;
+
+import ray.compiler.Expander;
+import ray.compiler.Parser;
+import ray.model.Directive;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+import ray.type.Result;
+import ray.util.Helper;
+import ray.util.Streams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class plays a game from its cards to find the outcomes the cards give.
+ * <p>
+ * Each non-dealer hand, in seat order, takes the next bet and plays against the dealer's cards
+ * as written. A You split plays two hands at that bet, each the split card plus its subhand;
+ * D! adds its card and doubles the bet; H! adds its hits. Then, in order:
+ * <ul>
+ *     <li>a dealer blackjack pushes a player blackjack and beats everything else,</li>
+ *     <li>a player over 21 is Bust,</li>
+ *     <li>a two-card 21, not after a split, is Blackjack, paying 3:2,</li>
+ *     <li>five or more cards without busting is Charlie, paying 2:1,</li>
+ *     <li>otherwise the higher total wins, the dealer over 21 loses, and a tie is a Push.</li>
+ * </ul>
+ * Totals are primitive with the ace counted 1 and promoted to 11 if it fits. An engine keeps its
+ * results in arrays it reuses, so playing or verifying a valid game allocates nothing. An engine
+ * is not thread safe; use one per thread.
+ * @author Ron.Coleman
+ */
+public class Engine {
+    // Set in a packed total if the hand holds an ace
+    static final int ACE = 1 << 16;
+
+    Result[] results = new Result[4];
+    int[] amounts = new int[4];
+    int size = 0;
+
+    /**
+     * Plays a game.
+     * @param game Game
+     * @return Number of outcomes the cards give
+     * @throws IllegalArgumentException If there is no dealer or a hand has no bet
+     */
+    public int play(Game game) {
+        size = 0;
+
+        Hand dealer = null;
+        for(int k=0; k < game.hands.size(); k++) {
+            if(game.hands.get(k).who == Player.Dealer)
+                dealer = game.hands.get(k);
+        }
+
+        if(dealer == null)
+            throw new IllegalArgumentException("missing Dealer player.");
+
+        int dealerTotal = best(sum(dealer.cards, 0));
+        boolean dealerNatural = dealer.cards.size() == 2 && dealerTotal == 21;
+
+        int betno = 0;
+        for(int k=0; k < game.hands.size(); k++) {
+            Hand hand = game.hands.get(k);
+            if(hand.who == Player.Dealer)
+                continue;
+
+            if(betno >= game.bets.size())
+                throw new IllegalArgumentException("no bet for "+hand.who+".");
+
+            int bet = game.bets.get(betno++);
+            Directive directive = hand.directive;
+
+            if(directive != null && directive.type == 'P') {
+                int split = sum(hand.cards, 0, 1);
+                for(int h=0; h < directive.splitHands.size(); h++) {
+                    List<String> sub = directive.splitHands.get(h);
+                    settle(sum(sub, split), 1 + sub.size(), false, bet, dealerTotal, dealerNatural);
+                }
+                continue;
+            }
+
+            int total = sum(hand.cards, 0);
+            int cards = hand.cards.size();
+
+            if(directive != null) {
+                total = sum(directive.extraCards, total);
+                cards += directive.extraCards.size();
+
+                if(directive.type == 'D')
+                    bet *= 2;
+            }
+
+            settle(total, cards, true, bet, dealerTotal, dealerNatural);
+        }
+
+        return size;
+    }
+
+    /**
+     * Settles one hand against the dealer.
+     * @param total Packed total
+     * @param cards Number of cards
+     * @param natural True if a two-card 21 counts as blackjack
+     * @param bet Bet
+     * @param dealer Dealer total
+     * @param dealerNatural True if the dealer has blackjack
+     */
+    void settle(int total, int cards, boolean natural, int bet, int dealer, boolean dealerNatural) {
+        Result result = result(total, cards, natural, dealer, dealerNatural);
+
+        if(size == results.length) {
+            results = Arrays.copyOf(results, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+        }
+
+        results[size] = result;
+        amounts[size] = result.amount(bet);
+        size++;
+    }
+
+    /**
+     * Gets the result of one hand against the dealer.
+     * @param total Packed total
+     * @param cards Number of cards
+     * @param natural True if a two-card 21 counts as blackjack
+     * @param dealer Dealer total
+     * @param dealerNatural True if the dealer has blackjack
+     * @return Result
+     */
+    static Result result(int total, int cards, boolean natural, int dealer, boolean dealerNatural) {
+        int player = best(total);
+        boolean blackjack = natural && cards == 2 && player == 21;
+
+        if(dealerNatural)
+            return blackjack ? Result.PUSH : Result.LOSE;
+        if(player > 21)
+            return Result.BUST;
+        if(blackjack)
+            return Result.BLACKJACK;
+        if(cards >= 5)
+            return Result.CHARLIE;
+        if(dealer > 21 || player > dealer)
+            return Result.WIN;
+        if(player < dealer)
+            return Result.LOSE;
+        return Result.PUSH;
+    }
+
+    /**
+     * Gets a result of the last game played.
+     * @param k Outcome number from 0
+     * @return Result
+     */
+    public Result result(int k) {
+        return results[k];
+    }
+
+    /**
+     * Gets an amount of the last game played.
+     * @param k Outcome number from 0
+     * @return Amount
+     */
+    public int amount(int k) {
+        return amounts[k];
+    }
+
+    /**
+     * Checks a game's outcomes against its cards.
+     * @param game Game
+     * @param errors Where to add a message per mismatch
+     * @return Number of mismatches
+     * @throws IllegalArgumentException If the game cannot be played
+     */
+    public int verify(Game game, List<String> errors) {
+        play(game);
+
+        int mismatches = 0;
+        int n = Math.min(size, game.outcomes.size());
+
+        for(int k=0; k < n; k++) {
+            Outcome outcome = game.outcomes.get(k);
+            if(Result.of(outcome.result) != results[k] || outcome.amount != amounts[k]) {
+                errors.add(String.format("outcome #%d is %s but the cards give %s{%d}.",
+                        k + 1, outcome, results[k], amounts[k]));
+                mismatches++;
+            }
+        }
+
+        if(size != game.outcomes.size()) {
+            errors.add(String.format("the cards give %d outcome(s) but found %d.", size, game.outcomes.size()));
+            mismatches++;
+        }
+
+        return mismatches;
+    }
+
+    /**
+     * Fills in a game's outcomes from its cards if it has none.
+     * @param game Game
+     * @return True if filled
+     * @throws IllegalArgumentException If the game cannot be played
+     */
+    public boolean fill(Game game) {
+        if(!game.outcomes.isEmpty())
+            return false;
+
+        play(game);
+
+        for(int k=0; k < size; k++) {
+            Outcome outcome = new Outcome();
+            outcome.result = results[k].name();
+            outcome.amount = amounts[k];
+            game.outcomes.add(outcome);
+        }
+
+        return true;
+    }
+
+    /**
+     * Sums cards into a packed total.
+     * @param cards Cards
+     * @param total Packed total so far
+     * @return Packed total
+     */
+    static int sum(List<String> cards, int total) {
+        return sum(cards, total, cards.size());
+    }
+
+    static int sum(List<String> cards, int total, int n) {
+        for(int k=0; k < n; k++) {
+            int value = Helper.getValue(cards.get(k));
+            total += value;
+            if(value == 1)
+                total |= ACE;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the best total of a packed total.
+     * @param total Packed total
+     * @return Total, counting one ace as 11 if it does not bust
+     */
+    static int best(int total) {
+        int hard = total & (ACE - 1);
+        return (total & ACE) != 0 && hard + 10 <= 21 ? hard + 10 : hard;
+    }
+
+    /**
+     * Verifies a corpus, optionally writing it back with missing outcomes filled in. Every game of
+     * a template is verified, but a template is written back as it is.
+     * @param args [--fill] input [output]
+     */
+    public static void main(String[] args) {
+        boolean filling = args.length > 0 && args[0].equals("--fill");
+        int argno = filling ? 1 : 0;
+
+        if(args.length - argno < 1) {
+            System.out.println("usage: ray.engine.Engine [--fill] input-path [output-path]");
+            System.exit(0);
+        }
+
+        Path input = Path.of(args[argno]);
+        Path output = args.length - argno > 1 ? Path.of(args[argno + 1]) : null;
+
+        Parser parser = new Parser();
+        Expander expander = new Expander();
+        Engine engine = new Engine();
+        List<String> errors = new ArrayList<>();
+
+        long started = System.nanoTime();
+        int games = 0;
+        int filled = 0;
+        int mismatched = 0;
+
+        try(BufferedReader br = Streams.reader(input);
+            PrintWriter out = output == null ? null : Streams.writer(output)) {
+            int lineno = 0;
+            String line;
+            while((line = br.readLine()) != null) {
+                lineno++;
+
+                String text = line.trim();
+                if(text.isEmpty() || text.startsWith("#")) {
+                    if(out != null)
+                        out.println(line);
+                    continue;
+                }
+
+                try {
+                    // Template games are checked but the line stays a template, filled or not
+                    if(Expander.isDeclaration(text)) {
+                        expander.declare(text);
+                        if(out != null)
+                            out.println(line);
+                        continue;
+                    }
+
+                    if(Expander.isTemplate(text)) {
+                        Expander.Template template = expander.template(text);
+                        for(long k=0; k < template.size(); k++) {
+                            Game game = template.game(k);
+                            games++;
+
+                            if(filling && engine.fill(game))
+                                filled++;
+
+                            errors.clear();
+                            if(engine.verify(game, errors) > 0) {
+                                mismatched++;
+                                for(String error: errors)
+                                    System.err.println("line "+lineno+": "+game.label+": "+error);
+                            }
+                        }
+
+                        if(out != null)
+                            out.println(line);
+                        continue;
+                    }
+
+                    Game game = parser.parse(text);
+                    games++;
+
+                    if(filling && engine.fill(game)) {
+                        filled++;
+                        line = text + " " + outcomes(game);
+                    }
+
+                    errors.clear();
+                    if(engine.verify(game, errors) > 0) {
+                        mismatched++;
+                        for(String error: errors)
+                            System.err.println("line "+lineno+": "+error);
+                    }
+                }
+                catch(IllegalArgumentException e) {
+                    System.err.println("line "+lineno+": "+e.getMessage());
+                    mismatched++;
+                }
+
+                if(out != null)
+                    out.println(line);
+            }
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        double secs = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%d game(s), %d filled, %d mismatched in %.3fs%n", games, filled, mismatched, secs);
+
+        System.exit(mismatched == 0 ? 0 : 1);
+    }
+
+    /**
+     * Writes outcomes as in a .ray line.
+     * @param game Game
+     * @return Outcomes, e.g., Win{5}, Lose{5}
+     */
+    static String outcomes(Game game) {
+        StringBuilder sb = new StringBuilder();
+        for(Outcome outcome: game.outcomes) {
+            if(!sb.isEmpty())
+                sb.append(", ");
+            String name = outcome.result;
+            sb.append(name.charAt(0)).append(name.substring(1).toLowerCase()).append('{').append(outcome.amount).append('}');
+        }
+        return sb.toString();
+    }
+}
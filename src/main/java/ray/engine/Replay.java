@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.engine;
+
+import ray.compiler.Parser;
+import ray.generator.CompactShoe;
+import ray.generator.ShoeOptions;
+import ray.type.Player;
+import ray.type.Result;
+import ray.type.Suit;
+import ray.util.Histogram;
+import ray.util.Streams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class replays a shoe at many tables at once to measure how fast scripted shoes are consumed.
+ * <p>
+ * Each table is a virtual thread dealing the shoe the way the game server does: two rounds in
+ * Huey, You, Dewey, Dealer order, then each player draws what its script says, then the dealer
+ * draws by rule, standing on all 17s, unless no hand is left to play against. Hands are settled as
+ * the Engine does and compared with the script's outcomes. A game mismatches if its outcomes differ
+ * or if the replay used a different number of cards than the script put in the shoe, usually a
+ * dealer hand that does not follow the rule. Each game restarts at its own cards, so one mismatch
+ * does not throw off the games after it.
+ * <p>
+ * Tables start at different games so they do not move through the shoe in lockstep.
+ * @author Ron.Coleman
+ */
+public class Replay {
+    // Dealer stands on this or more, soft or hard
+    static final int DEALER_STANDS = 17;
+
+    // Mismatches kept as messages
+    static final int SAMPLES = 20;
+
+    // Players dealt in this order, before the dealer
+    static final Player[] DEAL_ORDER = { Player.Huey, Player.You, Player.Dewey };
+
+    final CompactShoe shoe;
+    final int tables;
+    final int passes;
+    final long pause;
+
+    final Histogram latency = new Histogram();
+    final LongAdder games = new LongAdder();
+    final LongAdder hands = new LongAdder();
+    final LongAdder mismatches = new LongAdder();
+    final List<String> samples = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Replay outcome.
+     * @param tables Tables
+     * @param games Games played
+     * @param hands Hands settled
+     * @param mismatches Games which did not play as scripted
+     * @param nanos Elapsed time
+     * @param latency Time per game, including any pause
+     * @param samples First few mismatches
+     */
+    public record Report(int tables, long games, long hands, long mismatches, long nanos,
+                         Histogram latency, List<String> samples) {
+        @Override
+        public String toString() {
+            double secs = nanos / 1e9;
+            return String.format("replay: %d tables, %d games, %d hands in %.3fs (%.0f hands/s), %d mismatched%n"+
+                            "latency per game: mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                    tables, games, hands, secs, secs > 0 ? hands / secs : 0, mismatches,
+                    latency.mean() / 1e3, latency.percentile(50) / 1e3, latency.percentile(99) / 1e3,
+                    latency.percentile(99.9) / 1e3, latency.max() / 1e3);
+        }
+    }
+
+    /**
+     * Constructor
+     * @param shoe Shoe
+     * @param tables Number of tables
+     * @param passes Times each table plays through the shoe
+     * @param pause Nanoseconds a table waits after each game, as for a server round trip, or 0
+     */
+    public Replay(CompactShoe shoe, int tables, int passes, long pause) {
+        this.shoe = shoe;
+        this.tables = Math.max(1, tables);
+        this.passes = Math.max(1, passes);
+        this.pause = pause;
+    }
+
+    /**
+     * Plays the shoe at every table.
+     * @return Report
+     * @throws IllegalStateException If a table fails, e.g., on a corrupt shoe
+     */
+    public Report run() {
+        long started = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        try(ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for(int k=0; k < tables; k++) {
+                int table = k;
+                futures.add(pool.submit(() -> new Table(table).run()));
+            }
+        }
+
+        // A table which fails would otherwise just leave its games out of the report
+        for(int k=0; k < futures.size(); k++) {
+            try {
+                futures.get(k).get();
+            }
+            catch(ExecutionException e) {
+                throw new IllegalStateException("table "+k+" failed: "+e.getCause(), e.getCause());
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("replay interrupted");
+            }
+        }
+
+        return new Report(tables, games.sum(), hands.sum(), mismatches.sum(), System.nanoTime() - started,
+                latency, List.copyOf(samples));
+    }
+
+    /**
+     * One table with its own engine and hand state, reused for every game.
+     */
+    class Table {
+        final int number;
+        final Engine engine = new Engine();
+
+        // Merged into the replay's at the end, so tables do not contend on one histogram
+        final Histogram times = new Histogram();
+
+        // Per scripted seat: packed total, cards, first and second dealt card
+        int[] totals = new int[4];
+        int[] counts = new int[4];
+        int[] firsts = new int[4];
+        int[] seconds = new int[4];
+
+        int pos;
+        boolean exhausted;
+
+        Table(int number) {
+            this.number = number;
+        }
+
+        void run() {
+            int n = shoe.games();
+            if(n == 0)
+                return;
+
+            long played = 0;
+            long settled = 0;
+            long mismatched = 0;
+
+            int offset = (int) ((long) number * n / tables);
+
+            for(int pass=0; pass < passes; pass++) {
+                for(int k=0; k < n; k++) {
+                    long start = System.nanoTime();
+
+                    if(!play((offset + k) % n))
+                        mismatched++;
+
+                    if(pause > 0)
+                        LockSupport.parkNanos(pause);
+
+                    times.record(System.nanoTime() - start);
+                    played++;
+                    settled += engine.size;
+                }
+            }
+
+            latency.add(times);
+            games.add(played);
+            hands.add(settled);
+            mismatches.add(mismatched);
+        }
+
+        /**
+         * Plays one game.
+         * @param game Game number
+         * @return True if it played as scripted
+         */
+        boolean play(int game) {
+            int[] script = shoe.scripts();
+            int base = shoe.scriptOf(game);
+            int seats = script[base];
+
+            if(seats > totals.length) {
+                totals = new int[seats];
+                counts = new int[seats];
+                firsts = new int[seats];
+                seconds = new int[seats];
+            }
+
+            pos = shoe.cardsOf(game);
+            exhausted = false;
+
+            int dealer = 0;
+            for(int round=0; round < 2; round++) {
+                for(Player player: DEAL_ORDER) {
+                    int seat = seatOf(script, base, seats, player);
+                    if(seat < 0)
+                        continue;
+
+                    int card = draw();
+                    if(round == 0) {
+                        totals[seat] = 0;
+                        counts[seat] = 0;
+                        firsts[seat] = card;
+                    }
+                    else
+                        seconds[seat] = card;
+
+                    totals[seat] = add(totals[seat], card);
+                    counts[seat]++;
+                }
+                dealer = add(dealer, draw());
+            }
+
+            boolean dealerNatural = Engine.best(dealer) == 21;
+            boolean live = false;
+
+            // Players act only if the dealer has no blackjack
+            for(Player player: DEAL_ORDER) {
+                int seat = seatOf(script, base, seats, player);
+                if(seat < 0 || dealerNatural)
+                    continue;
+
+                int at = base + 1 + seat * CompactShoe.SEAT;
+                char type = (char) script[at + 2];
+                int drawn = script[at + 3];
+
+                if(type == 'P') {
+                    totals[seat] = add(0, firsts[seat]);
+                    for(int k=0; k < drawn; k++)
+                        totals[seat] = add(totals[seat], draw());
+
+                    // The second hand is kept in firsts, which are no longer needed
+                    int second = add(0, seconds[seat]);
+                    for(int k=0; k < script[at + 4]; k++)
+                        second = add(second, draw());
+                    firsts[seat] = second;
+
+                    live |= Engine.best(totals[seat]) <= 21 || Engine.best(second) <= 21;
+                    continue;
+                }
+
+                if(type == 0 && counts[seat] == 2 && Engine.best(totals[seat]) == 21)
+                    continue;
+
+                for(int k=0; k < drawn; k++) {
+                    totals[seat] = add(totals[seat], draw());
+                    counts[seat]++;
+                }
+
+                live |= Engine.best(totals[seat]) <= 21 && counts[seat] < 5;
+            }
+
+            int dealerCards = 2;
+            if(live && !dealerNatural) {
+                while(Engine.best(dealer) < DEALER_STANDS && !exhausted) {
+                    dealer = add(dealer, draw());
+                    dealerCards++;
+                }
+            }
+
+            return settle(game, script, base, seats, Engine.best(dealer), dealerNatural);
+        }
+
+        /**
+         * Settles the hands and compares them with the script.
+         * @return True if they match and the replay used exactly the game's cards
+         */
+        boolean settle(int game, int[] script, int base, int seats, int dealer, boolean dealerNatural) {
+            engine.size = 0;
+
+            for(int seat=0; seat < seats; seat++) {
+                int at = base + 1 + seat * CompactShoe.SEAT;
+                int bet = script[at + 1];
+                char type = (char) script[at + 2];
+
+                // Against a dealer blackjack no one acted, so each hand is still its first two cards
+                if(dealerNatural)
+                    engine.settle(totals[seat], counts[seat], true, bet, dealer, true);
+                else if(type == 'P') {
+                    engine.settle(totals[seat], 1 + script[at + 3], false, bet, dealer, false);
+                    engine.settle(firsts[seat], 1 + script[at + 4], false, bet, dealer, false);
+                }
+                else
+                    engine.settle(totals[seat], counts[seat], type == 0, type == 'D' ? bet * 2 : bet, dealer, false);
+            }
+
+            int outcomes = base + 1 + seats * CompactShoe.SEAT;
+            boolean matched = !exhausted && pos == shoe.cardsOf(game + 1) && script[outcomes] == engine.size;
+
+            for(int k=0; matched && k < engine.size; k++) {
+                matched = script[outcomes + 1 + 2 * k] == engine.result(k).ordinal()
+                        && script[outcomes + 2 + 2 * k] == engine.amount(k);
+            }
+
+            if(!matched && samples.size() < SAMPLES)
+                samples.add(describe(game, script, outcomes));
+
+            return matched;
+        }
+
+        String describe(int game, int[] script, int outcomes) {
+            int used = pos - shoe.cardsOf(game);
+            int scripted = shoe.cardsOf(game + 1) - shoe.cardsOf(game);
+
+            StringBuilder expected = new StringBuilder();
+            for(int k=0; k < script[outcomes]; k++) {
+                int ordinal = script[outcomes + 1 + 2 * k];
+                expected.append(k == 0 ? "" : ", ")
+                        .append(ordinal < 0 ? "?" : Result.values()[ordinal]).append('{').append(script[outcomes + 2 + 2 * k]).append('}');
+            }
+
+            StringBuilder actual = new StringBuilder();
+            for(int k=0; k < engine.size; k++)
+                actual.append(k == 0 ? "" : ", ").append(engine.result(k)).append('{').append(engine.amount(k)).append('}');
+
+            return String.format("game %s: script expects %s with %d cards but replay gives %s with %d%s.",
+                    shoe.label(game), expected, scripted, actual, used, exhausted ? ", out of cards" : "");
+        }
+
+        int draw() {
+            if(pos >= shoe.size()) {
+                exhausted = true;
+                return 0;
+            }
+            return shoe.cardInts()[pos++];
+        }
+    }
+
+    /**
+     * Finds a player's seat in a script.
+     * @return Seat or -1 if the player is not in the game
+     */
+    static int seatOf(int[] script, int base, int seats, Player player) {
+        for(int seat=0; seat < seats; seat++) {
+            if(script[base + 1 + seat * CompactShoe.SEAT] == player.ordinal())
+                return seat;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a card to a packed total.
+     * @param total Packed total
+     * @param card Card int or 0 for none
+     * @return Packed total
+     */
+    static int add(int total, int card) {
+        if(card == 0)
+            return total;
+
+        int value = CompactShoe.value(card);
+        total += value;
+        return value == 1 ? total | Engine.ACE : total;
+    }
+
+    /**
+     * Loads a compact shoe or recovers one from generated source, which needs its game comments.
+     * @param path .rays, .rays.gz, or generated .java path
+     * @return Shoe
+     * @throws IOException If the file cannot be read or has no games
+     */
+    public static CompactShoe load(Path path) throws IOException {
+        if(CompactShoe.isCompact(path))
+            return CompactShoe.load(path);
+
+        CompactShoe shoe = new CompactShoe(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+        Parser parser = new Parser();
+
+        try(BufferedReader br = Streams.reader(path)) {
+            String line;
+            while((line = br.readLine()) != null) {
+                line = line.trim();
+
+                if(line.startsWith("// Game ")) {
+                    shoe.script(parser.parse(line.substring("// Game ".length())));
+                    continue;
+                }
+
+                // cards.add(new Card(Card.JACK, Card.Suit.DIAMONDS));
+                int at = line.indexOf("new Card(");
+                if(at < 0)
+                    continue;
+
+                if(shoe.games() == 0)
+                    throw new IOException("no game comments in "+path+"; compile with -Dray.comment=true.");
+
+                int comma = line.indexOf(',', at);
+                String rank = line.substring(at + "new Card(".length(), comma).trim();
+                String suit = line.substring(line.indexOf("Suit.", comma) + "Suit.".length(), line.indexOf(')', comma));
+
+                shoe.card(switch(rank) {
+                    case "Card.ACE" -> 1;
+                    case "Card.JACK" -> 11;
+                    case "Card.QUEEN" -> 12;
+                    case "Card.KING" -> 13;
+                    default -> Integer.parseInt(rank);
+                }, Suit.valueOf(suit));
+            }
+        }
+
+        if(shoe.games() == 0)
+            throw new IOException("no games in "+path+".");
+
+        return shoe;
+    }
+
+    /**
+     * Replays a shoe.
+     * @param args [--tables n] [--passes n] [--pause micros] shoe
+     */
+    public static void main(String[] args) {
+        int tables = 1000;
+        int passes = 1;
+        long pause = 0;
+
+        int argno = 0;
+        for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+            switch(args[argno]) {
+                case "--tables" -> tables = Integer.parseInt(args[++argno]);
+                case "--passes" -> passes = Integer.parseInt(args[++argno]);
+                case "--pause" -> pause = Long.parseLong(args[++argno]) * 1000;
+                default -> {
+                    System.out.println("unknown option: "+args[argno]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        if(argno >= args.length) {
+            System.out.println("usage: ray.engine.Replay [--tables n] [--passes n] [--pause micros] shoe.rays|Shoe.java");
+            System.exit(0);
+        }
+
+        try {
+            Report report = new Replay(load(Path.of(args[argno])), tables, passes, pause).run();
+
+            for(String sample: report.samples())
+                System.err.println(sample);
+
+            System.err.println(report);
+
+            System.exit(report.mismatches() == 0 ? 0 : 1);
+        }
+        catch(IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
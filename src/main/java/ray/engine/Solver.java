@@ -0,0 +1,605 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.engine;
+
+import ray.compiler.Parser;
+import ray.generator.Synthesizer;
+import ray.model.Directive;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+import ray.type.Result;
+import ray.util.Helper;
+import ray.util.Streams;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * This class fills in blank cards so a game's cards give its outcomes.
+ * <p>
+ * A game with blanks, written ?, is a spec: its seats, bets, directives, and outcomes are what is
+ * wanted and some or all of its cards are left to find, e.g.,
+ * <pre>
+ *     S1 {10,10}: Huey ?+? | You 8+8+P!{?+?,?+?} | Dealer 6+? >> Bust{10}, Win{10}, Charlie{20}
+ * </pre>
+ * The solver searches depth first, the dealer first and then each hand in seat order, for card
+ * values which give every outcome as the engine settles it and which are played as the table
+ * plays them: no one draws at 21 or more or to a sixth card, a split is of a pair, no one acts
+ * against a dealer blackjack, and the dealer draws to 17 if and only if a hand is still live. A
+ * hand is checked against its outcome as soon as its last card is set, a draw is cut off as soon
+ * as the total it follows rules it out, and a state which failed, i.e., the position in the search,
+ * the total so far, the dealer and live so far, and the cards left in the decks, is remembered so
+ * it is not searched again; if the decks cut off no value in the failed search, it is remembered
+ * for any cards left. No value may be used more often than the decks hold, counting the cards
+ * written.
+ * <p>
+ * The order values are tried in comes from the seed and the game line, so a spec gives the same
+ * cards every time and specs alike but for their labels give different ones. A solver is not
+ * thread safe; use one per thread.
+ * @author Ron.Coleman
+ */
+public class Solver {
+    /** A card left for the solver */
+    public static final String BLANK = "?";
+
+    // Steps searched before a game is given up
+    static final int MAX_STEPS = 1_000_000;
+
+    // Blanks in one game, so cards left fit six bits a value
+    static final int MAX_BLANKS = 63;
+
+    static final int DEALER_STANDS = 17;
+
+    // Units of the search: the dealer, a hand, a pair to split, and one hand of a split
+    static final int DEALER = 0;
+    static final int HAND = 1;
+    static final int PAIR = 2;
+    static final int SPLIT = 3;
+
+    // Dealer state bits above the total
+    static final int NATURAL = 1 << 5;
+    static final int DREW = 1 << 6;
+    static final int TOTAL = NATURAL - 1;
+
+    static final String[] TENS = {"10", "J", "Q", "K"};
+
+    final long seed;
+    final int decks;
+
+    // The game being solved, flattened into positions
+    final List<List<String>> owners = new ArrayList<>();
+    final List<Integer> indexes = new ArrayList<>();
+    final List<Unit> units = new ArrayList<>();
+    int[] values;
+    int[] offsets;
+    final int[] used = new int[11];
+    Result[] results;
+    int[] amounts;
+
+    final Set<Key> failed = new HashSet<>();
+    int blanks;
+    long cuts;
+    long steps;
+
+    /**
+     * One hand, or the dealer, as a run of positions.
+     * @param kind DEALER, HAND, PAIR, or SPLIT
+     * @param at Positions of the cards in order
+     * @param outcome Outcome number or -1
+     * @param bet Bet, already doubled if the hand doubled down
+     */
+    record Unit(int kind, int[] at, int outcome, int bet) {
+    }
+
+    /**
+     * A state of the search.
+     * @param left Cards left by value, as far as the blanks could use them, or -1 for any
+     * @param state Unit, card, total, dealer, live, and split card
+     */
+    record Key(long left, long state) {
+    }
+
+    /**
+     * Constructor
+     */
+    public Solver() {
+        this(0, 1);
+    }
+
+    /**
+     * Constructor
+     * @param seed Seed for the order values are tried in
+     * @param decks Decks the cards of one game come from
+     */
+    public Solver(long seed, int decks) {
+        if(decks < 1)
+            throw new IllegalArgumentException("decks must be at least 1.");
+
+        this.seed = seed;
+        this.decks = decks;
+    }
+
+    /**
+     * Tests if a line has blank cards.
+     * @param line Game line
+     * @return True if so
+     */
+    public static boolean isBlank(String line) {
+        return line.indexOf('?') >= 0;
+    }
+
+    /**
+     * Gets the number of steps the last solve searched.
+     * @return Steps
+     */
+    public long steps() {
+        return steps;
+    }
+
+    /**
+     * Fills in a game's blank cards. The game's source no longer matches it, so it is dropped.
+     * @param game Game with outcomes
+     * @return Number of cards filled in
+     * @throws IllegalArgumentException If there are no outcomes or no cards give them
+     */
+    public int solve(Game game) {
+        if(game.outcomes.isEmpty())
+            throw new IllegalArgumentException("blank cards need outcomes to solve for.");
+
+        prepare(game);
+
+        if(!search(0, 0, 0, 0, false))
+            throw new IllegalArgumentException("no cards give the outcomes.");
+
+        int filled = fill();
+        game.source = null;
+
+        return filled;
+    }
+
+    /**
+     * Flattens a game into units and positions and counts the cards written.
+     * @param game Game
+     */
+    void prepare(Game game) {
+        owners.clear();
+        indexes.clear();
+        units.clear();
+        failed.clear();
+        blanks = 0;
+        cuts = 0;
+        steps = 0;
+
+        Hand dealer = game.dealer();
+        if(dealer == null)
+            throw new IllegalArgumentException("missing Dealer player.");
+
+        units.add(new Unit(DEALER, positions(dealer.cards, null), -1, 0));
+
+        int betno = 0;
+        int outcome = 0;
+        for(Hand hand: game.hands) {
+            if(hand.who == Player.Dealer)
+                continue;
+
+            if(betno >= game.bets.size())
+                throw new IllegalArgumentException("no bet for "+hand.who+".");
+
+            int bet = game.bets.get(betno++);
+            Directive directive = hand.directive;
+
+            if(directive != null && directive.type == 'P') {
+                if(hand.cards.size() != 2)
+                    throw new IllegalArgumentException(hand.who+" must split a pair of two cards.");
+
+                int[] pair = positions(hand.cards, null);
+                units.add(new Unit(PAIR, pair, -1, bet));
+
+                for(List<String> sub: directive.splitHands) {
+                    int[] at = new int[1 + sub.size()];
+                    at[0] = pair[0];
+                    System.arraycopy(positions(sub, null), 0, at, 1, sub.size());
+                    units.add(new Unit(SPLIT, at, outcome++, bet));
+                }
+                continue;
+            }
+
+            List<String> extra = directive == null ? null : directive.extraCards;
+            boolean doubled = directive != null && directive.type == 'D';
+            units.add(new Unit(HAND, positions(hand.cards, extra), outcome++, doubled ? bet * 2 : bet));
+        }
+
+        if(outcome != game.outcomes.size())
+            throw new IllegalArgumentException(
+                    String.format("expected outcomes=%d but found %d.", outcome, game.outcomes.size()));
+
+        results = new Result[outcome];
+        amounts = new int[outcome];
+        for(int k=0; k < outcome; k++) {
+            Outcome o = game.outcomes.get(k);
+            results[k] = Result.of(o.result);
+            amounts[k] = o.amount;
+        }
+
+        for(Unit unit: units) {
+            if(unit.outcome >= 0 && !possible(unit))
+                throw new IllegalArgumentException("no cards give the outcomes.");
+        }
+
+        SplittableRandom ran = new SplittableRandom(seed * 0x9E3779B97F4A7C15L +
+                (game.source != null ? game.source : String.valueOf(game.label)).hashCode());
+
+        int size = owners.size();
+        values = new int[size];
+        offsets = new int[size];
+        Arrays.fill(used, 0);
+
+        for(int p=0; p < size; p++) {
+            String card = owners.get(p).get(indexes.get(p));
+            offsets[p] = ran.nextInt(10);
+
+            if(card.equals(BLANK)) {
+                blanks++;
+                continue;
+            }
+
+            values[p] = Helper.getValue(card);
+            if(++used[values[p]] > limit(values[p]))
+                throw new IllegalArgumentException("the cards need more than "+decks+" deck(s).");
+        }
+
+        if(blanks > MAX_BLANKS)
+            throw new IllegalArgumentException("more than "+MAX_BLANKS+" blank cards.");
+    }
+
+    /**
+     * Adds the positions of cards, and of extra cards if any.
+     * @return Positions in order
+     */
+    int[] positions(List<String> cards, List<String> extra) {
+        int n = cards.size() + (extra == null ? 0 : extra.size());
+        int[] at = new int[n];
+
+        for(int k=0; k < n; k++) {
+            at[k] = owners.size();
+            boolean base = k < cards.size();
+            owners.add(base ? cards : extra);
+            indexes.add(base ? k : k - cards.size());
+        }
+
+        return at;
+    }
+
+    /**
+     * Searches for the rest of the cards from a card of a unit on.
+     * @param u Unit number
+     * @param i Card number in the unit
+     * @param total Packed total of the unit's cards before i
+     * @param dealer Dealer total and state bits, once the dealer is set
+     * @param live True if a hand so far is still live when the dealer plays
+     * @return True if found, with the values set
+     */
+    boolean search(int u, int i, int total, int dealer, boolean live) {
+        if(++steps > MAX_STEPS)
+            throw new IllegalArgumentException("gave up solving after "+MAX_STEPS+" steps.");
+
+        if(u == units.size())
+            return settled(dealer, live);
+
+        Unit unit = units.get(u);
+        int n = unit.at.length;
+
+        if(i == n)
+            return finish(u, unit, total, dealer, live);
+
+        // A card after the first two is a draw, which the total so far must allow
+        if(i >= 2) {
+            int best = Engine.best(total);
+            if(unit.kind == DEALER ? best >= DEALER_STANDS : best >= 21 || i >= 5)
+                return false;
+        }
+
+        int p = unit.at[i];
+        if(values[p] != 0)
+            return allowed(unit, i, values[p]) && search(u, i + 1, add(total, values[p]), dealer, live);
+
+        // The split card is the next unit's first card too, so it is part of the state
+        int split = unit.kind == SPLIT ? values[unit.at[0]] : 0;
+        long state = total | (long) u << 20 | (long) i << 28 | (long) dealer << 36 |
+                (live ? 1L << 44 : 0) | (long) split << 45;
+
+        // A failure in which the decks cut off no value fails whatever cards are left
+        Key any = new Key(-1, state);
+        if(failed.contains(any))
+            return false;
+
+        Key key = new Key(signature(), state);
+        if(failed.contains(key)) {
+            cuts++;
+            return false;
+        }
+
+        long before = cuts;
+        for(int k=0; k < 10; k++) {
+            int value = 1 + (offsets[p] + k) % 10;
+            if(!allowed(unit, i, value))
+                continue;
+
+            if(used[value] == limit(value)) {
+                cuts++;
+                continue;
+            }
+
+            values[p] = value;
+            used[value]++;
+            blanks--;
+
+            if(search(u, i + 1, add(total, value), dealer, live))
+                return true;
+
+            blanks++;
+            used[value]--;
+            values[p] = 0;
+        }
+
+        failed.add(cuts == before ? any : key);
+        return false;
+    }
+
+    /**
+     * Checks a unit once its cards are set and goes on to the next.
+     */
+    boolean finish(int u, Unit unit, int total, int dealer, boolean live) {
+        int n = unit.at.length;
+        int best = Engine.best(total);
+        boolean dealerNatural = (dealer & NATURAL) != 0;
+
+        switch(unit.kind) {
+            case DEALER -> {
+                boolean drew = n > 2;
+                if(drew && best < DEALER_STANDS)
+                    return false;
+                dealer = Math.min(best, TOTAL) | (n == 2 && best == 21 ? NATURAL : 0) | (drew ? DREW : 0);
+            }
+
+            // No one acts against a dealer blackjack
+            case PAIR -> {
+                if(dealerNatural)
+                    return false;
+            }
+
+            case HAND -> {
+                if(dealerNatural && n > 2)
+                    return false;
+                if(!settles(unit, total, true, dealer))
+                    return false;
+                boolean natural = n == 2 && best == 21;
+                live |= !natural && best <= 21 && n < 5;
+            }
+
+            case SPLIT -> {
+                if(!settles(unit, total, false, dealer))
+                    return false;
+                live |= best <= 21;
+            }
+        }
+
+        return search(u + 1, 0, 0, dealer, live);
+    }
+
+    /**
+     * Tests if a unit settles as its outcome.
+     */
+    boolean settles(Unit unit, int total, boolean natural, int dealer) {
+        Result result = Engine.result(total, unit.at.length, natural, dealer & TOTAL, (dealer & NATURAL) != 0);
+        return result == results[unit.outcome] && result.amount(unit.bet) == amounts[unit.outcome];
+    }
+
+    /**
+     * Tests if a hand could settle as its outcome with some cards, to rule out a spec before searching.
+     */
+    boolean possible(Unit unit) {
+        Result result = results[unit.outcome];
+        if(result == null || result.amount(unit.bet) != amounts[unit.outcome])
+            return false;
+
+        int n = unit.at.length;
+        return switch(result) {
+            case BLACKJACK -> unit.kind == HAND && n == 2;
+            case CHARLIE -> n >= 5;
+            case BUST -> n >= 3;
+            default -> true;
+        };
+    }
+
+    /**
+     * Tests if the dealer played as the hands call for: to 17 if one is live, else not at all.
+     */
+    boolean settled(int dealer, boolean live) {
+        if((dealer & NATURAL) != 0)
+            return true;
+
+        if((dealer & DREW) != 0)
+            return live;
+
+        return !live || (dealer & TOTAL) >= DEALER_STANDS;
+    }
+
+    /**
+     * Tests if a value may go at a card of a unit.
+     */
+    boolean allowed(Unit unit, int i, int value) {
+        return unit.kind != PAIR || i != 1 || value == values[unit.at[0]];
+    }
+
+    /**
+     * Writes the values found into the blank cards, choosing among the ten-value ranks as the decks allow.
+     * @return Number of cards filled in
+     */
+    int fill() {
+        int[] tens = new int[TENS.length];
+        for(int p=0; p < owners.size(); p++) {
+            String card = owners.get(p).get(indexes.get(p));
+            for(int k=0; k < TENS.length; k++) {
+                if(card.startsWith(TENS[k]))
+                    tens[k]++;
+            }
+        }
+
+        int filled = 0;
+        for(int p=0; p < owners.size(); p++) {
+            List<String> cards = owners.get(p);
+            int index = indexes.get(p);
+            if(!cards.get(index).equals(BLANK))
+                continue;
+
+            String card;
+            int value = values[p];
+            if(value == 1)
+                card = "A";
+            else if(value < 10)
+                card = String.valueOf(value);
+            else {
+                int k = offsets[p] % TENS.length;
+                while(tens[k] == 4 * decks)
+                    k = (k + 1) % TENS.length;
+                tens[k]++;
+                card = TENS[k];
+            }
+
+            cards.set(index, card);
+            filled++;
+        }
+
+        return filled;
+    }
+
+    /**
+     * Gets the most cards of a value the decks hold.
+     */
+    int limit(int value) {
+        return (value == 10 ? 16 : 4) * decks;
+    }
+
+    /**
+     * Packs the cards left by value, six bits each. A value left for more than the blanks still
+     * to fill cannot run out, so how many more does not change what can be found.
+     */
+    long signature() {
+        long signature = 0;
+        for(int value=1; value <= 10; value++)
+            signature = signature << 6 | Math.min(limit(value) - used[value], blanks);
+        return signature;
+    }
+
+    static int add(int total, int value) {
+        return value == 1 ? (total + 1) | Engine.ACE : total + value;
+    }
+
+    /**
+     * Solves the games with blank cards in a .ray file.
+     * @param args [--seed n] [--decks n] input [output]
+     */
+    public static void main(String[] args) {
+        long seed = 0;
+        int decks = 1;
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--seed" -> seed = Long.parseLong(args[++argno]);
+                    case "--decks" -> decks = Integer.parseInt(args[++argno]);
+                    default -> {
+                        System.err.println("unknown option: "+args[argno]);
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException _) {
+            System.err.println("bad option value: "+args[argno - 1]);
+            System.exit(1);
+        }
+
+        if(args.length - argno < 1) {
+            System.out.println("usage: ray.engine.Solver [--seed n] [--decks n] input-path [output-path]");
+            System.exit(0);
+        }
+
+        Path input = Path.of(args[argno]);
+        Path output = args.length - argno > 1 ? Path.of(args[argno + 1]) : null;
+
+        Parser parser = new Parser();
+        Solver solver = new Solver(seed, decks);
+
+        long started = System.nanoTime();
+        long solving = 0;
+        int games = 0;
+        int solved = 0;
+        int failures = 0;
+
+        try(BufferedReader br = Streams.reader(input);
+            PrintWriter out = output == null ? new PrintWriter(System.out) : Streams.writer(output)) {
+            int lineno = 0;
+            String line;
+            while((line = br.readLine()) != null) {
+                lineno++;
+
+                String text = line.trim();
+                if(text.isEmpty() || text.startsWith("#")) {
+                    out.println(line);
+                    continue;
+                }
+
+                games++;
+                if(isBlank(text)) {
+                    try {
+                        Game game = parser.parse(text);
+                        long mark = System.nanoTime();
+                        solver.solve(game);
+                        solving += System.nanoTime() - mark;
+                        solved++;
+                        line = Synthesizer.format(game);
+                    }
+                    catch(IllegalArgumentException e) {
+                        System.err.println("line "+lineno+": "+e.getMessage());
+                        failures++;
+                    }
+                }
+
+                out.println(line);
+            }
+        }
+        catch(IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+
+        double secs = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%d game(s), %d solved, %d failed in %.3fs (%.3fms per solve)%n",
+                games, solved, failures, secs, solved > 0 ? solving / 1e6 / solved : 0);
+
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
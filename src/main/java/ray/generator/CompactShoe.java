@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.generator;
+
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+import ray.type.Result;
+import ray.type.Suit;
+import ray.util.Streams;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class builds a shoe as ints rather than Java code, with each game's script alongside.
+ * <p>
+ * A card is its rank, 1 for ace to 13 for king, plus its suit ordinal shifted left 4. Cards are
+ * the ones, in the same order and with the same random suits, that ShoeBuilder writes for the same
+ * seed. A game's script is, for each non-dealer hand as written: the player ordinal, bet, directive
+ * type, then the cards it draws after the deal, and for a split the second subhand's too. Then come
+ * the expected outcomes as result ordinal and amount.
+ * <p>
+ * A shoe saves to a .rays file, gzip if .rays.gz, for the replay engine.
+ * @author Ron.Coleman
+ */
+public class CompactShoe extends ShoeBuilder {
+    static final int MAGIC = 0x52415953;
+    static final int VERSION = 1;
+
+    // Ints per seat in a script
+    public static final int SEAT = 5;
+
+    int[] cardInts = new int[1024];
+    int cardCount = 0;
+
+    int[] scripts = new int[1024];
+    int scriptCount = 0;
+
+    // Start of each game's cards and script; one more than the games
+    int[] gameCards = new int[64];
+    int[] gameScripts = new int[64];
+    int games = 0;
+
+    final List<String> labels = new ArrayList<>();
+
+    /**
+     * Constructor
+     * @param options Generator settings; only the seed matters
+     */
+    public CompactShoe(ShoeOptions options) {
+        super(options.withCommenting(false));
+    }
+
+    /**
+     * Tests if a path names a compact shoe.
+     * @param path Path
+     * @return True if .rays or .rays.gz
+     */
+    public static boolean isCompact(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".rays") || name.endsWith(".rays.gz");
+    }
+
+    @Override
+    void start(Game game) {
+        script(game);
+        super.start(game);
+    }
+
+    @Override
+    String addCard(String card) {
+        cards++;
+        card(card, suitOf(card));
+        return null;
+    }
+
+    @Override
+    void write(String stt) {
+        // Nothing to write; cards and scripts are kept
+    }
+
+    /**
+     * Adds a card.
+     * @param card Card, suited or not
+     * @param suit Suit
+     */
+    public void card(String card, Suit suit) {
+        int rank = switch(card.charAt(0)) {
+            case 'A' -> 1;
+            case 'J' -> 11;
+            case 'Q' -> 12;
+            case 'K' -> 13;
+            default -> card.startsWith("10") ? 10 : card.charAt(0) - '0';
+        };
+
+        card(rank, suit);
+    }
+
+    /**
+     * Adds a card.
+     * @param rank Rank, 1 for ace to 13 for king
+     * @param suit Suit
+     */
+    public void card(int rank, Suit suit) {
+        if(cardCount == cardInts.length)
+            cardInts = Arrays.copyOf(cardInts, cardCount * 2);
+
+        cardInts[cardCount++] = rank | suit.ordinal() << 4;
+        gameCards[games] = cardCount;
+    }
+
+    /**
+     * Starts a game, recording its script.
+     * @param game Game
+     */
+    public void script(Game game) {
+        if(games + 2 > gameCards.length) {
+            gameCards = Arrays.copyOf(gameCards, gameCards.length * 2);
+            gameScripts = Arrays.copyOf(gameScripts, gameScripts.length * 2);
+        }
+
+        gameCards[games] = cardCount;
+        gameScripts[games] = scriptCount;
+        labels.add(game.label);
+
+        int seats = 0;
+        for(Hand hand: game.hands) {
+            if(hand.who != Player.Dealer)
+                seats++;
+        }
+
+        int betno = 0;
+        append(seats);
+        for(Hand hand: game.hands) {
+            if(hand.who == Player.Dealer)
+                continue;
+
+            int bet = betno < game.bets.size() ? game.bets.get(betno) : 0;
+            betno++;
+
+            char type = hand.directive == null ? 0 : hand.directive.type;
+            int drawn = 0;
+            int second = 0;
+
+            if(type == 'P') {
+                List<List<String>> subs = hand.directive.splitHands;
+                drawn = subs.isEmpty() ? 0 : subs.get(0).size();
+                second = subs.size() < 2 ? 0 : subs.get(1).size();
+            }
+            else if(type != 0)
+                drawn = hand.directive.extraCards.size();
+            else
+                drawn = Math.max(0, hand.cards.size() - 2);
+
+            append(hand.who.ordinal());
+            append(bet);
+            append(type);
+            append(drawn);
+            append(second);
+        }
+
+        append(game.outcomes.size());
+        for(Outcome outcome: game.outcomes) {
+            Result result = Result.of(outcome.result);
+            append(result == null ? -1 : result.ordinal());
+            append(outcome.amount);
+        }
+
+        games++;
+        gameCards[games] = cardCount;
+        gameScripts[games] = scriptCount;
+    }
+
+    void append(int value) {
+        if(scriptCount == scripts.length)
+            scripts = Arrays.copyOf(scripts, scriptCount * 2);
+        scripts[scriptCount++] = value;
+    }
+
+    /**
+     * Gets the number of games.
+     * @return Games
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * Gets the cards; only the first size() are in the shoe.
+     * @return Cards
+     */
+    public int[] cardInts() {
+        return cardInts;
+    }
+
+    /**
+     * Gets the number of cards in the shoe.
+     * @return Cards
+     */
+    public int size() {
+        return cardCount;
+    }
+
+    /**
+     * Gets where a game's cards start.
+     * @param game Game number
+     * @return Index into the cards; for game games() the end of the shoe
+     */
+    public int cardsOf(int game) {
+        return gameCards[game];
+    }
+
+    /**
+     * Gets the scripts.
+     * @return Scripts
+     */
+    public int[] scripts() {
+        return scripts;
+    }
+
+    /**
+     * Gets where a game's script starts.
+     * @param game Game number
+     * @return Index into the scripts
+     */
+    public int scriptOf(int game) {
+        return gameScripts[game];
+    }
+
+    /**
+     * Gets a game's label.
+     * @param game Game number
+     * @return Label
+     */
+    public String label(int game) {
+        return labels.get(game);
+    }
+
+    /**
+     * Gets a card's rank.
+     * @param card Card int
+     * @return Rank, 1 for ace to 13 for king
+     */
+    public static int rank(int card) {
+        return card & 0xF;
+    }
+
+    /**
+     * Gets a card's blackjack value.
+     * @param card Card int
+     * @return Value from 1 for ace to 10
+     */
+    public static int value(int card) {
+        return Math.min(card & 0xF, 10);
+    }
+
+    /**
+     * Saves the shoe, moving it into place once whole, see Streams.replace.
+     * @param path Path, gzip if it ends in .gz
+     * @throws IOException If the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        Streams.replace(path, temp -> {
+            write(temp);
+            return true;
+        });
+    }
+
+    /**
+     * Writes the shoe.
+     * @param path Path, gzip if it ends in .gz
+     * @throws IOException If the file cannot be written
+     */
+    void write(Path path) throws IOException {
+        try(DataOutputStream out = new DataOutputStream(Streams.create(path))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(games);
+            out.writeInt(cardCount);
+            out.writeInt(scriptCount);
+
+            for(int k=0; k < cardCount; k++)
+                out.writeInt(cardInts[k]);
+
+            for(int k=0; k < scriptCount; k++)
+                out.writeInt(scripts[k]);
+
+            for(int k=0; k <= games; k++) {
+                out.writeInt(gameCards[k]);
+                out.writeInt(gameScripts[k]);
+            }
+
+            for(String label: labels)
+                out.writeUTF(label);
+        }
+    }
+
+    /**
+     * Loads a shoe.
+     * @param path Path, gzip if it ends in .gz
+     * @return Shoe
+     * @throws IOException If the file cannot be read or is not a compact shoe
+     */
+    public static CompactShoe load(Path path) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Streams.open(path), 1 << 16))) {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(path+" is not a compact shoe.");
+
+            CompactShoe shoe = new CompactShoe(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+            shoe.games = in.readInt();
+            shoe.cardCount = in.readInt();
+            shoe.scriptCount = in.readInt();
+
+            shoe.cardInts = new int[Math.max(1, shoe.cardCount)];
+            for(int k=0; k < shoe.cardCount; k++)
+                shoe.cardInts[k] = in.readInt();
+
+            shoe.scripts = new int[Math.max(1, shoe.scriptCount)];
+            for(int k=0; k < shoe.scriptCount; k++)
+                shoe.scripts[k] = in.readInt();
+
+            shoe.gameCards = new int[shoe.games + 2];
+            shoe.gameScripts = new int[shoe.games + 2];
+            for(int k=0; k <= shoe.games; k++) {
+                shoe.gameCards[k] = in.readInt();
+                shoe.gameScripts[k] = in.readInt();
+            }
+
+            for(int k=0; k < shoe.games; k++)
+                shoe.labels.add(in.readUTF());
+
+            return shoe;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.generator;
+
+import ray.engine.Engine;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.type.Player;
+import ray.util.Helper;
+import ray.util.Streams;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class enumerates a strategy grid as games: every You two-card start against every dealer
+ * upcard with every action, for every seat count.
+ * <p>
+ * A cell is a start, an upcard, an action, S for stand, H, D or P, and a seat count: 1 for You
+ * alone, 2 with Huey, 3 with Huey and Dewey. Only pairs split and a blackjack only stands. Each
+ * cell gives repeats games, the rest of whose cards come from a random stream of the seed and
+ * the game number: the dealer's hole card, never making a dealer blackjack, the cards You's action
+ * draws, the other seats' hands, which play as the synthesizer's do, and the dealer's draws to 17.
+ * Outcomes are filled in by the engine.
+ * <p>
+ * Games are made straight into a shoe builder, a compact shoe or a .ray file, by many threads
+ * and always in the same order with the same cards. Labels name the cell, e.g., A7v6D2 is A+7
+ * doubling against a 6 with Huey, and T8vAH1_3 the fourth repeat of 10+8 hitting against an ace.
+ * @author Ron.Coleman
+ */
+public class GridEnumerator {
+    static final List<String> VALUES = List.of("A", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+    static final String ACTIONS = "SHDP";
+    static final int BET = 10;
+
+    final long seed;
+    final List<String[]> starts;
+    final List<String> upcards;
+    final String actions;
+    final int[] seats;
+    final int repeats;
+
+    // Cells in order, start slowest then upcard, action and seats
+    final int[] cellStarts;
+    final int[] cellUpcards;
+    final char[] cellActions;
+    final int[] cellSeats;
+
+    /**
+     * Constructor for the full grid: all 55 starts, all upcards and actions, one to three seats, one game a cell.
+     * @param seed Seed
+     */
+    public GridEnumerator(long seed) {
+        this(seed, starts("all"), VALUES, ACTIONS, new int[] {1, 2, 3}, 1);
+    }
+
+    GridEnumerator(long seed, List<String[]> starts, List<String> upcards, String actions, int[] seats, int repeats) {
+        if(starts.isEmpty() || upcards.isEmpty() || actions.isEmpty() || seats.length == 0 || repeats < 1)
+            throw new IllegalArgumentException("empty grid.");
+
+        for(String upcard: upcards)
+            Helper.getValue(upcard);
+
+        for(char action: actions.toCharArray()) {
+            if(ACTIONS.indexOf(action) < 0)
+                throw new IllegalArgumentException("invalid action: '"+action+"'");
+        }
+
+        for(int count: seats) {
+            if(count < 1 || count > 3)
+                throw new IllegalArgumentException("invalid seat count: "+count);
+        }
+
+        this.seed = seed;
+        this.starts = starts;
+        this.upcards = upcards;
+        this.actions = actions;
+        this.seats = seats;
+        this.repeats = repeats;
+
+        int most = starts.size() * upcards.size() * actions.length() * seats.length;
+        int[] s = new int[most];
+        int[] u = new int[most];
+        char[] a = new char[most];
+        int[] n = new int[most];
+
+        int cells = 0;
+        for(int start=0; start < starts.size(); start++) {
+            String[] cards = starts.get(start);
+            boolean pair = Helper.getValue(cards[0]) == Helper.getValue(cards[1]);
+            boolean natural = Synthesizer.best(List.of(cards)) == 21;
+
+            for(int upcard=0; upcard < upcards.size(); upcard++) {
+                for(char action: actions.toCharArray()) {
+                    if(action == 'P' && !pair || action != 'S' && natural)
+                        continue;
+
+                    for(int count: seats) {
+                        s[cells] = start;
+                        u[cells] = upcard;
+                        a[cells] = action;
+                        n[cells] = count;
+                        cells++;
+                    }
+                }
+            }
+        }
+
+        this.cellStarts = Arrays.copyOf(s, cells);
+        this.cellUpcards = Arrays.copyOf(u, cells);
+        this.cellActions = Arrays.copyOf(a, cells);
+        this.cellSeats = Arrays.copyOf(n, cells);
+    }
+
+    /**
+     * Makes an enumerator with other starts.
+     * @param starts Starts, e.g., [["A","7"], ["8","8"]]; see starts(String)
+     * @return Enumerator
+     */
+    public GridEnumerator withStarts(List<String[]> starts) {
+        return new GridEnumerator(seed, starts, upcards, actions, seats, repeats);
+    }
+
+    /**
+     * Makes an enumerator with other dealer upcards.
+     * @param upcards Upcards, e.g., A, 2, 10
+     * @return Enumerator
+     */
+    public GridEnumerator withUpcards(List<String> upcards) {
+        return new GridEnumerator(seed, starts, upcards, actions, seats, repeats);
+    }
+
+    /**
+     * Makes an enumerator with other actions.
+     * @param actions Actions from S, H, D and P
+     * @return Enumerator
+     */
+    public GridEnumerator withActions(String actions) {
+        return new GridEnumerator(seed, starts, upcards, actions, seats, repeats);
+    }
+
+    /**
+     * Makes an enumerator with other seat counts.
+     * @param seats Seat counts from 1 to 3
+     * @return Enumerator
+     */
+    public GridEnumerator withSeats(int... seats) {
+        return new GridEnumerator(seed, starts, upcards, actions, seats, repeats);
+    }
+
+    /**
+     * Makes an enumerator with more games a cell.
+     * @param repeats Games a cell
+     * @return Enumerator
+     */
+    public GridEnumerator withRepeats(int repeats) {
+        return new GridEnumerator(seed, starts, upcards, actions, seats, repeats);
+    }
+
+    /**
+     * Gets two-card starts by name.
+     * @param spec all, hard, soft, pairs, or starts such as A+7,8+8
+     * @return Starts, a pair of card values each
+     * @throws IllegalArgumentException If a start has not two valid cards
+     */
+    public static List<String[]> starts(String spec) {
+        List<String[]> starts = new ArrayList<>();
+
+        if(spec.equals("all") || spec.equals("hard") || spec.equals("soft") || spec.equals("pairs")) {
+            for(int first=0; first < VALUES.size(); first++) {
+                for(int second=first; second < VALUES.size(); second++) {
+                    boolean pair = first == second;
+                    boolean soft = first == 0 && !pair;
+                    if(spec.equals("all") || spec.equals("pairs") && pair || spec.equals("soft") && soft ||
+                            spec.equals("hard") && !pair && !soft)
+                        starts.add(new String[] {VALUES.get(first), VALUES.get(second)});
+                }
+            }
+            return starts;
+        }
+
+        for(String start: spec.split(",")) {
+            String[] cards = start.trim().split("\\+");
+            if(cards.length != 2)
+                throw new IllegalArgumentException("a start needs two cards: '"+start+"'");
+
+            for(String card: cards)
+                Helper.getValue(card);
+
+            starts.add(cards);
+        }
+
+        return starts;
+    }
+
+    /**
+     * Gets the number of cells.
+     * @return Cells
+     */
+    public int cells() {
+        return cellStarts.length;
+    }
+
+    /**
+     * Gets the number of games.
+     * @return Cells times repeats
+     */
+    public long size() {
+        return (long) cellStarts.length * repeats;
+    }
+
+    /**
+     * Makes a game.
+     * @param n Game number, from 0 to size() - 1
+     * @return Game, always the same for this seed and number
+     */
+    public Game game(long n) {
+        return game(n, new Engine());
+    }
+
+    Game game(long n, Engine engine) {
+        int cell = (int) (n / repeats);
+        SplittableRandom ran = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + n);
+
+        String[] start = starts.get(cellStarts[cell]);
+        String upcard = upcards.get(cellUpcards[cell]);
+        char action = cellActions[cell];
+        int count = cellSeats[cell];
+
+        Game game = new Game();
+        game.label = label(start, upcard, action, count, repeats == 1 ? -1 : n % repeats);
+
+        if(count >= 2)
+            game.hands.add(Synthesizer.deal(Player.Huey, false, 0, ran));
+
+        Hand you = new Hand();
+        you.who = Player.You;
+        you.cards.add(start[0]);
+        you.cards.add(start[1]);
+        game.hands.add(you);
+
+        if(count == 3)
+            game.hands.add(Synthesizer.deal(Player.Dewey, false, 0, ran));
+
+        Hand dealer = new Hand();
+        dealer.who = Player.Dealer;
+        dealer.cards.add(upcard);
+
+        String hole;
+        do {
+            hole = Synthesizer.card(0, ran);
+        } while(Synthesizer.best(List.of(upcard, hole)) == 21);
+        dealer.cards.add(hole);
+
+        game.hands.add(dealer);
+
+        boolean live = false;
+        for(Hand hand: game.hands) {
+            if(hand.who == Player.Dealer)
+                continue;
+
+            game.bets.add(BET);
+
+            if(hand != you)
+                live |= Synthesizer.act(hand, Synthesizer.TYPES[ran.nextInt(3)], 0, ran);
+            else if(action == 'S')
+                live |= Synthesizer.best(you.cards) != 21;
+            else
+                live |= Synthesizer.act(you, action, 0, ran);
+        }
+
+        if(live) {
+            while(Synthesizer.best(dealer.cards) < Synthesizer.DEALER_STANDS)
+                dealer.cards.add(Synthesizer.card(0, ran));
+        }
+
+        engine.fill(game);
+
+        return game;
+    }
+
+    static String label(String[] start, String upcard, char action, int count, long repeat) {
+        StringBuilder sb = new StringBuilder(12);
+        sb.append(rank(start[0])).append(rank(start[1])).append('v').append(rank(upcard)).append(action).append(count);
+        if(repeat >= 0)
+            sb.append('_').append(repeat);
+        return sb.toString();
+    }
+
+    static String rank(String card) {
+        return Helper.getValue(card) == 10 ? "T" : card.substring(0, 1);
+    }
+
+    /**
+     * Generates a shoe of the grid's games.
+     * @param builder Shoe builder, begun and ended here
+     * @param threads Number of threads
+     * @throws IOException If a thread fails
+     */
+    public void generate(ShoeBuilder builder, int threads) throws IOException {
+        Synthesizer.generate(this::game, builder, size(), threads);
+    }
+
+    /**
+     * Writes the grid's games as .ray, a compact .rays shoe, or a Java shoe, any possibly gzip.
+     * @param output Output path
+     * @param options Generator settings for a Java shoe
+     * @param threads Number of threads
+     * @throws IOException If the output cannot be written
+     */
+    public void write(Path output, ShoeOptions options, int threads) throws IOException {
+        String name = output.getFileName().toString();
+        if(!name.endsWith(".java") && !name.endsWith(".java.gz")) {
+            Synthesizer.write(this::game, seed, output, size(), threads);
+            return;
+        }
+
+        try(PrintWriter writer = Streams.writer(output)) {
+            generate(new ShoeBuilderTarget(writer, options.withShoe(Helper.toClassName(name))), threads);
+
+            if(writer.checkError())
+                throw new IOException("failed writing "+output+".");
+        }
+    }
+
+    /**
+     * Writes a grid.
+     * @param args [--seed n] [--starts spec] [--upcards list] [--actions SHDP] [--seats list] [--repeats n] [--threads n] output
+     */
+    public static void main(String[] args) {
+        long seed = 0;
+        String starts = "all";
+        List<String> upcards = VALUES;
+        String actions = ACTIONS;
+        int[] seats = {1, 2, 3};
+        int repeats = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        int argno = 0;
+        try {
+            for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+                switch(args[argno]) {
+                    case "--seed" -> seed = Long.parseLong(args[++argno]);
+                    case "--starts" -> starts = args[++argno];
+                    case "--upcards" -> upcards = List.of(args[++argno].split(","));
+                    case "--actions" -> actions = args[++argno];
+                    case "--seats" -> {
+                        String[] counts = args[++argno].split(",");
+                        seats = new int[counts.length];
+                        for(int k=0; k < counts.length; k++)
+                            seats[k] = Integer.parseInt(counts[k].trim());
+                    }
+                    case "--repeats" -> repeats = Integer.parseInt(args[++argno]);
+                    case "--threads" -> threads = Integer.parseInt(args[++argno]);
+                    default -> {
+                        System.out.println("unknown option: "+args[argno]);
+                        System.exit(1);
+                    }
+                }
+            }
+
+            if(argno >= args.length) {
+                System.out.println("usage: ray.generator.GridEnumerator [--seed n] [--starts all|hard|soft|pairs|A+7,...] "+
+                        "[--upcards A,2,...] [--actions SHDP] [--seats 1,2,3] [--repeats n] [--threads n] output.ray|shoe.rays|Shoe.java");
+                System.exit(0);
+            }
+
+            Path output = Path.of(args[argno]);
+            GridEnumerator grid = new GridEnumerator(seed, starts(starts), upcards, actions, seats, repeats);
+
+            long started = System.nanoTime();
+            grid.write(output, ShoeOptions.fromSystem().withSeed(seed), threads);
+
+            double secs = (System.nanoTime() - started) / 1e9;
+            System.err.printf("%d cell(s), %d game(s) to %s in %.3fs (%.0f games/s)%n",
+                    grid.cells(), grid.size(), output, secs, grid.size() / secs);
+        }
+        catch(IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
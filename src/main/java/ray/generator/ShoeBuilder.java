@@ -26,17 +26,20 @@ import static ray.type.Suit.*;
  * @author Ron.Coleman
  */
 public class ShoeBuilder {
-    long seed = Long.parseLong(System.getProperty("ray.seed",System.currentTimeMillis()+""));
+    long seed;
 
-    boolean commenting = Boolean.parseBoolean(System.getProperty("ray.comment","true"));
+    boolean commenting;
 
-    String clazzBase = System.getProperty("ray.base","Shoe01");
+    String clazzBase;
 
-    String clazzName = System.getProperty("ray.shoe","ShoeXyz");
+    String clazzName;
 
-    String pkgName = System.getProperty("ray.package");
+    String pkgName;
 
-    Random ran = new Random(seed);
+    Random ran;
+
+    // Cards emitted so far
+    long cards = 0;
 
     // One-level of indent
     final String INDENT = "    ";
@@ -59,6 +62,26 @@ public class ShoeBuilder {
     // Suits in play for this game
     Suit[] suits = {HEARTS, SPADES, DIAMONDS, CLUBS };
 
+    /**
+     * Constructor using the ray.* system properties.
+     */
+    public ShoeBuilder() {
+        this(ShoeOptions.fromSystem());
+    }
+
+    /**
+     * Constructor
+     * @param options Generator settings
+     */
+    public ShoeBuilder(ShoeOptions options) {
+        this.seed = options.seed();
+        this.commenting = options.commenting();
+        this.clazzBase = options.base();
+        this.clazzName = options.shoe();
+        this.pkgName = options.pkg();
+        this.ran = new Random(seed);
+    }
+
     /**
      * Generates code for a single-game shoe.
      * @param game Compiled game
@@ -78,17 +101,46 @@ public class ShoeBuilder {
      * @param games Compiled games
      */
     public void generate(List<Game> games) {
+        begin();
+
+        for(Game game: games)
+            add(game);
+
+        end();
+    }
+
+    /**
+     * Begins a multi-game shoe to which games are added one at a time.
+     */
+    public void begin() {
         prolog();
+    }
 
-        for(Game game: games) {
-            start(game);
-            play(game);
-            reset();
-        }
+    /**
+     * Adds a game to a shoe started with begin.
+     * @param game Compiled game
+     */
+    public void add(Game game) {
+        start(game);
+        play(game);
+        reset();
+    }
 
+    /**
+     * Ends a shoe started with begin.
+     */
+    public void end() {
         epilogue();
     }
 
+    /**
+     * Gets the number of cards emitted so far.
+     * @return Count
+     */
+    public long cards() {
+        return cards;
+    }
+
     void reset() {
         for(Player player: players) {
             cardIndices.put(player,0);
@@ -126,7 +178,9 @@ public class ShoeBuilder {
      * @param game Game
      */
     void start(Game game) {
-        comment("Game "+game.source);
+        // Games bound from a template have no source line, so one is written only if wanted
+        if(commenting)
+            comment("Game "+(game.source != null ? game.source : Synthesizer.format(game)));
 
         comment("Round 1");
         for(Player player: players) {
@@ -215,21 +269,33 @@ public class ShoeBuilder {
      * @return Add card statement.
      */
     String addCard(String card) {
-        // If there is no suit, generate a random one.
-        Suit suit = Helper.getSuit(card);
+        cards++;
+
+        Suit suit = suitOf(card);
 
-        if(suit != None) {
+        if(Helper.getSuit(card) != None) {
             // Removes suit from card.
             card = card.substring(0,card.length()-1);
         }
-        else {
-            int idx = ran.nextInt(suits.length);
-            suit = suits[idx];
-        }
 
         return indent(2)+"cards.add(new Card("+Helper.getRank(card)+", Card.Suit."+suit+"));";
     }
 
+    /**
+     * Gets the suit of a card.
+     * @param card Card
+     * @return Its suit or, if there is no suit, a random one
+     */
+    Suit suitOf(String card) {
+        Suit suit = Helper.getSuit(card);
+
+        // If there is no suit, generate a random one.
+        if(suit == None)
+            suit = suits[ran.nextInt(suits.length)];
+
+        return suit;
+    }
+
 
     /**
      * Writes a statement.
@@ -29,13 +29,26 @@ public class ShoeBuilderTarget extends ShoeBuilder {
         this.writer = writer;
     }
 
+    /**
+     * Constructor
+     * @param writer Writer to output the shoe
+     * @param options Generator settings
+     */
+    public ShoeBuilderTarget(PrintWriter writer, ShoeOptions options) {
+        super(options);
+        this.writer = writer;
+    }
+
     @Override
     void write(String stt) {
-        try {
-            writer.println(stt);
-            writer.flush();
-        }
-        catch(Exception _) { }
+        // Flushed at the end of the shoe rather than per statement
+        writer.println(stt);
+    }
+
+    @Override
+    void epilogue() {
+        super.epilogue();
+        writer.flush();
     }
 
     /**
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.generator;
+
+import ray.engine.Solver;
+
+/**
+ * This class holds the shoe generator settings.
+ * @param seed Seed for the suits of unsuited cards
+ * @param commenting True to write comments
+ * @param base Base class of the shoe
+ * @param shoe Class name of the shoe
+ * @param pkg Package of the shoe or null for none
+ * @param decks Decks the Solver draws blank cards from
+ * @author Ron.Coleman
+ */
+public record ShoeOptions(long seed, boolean commenting, String base, String shoe, String pkg, int decks) {
+    /**
+     * Constructor for one deck
+     */
+    public ShoeOptions(long seed, boolean commenting, String base, String shoe, String pkg) {
+        this(seed, commenting, base, shoe, pkg, 1);
+    }
+
+    /**
+     * Gets the settings from the ray.seed, ray.comment, ray.base, ray.shoe, ray.package, and ray.decks properties.
+     * @return Settings
+     */
+    public static ShoeOptions fromSystem() {
+        return new ShoeOptions(
+                Long.parseLong(System.getProperty("ray.seed",System.currentTimeMillis()+"")),
+                Boolean.parseBoolean(System.getProperty("ray.comment","true")),
+                System.getProperty("ray.base","Shoe01"),
+                System.getProperty("ray.shoe","ShoeXyz"),
+                System.getProperty("ray.package"),
+                Integer.parseInt(System.getProperty("ray.decks","1")));
+    }
+
+    /**
+     * Makes a Solver for blank cards, which tries values in an order from the seed.
+     * @return Solver
+     */
+    public Solver solver() {
+        return new Solver(seed, decks);
+    }
+
+    public ShoeOptions withSeed(long seed) {
+        return new ShoeOptions(seed, commenting, base, shoe, pkg, decks);
+    }
+
+    public ShoeOptions withCommenting(boolean commenting) {
+        return new ShoeOptions(seed, commenting, base, shoe, pkg, decks);
+    }
+
+    public ShoeOptions withBase(String base) {
+        return new ShoeOptions(seed, commenting, base, shoe, pkg, decks);
+    }
+
+    public ShoeOptions withShoe(String shoe) {
+        return new ShoeOptions(seed, commenting, base, shoe, pkg, decks);
+    }
+
+    public ShoeOptions withPackage(String pkg) {
+        return new ShoeOptions(seed, commenting, base, shoe, pkg, decks);
+    }
+
+    public ShoeOptions withDecks(int decks) {
+        return new ShoeOptions(seed, commenting, base, shoe, pkg, decks);
+    }
+}
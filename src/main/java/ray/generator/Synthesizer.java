@@ -0,0 +1,538 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.generator;
+
+import ray.engine.Engine;
+import ray.model.Directive;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.model.Outcome;
+import ray.type.Player;
+import ray.type.Result;
+import ray.util.Helper;
+import ray.util.Streams;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This class synthesizes random, valid games for fuzz and load corpora.
+ * <p>
+ * Game n has its own random stream from the seed and n, so a corpus is the same however many
+ * threads make it. The seats cycle through You alone, with Huey, with Dewey and with both, and
+ * You's directive through none, H!, D! and P!, so every combination turns up every 16 games.
+ * Huey and Dewey draw a directive at random, and each game's cards are unsuited, suited or mixed.
+ * <p>
+ * Games are dealt as the replay engine plays them: nobody acts against a dealer blackjack, a
+ * player blackjack stands, and the dealer draws to 17 only if a hand is still live. The outcomes
+ * are then filled in from the cards by the engine, so they always agree.
+ * <p>
+ * With an invalid fraction, that many games get one mutation which Validator rejects, and their
+ * labels start with N rather than G.
+ * @author Ron.Coleman
+ */
+public class Synthesizer {
+    /**
+     * Mutations which make a game invalid.
+     */
+    public enum Mutation {
+        NO_YOU, NO_DEALER, DEALER_HITS, DEALER_DOUBLES, DEALER_SPLITS, SHORT_SPLIT, EXTRA_OUTCOME, MISSING_OUTCOME
+    }
+
+    // Games per block handed to a thread
+    static final int BLOCK = 4096;
+
+    static final String[] RANKS = {"A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+    static final String[] SUITS = {"H", "S", "D", "C"};
+    static final int[] BETS = {5, 10, 15, 20, 25, 50};
+
+    // Cards by rank and suit, unsuited first, so dealing allocates no strings
+    static final String[][] CARDS = new String[RANKS.length][SUITS.length + 1];
+
+    // Outcome names as written, by result ordinal
+    static final String[] TITLES = new String[Result.values().length];
+
+    static {
+        for(int rank=0; rank < RANKS.length; rank++) {
+            CARDS[rank][0] = RANKS[rank];
+            for(int suit=0; suit < SUITS.length; suit++)
+                CARDS[rank][suit + 1] = RANKS[rank] + SUITS[suit];
+        }
+
+        for(Result result: Result.values())
+            TITLES[result.ordinal()] = result.name().charAt(0) + result.name().substring(1).toLowerCase();
+    }
+
+    // You's directive by game number
+    static final char[] TYPES = {0, 'H', 'D', 'P'};
+
+    // Dealer stands on all 17s
+    static final int DEALER_STANDS = 17;
+
+    static final Mutation[] MUTATIONS = Mutation.values();
+
+    final long seed;
+    final double invalid;
+
+    /**
+     * Constructor
+     * @param seed Seed
+     */
+    public Synthesizer(long seed) {
+        this(seed, 0);
+    }
+
+    /**
+     * Constructor
+     * @param seed Seed
+     * @param invalid Fraction of games to make invalid, from 0 to 1
+     */
+    public Synthesizer(long seed, double invalid) {
+        if(invalid < 0 || invalid > 1)
+            throw new IllegalArgumentException("invalid fraction must be from 0 to 1.");
+
+        this.seed = seed;
+        this.invalid = invalid;
+    }
+
+    /**
+     * Synthesizes a game.
+     * @param n Game number
+     * @return Game, always the same for this seed and number
+     */
+    public Game game(long n) {
+        return game(n, new Engine());
+    }
+
+    Game game(long n, Engine engine) {
+        SplittableRandom ran = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + n);
+
+        Game game = valid(n, ran, engine);
+
+        if(invalid > 0 && ran.nextDouble() < invalid) {
+            mutate(game, MUTATIONS[ran.nextInt(MUTATIONS.length)], ran);
+            game.label = "N" + n;
+        }
+
+        return game;
+    }
+
+    /**
+     * Deals a valid game and fills in its outcomes.
+     */
+    Game valid(long n, SplittableRandom ran, Engine engine) {
+        Game game = new Game();
+        game.label = "G" + n;
+
+        int seats = (int) (n & 3);
+        char youType = TYPES[(int) ((n >>> 2) & 3)];
+
+        // 0 unsuited, 1 suited, 2 mixed
+        int suiting = ran.nextInt(3);
+
+        if((seats & 1) != 0)
+            game.hands.add(deal(Player.Huey, false, suiting, ran));
+
+        game.hands.add(deal(Player.You, youType == 'P', suiting, ran));
+
+        if((seats & 2) != 0)
+            game.hands.add(deal(Player.Dewey, false, suiting, ran));
+
+        Hand dealer = deal(Player.Dealer, false, suiting, ran);
+        game.hands.add(dealer);
+
+        boolean dealerNatural = best(dealer.cards) == 21;
+        boolean live = false;
+
+        for(Hand hand: game.hands) {
+            if(hand.who == Player.Dealer)
+                continue;
+
+            game.bets.add(BETS[ran.nextInt(BETS.length)]);
+
+            if(dealerNatural)
+                continue;
+
+            char type = hand.who == Player.You ? youType : TYPES[ran.nextInt(3)];
+            live |= act(hand, type, suiting, ran);
+        }
+
+        if(live && !dealerNatural) {
+            while(best(dealer.cards) < DEALER_STANDS)
+                dealer.cards.add(card(suiting, ran));
+        }
+
+        engine.fill(game);
+
+        return game;
+    }
+
+    /**
+     * Deals a hand its first two cards.
+     */
+    static Hand deal(Player who, boolean pair, int suiting, SplittableRandom ran) {
+        Hand hand = new Hand();
+        hand.who = who;
+
+        int rank = ran.nextInt(RANKS.length);
+        hand.cards.add(card(rank, suiting, ran));
+        hand.cards.add(card(pair ? rank : ran.nextInt(RANKS.length), suiting, ran));
+
+        return hand;
+    }
+
+    /**
+     * Plays a hand with a directive.
+     * @return True if the hand is still live for the dealer
+     */
+    static boolean act(Hand hand, char type, int suiting, SplittableRandom ran) {
+        if(type != 'P' && best(hand.cards) == 21)
+            return false;
+
+        int stands = 12 + ran.nextInt(6);
+
+        if(type == 0) {
+            while(best(hand.cards) < stands && hand.cards.size() < 5)
+                hand.cards.add(card(suiting, ran));
+            return best(hand.cards) <= 21 && hand.cards.size() < 5;
+        }
+
+        Directive directive = new Directive();
+        directive.type = type;
+        hand.directive = directive;
+
+        List<String> cards = new ArrayList<>(hand.cards);
+
+        if(type == 'D') {
+            String card = card(suiting, ran);
+            directive.extraCards.add(card);
+            cards.add(card);
+            return best(cards) <= 21;
+        }
+
+        if(type == 'H') {
+            do {
+                String card = card(suiting, ran);
+                directive.extraCards.add(card);
+                cards.add(card);
+            } while(best(cards) < stands && cards.size() < 5);
+            return best(cards) <= 21 && cards.size() < 5;
+        }
+
+        // Each subhand must have two cards after the split card
+        boolean live = false;
+        for(int h=0; h < 2; h++) {
+            List<String> sub = new ArrayList<>();
+            cards.clear();
+            cards.add(hand.cards.get(h));
+
+            while(sub.size() < 2 || best(cards) < stands && cards.size() < 5) {
+                String card = card(suiting, ran);
+                sub.add(card);
+                cards.add(card);
+            }
+
+            directive.splitHands.add(sub);
+            live |= best(cards) <= 21;
+        }
+
+        return live;
+    }
+
+    static String card(int suiting, SplittableRandom ran) {
+        return card(ran.nextInt(RANKS.length), suiting, ran);
+    }
+
+    static String card(int rank, int suiting, SplittableRandom ran) {
+        if(suiting == 0 || suiting == 2 && ran.nextBoolean())
+            return CARDS[rank][0];
+
+        return CARDS[rank][1 + ran.nextInt(SUITS.length)];
+    }
+
+    /**
+     * Gets the best total of cards, counting one ace as 11 if it does not bust.
+     */
+    static int best(List<String> cards) {
+        int total = 0;
+        boolean ace = false;
+        for(int k=0; k < cards.size(); k++) {
+            int value = Helper.getValue(cards.get(k));
+            total += value;
+            ace |= value == 1;
+        }
+        return ace && total + 10 <= 21 ? total + 10 : total;
+    }
+
+    /**
+     * Makes a valid game invalid.
+     * @param game Game with its outcomes
+     * @param mutation Mutation
+     * @param ran Random stream
+     */
+    public static void mutate(Game game, Mutation mutation, SplittableRandom ran) {
+        Hand dealer = game.dealer();
+        Hand you = game.you();
+
+        switch(mutation) {
+            case NO_YOU -> game.hands.remove(you);
+            case NO_DEALER -> game.hands.remove(dealer);
+            case DEALER_HITS, DEALER_DOUBLES -> {
+                Directive directive = new Directive();
+                directive.type = mutation == Mutation.DEALER_HITS ? 'H' : 'D';
+                directive.extraCards.add(RANKS[ran.nextInt(RANKS.length)]);
+                dealer.directive = directive;
+            }
+            case DEALER_SPLITS -> {
+                Directive directive = new Directive();
+                directive.type = 'P';
+                directive.splitHands.add(new ArrayList<>(List.of(RANKS[ran.nextInt(RANKS.length)], "2")));
+                directive.splitHands.add(new ArrayList<>(List.of(RANKS[ran.nextInt(RANKS.length)], "3")));
+                dealer.directive = directive;
+            }
+            case SHORT_SPLIT -> {
+                Directive directive = new Directive();
+                directive.type = 'P';
+                directive.splitHands.add(new ArrayList<>(List.of(RANKS[ran.nextInt(RANKS.length)])));
+                directive.splitHands.add(new ArrayList<>(List.of(RANKS[ran.nextInt(RANKS.length)], "4")));
+                you.directive = directive;
+                while(you.cards.size() > 2)
+                    you.cards.removeLast();
+            }
+            case EXTRA_OUTCOME -> {
+                Outcome outcome = new Outcome();
+                outcome.result = "PUSH";
+                outcome.amount = game.bets.getFirst();
+                game.outcomes.add(outcome);
+            }
+            case MISSING_OUTCOME -> game.outcomes.removeLast();
+        }
+    }
+
+    /**
+     * Writes a game as a .ray line.
+     * @param game Game
+     * @return Line, e.g., G5 {5,10}: You 9+9 | Huey A+K | Dealer K+8 >> Win{5}, Blackjack{15}
+     */
+    public static String format(Game game) {
+        StringBuilder sb = new StringBuilder();
+        format(game, sb);
+        return sb.toString();
+    }
+
+    static void format(Game game, StringBuilder sb) {
+        sb.append(game.label).append(" {");
+        for(int k=0; k < game.bets.size(); k++) {
+            if(k > 0)
+                sb.append(',');
+            sb.append(game.bets.get(k));
+        }
+        sb.append("}: ");
+
+        for(int k=0; k < game.hands.size(); k++) {
+            Hand hand = game.hands.get(k);
+            if(k > 0)
+                sb.append(" | ");
+
+            sb.append(hand.who).append(' ').append(String.join("+", hand.cards));
+            if(hand.directive != null)
+                sb.append('+').append(hand.directive);
+        }
+
+        sb.append(" >>");
+        for(int k=0; k < game.outcomes.size(); k++) {
+            Outcome outcome = game.outcomes.get(k);
+            Result result = Result.of(outcome.result);
+            sb.append(k == 0 ? " " : ", ")
+                    .append(result == null ? outcome.result : TITLES[result.ordinal()])
+                    .append('{').append(outcome.amount).append('}');
+        }
+    }
+
+    /**
+     * Writes a corpus, .ray or a compact .rays shoe, either possibly gzip.
+     * @param output Output path
+     * @param games Number of games
+     * @param threads Number of threads
+     * @throws IOException If the output cannot be written
+     * @throws IllegalArgumentException If invalid games would go in a compact shoe
+     */
+    public void write(Path output, long games, int threads) throws IOException {
+        if(CompactShoe.isCompact(output) && invalid > 0)
+            throw new IllegalArgumentException("invalid games cannot go in a compact shoe.");
+
+        write(this::game, seed, output, games, threads);
+    }
+
+    /**
+     * Generates a shoe of games 0 to games - 1.
+     * @param builder Shoe builder, begun and ended here
+     * @param games Number of games
+     * @param threads Number of threads
+     * @throws IOException If a thread fails
+     */
+    public void generate(ShoeBuilder builder, long games, int threads) throws IOException {
+        generate(this::game, builder, games, threads);
+    }
+
+    /**
+     * Makes game n, with an engine to fill in its outcomes; called from many threads at once.
+     */
+    interface Source {
+        Game game(long n, Engine engine);
+    }
+
+    /**
+     * Writes a corpus of a source's games, .ray or a compact .rays shoe, either possibly gzip.
+     */
+    static void write(Source source, long seed, Path output, long games, int threads) throws IOException {
+        if(CompactShoe.isCompact(output)) {
+            CompactShoe shoe = new CompactShoe(new ShoeOptions(seed, false, "Shoe01", "ShoeXyz", null));
+            generate(source, shoe, games, threads);
+            shoe.save(output);
+            return;
+        }
+
+        try(PrintWriter writer = Streams.writer(output)) {
+            run(source, games, threads, true, block -> writer.append(block.text()));
+
+            if(writer.checkError())
+                throw new IOException("failed writing "+output+".");
+        }
+    }
+
+    /**
+     * Feeds a source's games to a shoe builder in order.
+     */
+    static void generate(Source source, ShoeBuilder builder, long games, int threads) throws IOException {
+        builder.begin();
+        run(source, games, threads, false, block -> {
+            for(Game game: block.games())
+                builder.add(game);
+        });
+        builder.end();
+    }
+
+    /**
+     * Games from one block, or their text.
+     */
+    record Block(List<Game> games, StringBuilder text) { }
+
+    /**
+     * Makes a source's games in blocks on a pool of threads and hands the blocks to a sink in
+     * order on this thread, with at most two blocks per thread made ahead.
+     */
+    static void run(Source source, long games, int threads, boolean text, Consumer<Block> sink) throws IOException {
+        threads = Math.max(1, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try {
+            ArrayDeque<Future<Block>> ahead = new ArrayDeque<>();
+            long next = 0;
+
+            while(next < games || !ahead.isEmpty()) {
+                while(next < games && ahead.size() < 2 * threads) {
+                    long from = next;
+                    long to = Math.min(games, from + BLOCK);
+                    ahead.add(pool.submit(() -> block(source, from, to, text)));
+                    next = to;
+                }
+
+                sink.accept(ahead.removeFirst().get());
+            }
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted making games.", e);
+        }
+        catch(ExecutionException e) {
+            throw new IOException("failed making games: "+e.getCause().getMessage(), e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static Block block(Source source, long from, long to, boolean text) {
+        Engine engine = new Engine();
+
+        List<Game> games = text ? null : new ArrayList<>((int) (to - from));
+        StringBuilder sb = text ? new StringBuilder((int) (to - from) * 64) : null;
+
+        for(long n=from; n < to; n++) {
+            Game game = source.game(n, engine);
+            if(text) {
+                format(game, sb);
+                sb.append('\n');
+            }
+            else
+                games.add(game);
+        }
+
+        return new Block(games, sb);
+    }
+
+    /**
+     * Writes a synthesized corpus.
+     * @param args [--seed n] [--games n] [--threads n] [--invalid fraction] output
+     */
+    public static void main(String[] args) {
+        long seed = 0;
+        long games = 1_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double invalid = 0;
+
+        int argno = 0;
+        for(; argno < args.length && args[argno].startsWith("--"); argno++) {
+            switch(args[argno]) {
+                case "--seed" -> seed = Long.parseLong(args[++argno]);
+                case "--games" -> games = Long.parseLong(args[++argno]);
+                case "--threads" -> threads = Integer.parseInt(args[++argno]);
+                case "--invalid" -> invalid = Double.parseDouble(args[++argno]);
+                default -> {
+                    System.out.println("unknown option: "+args[argno]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        if(argno >= args.length) {
+            System.out.println("usage: ray.generator.Synthesizer [--seed n] [--games n] [--threads n] [--invalid fraction] output.ray|shoe.rays");
+            System.exit(0);
+        }
+
+        Path output = Path.of(args[argno]);
+
+        try {
+            long started = System.nanoTime();
+            new Synthesizer(seed, invalid).write(output, games, threads);
+
+            double secs = (System.nanoTime() - started) / 1e9;
+            System.err.printf("%d game(s) to %s in %.3fs (%.0f games/s)%n", games, output, secs, games / secs);
+        }
+        catch(IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
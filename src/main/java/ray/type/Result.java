@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.type;
+
+/**
+ * This enum is the result of one hand, as written in outcomes but upper case.
+ * @author Ron.Coleman
+ */
+public enum Result {
+    WIN, LOSE, PUSH, BUST, BLACKJACK, CHARLIE;
+
+    /**
+     * Gets the result of an outcome; BREAK is another name for BUST.
+     * @param result Outcome result, upper case as parsed
+     * @return Result or null if unknown
+     */
+    public static Result of(String result) {
+        return switch(result) {
+            case "WIN" -> WIN;
+            case "LOSE" -> LOSE;
+            case "PUSH" -> PUSH;
+            case "BUST", "BREAK" -> BUST;
+            case "BLACKJACK" -> BLACKJACK;
+            case "CHARLIE" -> CHARLIE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Gets the amount paid or lost on a bet.
+     * @param bet Bet, already doubled if the hand doubled down
+     * @return Amount
+     */
+    public int amount(int bet) {
+        return switch(this) {
+            case BLACKJACK -> bet * 3 / 2;
+            case CHARLIE -> bet * 2;
+            default -> bet;
+        };
+    }
+}
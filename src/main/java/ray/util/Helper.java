@@ -13,7 +13,6 @@
 package ray.util;
 
 import ray.type.Suit;
-import java.util.HashMap;
 import java.util.Map;
 import static ray.type.Suit.*;
 import static ray.type.Suit.CLUBS;
@@ -23,12 +22,13 @@ import static ray.type.Suit.CLUBS;
  * @author Ron.Coleman
  */
 public class Helper {
-    static Map<Character,Suit> charToSuits = new HashMap<>(Map.of(
+    // Immutable, so it is safe to share across compiling threads
+    static final Map<Character,Suit> charToSuits = Map.of(
             'H', HEARTS,
             'S', SPADES,
             'D', DIAMONDS,
             'C', CLUBS
-    ));
+    );
 
     /**
      * Gets a suit.
@@ -70,4 +70,49 @@ public class Helper {
         assert Character.isDigit(card.charAt(0)): "invalid card rank in "+card;
         return card;
     }
+
+    /**
+     * Gets the blackjack value of a card, counting an ace as 1.
+     * @param card Card[suit], eg, 10 or QS
+     * @return Value from 1 to 10
+     */
+    public static int getValue(String card) {
+        char c = card.charAt(0);
+
+        return switch(c) {
+            case 'A' -> 1;
+            case 'K', 'Q', 'J', '1' -> 10;
+            default -> {
+                if(c < '2' || c > '9')
+                    throw new IllegalArgumentException("invalid card rank: '"+card+"'");
+                yield c - '0';
+            }
+        };
+    }
+
+    /**
+     * Derives a shoe class name from a file name, e.g., lab02.ray gives Lab02.
+     * @param fileName File name with or without extensions
+     * @return Java class name
+     */
+    public static String toClassName(String fileName) {
+        int dot = fileName.indexOf('.');
+        String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+
+        StringBuilder name = new StringBuilder();
+        boolean upper = true;
+        for(char c: stem.toCharArray()) {
+            if(!Character.isJavaIdentifierPart(c) || c == '$') {
+                upper = true;
+                continue;
+            }
+            name.append(upper ? Character.toUpperCase(c) : c);
+            upper = false;
+        }
+
+        if(name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0)))
+            name.insert(0, "Shoe");
+
+        return name.toString();
+    }
 }
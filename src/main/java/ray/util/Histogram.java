@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class records latencies from many threads without locking.
+ * <p>
+ * Latencies go in buckets of four per power of two nanoseconds, so a percentile
+ * is accurate to within about 19%, which is plenty for spotting trends.
+ * @author Ron.Coleman
+ */
+public class Histogram {
+    // Sub-buckets per power of two
+    static final int SUBS = 4;
+
+    final AtomicLongArray buckets = new AtomicLongArray(64 * SUBS);
+    final LongAdder count = new LongAdder();
+    final LongAdder total = new LongAdder();
+    final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency.
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(long nanos) {
+        nanos = Math.max(1, nanos);
+
+        buckets.incrementAndGet(bucket(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    static int bucket(long nanos) {
+        int log = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = log < 2 ? 0 : (int) ((nanos >>> (log - 2)) & (SUBS - 1));
+        return log * SUBS + sub;
+    }
+
+    /**
+     * Gets the upper bound of a bucket.
+     * @param bucket Bucket number
+     * @return Nanoseconds
+     */
+    static long bound(int bucket) {
+        int log = bucket / SUBS;
+        int sub = bucket % SUBS;
+        if(log < 2)
+            return 1L << (log + 1);
+        return (1L << log) + ((long) (sub + 1) << (log - 2));
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     * @return Count
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean latency.
+     * @return Nanoseconds
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Gets the largest latency.
+     * @return Nanoseconds
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Gets a percentile.
+     * @param p Percentile, e.g., 99.9
+     * @return Upper bound of the bucket holding the percentile in nanoseconds
+     */
+    public long percentile(double p) {
+        long n = count.sum();
+        if(n == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(n * p / 100.0);
+        long seen = 0;
+        for(int k=0; k < buckets.length(); k++) {
+            seen += buckets.get(k);
+            if(seen >= rank)
+                return Math.min(bound(k), max());
+        }
+
+        return max();
+    }
+
+    /**
+     * Merges another histogram into this one.
+     * @param that Histogram
+     */
+    public void add(Histogram that) {
+        for(int k=0; k < buckets.length(); k++)
+            buckets.addAndGet(k, that.buckets.get(k));
+        count.add(that.count.sum());
+        total.add(that.total.sum());
+        max.accumulate(that.max());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.3fms p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                count(), mean() / 1e6, percentile(50) / 1e6, percentile(99) / 1e6,
+                percentile(99.9) / 1e6, max() / 1e6);
+    }
+}
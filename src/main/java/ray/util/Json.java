@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reads and writes JSON, just enough for the language server.
+ * <p>
+ * Objects are maps, arrays are lists, numbers are longs or doubles, and null is null.
+ * @author Ron.Coleman
+ */
+public class Json {
+    final String text;
+    int pos;
+
+    Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses JSON text.
+     * @param text Text
+     * @return Value
+     * @throws IllegalArgumentException If the text is not JSON
+     */
+    public static Object parse(String text) {
+        Json json = new Json(text);
+        Object value = json.value();
+        json.space();
+        if(json.pos != text.length())
+            throw json.error("trailing characters");
+        return value;
+    }
+
+    /**
+     * Writes a value as JSON text.
+     * @param value Map, list, string, number, boolean, or null
+     * @return Text
+     */
+    public static String write(Object value) {
+        StringBuilder sb = new StringBuilder();
+        write(sb, value);
+        return sb.toString();
+    }
+
+    /**
+     * Gets a member of nested objects.
+     * @param value Object
+     * @param keys Member names, outermost first
+     * @return Value or null if any member is missing
+     */
+    @SuppressWarnings("unchecked")
+    public static Object get(Object value, String... keys) {
+        for(String key: keys) {
+            if(!(value instanceof Map))
+                return null;
+            value = ((Map<String,Object>) value).get(key);
+        }
+        return value;
+    }
+
+    static void write(StringBuilder sb, Object value) {
+        switch(value) {
+            case null -> sb.append("null");
+            case String s -> quote(sb, s);
+            case Number n -> sb.append(n);
+            case Boolean b -> sb.append(b);
+            case Map<?,?> map -> {
+                sb.append('{');
+                String sep = "";
+                for(Map.Entry<?,?> entry: map.entrySet()) {
+                    sb.append(sep);
+                    quote(sb, entry.getKey().toString());
+                    sb.append(':');
+                    write(sb, entry.getValue());
+                    sep = ",";
+                }
+                sb.append('}');
+            }
+            case List<?> list -> {
+                sb.append('[');
+                String sep = "";
+                for(Object item: list) {
+                    sb.append(sep);
+                    write(sb, item);
+                    sep = ",";
+                }
+                sb.append(']');
+            }
+            default -> throw new IllegalArgumentException("cannot write "+value.getClass().getName()+" as json.");
+        }
+    }
+
+    static void quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for(int k=0; k < s.length(); k++) {
+            char c = s.charAt(k);
+            switch(c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if(c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    Object value() {
+        space();
+        if(pos >= text.length())
+            throw error("unexpected end");
+
+        char c = text.charAt(pos);
+        return switch(c) {
+            case '{' -> object();
+            case '[' -> array();
+            case '"' -> string();
+            case 't' -> literal("true", Boolean.TRUE);
+            case 'f' -> literal("false", Boolean.FALSE);
+            case 'n' -> literal("null", null);
+            default -> number();
+        };
+    }
+
+    Map<String,Object> object() {
+        Map<String,Object> map = new LinkedHashMap<>();
+        pos++;
+        space();
+        if(accept('}'))
+            return map;
+
+        do {
+            space();
+            if(pos >= text.length() || text.charAt(pos) != '"')
+                throw error("expected member name");
+            String key = string();
+            space();
+            expect(':');
+            map.put(key, value());
+            space();
+        } while(next(','));
+
+        expect('}');
+        return map;
+    }
+
+    List<Object> array() {
+        List<Object> list = new ArrayList<>();
+        pos++;
+        space();
+        if(accept(']'))
+            return list;
+
+        do {
+            list.add(value());
+            space();
+        } while(next(','));
+
+        expect(']');
+        return list;
+    }
+
+    String string() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while(pos < text.length()) {
+            char c = text.charAt(pos++);
+            if(c == '"')
+                return sb.toString();
+
+            if(c != '\\') {
+                sb.append(c);
+                continue;
+            }
+
+            if(pos >= text.length())
+                break;
+
+            char e = text.charAt(pos++);
+            switch(e) {
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if(pos + 4 > text.length())
+                        throw error("bad escape");
+                    sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+                }
+                default -> sb.append(e);
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    Object number() {
+        int start = pos;
+        while(pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0)
+            pos++;
+
+        String s = text.substring(start, pos);
+        try {
+            if(s.indexOf('.') < 0 && s.indexOf('e') < 0 && s.indexOf('E') < 0)
+                return Long.parseLong(s);
+            return Double.parseDouble(s);
+        }
+        catch(NumberFormatException _) {
+            throw error("bad value");
+        }
+    }
+
+    Object literal(String word, Object value) {
+        if(!text.startsWith(word, pos))
+            throw error("bad value");
+        pos += word.length();
+        return value;
+    }
+
+    void space() {
+        while(pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+            pos++;
+    }
+
+    boolean accept(char c) {
+        if(pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    boolean next(char c) {
+        space();
+        return accept(c);
+    }
+
+    void expect(char c) {
+        if(!accept(c))
+            throw error("expected '"+c+"'");
+    }
+
+    IllegalArgumentException error(String msg) {
+        return new IllegalArgumentException(msg+" at offset "+pos+".");
+    }
+}
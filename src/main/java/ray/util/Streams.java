@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class opens files as streams, compressed or not by their names.
+ * <p>
+ * A path ending in .gz is gzip. Reading one inflates on its own thread into a few
+ * chunks ahead of the reader, so decompression overlaps parsing rather than adding to it.
+ * @author Ron.Coleman
+ */
+public class Streams {
+    // Size of an inflated chunk
+    static final int CHUNK = 1 << 18;
+
+    // Chunks inflated ahead of the reader
+    static final int AHEAD = 8;
+
+    /**
+     * Tests if a path names a gzip file.
+     * @param path Path
+     * @return True if compressed
+     */
+    public static boolean isCompressed(Path path) {
+        return path.getFileName().toString().endsWith(".gz");
+    }
+
+    /**
+     * Opens a file for reading, inflating it on another thread if it is gzip.
+     * @param path Path
+     * @return Input stream
+     * @throws IOException If the file cannot be opened
+     */
+    public static InputStream open(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if(!isCompressed(path))
+            return in;
+
+        try {
+            return new Inflating(new GZIPInputStream(in, 1 << 16));
+        }
+        catch(IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a file for writing, compressing it if it is gzip.
+     * @param path Path
+     * @return Output stream
+     * @throws IOException If the file cannot be created
+     */
+    public static OutputStream create(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        if(!isCompressed(path))
+            return new BufferedOutputStream(out, 1 << 16);
+
+        return new GZIPOutputStream(new BufferedOutputStream(out, 1 << 16), 1 << 16);
+    }
+
+    /**
+     * Opens a UTF-8 text file for reading.
+     * @param path Path
+     * @return Reader
+     * @throws IOException If the file cannot be opened
+     */
+    public static BufferedReader reader(Path path) throws IOException {
+        return new BufferedReader(new InputStreamReader(open(path), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Creates a UTF-8 text file for writing.
+     * @param path Path
+     * @return Writer
+     * @throws IOException If the file cannot be created
+     */
+    public static PrintWriter writer(Path path) throws IOException {
+        return new PrintWriter(new OutputStreamWriter(create(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writer of a file's content.
+     */
+    public interface Content {
+        /**
+         * Writes the content.
+         * @param path Path to write
+         * @return True to keep the file, false to drop it
+         * @throws IOException If the file cannot be written
+         */
+        boolean write(Path path) throws IOException;
+    }
+
+    /**
+     * Writes a file aside and moves it into place, so a reader never sees it half-written and a
+     * failed or dropped write leaves what was there. The file is written as a sibling named after
+     * a dot, so it is compressed, or compact, as the file would be.
+     * @param path Path
+     * @param content Writer of the content
+     * @return True if the file was replaced
+     * @throws IOException If the file cannot be written
+     */
+    public static boolean replace(Path path, Content content) throws IOException {
+        Path temp = path.resolveSibling("." + path.getFileName());
+        try {
+            if(!content.write(temp))
+                return false;
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reader which counts the UTF-8 bytes of the text read through it, line ends included, for
+     * text which came as characters rather than bytes.
+     */
+    public static class Counting extends FilterReader {
+        long bytes = 0;
+
+        /**
+         * Constructor
+         * @param in Reader
+         */
+        public Counting(Reader in) {
+            super(in);
+        }
+
+        /**
+         * Gets the bytes read so far.
+         * @return Bytes as UTF-8
+         */
+        public long bytes() {
+            return bytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if(c >= 0)
+                bytes += utf8((char) c);
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int n = super.read(cbuf, off, len);
+            for(int k=off; k < off + n; k++)
+                bytes += utf8(cbuf[k]);
+            return n;
+        }
+
+        // A surrogate pair is four bytes, two for each half
+        static int utf8(char c) {
+            return c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isSurrogate(c) ? 2 : 3;
+        }
+    }
+
+    /**
+     * Input stream fed by a thread reading another stream ahead through a bounded queue.
+     */
+    static class Inflating extends InputStream {
+        static final byte[] EOF = new byte[0];
+
+        final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(AHEAD);
+        final Thread thread;
+
+        volatile IOException failure;
+
+        byte[] chunk = new byte[0];
+        int pos = 0;
+        boolean done = false;
+
+        Inflating(InputStream source) {
+            thread = Thread.ofPlatform().daemon().name("ray-inflate").start(() -> {
+                try(source) {
+                    byte[] buffer;
+                    do {
+                        buffer = source.readNBytes(CHUNK);
+                        if(buffer.length > 0)
+                            chunks.put(buffer);
+                    } while(buffer.length == CHUNK);
+                }
+                catch(IOException e) {
+                    failure = e;
+                }
+                catch(InterruptedException _) {
+                    // Closed by the reader
+                    return;
+                }
+
+                try {
+                    chunks.put(EOF);
+                }
+                catch(InterruptedException _) { }
+            });
+        }
+
+        @Override
+        public int read() throws IOException {
+            if(!fill())
+                return -1;
+            return chunk[pos++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(len == 0)
+                return 0;
+
+            if(!fill())
+                return -1;
+
+            int n = Math.min(len, chunk.length - pos);
+            System.arraycopy(chunk, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        /**
+         * Makes sure there are bytes in the current chunk.
+         * @return False at the end of the stream
+         */
+        boolean fill() throws IOException {
+            if(pos < chunk.length)
+                return true;
+
+            if(done)
+                return false;
+
+            try {
+                chunk = chunks.take();
+            }
+            catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted reading "+thread.getName());
+            }
+            pos = 0;
+
+            if(chunk == EOF) {
+                done = true;
+                if(failure != null)
+                    throw failure;
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public void close() {
+            thread.interrupt();
+            chunks.clear();
+        }
+    }
+}
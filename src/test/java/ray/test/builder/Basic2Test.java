@@ -23,6 +23,6 @@ public class Basic2Test extends TestCase {
     static final String INPUT_PATH = "src/test/test2.ray";
 
     public void test() {
-        Ray.main(new String[]{INPUT_PATH});
+        Ray.run(new String[]{INPUT_PATH});
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.Batch;
+import ray.compiler.CorpusValidator;
+import ray.compiler.Ray;
+import ray.compiler.RayCompiler;
+import ray.generator.ShoeOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class compiles a small suite given as a directory, a glob, and a listfile.
+ * @author Ron.Coleman
+ */
+public class BatchTest extends TestCase {
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-batch");
+        Path sub = Files.createDirectories(dir.resolve("sub"));
+        Path out = dir.resolve("out");
+
+        Files.writeString(dir.resolve("lab02.ray"), "lab02 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}\n");
+        Files.writeString(sub.resolve("new-suite.ray"), "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+        Files.writeString(sub.resolve("again.ray"), "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+        Files.writeString(dir.resolve("list"), dir.resolve("lab02.ray")+"\n# comment\n"+sub.resolve("again.ray")+"\n");
+
+        assert Batch.isBatch(List.of(dir.toString()));
+        assert !Batch.isBatch(List.of(dir.resolve("lab02.ray").toString(), "Lab02.java"));
+        assert Batch.isBatch(List.of(dir.resolve("lab02.ray").toString(), sub.resolve("again.ray").toString()));
+        assert Batch.isBatch(List.of(dir.resolve("lab02.ray").toString(), "more.ray.gz"));
+
+        // Two sources are two inputs, so the second is compiled rather than written over
+        String again = Files.readString(sub.resolve("again.ray"));
+        assert Ray.run(new String[]{dir.resolve("lab02.ray").toString(), sub.resolve("again.ray").toString()}) == 0;
+        assert Files.readString(sub.resolve("again.ray")).equals(again);
+        assert Files.exists(sub.resolve("Again.java"));
+
+        assert Batch.expand(List.of(dir.toString())).size() == 3;
+        assert Batch.expand(List.of(sub+"/*.ray")).size() == 2;
+        assert Batch.expand(List.of("@"+dir.resolve("list"), dir.resolve("lab02.ray").toString())).size() == 2;
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+
+        Batch.Summary summary = new Batch(compiler, out, null).compile(Batch.expand(List.of(dir.toString())));
+        assert summary.files() == 3;
+        assert summary.failed() == 0;
+        assert summary.games() == 3;
+        assert Files.readString(out.resolve("NewSuite.java")).contains("public class NewSuite extends Shoe01");
+        assert Files.exists(out.resolve("Lab02.java"));
+        assert Files.exists(out.resolve("Again.java"));
+
+        // T0 appears in two files, which is an error only across a shared corpus
+        summary = new Batch(compiler, out, new CorpusValidator()).compile(Batch.expand(List.of(dir.toString())));
+        assert summary.failed() == 1;
+        assert summary.errors().getFirst().contains("duplicate label T0");
+    }
+
+    public void testClash() throws Exception {
+        Path dir = Files.createTempDirectory("ray-batch");
+        Path a = Files.createDirectories(dir.resolve("a"));
+        Path b = Files.createDirectories(dir.resolve("b"));
+        Path out = dir.resolve("out");
+
+        Files.writeString(a.resolve("basic.ray"), "A0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+        Files.writeString(b.resolve("basic.ray"), "B0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+
+        // Both would be out/Basic.java, so neither is compiled
+        Batch.Summary summary = new Batch(compiler, out, null).compile(Batch.expand(List.of(dir.toString())));
+        assert summary.failed() == 1;
+        assert summary.errors().equals(List.of(b.resolve("basic.ray")+": same shoe, Basic.java, as "+a.resolve("basic.ray")+"."))
+                : summary.errors();
+        assert !Files.exists(out.resolve("Basic.java"));
+
+        // Next to their inputs they do not clash
+        summary = new Batch(compiler, null, null).compile(Batch.expand(List.of(dir.toString())));
+        assert summary.failed() == 0;
+        assert Files.exists(a.resolve("Basic.java")) && Files.exists(b.resolve("Basic.java"));
+
+        // x.ray and x.ray.gz clash even next to their inputs
+        Files.writeString(a.resolve("basic.ray.gz"), "");
+        summary = new Batch(compiler, null, null).compile(List.of(a.resolve("basic.ray"), a.resolve("basic.ray.gz")));
+        assert summary.failed() == 1;
+        assert summary.errors().getFirst().startsWith(a.resolve("basic.ray.gz")+": same shoe, Basic.java, as ");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.CompileServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * This class exercises the compile server with valid and invalid requests.
+ * @author Ron.Coleman
+ */
+public class CompileServerTest extends TestCase {
+    public void test() throws Exception {
+        CompileServer server = new CompileServer(0);
+        server.start();
+
+        try(HttpClient client = HttpClient.newHttpClient()) {
+            String base = "http://localhost:"+server.port();
+
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(base+"/compile?seed=0&comment=false&shoe=Lab02"))
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "lab02 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assert response.statusCode() == 200;
+            assert response.body().contains("public class Lab02 extends Shoe01");
+
+            response = client.send(
+                    HttpRequest.newBuilder(URI.create(base+"/compile"))
+                            .POST(HttpRequest.BodyPublishers.ofString("T0 {5}: You 3+10 >> Lose{5}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assert response.statusCode() == 422;
+            assert response.body().contains("missing Dealer player.");
+
+            // A one-card hand, which the shoe builder cannot deal, is invalid
+            response = client.send(
+                    HttpRequest.newBuilder(URI.create(base+"/compile"))
+                            .POST(HttpRequest.BodyPublishers.ofString("F0 {5}: You 10 | Dealer 10+7 >> Lose{5}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assert response.statusCode() == 422;
+            assert response.body().contains("You has only 1 card(s), expected at least 2.");
+
+            response = client.send(HttpRequest.newBuilder(URI.create(base+"/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assert response.body().contains("requests 3");
+            assert response.body().contains("failures 2");
+        }
+        finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.RayCompiler;
+import ray.generator.ShoeOptions;
+import ray.util.Streams;
+
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class compiles a gzip corpus into a gzip shoe and compares with compiling plain files.
+ * @author Ron.Coleman
+ */
+public class CompressedTest extends TestCase {
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-gz");
+
+        StringBuilder sb = new StringBuilder();
+        for(int k=0; k < 20000; k++)
+            sb.append("G").append(k).append(" {5}: You 10+7 | Dealer 10+8 >> Lose{5}\n");
+
+        Path plain = dir.resolve("suite.ray");
+        Files.writeString(plain, sb.toString());
+
+        Path compressed = dir.resolve("suite.ray.gz");
+        try(PrintWriter writer = Streams.writer(compressed)) {
+            writer.print(sb);
+        }
+        assert Files.size(compressed) < Files.size(plain) / 5;
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "Suite", null));
+
+        Path expected = dir.resolve("Expected.java");
+        assert compiler.compile(plain, expected).ok();
+
+        Path actual = dir.resolve("Suite.java.gz");
+        assert compiler.compile(compressed, actual).ok();
+
+        try(InputStream in = Streams.open(actual)) {
+            assert new String(in.readAllBytes()).equals(Files.readString(expected));
+        }
+
+        // Closing early must not leave the inflating thread stuck
+        try(InputStream in = Streams.open(compressed)) {
+            assert in.read() == 'G';
+        }
+    }
+}
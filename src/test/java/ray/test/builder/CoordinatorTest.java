@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.Coordinator;
+import ray.compiler.RayCompiler;
+import ray.generator.ShoeOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class compiles across worker processes and compares with compiling in one JVM.
+ * With every card suited, no suits are random, so the shoes must match exactly.
+ * @author Ron.Coleman
+ */
+public class CoordinatorTest extends TestCase {
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-coordinator-test");
+        Path input = dir.resolve("suite.ray");
+
+        StringBuilder sb = new StringBuilder();
+        for(int k=0; k < 500; k++) {
+            sb.append("G").append(k).append(" {5}: You 10H+7S | Dealer 10C+8D >> Lose{5}\n");
+            if(k % 100 == 0)
+                sb.append("# comment\n\n");
+        }
+        Files.writeString(input, sb.toString());
+
+        ShoeOptions options = new ShoeOptions(0, false, "Shoe01", "Suite", null);
+
+        Path expected = dir.resolve("Expected.java");
+        assert new RayCompiler(options).compile(input, expected).ok();
+
+        Path actual = dir.resolve("Suite.java");
+        List<String> errors = new Coordinator(options, 3, 1).compile(input, actual);
+
+        assert errors.isEmpty();
+        assert Files.readString(actual).equals(Files.readString(expected));
+
+        // Errors are numbered across partitions, and duplicates are found across them
+        Files.writeString(input, sb+"G7 {5}: You 10H+7S | Dealer 10C+8D >> Lose{5}\nX {5}: You 10H+7S >> Lose{5}\n");
+
+        errors = new Coordinator(options, 3, 1).compile(input, dir.resolve("Invalid.java"));
+
+        assert errors.equals(List.of(
+                "line 511: duplicate label G7, first seen at line 10.",
+                "line 512: missing Dealer player."));
+        assert !Files.exists(dir.resolve("Invalid.java"));
+    }
+}
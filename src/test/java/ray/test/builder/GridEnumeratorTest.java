@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.Validator;
+import ray.engine.Engine;
+import ray.engine.Replay;
+import ray.generator.CompactShoe;
+import ray.generator.GridEnumerator;
+import ray.generator.ShoeOptions;
+import ray.generator.Synthesizer;
+import ray.model.Game;
+import ray.model.Hand;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class enumerates strategy grids and checks every cell is there once, valid, and the same for any number of threads.
+ * @author Ron.Coleman
+ */
+public class GridEnumeratorTest extends TestCase {
+    public void testFullGrid() {
+        GridEnumerator grid = new GridEnumerator(5);
+
+        // Per upcard: 44 starts stand, hit or double, 10 pairs also split, and A+10 only stands
+        assert grid.cells() == (44 * 3 + 10 * 4 + 1) * 10 * 3 : grid.cells();
+        assert grid.size() == grid.cells();
+
+        Engine engine = new Engine();
+        List<String> errors = new ArrayList<>();
+        Set<String> cells = new HashSet<>();
+
+        for(long n=0; n < grid.size(); n++) {
+            Game game = grid.game(n);
+
+            assert Validator.validate(game).isEmpty() : game;
+            assert engine.verify(game, errors) == 0 : errors;
+
+            Hand you = game.you();
+            char action = you.directive == null ? 'S' : you.directive.type;
+            String cell = String.join("+", you.cards) + " v " + game.dealer().cards.getFirst() + " " + action + " " +
+                    (game.hands.size() - 1);
+
+            assert cells.add(cell) : cell;
+        }
+
+        assert cells.contains("8+8 v 6 P 3");
+        assert cells.contains("A+7 v 10 D 1");
+        assert cells.contains("A+10 v A S 2");
+        assert !cells.contains("A+10 v A H 2");
+        assert !cells.contains("9+10 v 2 P 1");
+
+        assert grid.game(0).label.equals("AAvAS1");
+        assert Synthesizer.format(grid.game(77)).equals(Synthesizer.format(new GridEnumerator(5).game(77)));
+    }
+
+    public void testWrite() throws Exception {
+        GridEnumerator grid = new GridEnumerator(9)
+                .withStarts(GridEnumerator.starts("pairs"))
+                .withUpcards(List.of("6", "10"))
+                .withActions("SP")
+                .withSeats(1, 3)
+                .withRepeats(50);
+
+        assert grid.cells() == 10 * 2 * 2 * 2;
+        assert grid.game(0).label.equals("AAv6S1_0");
+        assert grid.game(grid.size() - 1).label.equals("TTvTP3_49");
+
+        Path dir = Files.createTempDirectory("ray-grid");
+        Path one = dir.resolve("one.ray");
+        Path four = dir.resolve("four.ray");
+        grid.write(one, null, 1);
+        grid.write(four, null, 4);
+        assert Arrays.equals(Files.readAllBytes(one), Files.readAllBytes(four));
+        assert Files.readAllLines(one).size() == grid.size();
+
+        // Straight into a shoe builder, the same as the compact file, and replayed as dealt
+        Path rays = dir.resolve("grid.rays");
+        grid.write(rays, null, 3);
+
+        CompactShoe shoe = new CompactShoe(new ShoeOptions(9, false, "Shoe01", "ShoeXyz", null));
+        grid.generate(shoe, 2);
+        shoe.save(dir.resolve("built.rays"));
+        assert Arrays.equals(Files.readAllBytes(rays), Files.readAllBytes(dir.resolve("built.rays")));
+
+        Replay.Report report = new Replay(Replay.load(rays), 4, 1, 0).run();
+        assert report.games() == 4 * grid.size();
+        assert report.mismatches() == 0 : report.samples();
+
+        // A Java shoe, named for its file
+        Path java = dir.resolve("grid-pairs.java");
+        grid.withRepeats(1).write(java, new ShoeOptions(9, true, "Shoe01", "ShoeXyz", null), 2);
+        String code = Files.readString(java);
+        assert code.contains("class GridPairs extends Shoe01");
+        assert code.contains("// Game TTvTP3 {10,10,10}: Huey ");
+    }
+}
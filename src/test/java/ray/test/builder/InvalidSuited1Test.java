@@ -23,8 +23,6 @@ public class InvalidSuited1Test extends TestCase {
     static final String INPUT_PATH = "src/test/ray/test4.ray";
 
     public void test() {
-        Ray.main(new String[]{INPUT_PATH});
-
-        assert Ray.rc != 0: "expected failure for "+INPUT_PATH;
+        assert Ray.run(new String[]{INPUT_PATH}) != 0: "expected failure for "+INPUT_PATH;
     }
 }
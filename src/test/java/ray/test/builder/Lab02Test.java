@@ -24,6 +24,6 @@ public class Lab02Test extends TestCase {
     static final String INPUT_PATH = "src/test/ray/lab02.ray";
 
     public void test() {
-        Ray.main(new String[]{INPUT_PATH});
+        Ray.run(new String[]{INPUT_PATH});
     }
 }
@@ -24,6 +24,6 @@ public class MultiGameTest extends TestCase {
     static final String OUTPUT_PATH = "c:/tmp/ShoeXzy.java";
 
     public void test() {
-        Ray.main(new String[]{INPUT_PATH, OUTPUT_PATH});
+        Ray.run(new String[]{INPUT_PATH, OUTPUT_PATH});
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.CorpusValidator;
+import ray.compiler.Parser;
+import ray.compiler.Pipeline;
+import ray.generator.ShoeBuilderTarget;
+import ray.model.Game;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class checks the pipelined compile generates the same shoe as the sequential one.
+ * @author Ron.Coleman
+ */
+public class PipelineTest extends TestCase {
+    public void test() throws Exception {
+        System.setProperty("ray.seed","0");
+        System.setProperty("ray.comment","false");
+
+        StringBuilder input = new StringBuilder();
+        for(int k=0; k < 2000; k++)
+            input.append("T").append(k).append(" {5}: You 3+").append(k % 9 + 1).append(" | Dealer 4+10+7 >> Lose{5}\n");
+
+        // Sequential
+        Parser parser = new Parser();
+        List<Game> games = new ArrayList<>();
+        for(String line: input.toString().split("\n"))
+            games.add(parser.parse(line));
+
+        StringWriter expected = new StringWriter();
+        new ShoeBuilderTarget(new PrintWriter(expected)).generate(games);
+
+        // Pipelined
+        StringWriter actual = new StringWriter();
+        CorpusValidator corpus = new CorpusValidator();
+        Pipeline pipeline = new Pipeline(4, 2);
+
+        List<String> errors = pipeline.compile(
+                new BufferedReader(new StringReader(input.toString())),
+                new ShoeBuilderTarget(new PrintWriter(actual)),
+                corpus, corpus.file("test"));
+
+        System.out.println(pipeline.metrics());
+
+        assert errors.isEmpty() : errors;
+        assert expected.toString().equals(actual.toString());
+
+        System.clearProperty("ray.comment");
+    }
+
+    public void testOneCard() throws Exception {
+        System.setProperty("ray.seed","0");
+
+        // A one-card hand, which the shoe builder cannot deal, is reported by line
+        StringBuilder input = new StringBuilder("F0 {5}: You 10 | Dealer 10+7 >> Lose{5}\n");
+        for(int k=1; k < 20000; k++)
+            input.append("T").append(k).append(" {5}: You 3+").append(k % 9 + 1).append(" | Dealer 4+10+7 >> Lose{5}\n");
+
+        CorpusValidator corpus = new CorpusValidator();
+        Pipeline pipeline = new Pipeline(4, 2);
+
+        List<String> errors = pipeline.compile(
+                new BufferedReader(new StringReader(input.toString())),
+                new ShoeBuilderTarget(new PrintWriter(new StringWriter())),
+                corpus, corpus.file("test"));
+
+        assert errors.size() == 1 : errors;
+        assert errors.getFirst().equals("line 1: You has only 1 card(s), expected at least 2.") : errors;
+    }
+}
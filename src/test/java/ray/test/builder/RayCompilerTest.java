@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.RayCompiler;
+import ray.generator.ShoeOptions;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class compiles with one shared compiler from many threads at once.
+ * @author Ron.Coleman
+ */
+public class RayCompilerTest extends TestCase {
+    static final String VALID =
+            "lab02 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}\n" +
+            "T1 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n";
+
+    static final String INVALID =
+            "T0 {5}: You 3+10 >> Lose{5}\n";
+
+    public void test() throws Exception {
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "Lab02", null));
+
+        String expected = compile(compiler, VALID);
+        assert expected.contains("public class Lab02 extends Shoe01");
+
+        List<Future<String>> valids = new ArrayList<>();
+        List<Future<RayCompiler.Result>> invalids = new ArrayList<>();
+
+        try(ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for(int k=0; k < 64; k++) {
+                valids.add(pool.submit(() -> compile(compiler, VALID)));
+                invalids.add(pool.submit(() ->
+                        compiler.compile(new StringReader(INVALID), "invalid", new StringWriter())));
+            }
+        }
+
+        for(Future<String> valid: valids)
+            assert valid.get().equals(expected);
+
+        for(Future<RayCompiler.Result> invalid: invalids) {
+            RayCompiler.Result result = invalid.get();
+            assert !result.ok();
+            assert result.errors().getFirst().equals("line 1: missing Dealer player.");
+        }
+    }
+
+    static String compile(RayCompiler compiler, String source) throws Exception {
+        StringWriter out = new StringWriter();
+        RayCompiler.Result result = compiler.compile(new StringReader(source), "valid", out);
+        assert result.ok();
+        assert result.games() == 2;
+        return out.toString();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.Ray;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * This class checks the exit code of every way the command line compiles.
+ * @author Ron.Coleman
+ */
+public class RayExitTest extends TestCase {
+    static final String GOOD = "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n";
+    static final String BAD = "T0 {5}: You 3+10 >> Lose{5}\n";
+
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-exit");
+        String good = Files.writeString(dir.resolve("good.ray"), GOOD).toString();
+        String bad = Files.writeString(dir.resolve("bad.ray"), BAD).toString();
+        String out = dir.resolve("Out.java").toString();
+
+        assert Ray.run(new String[]{good, out}) == 0;
+        assert Ray.run(new String[]{bad, out}) == 1;
+        assert Ray.run(new String[]{dir.resolve("missing.ray").toString(), out}) == 1;
+        assert Ray.run(new String[]{"--nope", good}) == 1;
+        assert Ray.run(new String[]{"--select"}) == 1;
+        assert Ray.run(new String[]{"--select", "T(", good, out}) == 1;
+        assert Ray.run(new String[]{"--workers", "x", good, out}) == 1;
+
+        assert Ray.run(new String[]{"--pipeline", good, out}) == 0;
+        assert Ray.run(new String[]{"--pipeline", bad, out}) == 1;
+
+        assert Ray.run(new String[]{"--query", "label=T0", good, out}) == 0;
+        assert Ray.run(new String[]{"--query", "label=T0", bad, out}) == 1;
+
+        assert Ray.run(new String[]{"--out-dir", dir.toString(), good}) == 0;
+        assert Ray.run(new String[]{"--out-dir", dir.toString(), good, bad}) == 1;
+    }
+
+    public void testOutput() throws Exception {
+        Path dir = Files.createTempDirectory("ray-output");
+        String good = Files.writeString(dir.resolve("good.ray"), GOOD).toString();
+        String one = Files.writeString(dir.resolve("one.ray"), "F0 {5}: You 10 | Dealer 10+7 >> Lose{5}\n").toString();
+        Path out = dir.resolve("One.java");
+
+        // A one-card hand is an error, not a half-written shoe
+        assert Ray.run(new String[]{one, out.toString()}) == 1;
+        assert !Files.exists(out);
+
+        // A failed compile leaves the last shoe as it was
+        assert Ray.run(new String[]{good, out.toString()}) == 0;
+        String shoe = Files.readString(out);
+        assert Ray.run(new String[]{one, out.toString()}) == 1;
+        assert Ray.run(new String[]{"--pipeline", one, out.toString()}) == 1;
+        assert Files.readString(out).equals(shoe);
+
+        try(Stream<Path> files = Files.list(dir)) {
+            assert files.noneMatch(file -> file.getFileName().toString().startsWith("."));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+import ray.compiler.Batch;
+import ray.compiler.RayCompiler;
+import ray.compiler.Stats;
+import ray.generator.ShoeOptions;
+
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class compiles a small batch while recording and checks the phase and shard events and the stats.
+ * @author Ron.Coleman
+ */
+public class StatsTest extends TestCase {
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-stats");
+        Files.writeString(dir.resolve("a.ray"), "A0 {5}: You 10+7 | Dealer 10+8 >> Lose{5}\nA1 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}\n");
+        Files.writeString(dir.resolve("b.ray"), "B0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null)).withTiming(true);
+
+        Path jfr = dir.resolve("ray.jfr");
+        Batch.Summary summary;
+        try(Recording recording = new Recording()) {
+            recording.enable("ray.Phase");
+            recording.enable("ray.Shard");
+            recording.start();
+
+            summary = new Batch(compiler, dir.resolve("out"), null).compile(Batch.expand(List.of(dir.toString())));
+
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        Stats stats = summary.stats();
+        assert stats.games == 3;
+        assert stats.lines == 3;
+        assert stats.cards == 4 + 7 + 5;
+        assert stats.errors == 0;
+        assert stats.bytes == Files.size(dir.resolve("a.ray")) + Files.size(dir.resolve("b.ray"));
+        assert stats.nanos[Stats.Phase.PARSE.ordinal()] > 0;
+
+        assert stats.report(1_000_000_000L, 3000).contains("3 games, 3 lines");
+        assert stats.report(1_000_000_000L, 3000).contains("1000 bytes/game allocated");
+
+        int phases = 0;
+        int shards = 0;
+        for(RecordedEvent event: RecordingFile.readAllEvents(jfr)) {
+            switch(event.getEventType().getName()) {
+                case "ray.Phase" -> phases++;
+                case "ray.Shard" -> {
+                    shards++;
+                    assert event.getString("kind").equals("file");
+                    assert event.getLong("cards") == (event.getString("input").endsWith("a.ray") ? 11 : 5);
+                }
+            }
+        }
+
+        assert phases == 2 * Stats.Phase.values().length;
+        assert shards == 2;
+    }
+
+    public void testBytes() throws Exception {
+        // CRLF line ends and a comment which is not ASCII
+        String ray = "# Übung \uD83C\uDCA1\r\nA0 {5}: You 10+7 | Dealer 10+8 >> Lose{5}\r\n\r\nA1 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}";
+        int size = ray.getBytes(StandardCharsets.UTF_8).length;
+
+        Path dir = Files.createTempDirectory("ray-stats");
+        Path input = Files.writeString(dir.resolve("a.ray"), ray);
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+
+        RayCompiler.Result result = compiler.compile(input, dir.resolve("A.java"));
+        assert result.stats().bytes == size : result.stats().bytes;
+
+        result = compiler.compile(input, Writer.nullWriter());
+        assert result.stats().bytes == size : result.stats().bytes;
+
+        result = compiler.compile(new StringReader(ray), "a", Writer.nullWriter());
+        assert result.ok() && result.games() == 2;
+        assert result.stats().bytes == size : result.stats().bytes;
+    }
+}
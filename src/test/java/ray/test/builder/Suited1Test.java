@@ -23,6 +23,6 @@ public class Suited1Test extends TestCase {
     static final String INPUT_PATH = "src/test/ray/test3.ray";
 
     public void test() {
-        Ray.main(new String[]{INPUT_PATH});
+        Ray.run(new String[]{INPUT_PATH});
     }
 }
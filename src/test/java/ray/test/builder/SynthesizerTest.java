@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.Parser;
+import ray.compiler.RayCompiler;
+import ray.compiler.Validator;
+import ray.engine.Engine;
+import ray.engine.Replay;
+import ray.generator.ShoeOptions;
+import ray.generator.Synthesizer;
+import ray.model.Game;
+import ray.model.Hand;
+import ray.type.Player;
+import ray.type.Suit;
+import ray.util.Helper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * This class synthesizes corpora and checks they are valid, cover the seats and directives, and are the same for any number of threads.
+ * @author Ron.Coleman
+ */
+public class SynthesizerTest extends TestCase {
+    public void testValid() {
+        Synthesizer synthesizer = new Synthesizer(7);
+        Parser parser = new Parser();
+        Engine engine = new Engine();
+
+        Set<String> seen = new HashSet<>();
+        boolean suited = false, unsuited = false, multibet = false;
+
+        for(int n=0; n < 4000; n++) {
+            String line = Synthesizer.format(synthesizer.game(n));
+            Game game = parser.parse(line);
+
+            assert Validator.validate(game).isEmpty() : line+" "+Validator.validate(game);
+
+            List<String> errors = new ArrayList<>();
+            assert engine.verify(game, errors) == 0 : line+" "+errors;
+
+            StringBuilder seats = new StringBuilder();
+            for(Hand hand: game.hands) {
+                seats.append(hand.who);
+                if(hand.directive != null)
+                    seats.append(hand.directive.type);
+
+                for(String card: hand.cards) {
+                    boolean plain = Helper.getSuit(card) == Suit.None;
+                    suited |= !plain;
+                    unsuited |= plain;
+                }
+            }
+            seen.add(seats.toString());
+            multibet |= game.bets.size() == 3;
+        }
+
+        assert suited && unsuited && multibet;
+
+        // You alone and with each of the others, with each directive
+        for(String seats: List.of("You", "HueyYou", "YouDewey", "HueyYouDewey")) {
+            for(String type: List.of("", "H", "D", "P")) {
+                String you = "You" + type;
+                String expected = seats.replace("You", you) + Player.Dealer;
+                assert seen.contains(expected) : expected+" not in "+seen;
+            }
+        }
+        assert seen.stream().anyMatch(s -> s.contains("HueyD") || s.contains("DeweyD"));
+        assert seen.stream().anyMatch(s -> s.contains("HueyH") || s.contains("DeweyH"));
+
+        assert Synthesizer.format(synthesizer.game(123)).equals(Synthesizer.format(new Synthesizer(7).game(123)));
+        assert !Synthesizer.format(synthesizer.game(123)).equals(Synthesizer.format(new Synthesizer(8).game(123)));
+    }
+
+    public void testInvalid() {
+        Parser parser = new Parser();
+        Synthesizer synthesizer = new Synthesizer(3);
+
+        for(Synthesizer.Mutation mutation: Synthesizer.Mutation.values()) {
+            for(int n=0; n < 16; n++) {
+                Game game = synthesizer.game(n);
+                Synthesizer.mutate(game, mutation, new SplittableRandom(n));
+
+                String line = Synthesizer.format(game);
+                assert !Validator.validate(parser.parse(line)).isEmpty() : mutation+" "+line;
+            }
+        }
+
+        Synthesizer mixed = new Synthesizer(3, 0.25);
+        int invalid = 0;
+        for(int n=0; n < 1000; n++) {
+            Game game = parser.parse(Synthesizer.format(mixed.game(n)));
+            boolean negative = !Validator.validate(game).isEmpty();
+            assert negative == game.label.startsWith("N") : game;
+            if(negative)
+                invalid++;
+        }
+        assert invalid > 150 && invalid < 350 : invalid;
+    }
+
+    public void testWrite() throws Exception {
+        Path dir = Files.createTempDirectory("ray-synth");
+        Synthesizer synthesizer = new Synthesizer(11);
+
+        Path one = dir.resolve("one.ray");
+        Path three = dir.resolve("three.ray.gz");
+        synthesizer.write(one, 10_000, 1);
+        synthesizer.write(three, 10_000, 3);
+
+        List<String> lines = Files.readAllLines(one);
+        assert lines.size() == 10_000;
+        assert lines.get(9_999).equals(Synthesizer.format(synthesizer.game(9_999)));
+
+        Path copy = dir.resolve("three.ray");
+        try(var in = ray.util.Streams.open(three)) {
+            Files.write(copy, in.readAllBytes());
+        }
+        assert Arrays.equals(Files.readAllBytes(one), Files.readAllBytes(copy));
+
+        // The whole corpus compiles
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null)).withVerify(true);
+        assert compiler.compile(one, dir.resolve("One.java")).ok();
+
+        // And replays as dealt
+        Path shoe = dir.resolve("synth.rays");
+        synthesizer.write(shoe, 5_000, 2);
+        Replay.Report report = new Replay(Replay.load(shoe), 8, 1, 0).run();
+        assert report.games() == 8 * 5_000;
+        assert report.mismatches() == 0 : report.samples();
+
+        try {
+            new Synthesizer(11, 0.1).write(shoe, 10, 1);
+            assert false;
+        }
+        catch(IllegalArgumentException e) {
+            assert e.getMessage().equals("invalid games cannot go in a compact shoe.");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.builder;
+
+import junit.framework.TestCase;
+import ray.compiler.Watcher;
+import ray.generator.ShoeOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * This class exercises watch mode: existing inputs are compiled on start and edits are recompiled.
+ * @author Ron.Coleman
+ */
+public class WatcherTest extends TestCase {
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-watch");
+        Files.writeString(dir.resolve("lab02.ray"), "lab02 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}\n");
+
+        Watcher watcher = new Watcher(List.of(dir), null, new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+        Thread thread = Thread.ofPlatform().daemon().start(() -> {
+            try {
+                watcher.run();
+            }
+            catch(Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        Path output = dir.resolve("Lab02.java");
+        assert await(output, "class Lab02");
+
+        Files.writeString(dir.resolve("new-suite.ray"), "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+        assert await(dir.resolve("NewSuite.java"), "class NewSuite");
+
+        watcher.stop();
+        thread.join(5000);
+    }
+
+    public void testFailure() throws Exception {
+        Path dir = Files.createTempDirectory("ray-watch");
+        Watcher watcher = new Watcher(List.of(dir), null, new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+
+        // A one-card hand, which the shoe builder cannot deal, fails to compile and writes nothing
+        Path input = dir.resolve("one-card.ray");
+        Files.writeString(input, "F0 {5}: You 10 | Dealer 10+7 >> Lose{5}\n");
+        assert !watcher.compile(input);
+        assert !Files.exists(dir.resolve("OneCard.java"));
+        assert !Files.exists(dir.resolve(".OneCard.java"));
+
+        // The next file still compiles
+        Path next = dir.resolve("next.ray");
+        Files.writeString(next, "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n");
+        assert watcher.compile(next);
+        assert Files.readString(dir.resolve("Next.java")).contains("class Next");
+    }
+
+    static boolean await(Path path, String text) throws Exception {
+        for(int tries=0; tries < 100; tries++) {
+            if(Files.exists(path) && Files.readString(path).contains(text))
+                return true;
+            Thread.sleep(50);
+        }
+        return false;
+    }
+}
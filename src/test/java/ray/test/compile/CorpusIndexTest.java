@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.CorpusIndex;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class exercises building, saving, and querying a corpus index.
+ * @author Ron.Coleman
+ */
+public class CorpusIndexTest extends TestCase {
+    public void test() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".ray");
+        Files.writeString(corpus,
+                "# A corpus\n" +
+                "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n" +
+                "\n" +
+                "T1 {5,15}: You 3+3 | Huey 9+2+5 | Dealer 10+7 >> Win{5}, Win{15}\n" +
+                "T2 {5}: You 3+2+D!J | Dealer 7+10+4 >> Lose{5}\n");
+
+        CorpusIndex index = CorpusIndex.open(corpus);
+        assert index.size() == 3;
+        assert Files.exists(CorpusIndex.indexPath(corpus));
+
+        // Reopening loads the saved index
+        index = CorpusIndex.open(corpus);
+        assert index.size() == 3;
+
+        int[] entries = index.select("seat=Huey");
+        assert entries.length == 1 && index.label(entries[0]).equals("T1");
+        assert index.lineno(entries[0]) == 4;
+        assert index.betTotal(entries[0]) == 20;
+
+        entries = index.select("directive=D|P&outcome=lose");
+        assert entries.length == 1 && index.label(entries[0]).equals("T2");
+
+        // A repeated key must hold in each term
+        assert index.select("seat=Huey|You").length == 3;
+        entries = index.select("seat=Huey&seat=You");
+        assert entries.length == 1 && index.label(entries[0]).equals("T1");
+        assert index.select("label=T0|T1&label=T1|T2").length == 1;
+        assert index.select("outcome=win&outcome=lose").length == 0;
+
+        entries = index.select("label=T2|T0");
+        List<String> lines = index.read(entries);
+        assert lines.get(0).startsWith("T0 ") && lines.get(1).startsWith("T2 ");
+
+        Files.delete(CorpusIndex.indexPath(corpus));
+        Files.delete(corpus);
+    }
+
+    public void testDuplicates() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".ray");
+        Files.writeString(corpus,
+                "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n" +
+                "T1 {5}: You 10+7 | Dealer 10+6+10 >> Win{5}\n" +
+                "T0 {5}: You 10+9 | Dealer 10+7 >> Win{5}\n");
+
+        CorpusIndex index = CorpusIndex.open(corpus);
+        assert index.find("T0") == 0;
+
+        // The lookup finds every game with a label, as the scan does
+        int[] entries = index.select("label=T0");
+        assert Arrays.equals(entries, new int[]{0, 2}) : Arrays.toString(entries);
+        assert Arrays.equals(entries, index.select("label=T0&seat=You"));
+        assert Arrays.equals(index.select("label=T1|T0"), new int[]{0, 1, 2});
+
+        Files.delete(CorpusIndex.indexPath(corpus));
+        Files.delete(corpus);
+    }
+
+    public void testTemplates() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".ray");
+        Files.writeString(corpus,
+                "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n" +
+                "%param r = 2..9\n" +
+                "T$# {5}: You 10+$r | Dealer 10+7 >>\n");
+
+        try {
+            CorpusIndex.open(corpus);
+            assert false : "expected templates to be refused";
+        }
+        catch(IllegalArgumentException e) {
+            assert e.getMessage().equals("line 2: templates need the sequential or batch compile.") : e.getMessage();
+        }
+
+        Files.delete(corpus);
+    }
+}
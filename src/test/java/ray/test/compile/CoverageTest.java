@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.Coverage;
+import ray.compiler.DecisionScanner;
+import ray.compiler.Parser;
+import ray.compiler.Validator;
+import ray.engine.Engine;
+import ray.model.Game;
+import ray.type.Player;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class reads decisions out of game lines and checks the strategy coverage of a corpus and its gaps.
+ * @author Ron.Coleman
+ */
+public class CoverageTest extends TestCase {
+    static final String CORPUS =
+            "# Corpus\n" +
+            "C1 {5}: You 10H+6C+H!5 | Dealer 10+7 >> Win{5}\n" +
+            "C2 {5,5}: Huey 3+A+5 | You 8+8+P!{3+9,10+A} | Dealer 10+7 >> Win{5}, Win{5}, Win{5}\n" +
+            "C3 {5}: You A+7+D!3 | Dealer 6+10+2 >> Win{10}\n" +
+            "C4 {5}: You A+K | Dealer 9+8 >> Blackjack{7}\n" +
+            "C5 {5}: You 10+6+D!5 | Dealer A+K >> Lose{5}\n" +
+            "C6 {5}: You ?+? | Dealer 10+7 >> Win{5}\n" +
+            "%param r = 2..3\n" +
+            "T$# {5}: You 10+$r | Dealer 10+7 >>\n" +
+            "bad line\n" +
+            "C7 {5}: You 2+3+2+2+2 | Dealer 10+7 >> Charlie{10}\n";
+
+    public void testDecisions() {
+        DecisionScanner scanner = new DecisionScanner();
+        List<String> events = new ArrayList<>();
+        DecisionScanner.Sink sink = d -> events.add(d.toString());
+
+        assert scanner.scan("C1 {5}: You 10H+6C+H!5 | Dealer 10+7 >> Win{5}", sink);
+        assert events.equals(List.of("You H16 v 10: H", "You H21 v 10: S")) : events;
+
+        events.clear();
+        assert scanner.scan("C2 {5,5}: Huey 3+A+5 | You 8+8+P!{3+9,10+A} | Dealer 10+7 >> Win{5}, Win{5}, Win{5}", sink);
+        assert events.equals(List.of("Huey S14 v 10: H", "Huey S19 v 10: S", "You H16 pair v 10: P",
+                "You H11 split v 10: H", "You H20 split v 10: S", "You H18 split v 10: H", "You H19 split v 10: S")) : events;
+
+        events.clear();
+        assert scanner.scan("C3 {5}: You A + 7 + D!3 | Dealer 6+10+2 >> Win{10}", sink);
+        assert events.equals(List.of("You S18 v 6: D")) : events;
+
+        // No one decides against a dealer blackjack, a blackjack stands, and a five-card hand is done
+        events.clear();
+        assert scanner.scan("C4 {5}: You A+K | Dealer 9+8 >> Blackjack{7}", sink);
+        assert scanner.scan("C5 {5}: You 10+6+D!5 | Dealer A+K >> Lose{5}", sink);
+        assert events.isEmpty() : events;
+        assert scanner.scan("C7 {5}: You 2+3+2+2+2 | Dealer 10+7 >> Charlie{10}", sink);
+        assert events.equals(List.of("You H5 v 10: H", "You H7 v 10: H", "You H9 v 10: H")) : events;
+
+        // Lines which are not games that can be read emit nothing
+        events.clear();
+        for(String line: List.of("C6 {5}: You ?+? | Dealer 10+7 >> Win{5}", "T$# {5}: You 10+$r | Dealer 10+7 >>",
+                "bad line", "X {5}: You 10+6 >> Win{5}", "X {5}: You 10+6+Z!5 | Dealer 10+7 >> Win{5}",
+                "X {5}: Louie 10+6 | Dealer 10+7 >> Win{5}"))
+            assert !scanner.scan(line, sink) : line;
+        assert events.isEmpty() : events;
+    }
+
+    public void testCoverage() throws Exception {
+        Path dir = Files.createTempDirectory("ray-coverage");
+        Path corpus = dir.resolve("corpus.ray");
+        Files.writeString(corpus, CORPUS.repeat(50));
+
+        Coverage one = Coverage.analyze(corpus, 1);
+        Coverage three = Coverage.analyze(corpus, 3);
+
+        Set<Player> you = EnumSet.of(Player.You);
+        Coverage.Summary summary = one.summary(you);
+        // The blanks are solved and the template bound, which leaves the bad line
+        assert summary.games() == 9 * 50 : summary;
+        assert summary.skipped() == 50 : summary;
+        assert summary.decisions() == 16 * 50 : summary;
+        assert summary.cells() == 89 * 10;
+        assert summary.covered() == 13 : summary;
+        assert one.covered(Player.You, false, 13, 10, 'S');
+        assert one.summary(Set.of(Player.Huey)).covered() == 2;
+        assert one.summary(Set.of(Player.Huey)).cells() == 79 * 10;
+
+        // Threads give the same coverage
+        assert three.summary(you).toString().replaceAll(" in .*", "").equals(summary.toString().replaceAll(" in .*", ""));
+        assert three.gaps(Coverage.seats("all")).equals(one.gaps(Coverage.seats("all")));
+        assert three.count(Player.You, false, 16, 10, 'H') == 50;
+        assert one.count(Player.You, false, 16, 10, 'P') == 50;
+        assert one.covered(Player.You, true, 18, 6, 'D');
+        assert !one.covered(Player.You, true, 18, 6, 'S');
+        assert !one.covered(Player.You, false, 16, 1, 'D');
+
+        StringWriter report = new StringWriter();
+        one.report(new PrintWriter(report, true), you);
+        List<String> lines = report.toString().lines().toList();
+        assert lines.getFirst().equals("# seat\thand\tupcard\tmissing");
+        assert lines.contains("You\tH16\t10\tSD") : lines;
+        assert lines.contains("You\tS18\t6\tSH") : lines;
+        assert lines.contains("You\tS21\tA\tS") : lines;
+
+        // The stubs are games which fill the gaps
+        StringWriter stubs = new StringWriter();
+        int n = one.stubs(new PrintWriter(stubs, true), you);
+        assert n == summary.cells() - summary.covered();
+
+        Parser parser = new Parser();
+        Engine engine = new Engine();
+        List<String> errors = new ArrayList<>();
+        for(String line: stubs.toString().lines().toList()) {
+            Game game = parser.parse(line);
+            assert Validator.validate(game).isEmpty() : line;
+            assert engine.verify(game, errors) == 0 : errors;
+        }
+        assert stubs.toString().contains("GapYouH16vTD {5}: You 10+6+D!2 | Dealer 10+7 >> ");
+
+        Files.writeString(corpus, CORPUS + stubs);
+        Coverage full = Coverage.analyze(corpus, 2);
+        assert full.summary(you).covered() == summary.cells() : full.summary(you);
+        assert full.gaps(you).isEmpty();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.CorpusValidator;
+import ray.compiler.Parser;
+import ray.compiler.RayCompiler;
+import ray.compiler.Stats;
+import ray.compiler.StructuralScanner;
+import ray.generator.ShoeOptions;
+import ray.generator.Synthesizer;
+import ray.model.Game;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class checks that parsing a line from its bytes gives what parsing its text does.
+ * @author Ron.Coleman
+ */
+public class FastParseTest extends TestCase {
+    static final String[] RAYS = {
+            "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+            "T0 { 5 }: You 3+10 | Dealer 4+10+7 >> Lose { 5 }",
+            "T1 {5}: You 7+7+P!{2+4,5+9} | Dealer 10+6 >> Win{5}, Push{5}",
+            "T12 {5}: You 7+7+P!{2+ 4,5+9} | Dealer 10+6 >> WIN{5}, PUSH{5}",
+            "T2 {5}: Huey 10+2+D!7 | Dealer 9+8 >> Win{10}",
+            "T3 {5}: You 10 + 6 + H!5+2 | Dealer 10+7 >> bust{5}",
+            "T4 {5,15}: You 3+3 | Dewey 9+2+5 | Dealer 10+7 >> Win{5}, Win{15}",
+            "T5 {5,5,5}: Huey KS+6H+2 | You 10C+5+4 | Dewey 10+10 | Dealer K+7 >> Win{5}, Win{5}, Win{5}",
+            "T6 {5}: You 10+2 | Dealer 10+7 >>",
+            "\tT7{5}:You A+K|Dealer 9+8>>Blackjack{7}  ",
+    };
+
+    static final String[] ODD = {
+            "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5},",
+            "T0 {5}: You 3+10 | Dealer 4+10+7 > > Lose{5}",
+            "T0 {5,,10}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+            "T0 {5,5,5,5}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+            "T0 {5}: You 10h+6 | Dealer 4+10+7 >> Lose{5}",
+            "T0 {5}: You 10+6+H! 5 | Dealer 4+10+7 >> Lose{5}",
+            "T0 {5}: You 8+8+P!{3+9, 2+9} | Dealer 10+7 >> Win{5}",
+            "T0 {5}: You 8+8+P!{3+9,2+9}+5 | Dealer 10+7 >> Win{5}",
+            "T0 {5}: You ?+6 | Dealer 10+7 >> Win{5}",
+            "T0 {$b}: You 10+6 | Dealer 10+7 >> Win{5}",
+            "T0 {5}: You 10+6 junk | Dealer 10+7 >> Win{5}",
+            "T0 {5}: YOU 10+6 | Dealer 10+7 >> Win{5}",
+            "T0 {5}: You 10+6 | Dealer 10+7 >> W in{5}",
+            "T0 {5}: You 10+6 | Dealer 10+7 >> xWin{5}",
+            "T0 {5}: You 10+6 | Dealer 10+7 >> Win{99999999999}",
+            "T0 {5}: You 10+6 | Dealer 10+7",
+            "# T0 {5}: You 10+6 | Dealer 10+7 >> Win{5}",
+            "Tö {5}: You 10+6 | Dealer 10+7 >> Win{5}",
+    };
+
+    public void testLines() {
+        for(String ray: RAYS)
+            assert same(ray) : ray;
+
+        for(String ray: ODD)
+            same(ray);
+    }
+
+    public void testSynthesized() {
+        Synthesizer synthesizer = new Synthesizer(11, 0.3);
+        SplittableRandom ran = new SplittableRandom(7);
+
+        int fast = 0;
+        for(long n=0; n < 20000; n++) {
+            String ray = Synthesizer.format(synthesizer.game(n));
+            if(same(ray))
+                fast++;
+
+            // The same line with a space somewhere
+            int at = ran.nextInt(ray.length() + 1);
+            same(ray.substring(0, at) + " " + ray.substring(at));
+        }
+
+        // Most lines are in the usual form
+        assert fast > 20000 / 2 : fast;
+    }
+
+    public void testCompile() throws Exception {
+        Synthesizer synthesizer = new Synthesizer(5);
+        StringBuilder sb = new StringBuilder("# fast\n");
+        for(long n=0; n < 5000; n++)
+            sb.append(Synthesizer.format(synthesizer.game(n))).append(n % 3 == 0 ? "\r\n" : "\n");
+        sb.append("Tx {5}: You 10+$c | Dealer 10+7 >>\n");
+        String corpus = sb.toString();
+        byte[] bytes = corpus.getBytes(StandardCharsets.UTF_8);
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "Fast", null));
+
+        Stats text = new Stats();
+        List<String> textErrors = new ArrayList<>();
+        List<Game> textGames = compiler.parse(new BufferedReader(new StringReader(corpus)), "fast", textErrors,
+                new CorpusValidator(1024), text);
+
+        Stats block = new Stats();
+        List<String> blockErrors = new ArrayList<>();
+        List<Game> blockGames = compiler.parse(new ByteArrayInputStream(bytes), "fast", blockErrors,
+                new CorpusValidator(1024), block);
+
+        assert blockErrors.equals(textErrors) : blockErrors;
+        assert blockGames.size() == textGames.size();
+        for(int k=0; k < textGames.size(); k++)
+            assert blockGames.get(k).toString().equals(textGames.get(k).toString());
+
+        assert block.lines == text.lines && block.games == text.games;
+        assert block.bytes == bytes.length;
+    }
+
+    /**
+     * Parses a line both ways.
+     * @return True if the line was parsed from its bytes
+     */
+    static boolean same(String ray) {
+        Parser parser = new Parser();
+        byte[] buf = ray.getBytes(StandardCharsets.UTF_8);
+        long[] structurals = new long[StructuralScanner.words(buf.length)];
+        long[] newlines = new long[StructuralScanner.words(buf.length)];
+        StructuralScanner.get().scan(buf, buf.length, structurals, newlines);
+
+        Game fast = parser.tryParse(buf, 0, buf.length, structurals);
+
+        Game game;
+        try {
+            game = parser.parse(ray);
+        }
+        catch(RuntimeException | AssertionError _) {
+            // Helper asserts on some cards
+            assert fast == null : ray;
+            return false;
+        }
+
+        if(fast == null)
+            return false;
+
+        assert fast.toString().equals(game.toString()) : ray + " " + fast + " " + game;
+        assert fast.source.equals(game.source) : ray;
+        assert fast.bets.equals(game.bets) : ray;
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.LanguageServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This class edits a document incrementally and checks its diagnostics, then talks to the server over a stream.
+ * @author Ron.Coleman
+ */
+public class LanguageServerTest extends TestCase {
+    static final String TEXT =
+            "# comment\n" +
+            "T1 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n" +
+            "T2 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\n";
+
+    public void testDocument() {
+        LanguageServer.Document document = new LanguageServer.Document(TEXT);
+
+        assert document.lines() == 4;
+        assert document.diagnostics().isEmpty();
+
+        // Rename T2 to T1
+        document.change(2, 1, 2, 2, "1");
+
+        List<LanguageServer.Diagnostic> diagnostics = document.diagnostics();
+        assert diagnostics.size() == 1;
+        assert diagnostics.getFirst().line() == 2;
+        assert diagnostics.getFirst().message().equals("duplicate label T1, first seen at line 2.");
+
+        // Delete the first T1, so the other one is no longer a duplicate
+        document.change(1, 0, 2, 0, "");
+        assert document.lines() == 3;
+        assert document.diagnostics().isEmpty();
+
+        // Drop the dealer
+        document.change(1, 17, 1, 33, "");
+        diagnostics = document.diagnostics();
+        assert diagnostics.size() == 1;
+        assert diagnostics.getFirst().message().equals("missing Dealer player.");
+
+        // Insert a new game line
+        document.change(0, 9, 0, 9, "\nT3 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}");
+        assert document.lines() == 4;
+        assert document.diagnostics().getFirst().line() == 2;
+    }
+
+    public void testTemplates() {
+        LanguageServer.Document document = new LanguageServer.Document(
+                "%param r = 2..9\n" +
+                "T$# {5}: You 10+$r | Dealer 10+7 >> Lose{5}\n" +
+                "D$# {5}: You 10+$r >> Lose{5}\n" +
+                "%param\n");
+
+        List<LanguageServer.Diagnostic> diagnostics = document.diagnostics();
+        assert diagnostics.size() == 2 : diagnostics;
+        assert diagnostics.get(0).line() == 2 && diagnostics.get(0).message().equals("D0: missing Dealer player.")
+                : diagnostics;
+        assert diagnostics.get(1).line() == 3 && diagnostics.get(1).message().startsWith("invalid parameter declaration");
+
+        // Without its declaration above it, a template is an error
+        document.change(0, 0, 1, 0, "");
+        diagnostics = document.diagnostics();
+        assert diagnostics.size() == 3 : diagnostics;
+        assert diagnostics.get(0).line() == 0;
+
+        // Declared again, the template is checked against the new declaration
+        document.change(0, 0, 0, 0, "%param r = 2..9\n");
+        diagnostics = document.diagnostics();
+        assert diagnostics.size() == 2 : diagnostics;
+        assert diagnostics.get(0).message().equals("D0: missing Dealer player.") : diagnostics;
+        assert document.diagnostics().equals(diagnostics);
+    }
+
+    public void testServer() throws Exception {
+        String uri = "file:///tmp/test.ray";
+        String input =
+                frame("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":{}}") +
+                frame("{\"jsonrpc\":\"2.0\",\"method\":\"textDocument/didOpen\",\"params\":{\"textDocument\":" +
+                        "{\"uri\":\""+uri+"\",\"languageId\":\"ray\",\"version\":1," +
+                        "\"text\":\"T0 {5}: You 3+10 >> Lose{5}\\n\"}}}") +
+                frame("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"shutdown\"}") +
+                frame("{\"jsonrpc\":\"2.0\",\"method\":\"exit\"}");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int rc = new LanguageServer(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out).run();
+
+        String output = out.toString(StandardCharsets.UTF_8);
+
+        assert rc == 0;
+        assert output.contains("\"textDocumentSync\"");
+        assert output.contains("textDocument/publishDiagnostics");
+        assert output.contains("missing Dealer player.");
+        assert output.contains("\"id\":2,\"result\":null");
+    }
+
+    public void testBadRequests() throws Exception {
+        String uri = "file:///tmp/test.ray";
+        String input =
+                frame("{\"jsonrpc\":\"2.0\",\"method\":\"textDocument/didOpen\",\"params\":{\"textDocument\":" +
+                        "{\"uri\":\""+uri+"\",\"languageId\":\"ray\",\"version\":1," +
+                        "\"text\":\"T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}\\n\"}}}") +
+                // No contentChanges, as a request
+                frame("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"textDocument/didChange\"," +
+                        "\"params\":{\"textDocument\":{\"uri\":\""+uri+"\"}}}") +
+                // Uri not a string, as a notification
+                frame("{\"jsonrpc\":\"2.0\",\"method\":\"textDocument/didOpen\"," +
+                        "\"params\":{\"textDocument\":{\"uri\":7,\"text\":\"\"}}}") +
+                // Range backwards
+                frame("{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"textDocument/didChange\"," +
+                        "\"params\":{\"textDocument\":{\"uri\":\""+uri+"\"},\"contentChanges\":[{\"text\":\"x\"," +
+                        "\"range\":{\"start\":{\"line\":0,\"character\":5},\"end\":{\"line\":0,\"character\":1}}}]}}") +
+                frame("{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"shutdown\"}") +
+                frame("{\"jsonrpc\":\"2.0\",\"method\":\"exit\"}");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int rc = new LanguageServer(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out).run();
+
+        String output = out.toString(StandardCharsets.UTF_8);
+
+        assert rc == 0 : output;
+        assert output.contains("\"id\":1,\"error\":{") : output;
+        assert output.contains("missing contentChanges.") : output;
+        assert output.contains("\"id\":2,\"error\":{") : output;
+        assert output.contains("invalid range.") : output;
+        assert output.contains("-32602") : output;
+        assert output.contains("\"id\":3,\"result\":null") : output;
+    }
+
+    static String frame(String body) {
+        return "Content-Length: "+body.getBytes(StandardCharsets.UTF_8).length+"\r\n\r\n"+body;
+    }
+}
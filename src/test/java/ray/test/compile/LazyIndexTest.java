@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.LineIndex;
+import ray.compiler.Parser;
+import ray.type.Player;
+
+/**
+ * This class exercises the lazy structural index against the full parser.
+ * @author Ron.Coleman
+ */
+public class LazyIndexTest extends TestCase {
+    static final String[] RAYS = {
+            "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+            "T0 { 5 }: You 3+10 | Dealer 4+10+7 >> Lose { 5 }",
+            "T12 {5}: You 7+7+P!{2+ 4,5+9} | Dealer 10+6 >> WIN{5}, PUSH{5}",
+            "T2 {5}: You 3+2+D!J | Dealer 7+10+4 >> Lose{5}",
+            "T8 {5,15}: You 3+3 | Dewey 9+2+5 | Dealer 10+7 >> Win{5}, Win{15}"
+    };
+
+    public void test() {
+        Parser parser = new Parser();
+
+        for(String ray: RAYS) {
+            LineIndex index = parser.index(ray);
+            assert index.game().toString().equals(parser.parse(ray).toString()) : ray;
+        }
+
+        LineIndex index = parser.index(RAYS[4]);
+        assert index.label().equals("T8");
+        assert index.betTotal() == 20;
+        assert index.seats() == 3;
+        assert index.who(1) == Player.Dewey;
+        assert index.seatOf(Player.Dealer) == 2;
+
+        index = parser.index(RAYS[2]);
+        assert index.directives() == 1;
+        assert index.directiveType(0) == 'P';
+        assert index.directiveSeat(0) == 0;
+        assert index.outcomes().size() == 2;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.Ledger;
+import ray.type.Player;
+import ray.type.Result;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class totals the bets and outcomes of a corpus by seat and result, on one thread and in shards.
+ * @author Ron.Coleman
+ */
+public class LedgerTest extends TestCase {
+    static final String CORPUS =
+            "# Ledger\n" +
+            "L1 {5}: You 10+6+H!5 | Dealer 10+7 >> Win{5}\n" +
+            "L2 {5,10}: Huey A+8 | You 10+2+H!5 | Dealer 10+6+4 >> Lose{5}, Lose{10}\n" +
+            "L3 {5}: You 5+6+D!9 | Dealer 9+8 >> Win{10}\n" +
+            "L4 {5}: You 8+8+P!{3+9,2+9} | Dealer 10+7 >> Win{5}, Push{5}\n" +
+            "L5 {10}: You A+K | Dealer 9+8 >> Blackjack{15}\n" +
+            "L6 {4}: Dewey 10+6+H!9 | Dealer 10+7 >> Break{4}\n" +
+            "L7 {5}: You 2+3+2+2+2 | Dealer 10+7 >> CHARLIE{10}\n" +
+            "T1 {5}: You 10+2 | Dealer 10+7 >>\n" +
+            "U1 {5}: You 10+2 | Dealer 10+7 >> Win{5}, Win{5}\n" +
+            "bad line\n" +
+            "X {$b}: You 10+2 | Dealer 10+7 >> Win{5}\n";
+
+    public void testPost() throws Exception {
+        Ledger ledger = new Ledger();
+        ledger.scan(new ByteArrayInputStream(CORPUS.getBytes(StandardCharsets.UTF_8)));
+
+        Ledger.Summary summary = ledger.summary();
+        assert summary.games() == 9 : summary;
+        assert summary.unsettled() == 1 : summary;
+        assert summary.unbalanced() == 1 : summary;
+        assert summary.skipped() == 2 : summary;
+        assert summary.hands() == 9 : summary;
+        assert summary.wagered() == 59 && summary.won() == 45 && summary.lost() == 19 : summary;
+        assert summary.net() == 26;
+
+        // A double stakes twice the bet, a split stakes the bet on each hand, and a push returns the stake
+        assert ledger.hands(Player.You, Result.WIN) == 3;
+        assert ledger.wagered(Player.You, Result.WIN) == 20;
+        assert ledger.won(Player.You, Result.WIN) == 20;
+        assert ledger.wagered(Player.You, Result.PUSH) == 5;
+        assert ledger.won(Player.You, Result.PUSH) == 0 && ledger.lost(Player.You, Result.PUSH) == 0;
+        assert ledger.wagered(Player.You, Result.BLACKJACK) == 10 && ledger.won(Player.You, Result.BLACKJACK) == 15;
+        assert ledger.won(Player.You, Result.CHARLIE) == 10;
+        assert ledger.lost(Player.Huey, null) == 5;
+        assert ledger.lost(Player.Dewey, Result.BUST) == 4;
+        assert ledger.lost(null, Result.LOSE) == 15;
+
+        StringWriter report = new StringWriter();
+        Ledger.write(new PrintWriter(report, true), List.of(ledger), false);
+        List<String> lines = report.toString().lines().toList();
+        assert lines.size() == 1 + 4 * 7 : lines.size();
+        assert lines.getFirst().equals("# shard\tseat\tresult\thands\twagered\twon\tlost\tnet");
+        assert lines.contains("all\tYou\tWIN\t3\t20\t20\t0\t20") : lines;
+        assert lines.contains("all\tYou\tall\t7\t50\t45\t10\t35") : lines;
+        assert lines.contains("all\tHuey\tCHARLIE\t0\t0\t0\t0\t0") : lines;
+        assert lines.getLast().equals("all\tall\tall\t9\t59\t45\t19\t26") : lines;
+    }
+
+    public void testTemplates() throws Exception {
+        Ledger ledger = new Ledger();
+        String corpus = "%param r = 2..9\n" +
+                "T$# {5}: You 10+$r | Dealer 10+7 >> Win{5}\n" +
+                "%param s = 5, 10\n" +
+                "B$# {$s}: You 10+9 | Dealer 10+7 >> Win{$s}\n" +
+                "S$# {5}: You 8+8+P!{3+$r,2+9} | Dealer 10+7 >> Win{5}, Push{5}\n" +
+                "X {$z}: You 10+2 | Dealer 10+7 >> Win{5}\n";
+        ledger.scan(new ByteArrayInputStream(corpus.getBytes(StandardCharsets.UTF_8)));
+
+        // Each game a template binds is posted with its bets, and an undeclared parameter is skipped
+        Ledger.Summary summary = ledger.summary();
+        assert summary.games() == 8 + 2 + 8 : summary;
+        assert summary.skipped() == 1 : summary;
+        assert summary.wagered() == 8 * 5 + 15 + 8 * 10 : summary;
+        assert summary.won() == 8 * 5 + 15 + 8 * 5 : summary;
+        assert ledger.hands(Player.You, Result.PUSH) == 8;
+
+        // Threads post a corpus with templates as one shard
+        Path dir = Files.createTempDirectory("ray-ledger");
+        Path path = dir.resolve("corpus.ray");
+        Files.writeString(path, corpus + CORPUS.repeat(40));
+        List<Ledger> shards = Ledger.analyze(path, 4, 2);
+        assert shards.size() == 1;
+        assert shards.getFirst().summary().games() == 18 + 9 * 40;
+    }
+
+    public void testShards() throws Exception {
+        Path dir = Files.createTempDirectory("ray-ledger");
+        Path corpus = dir.resolve("corpus.ray");
+        Files.writeString(corpus, CORPUS.repeat(40));
+
+        Ledger one = Ledger.analyze(corpus, 1);
+        Ledger three = Ledger.analyze(corpus, 3);
+        assert one.summary().games() == 9 * 40;
+        assert one.summary().wagered() == 59 * 40;
+        assert three.summary().toString().replaceAll(" in .*", "").equals(one.summary().toString().replaceAll(" in .*", ""));
+
+        // Shards add up to the whole and each is in the report
+        List<Ledger> shards = Ledger.analyze(corpus, 4, 2);
+        assert shards.size() == 4;
+        long wagered = 0;
+        for(Ledger shard: shards) {
+            assert shard.summary().games() > 0;
+            wagered += shard.summary().wagered();
+        }
+        assert wagered == one.summary().wagered();
+
+        StringWriter whole = new StringWriter();
+        Ledger.write(new PrintWriter(whole, true), List.of(one), false);
+        StringWriter sharded = new StringWriter();
+        Ledger.write(new PrintWriter(sharded, true), shards, true);
+        List<String> lines = sharded.toString().lines().toList();
+        assert lines.size() == 1 + 5 * 4 * 7;
+        assert lines.get(1).startsWith("0\tDewey\tWIN\t");
+        assert lines.get(lines.size() - 28).startsWith("all\t");
+        assert whole.toString().lines().skip(1).toList().equals(lines.subList(lines.size() - 28, lines.size()));
+
+        // Compressed input is one shard
+        Path gz = dir.resolve("corpus.ray.gz");
+        try(OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+            out.write(CORPUS.repeat(40).getBytes(StandardCharsets.UTF_8));
+        }
+        List<Ledger> compressed = Ledger.analyze(gz, 4, 2);
+        assert compressed.size() == 1;
+        assert compressed.getFirst().summary().net() == one.summary().net();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.Minimizer;
+import ray.compiler.Parser;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class puts games in equivalence classes under different rules and minimizes a corpus to them.
+ * @author Ron.Coleman
+ */
+public class MinimizerTest extends TestCase {
+    static final String CORPUS =
+            "# Corpus\n" +
+            "A1 {5}: You 10H+6 | Dealer K+7 >> Lose{5}\n" +
+            "A2 {5}: You QS+6C | Dealer 10 + 7 >> lose{5}\n" +
+            "A3 {10}: You J+6 | Dealer 10+7 >> Lose{10}\n" +
+            "B1 {5}: You 10+6+9 | Dealer 10+7 >> Bust{5}\n" +
+            "B2 {5}: You K+6+9D | Dealer J+7 >> Break{5}\n" +
+            "B3 {5}: You K+6+9D | Dealer J+7 >> Break{5}\n" +
+            "%param r = 2..3\n" +
+            "T$# {5}: You 10+$r | Dealer 10+7 >>\n" +
+            "bad line\n" +
+            "P1 {5}: You 8+8+P!{3+9,10+A} | Dealer 10+7 >> Win{5}, Win{5}\n" +
+            "P2 {5}: You 8+8+P!{3+9,K+A} | Dealer Q+7 >> Win{5}, Win{5}\n";
+
+    public void testKeys() {
+        Parser parser = new Parser();
+        Minimizer minimizer = new Minimizer();
+
+        String a1 = "A1 {5}: You 10H+6 | Dealer K+7 >> Lose{5}";
+        String a2 = "A2 {5}: You QS+6C | Dealer 10+7 >> LOSE{5}";
+        assert minimizer.key(parser.parse(a1)).equals(minimizer.key(parser.parse(a2)));
+
+        // Bets count by default
+        String a3 = "A3 {10}: You J+6 | Dealer 10+7 >> Lose{10}";
+        assert !minimizer.key(parser.parse(a1)).equals(minimizer.key(parser.parse(a3)));
+        assert new Minimizer(EnumSet.noneOf(Minimizer.Rule.class), 1).key(parser.parse(a1))
+                .equals(new Minimizer(Set.of(), 1).key(parser.parse(a3)));
+
+        Minimizer suits = new Minimizer(Minimizer.rules("suits,bets"), 1);
+        assert !suits.key(parser.parse(a1)).equals(suits.key(parser.parse(a2)));
+        assert suits.key(parser.parse(a1)).equals(suits.key(parser.parse("X {5}: You 10H+6 | Dealer Q+7 >> Lose{5}")));
+
+        Minimizer tens = new Minimizer(Minimizer.rules("TENS, bets"), 1);
+        assert !tens.key(parser.parse(a1)).equals(tens.key(parser.parse("X {5}: You JH+6 | Dealer K+7 >> Lose{5}")));
+        assert tens.key(parser.parse(a1)).equals(tens.key(parser.parse("X {5}: You 10D+6 | Dealer K+7 >> Lose{5}")));
+
+        // Seats, directives, and outcomes always count
+        assert !minimizer.key(parser.parse(a1)).equals(minimizer.key(parser.parse("X {5}: Huey 10+6 | Dealer K+7 >> Lose{5}")));
+        assert !minimizer.key(parser.parse("X {5}: You 5+6+D!9 | Dealer K+7 >> Win{10}"))
+                .equals(minimizer.key(parser.parse("X {10}: You 5+6+H!9 | Dealer K+7 >> Win{10}")));
+        assert !minimizer.key(parser.parse(a1)).equals(minimizer.key(parser.parse("X {5}: You 10+6 | Dealer K+7 >> Win{5}")));
+
+        assert Minimizer.rules("none").isEmpty();
+        try {
+            Minimizer.rules("suits,colors");
+            assert false;
+        }
+        catch(IllegalArgumentException e) {
+            assert e.getMessage().equals("unknown rule: 'colors'");
+        }
+    }
+
+    public void testMinimize() throws Exception {
+        StringWriter out = new StringWriter();
+        StringWriter report = new StringWriter();
+
+        Minimizer.Summary summary = new Minimizer().minimize(new BufferedReader(new StringReader(CORPUS)),
+                new PrintWriter(out, true), new PrintWriter(report, true));
+
+        assert summary.games() == 8;
+        assert summary.classes() == 4;
+        assert summary.kept() == 4;
+        assert summary.passed() == 4;
+
+        assert out.toString().equals(
+                "# Corpus\n" +
+                "A1 {5}: You 10H+6 | Dealer K+7 >> Lose{5}\n" +
+                "A3 {10}: You J+6 | Dealer 10+7 >> Lose{10}\n" +
+                "B1 {5}: You 10+6+9 | Dealer 10+7 >> Bust{5}\n" +
+                "%param r = 2..3\n" +
+                "T$# {5}: You 10+$r | Dealer 10+7 >>\n" +
+                "bad line\n" +
+                "P1 {5}: You 8+8+P!{3+9,10+A} | Dealer 10+7 >> Win{5}, Win{5}\n") : out;
+
+        List<String> lines = report.toString().lines().toList();
+        assert lines.size() == 1 + 8;
+        assert lines.get(2).equals("3\tA2\t0\tA1") : lines;
+        assert lines.get(6).equals("7\tB3\t2\tB1") : lines;
+        assert lines.get(8).equals("12\tP2\t3\tP1") : lines;
+
+        // Keeping two per class
+        out = new StringWriter();
+        summary = new Minimizer(Minimizer.rules("bets"), 2).minimize(new BufferedReader(new StringReader(CORPUS)),
+                new PrintWriter(out, true), null);
+        assert summary.classes() == 4 : summary;
+        assert summary.kept() == 7 : summary;
+        assert out.toString().contains("B2") && !out.toString().contains("B3");
+
+        // With suits counting
+        out = new StringWriter();
+        summary = new Minimizer(Minimizer.rules("suits,bets"), 1).minimize(new BufferedReader(new StringReader(CORPUS)),
+                new PrintWriter(out, true), null);
+        assert summary.classes() == 6 : summary;
+        assert summary.kept() == 6 : summary;
+        assert out.toString().contains("A2") && out.toString().contains("B2");
+        assert !out.toString().contains("B3");
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.DecisionScanner;
+import ray.compiler.StrategyChecker;
+import ray.compiler.StrategyTable;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class checks decisions against basic strategy under different rules, with and without annotations.
+ * @author Ron.Coleman
+ */
+public class StrategyCheckerTest extends TestCase {
+    static final String BOOK =
+            "# By the book\n" +
+            "B1 {5}: You 10+6 | Dealer 6+10+2 >> Win{5}\n" +
+            "B2 {5}: You 10+6+H!5 | Dealer 10+7 >> Win{5}\n" +
+            "B3 {5}: You 5+6+D!9 | Dealer 9+8 >> Win{10}\n" +
+            "B4 {5}: You 8+8+P!{3+9,2+9} | Dealer 10+7 >> Win{5}, Win{5}\n" +
+            "B5 {5,5}: Huey A+8 | You 10+2+H!5 | Dealer 10+6+4 >> Lose{5}, Lose{5}\n";
+
+    static final String OFF =
+            "D1 {5}: You 10+6 | Dealer 10+7 >> Lose{5}\n" +
+            "D2 {5}: You A+7+D!3 | Dealer 2+10+6 >> Win{10}\n" +
+            "D3 {5}: You 6+5+D!10 | Dealer A+6 >> Win{10}\n" +
+            "D4 {5}: You 2+2+P!{9+9,5+10} | Dealer 3+10+7 >> Push{5}, Lose{5}\n";
+
+    public void testTable() {
+        assert StrategyTable.rules("none").isEmpty();
+        assert StrategyTable.rules("H17, das").size() == 2;
+        try {
+            StrategyTable.rules("h17,enhc");
+            assert false;
+        }
+        catch(IllegalArgumentException e) {
+            assert e.getMessage().equals("unknown rule: 'enhc'");
+        }
+
+        String[][] cases = {
+                {"H3 H H H H H H H H H H", "line 1: unknown row 'H3'."},
+                {"# Short\nS18 S S S", "line 2: expected 10 actions for S18 but found 3."},
+                {"P8 P P P P P P P P P S", "line 1: unknown pair action 'S' for P8."},
+                {"H16 S S S S S H H H H R", "line 1: unknown action 'R' for H16."},
+                {"s17: H16 S S S S S H H H H H", "line 1: unknown rule: 's17'"}
+        };
+        for(String[] c: cases) {
+            try {
+                new StrategyTable(c[0], StrategyTable.rules("none"));
+                assert false : c[0];
+            }
+            catch(IllegalArgumentException e) {
+                assert e.getMessage().equals(c[1]) : e.getMessage();
+            }
+        }
+
+        // The rules change what is expected
+        assert expected(StrategyTable.rules("none"), "D2 {5}: You A+7+D!3 | Dealer 2+10+6 >> Win{10}").equals("S");
+        assert expected(StrategyTable.rules("h17"), "D2 {5}: You A+7+D!3 | Dealer 2+10+6 >> Win{10}").equals("D");
+        assert expected(StrategyTable.rules("none"), "D3 {5}: You 6+5+D!10 | Dealer A+6 >> Win{10}").equals("H");
+        assert expected(StrategyTable.rules("none"), "D4 {5}: You 2+2+P!{9+9,5+10} | Dealer 3+10+7 >> Push{5}, Lose{5}")
+                .equals("HHSHS");
+        assert expected(StrategyTable.rules("das"), "D4 {5}: You 2+2+P!{9+9,5+10} | Dealer 3+10+7 >> Push{5}, Lose{5}")
+                .equals("PHSHS");
+
+        // Doubles only on the two cards dealt, else hits or stands
+        assert expected(StrategyTable.rules("h17"), "X {5}: You A+2+5+H!K | Dealer 2+10+6 >> Win{5}").equals("HSS");
+        assert expected(StrategyTable.rules("none"), "X {5}: You 3+6+2 | Dealer 5+10+6 >> Lose{5}").equals("DH");
+
+        // Hands without a row are not expected to do anything
+        StrategyTable table = new StrategyTable("H16 S S S S S S S S S S", StrategyTable.rules("none"));
+        StringBuilder sb = new StringBuilder();
+        new DecisionScanner().scan("X {5}: You 10+2+4+H!5 | Dealer 10+7 >> Win{5}", d -> sb.append((int) table.expected(d)).append(','));
+        assert sb.toString().equals("0,83,0,") : sb;
+    }
+
+    public void testCheck() throws Exception {
+        StrategyChecker book = new StrategyChecker(new StrategyTable(StrategyTable.rules("none")));
+
+        StrategyChecker.Summary summary = book.check(stream(BOOK));
+        assert summary.ok() : summary.deviations();
+        assert summary.games() == 5;
+        assert summary.decisions() == 12 : summary;
+
+        summary = book.check(stream(BOOK + OFF));
+        assert summary.deviations().stream().map(Object::toString).toList().equals(List.of(
+                "line 7: D1: You H16 v 10: S, expected H.",
+                "line 8: D2: You S18 v 2: D, expected S.",
+                "line 9: D3: You H11 v A: D, expected H.",
+                "line 10: D4: You H4 pair v 3: P, expected H.")) : summary.deviations();
+
+        StrategyChecker las = new StrategyChecker(new StrategyTable(StrategyTable.rules("h17,das")));
+        summary = las.check(stream(BOOK + OFF));
+        assert summary.deviations().size() == 1;
+        assert summary.deviations().getFirst().label().equals("D1");
+
+        // Annotated deviations are intended, and an annotation before a game by the book is stale
+        String annotated = BOOK.replace("B2", "#! deviation\nB2") + "#! deviation: tests the dealer draw\n\n" + OFF;
+        summary = book.check(stream(annotated));
+        assert summary.intended() == 1 : summary;
+        assert summary.stale() == 1 : summary;
+        assert summary.deviations().size() == 3;
+        assert summary.deviations().getFirst().toString().startsWith("line 11: D2:") : summary.deviations();
+        assert !summary.ok();
+    }
+
+    public void testTemplates() throws Exception {
+        StrategyChecker book = new StrategyChecker(new StrategyTable(StrategyTable.rules("none")));
+
+        // Standing on 12 to 16 against a 10 deviates, an annotated template is one game, and blanks are solved
+        String corpus = "%param r = 2..6\n" +
+                "T$# {5}: You 10+$r | Dealer 10+7 >> Lose{5}\n" +
+                "#! deviation\n" +
+                "A$# {5}: You 10+$r | Dealer 10+7 >> Lose{5}\n" +
+                "Q1 {5}: You ?+? | Dealer 10+7 >> Win{5}\n" +
+                "bad line\n";
+        StrategyChecker.Summary summary = book.check(stream(corpus));
+        assert summary.games() == 11 : summary;
+        assert summary.skipped() == 1 : summary;
+        assert summary.intended() == 5 && summary.stale() == 0 : summary;
+        assert summary.deviations().size() == 6 : summary.deviations();
+        assert summary.deviations().getFirst().toString().equals("line 2: T0: You H12 v 10: S, expected H.")
+                : summary.deviations();
+
+        // Threads check the templates on one
+        Path dir = Files.createTempDirectory("ray-strategy");
+        Path path = dir.resolve("corpus.ray");
+        Files.writeString(path, corpus + BOOK.repeat(20));
+        StrategyChecker.Summary two = book.check(path, 2);
+        assert two.games() == 11 + 5 * 20 : two;
+        assert two.deviations().equals(summary.deviations());
+    }
+
+    public void testThreads() throws Exception {
+        Path dir = Files.createTempDirectory("ray-strategy");
+        Path corpus = dir.resolve("corpus.ray");
+
+        // An annotation across the middle of the corpus, where two threads cut it
+        String head = BOOK.repeat(20);
+        String annotation = "#! deviation: " + "x".repeat(200) + "\n";
+        String tail = "B1 {5}: You 10+6 | Dealer 6+10+2 >> Win{5}\n";
+        String text = head + annotation + OFF;
+        while(text.length() / 2 < head.length())
+            text += tail;
+        assert text.length() / 2 < head.length() + annotation.length();
+        Files.writeString(corpus, text);
+
+        StrategyChecker checker = new StrategyChecker(new StrategyTable(StrategyTable.rules("none")));
+        StrategyChecker.Summary one = checker.check(corpus, 1);
+        StrategyChecker.Summary two = checker.check(corpus, 2);
+
+        assert one.intended() == 1 : one;
+        assert two.intended() == 1 : two;
+        assert two.deviations().equals(one.deviations());
+        assert two.games() == one.games() && two.decisions() == one.decisions();
+        assert !one.deviations().isEmpty();
+        assert one.deviations().getFirst().label().equals("D2");
+    }
+
+    static String expected(Set<StrategyTable.Rule> rules, String line) {
+        StrategyTable table = new StrategyTable(rules);
+        StringBuilder sb = new StringBuilder();
+        assert new DecisionScanner().scan(line, d -> sb.append(table.expected(d)));
+        return sb.toString();
+    }
+
+    static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
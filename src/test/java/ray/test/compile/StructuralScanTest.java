@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.BlockReader;
+import ray.compiler.Parser;
+import ray.compiler.StructuralScanner;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class checks the structural bitmaps against a byte-at-a-time scan and
+ * bitmap-driven indexing against the parser.
+ * @author Ron.Coleman
+ */
+public class StructuralScanTest extends TestCase {
+    static final String STRUCTURALS = ":{}|+!>,\n";
+
+    public void testBitmaps() {
+        StructuralScanner scanner = StructuralScanner.get();
+        System.out.println("scanner: "+scanner.name());
+
+        byte[] alphabet = "ab:{}|+!>,\n 0123456789".getBytes(StandardCharsets.US_ASCII);
+        Random ran = new Random(0);
+
+        for(int trial=0; trial < 1000; trial++) {
+            byte[] buf = new byte[ran.nextInt(300)];
+            for(int k=0; k < buf.length; k++)
+                buf[k] = alphabet[ran.nextInt(alphabet.length)];
+
+            int words = StructuralScanner.words(buf.length);
+            long[] structurals = new long[words];
+            long[] newlines = new long[words];
+            scanner.scan(buf, buf.length, structurals, newlines);
+
+            long[] expectedStructurals = new long[words];
+            long[] expectedNewlines = new long[words];
+            for(int k=0; k < buf.length; k++) {
+                if(STRUCTURALS.indexOf(buf[k]) >= 0)
+                    expectedStructurals[k >>> 6] |= 1L << k;
+                if(buf[k] == '\n')
+                    expectedNewlines[k >>> 6] |= 1L << k;
+            }
+
+            assert Arrays.equals(structurals, expectedStructurals) : "trial "+trial;
+            assert Arrays.equals(newlines, expectedNewlines) : "trial "+trial;
+        }
+    }
+
+    public void testLines() throws Exception {
+        String[] rays = {
+                "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+                "  T12 {5}: You 7+7+P!{2+ 4,5+9} | Dealer 10+6 >> WIN{5}, PUSH{5}",
+                "# comment",
+                "T8 {5,15}: You 3+3 | Dewey 9+2+5 | Dealer 10+7 >> Win{5}, Win{15}"
+        };
+
+        Parser parser = new Parser();
+
+        // A tiny block size forces lines across block boundaries
+        BlockReader reader = new BlockReader(
+                new ByteArrayInputStream(String.join("\n", rays).getBytes(StandardCharsets.UTF_8)), 16);
+
+        int lineno = 0;
+        while(reader.next()) {
+            String ray = rays[lineno++];
+            assert reader.lineno() == lineno;
+
+            if(reader.skippable())
+                continue;
+
+            assert reader.index(parser).game().toString().equals(parser.parse(ray).toString()) : ray;
+        }
+
+        assert lineno == rays.length;
+    }
+}
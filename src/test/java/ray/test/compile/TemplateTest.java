@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.compile;
+
+import junit.framework.TestCase;
+import ray.compiler.CorpusValidator;
+import ray.compiler.Expander;
+import ray.compiler.RayCompiler;
+import ray.engine.Engine;
+import ray.generator.ShoeOptions;
+import ray.generator.Synthesizer;
+import ray.model.Game;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class expands templates and checks they compile to the same shoe as their games written out.
+ * @author Ron.Coleman
+ */
+public class TemplateTest extends TestCase {
+    static final String TEMPLATES =
+            "# Templates\n" +
+            "%param r = 2..9, A\n" +
+            "%param s = H, S, D, C\n" +
+            "%param b = 5, 10\n" +
+            "T$# {$b}: You 10+$r$s | Dealer 10+7 >>\n" +
+            "P0 {5}: You 10+7 | Dealer 10+8 >> Lose{5}\n" +
+            "B$# {$b}: You A+K${s} | Dealer 10+7 >> Blackjack{${b*3/2}}\n" +
+            "%param who = Huey, Dewey\n" +
+            "S$# {$b,${b*2}}: You 8+8+P!{3+$r,10+A} | $who 10+2+D!$r | Dealer 10+6+Q >>\n";
+
+    public void testExpand() {
+        Expander expander = new Expander();
+        expander.declare("%param r = 2..10, J..K");
+        expander.declare("%param b = 5, 10");
+
+        Expander.Template template = expander.template("T$# {$b}: You 10+$r | Dealer 10+7 >> Win{${(b + 1) * 2 - 2}}");
+        assert template.size() == 24;
+        assert template.params().equals(List.of("b", "r"));
+
+        Game game = template.game(13);
+        assert game.label.equals("T13");
+        assert game.bets.equals(List.of(10));
+        assert game.you().cards.equals(List.of("10", "3"));
+        assert game.outcomes.toString().equals("[WIN{20}]");
+
+        assert template.game(23).you().cards.get(1).equals("K");
+    }
+
+    public void testCompile() throws Exception {
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(3, true, "Shoe01", "ShoeXyz", null))
+                .withFill(true).withVerify(true);
+
+        List<String> errors = new ArrayList<>();
+        List<Game> games = compiler.parse(new BufferedReader(new StringReader(TEMPLATES)), "templates", errors, new CorpusValidator());
+        assert errors.isEmpty() : errors;
+        assert games.size() == 72 + 1 + 8 + 36 : games.size();
+
+        // The games written out compile to the same shoe
+        StringBuilder expanded = new StringBuilder();
+        for(Game game: games)
+            expanded.append(Synthesizer.format(game)).append('\n');
+
+        assert expanded.indexOf("T17 {5}: You 10+6S | Dealer 10+7 >> Lose{5}\n") >= 0 : expanded;
+        assert expanded.indexOf("B7 {10}: You A+KC | Dealer 10+7 >> Blackjack{15}\n") >= 0 : expanded;
+        assert expanded.indexOf("S33 {10,20}: You 8+8+P!{3+9,10+A} | Dewey 10+2+D!9 | Dealer 10+6+Q >> Win{10}, Win{10}, Win{40}\n") >= 0 : expanded;
+
+        StringWriter fromTemplates = new StringWriter();
+        RayCompiler.Result result = compiler.compile(new StringReader(TEMPLATES), "templates", fromTemplates);
+        assert result.ok() && result.games() == games.size();
+
+        StringWriter fromGames = new StringWriter();
+        assert compiler.compile(new StringReader(expanded.toString()), "games", fromGames).ok();
+        assert undated(fromTemplates.toString()).equals(undated(fromGames.toString()));
+
+        // The list binds its games again when walked
+        Engine engine = new Engine();
+        List<String> mismatches = new ArrayList<>();
+        for(Game game: games)
+            assert engine.verify(game, mismatches) == 0 : mismatches;
+    }
+
+    public void testErrors() throws Exception {
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+
+        String ray = "%param r = 2..3\n" +
+                "%param s = H, X\n" +
+                "%param p = 2-3\n" +
+                "E$# {5}: You 10+$r$s | Dealer 10+7 >> Lose{5}\n" +
+                "F$# {5}: You 10+$q | Dealer 10+7 >> Lose{5}\n" +
+                "G$# {5}: You 10+$r | Dealer 10+7 >> Lose{${s+1}}\n" +
+                "H$# {5}: You 10+$r | Dealer 10+7 >>\n";
+
+        RayCompiler.Result result = compiler.compile(new StringReader(ray), "errors", new StringWriter());
+        assert result.errors().equals(List.of(
+                "line 3: parameter values must be letters or digits: '2-3'",
+                "line 4: game #1: invalid card suit: '2X'",
+                "line 4: game #3: invalid card suit: '3X'",
+                "line 5: undeclared parameter: 'q'",
+                "line 6: game #0: parameter s is not a number: 'H'",
+                "line 6: game #1: parameter s is not a number: 'X'",
+                "line 6: game #2: parameter s is not a number: 'H'",
+                "line 6: game #3: parameter s is not a number: 'X'",
+                "line 7: H0: expected outcomes=1 but found 0.",
+                "line 7: H1: expected outcomes=1 but found 0.")) : result.errors();
+
+        ray = "%param r = 1..100\nX$# {5}: You 10+$r | Dealer 10+7 >> Lose{5}\n";
+        result = compiler.compile(new StringReader(ray), "stops", new StringWriter());
+        assert result.errors().size() == 11;
+        assert result.errors().getLast().equals("line 2: template stopped after 10 bad games.") : result.errors();
+    }
+
+    /**
+     * Drops the date a shoe was generated, which differs if the compiles fall in different seconds.
+     */
+    static String undated(String shoe) {
+        return shoe.replaceFirst("// \\w{3} \\w{3} [ \\d]\\d \\d\\d:\\d\\d:\\d\\d .*", "");
+    }
+}
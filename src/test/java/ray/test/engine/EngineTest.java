@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.engine;
+
+import junit.framework.TestCase;
+import ray.compiler.Parser;
+import ray.compiler.RayCompiler;
+import ray.engine.Engine;
+import ray.generator.ShoeOptions;
+import ray.model.Game;
+import ray.type.Result;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class plays games whose outcomes are known, fills in missing ones, and checks that verifying allocates nothing.
+ * @author Ron.Coleman
+ */
+public class EngineTest extends TestCase {
+    static final String[] VALID = {
+            "lab02 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie {10}",
+            "T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}",
+            "B0 {10}: You A+K | Dealer 10+7 >> Blackjack{15}",
+            "B1 {5}: You AS+QH | Dealer A+K >> Push{5}",
+            "B2 {5}: You 10+9 | Dealer A+K >> Lose{5}",
+            "S0 {5}: You A+6+4 | Dealer 10+9 >> Win{5}",
+            "S1 {5}: You A+6+8+5 | Dealer 10+10 >> Push{5}",
+            "X0 {5}: You 10+6+9 | Dealer 10+7 >> Bust{5}",
+            "X1 {5}: You 10+6+9 | Dealer 10+6+8 >> Break{5}",
+            "W0 {5}: You 10+6 | Dealer 10+6+8 >> Win{5}",
+            "D0 {5}: You 5+6+D!10 | Dealer 10+7 >> Win{10}",
+            "P0 {5}: You 8+8+P!{3+9,10+A} | Dealer 10+7 >> Win{5}, Win{5}",
+            "P1 {5}: You A+A+P!{K,9} | Dealer 10+10 >> Win{5}, Push{5}",
+            "T5 {5,10,15}: Huey 10+2+H!5+3 | You 9+9 | Dewey 8+8+D!K | Dealer K+8 >> Win{5}, Push{10}, Bust{30}"
+    };
+
+    public void testOutcomes() {
+        Parser parser = new Parser();
+        Engine engine = new Engine();
+
+        for(String ray: VALID) {
+            List<String> errors = new ArrayList<>();
+            assert engine.verify(parser.parse(ray), errors) == 0 : ray+" "+errors;
+        }
+
+        Game game = parser.parse("T2 {5}: You 3+2+D!J | Dealer 7+10+4 >> Lose{5}, Win{5}");
+        List<String> errors = new ArrayList<>();
+        assert engine.verify(game, errors) == 2;
+        assert errors.get(0).equals("outcome #1 is LOSE{5} but the cards give LOSE{10}.") : errors;
+        assert errors.get(1).equals("the cards give 1 outcome(s) but found 2.") : errors;
+    }
+
+    public void testFill() throws Exception {
+        Parser parser = new Parser();
+        Engine engine = new Engine();
+
+        Game game = parser.parse("F0 {5,10}: You 10+9 | Huey A+J | Dealer 10+7 >>");
+        assert game.outcomes.isEmpty();
+        assert engine.fill(game);
+        assert engine.play(game) == 2;
+        assert engine.result(0) == Result.WIN && engine.amount(0) == 5;
+        assert engine.result(1) == Result.BLACKJACK && engine.amount(1) == 15;
+        assert game.outcomes.toString().equals("[WIN{5}, BLACKJACK{15}]");
+        assert !engine.fill(game);
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null));
+        String ray = "F0 {5}: You 10+9 | Dealer 10+7 >>\nT2 {5}: You 3+2+D!J | Dealer 7+10+4 >> Lose{5}\n";
+
+        assert !compiler.compile(new StringReader(ray), "fill", new StringWriter()).ok();
+
+        RayCompiler.Result result = compiler.withFill(true).compile(new StringReader(ray), "fill", new StringWriter());
+        assert result.ok() && result.games() == 2;
+
+        result = compiler.withFill(true).withVerify(true).compile(new StringReader(ray), "fill", new StringWriter());
+        assert result.errors().equals(List.of("line 2: outcome #1 is LOSE{5} but the cards give LOSE{10}.")) : result.errors();
+    }
+
+    public void testAllocation() {
+        Parser parser = new Parser();
+        Engine engine = new Engine();
+
+        Game[] games = new Game[VALID.length];
+        for(int k=0; k < games.length; k++)
+            games[k] = parser.parse(VALID[k]);
+
+        List<String> errors = new ArrayList<>();
+        for(int k=0; k < 200_000; k++)
+            engine.verify(games[k % games.length], errors);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().threadId();
+
+        long before = threads.getThreadAllocatedBytes(id);
+        int mismatches = 0;
+        for(int k=0; k < 1_000_000; k++)
+            mismatches += engine.verify(games[k % games.length], errors);
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assert mismatches == 0;
+        assert allocated < 1_000_000 : allocated+" bytes allocated";
+    }
+}
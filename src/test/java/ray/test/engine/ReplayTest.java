@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.engine;
+
+import junit.framework.TestCase;
+import ray.compiler.RayCompiler;
+import ray.engine.Replay;
+import ray.generator.CompactShoe;
+import ray.generator.ShoeOptions;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * This class replays a compact shoe and the same shoe recovered from its Java source at many tables.
+ * @author Ron.Coleman
+ */
+public class ReplayTest extends TestCase {
+    static final String GAMES =
+            "G0 {5}: You 10+7 | Dealer 10+8 >> Lose{5}\n" +
+            "G1 {5}: You 2+3+4+5+6 | Dealer Q+7 >> Charlie{10}\n" +
+            "G2 {10}: You A+K | Dealer 10+7 >> Blackjack{15}\n" +
+            "G3 {5}: You 5+6+D!10 | Dealer 10+6+2 >> Win{10}\n" +
+            "G4 {5}: You 8+8+P!{3+9,10+A} | Dealer 10+7 >> Win{5}, Win{5}\n" +
+            "G5 {5,10,15}: Huey 10+2+H!5+3 | You 9+9 | Dewey 8+8+D!K | Dealer K+8 >> Win{5}, Push{10}, Bust{30}\n" +
+            "G6 {5}: You 10+6+9 | Dealer 10+6 >> Bust{5}\n" +
+            "G7 {5}: You 9+8 | Dealer A+K >> Lose{5}\n";
+
+    public void test() throws Exception {
+        Path dir = Files.createTempDirectory("ray-replay");
+        Path ray = dir.resolve("games.ray");
+        Files.writeString(ray, GAMES);
+
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(7, true, "Shoe01", "Games", null));
+
+        Path compact = dir.resolve("games.rays");
+        assert compiler.compile(ray, compact).ok();
+        assert !Files.exists(dir.resolve(".games.rays"));
+
+        CompactShoe shoe = Replay.load(compact);
+        assert shoe.games() == 8;
+        assert shoe.label(4).equals("G4");
+        assert shoe.size() == 4 + 7 + 4 + 6 + 8 + 11 + 5 + 4;
+
+        Replay.Report report = new Replay(shoe, 500, 2, 0).run();
+        assert report.mismatches() == 0 : report.samples();
+        assert report.games() == 500 * 2 * 8;
+        assert report.hands() == 500 * 2 * 11;
+        assert report.latency().count() == report.games();
+
+        // The source has the same cards with the same suits
+        Path source = dir.resolve("Games.java");
+        assert compiler.compile(ray, source).ok();
+
+        CompactShoe recovered = Replay.load(source);
+        assert recovered.games() == 8;
+        assert Arrays.equals(Arrays.copyOf(recovered.cardInts(), recovered.size()), Arrays.copyOf(shoe.cardInts(), shoe.size()));
+        assert new Replay(recovered, 10, 1, 0).run().mismatches() == 0;
+
+        // The dealer stands on 16, so the replay draws the next game's card; G9 still replays from its own cards
+        Files.writeString(ray, "G8 {5}: You 10+7 | Dealer 10+6 >> Win{5}\nG9 {5}: You 10+7 | Dealer 10+8 >> Lose{5}\n");
+        assert compiler.compile(ray, compact).ok();
+
+        report = new Replay(Replay.load(compact), 4, 1, 0).run();
+        assert report.mismatches() == 4 : report;
+        assert report.samples().getFirst().startsWith("game G8: script expects WIN{5} with 4 cards but replay gives ") : report.samples();
+
+        // A corrupt script, here the seats of the first game, fails the replay rather than dropping its games
+        CompactShoe two = Replay.load(compact);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(compact));
+        bytes.putInt(5 * Integer.BYTES + two.size() * Integer.BYTES, 1000);
+        Files.write(compact, bytes.array());
+        try {
+            new Replay(Replay.load(compact), 4, 1, 0).run();
+            assert false;
+        }
+        catch(IllegalStateException e) {
+            assert e.getMessage().startsWith("table 0 failed: ") : e.getMessage();
+        }
+    }
+}
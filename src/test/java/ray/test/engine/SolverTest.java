@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.engine;
+
+import junit.framework.TestCase;
+import ray.compiler.CorpusValidator;
+import ray.compiler.Parser;
+import ray.compiler.RayCompiler;
+import ray.engine.Engine;
+import ray.engine.Solver;
+import ray.generator.ShoeOptions;
+import ray.generator.Synthesizer;
+import ray.model.Game;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class solves games written with blank cards and checks the cards give the outcomes as the table plays them.
+ * @author Ron.Coleman
+ */
+public class SolverTest extends TestCase {
+    static final String[] SPECS = {
+            "S0 {5}: You ?+? | Dealer ?+? >> Blackjack{7}",
+            "S1 {5}: You ?+? | Dealer ?+? >> Push{5}",
+            "S2 {10,10}: Huey ?+?+H!? | You 8+8+P!{?+?,?+?+?+?} | Dealer 6+? >> Bust{10}, Win{10}, Charlie{20}",
+            "S3 {5,5,5}: Huey ?+?+H!? | You ?+?+D!? | Dewey ?+? | Dealer ?+?+? >> Bust{5}, Win{10}, Lose{5}",
+            "S4 {5}: You ?+?+H!?+?+? | Dealer ?+? >> Charlie{10}",
+            "S5 {5}: You ?+? | Dealer A+? >> Lose{5}",
+            "S6 {5}: You 10+? | Dealer ?+?+?+?+? >> Win{5}",
+            "S7 {5,5}: You ?+? | Dewey ?+? | Dealer ?+? >> Lose{5}, Push{5}",
+            "S8 {25}: You ?+?+P!{?+?,?+?} | Dealer ?+?+? >> Win{25}, Lose{25}"
+    };
+
+    public void testSolve() {
+        Parser parser = new Parser();
+        Solver solver = new Solver();
+        Engine engine = new Engine();
+
+        for(String spec: SPECS) {
+            Game game = parser.parse(spec);
+            int blanks = (int) spec.chars().filter(c -> c == '?').count();
+            assert solver.solve(game) == blanks : spec;
+
+            String solved = Synthesizer.format(game);
+            assert !Solver.isBlank(solved) : solved;
+            assert game.source == null;
+
+            List<String> errors = new ArrayList<>();
+            assert engine.verify(game, errors) == 0 : solved+" "+errors;
+            assert solver.steps() < 100_000 : spec;
+
+            // The dealer draws only under 17 and stops at 17
+            List<String> dealer = game.dealer().cards;
+            for(int k=2; k < dealer.size(); k++)
+                assert total(dealer.subList(0, k)) < 17 : solved;
+            if(dealer.size() > 2)
+                assert total(dealer) >= 17 : solved;
+
+            // The same spec gives the same cards
+            Game again = parser.parse(spec);
+            solver.solve(again);
+            assert Synthesizer.format(again).equals(solved);
+        }
+
+        assert Synthesizer.format(parser.parse(SPECS[1])).contains("You ?+?");
+
+        // A split is of a pair
+        Game game = parser.parse(SPECS[8]);
+        solver.solve(game);
+        assert value(game.you().cards.get(0)) == value(game.you().cards.get(1));
+
+        // Specs alike but for their labels are dealt differently
+        Set<String> hands = new HashSet<>();
+        for(int k=0; k < 20; k++) {
+            game = parser.parse("L"+k+" {5}: You ?+?+H!? | Dealer ?+? >> Win{5}");
+            solver.solve(game);
+            hands.add(game.you().cards+" "+game.you().directive.extraCards);
+        }
+        assert hands.size() > 10 : hands;
+    }
+
+    public void testDecks() {
+        Parser parser = new Parser();
+        String spec = "D0 {5,5}: Huey A+A+A+A+7 | You 10+? | Dealer 10+7 >> Charlie{10}, Blackjack{7}";
+
+        try {
+            new Solver().solve(parser.parse(spec));
+            assert false;
+        }
+        catch(IllegalArgumentException e) {
+            assert e.getMessage().equals("no cards give the outcomes.");
+        }
+
+        Game game = parser.parse(spec);
+        new Solver(0, 2).solve(game);
+        assert game.you().cards.get(1).equals("A");
+
+        try {
+            new Solver().solve(parser.parse("D1 {5}: You A+A+A+A+A | Dealer ?+? >> Charlie{10}"));
+            assert false;
+        }
+        catch(IllegalArgumentException e) {
+            assert e.getMessage().equals("the cards need more than 1 deck(s).");
+        }
+    }
+
+    public void testErrors() {
+        Parser parser = new Parser();
+        Solver solver = new Solver();
+
+        String[][] cases = {
+                {"E0 {5}: You ?+? | Dealer 10+7 >>", "blank cards need outcomes to solve for."},
+                {"E1 {5}: You ?+? | Dealer 10+7 >> Win{10}", "no cards give the outcomes."},
+                {"E2 {5}: You ?+? | Dealer 10+7 >> Bust{5}", "no cards give the outcomes."},
+                {"E3 {5}: You ?+?+H!? | Dealer 10+7 >> Charlie{10}", "no cards give the outcomes."},
+                {"E4 {5}: You ?+? | Dealer 10+7 >> Win{5}, Win{5}", "expected outcomes=1 but found 2."},
+                // No one acts against a dealer blackjack
+                {"E5 {5}: You ?+?+D!? | Dealer A+K >> Lose{10}", "no cards give the outcomes."},
+                // A dealer at 17 stands
+                {"E6 {5}: You ?+? | Dealer 10+7+? >> Win{5}", "no cards give the outcomes."}
+        };
+
+        for(String[] c: cases) {
+            try {
+                solver.solve(parser.parse(c[0]));
+                assert false : c[0];
+            }
+            catch(IllegalArgumentException e) {
+                assert e.getMessage().equals(c[1]) : c[0]+" "+e.getMessage();
+            }
+        }
+    }
+
+    public void testCompile() throws Exception {
+        RayCompiler compiler = new RayCompiler(new ShoeOptions(3, true, "Shoe01", "ShoeXyz", null)).withVerify(true);
+
+        StringBuilder ray = new StringBuilder("# Specs\n");
+        for(String spec: SPECS)
+            ray.append(spec).append('\n');
+        ray.append("E1 {5}: You ?+? | Dealer 10+7 >> Win{10}\n");
+
+        List<String> errors = new ArrayList<>();
+        List<Game> games = compiler.parse(new BufferedReader(new StringReader(ray.toString())), "specs", errors,
+                new CorpusValidator());
+        assert errors.equals(List.of("line 11: no cards give the outcomes.")) : errors;
+        assert games.size() == SPECS.length;
+
+        StringWriter shoe = new StringWriter();
+        int end = ray.lastIndexOf("E1");
+        RayCompiler.Result result = compiler.compile(new StringReader(ray.substring(0, end)), "specs", shoe);
+        assert result.ok() : result.errors();
+        assert !shoe.toString().contains("?");
+        assert shoe.toString().contains("// Game "+Synthesizer.format(games.getFirst()));
+    }
+
+    public void testCompileDecks() throws Exception {
+        String ray = "D0 {5,5}: Huey A+A+A+A+7 | You 10+? | Dealer 10+7 >> Charlie{10}, Blackjack{7}\n";
+        ShoeOptions options = new ShoeOptions(0, false, "Shoe01", "ShoeXyz", null);
+
+        RayCompiler.Result result = new RayCompiler(options).compile(new StringReader(ray), "decks", new StringWriter());
+        assert !result.ok();
+
+        // The compiler solves with the decks in its settings
+        StringWriter shoe = new StringWriter();
+        result = new RayCompiler(options.withDecks(2)).compile(new StringReader(ray), "decks", shoe);
+        assert result.ok() : result.errors();
+        assert !shoe.toString().contains("?");
+    }
+
+    static int total(List<String> cards) {
+        int total = 0;
+        boolean ace = false;
+        for(String card: cards) {
+            total += value(card);
+            ace |= card.startsWith("A");
+        }
+        return ace && total + 10 <= 21 ? total + 10 : total;
+    }
+
+    static int value(String card) {
+        return switch(card.charAt(0)) {
+            case 'A' -> 1;
+            case 'K', 'Q', 'J', '1' -> 10;
+            default -> card.charAt(0) - '0';
+        };
+    }
+}
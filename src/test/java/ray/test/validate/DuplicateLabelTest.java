@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.validate;
+
+import junit.framework.TestCase;
+import ray.compiler.CorpusValidator;
+import ray.compiler.Parser;
+
+/**
+ * This class exercises duplicate label detection within and across files.
+ * @author Ron.Coleman
+ */
+public class DuplicateLabelTest extends TestCase {
+    public void test() {
+        Parser parser = new Parser();
+
+        // Start small to force the stripes to grow
+        CorpusValidator corpus = new CorpusValidator(16);
+
+        int file1 = corpus.file("test1.ray");
+        int file2 = corpus.file("test2.ray");
+
+        for(int k=0; k < 10000; k++)
+            assert corpus.check("T"+k, file1, k+1) == null;
+
+        String error = corpus.check(parser.parse("T0 {5}: You 3+10 | Dealer 4+10+7 >> Lose{5}"), file1, 10001);
+        assert error != null && error.contains("line 1.") : error;
+
+        error = corpus.check("T42", file2, 1);
+        assert error != null && error.contains("test1.ray") : error;
+
+        assert corpus.size() == 10000;
+    }
+}
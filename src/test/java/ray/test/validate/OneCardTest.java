@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.validate;
+
+/**
+ * This class tests that a hand of one card is invalid, the dealer's too.
+ *
+ * @author ronnc
+ */
+public class OneCardTest extends AbstractInvalidTest {
+    public void test() {
+        super.test("F0 {5}: You 10 | Dealer 10+7 >> Lose{5}");
+        super.test("F1 {5}: You 10+7 | Dealer 10 >> Win{5}");
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2026 Hexant, LLC
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package ray.test.validate;
+
+/**
+ * This class tests a You split, which has one outcome more than bets, a You double, and a You hit.
+ * @author Ron.Coleman
+ */
+public class YouSplitTest extends AbstractValidTest {
+    public void test() throws Exception {
+        super.test("T7 {5}: You 7+7+P!{2+4,5+9} | Dealer 10+6 >> Win{5}, Push{5}");
+        super.test("T2 {5}: You 3+2+D!J | Dealer 7+10+4 >> Lose{10}");
+        super.test("T6 {5}: You 3+4+H!J | Dealer 10+8 >> Lose{5}");
+    }
+}